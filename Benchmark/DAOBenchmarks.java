@@ -0,0 +1,225 @@
+package Benchmark;
+
+import DAO.DBConnection;
+import DAO.EmployeeDAOImpl;
+import DAO.HolidayDAOImpl;
+import DAO.SchemaMigrator;
+import Model.Employee;
+import Model.Holiday;
+import Model.Poste;
+import Model.Role;
+import Model.Type;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Stream;
+
+// Benchmarks JMH des chemins critiques des DAO et du contrôle de chevauchement.
+// Débit (ops/s) et percentiles de latence (mode SampleTime) pour chaque opération ;
+// l'allocation par opération est donnée par le profileur GC (-prof gc, activé par main()).
+//
+// Par défaut sur une base H2 embarquée en mode MySQL, créée par SchemaMigrator puis remplie :
+//   mvn package && java -cp target/benchmarks.jar Benchmark.DAOBenchmarks
+//   java -jar target/benchmarks.jar DAOBenchmarks -p employees=10000 -p holidays=50000 -prof gc
+// Sur une autre base (jetable : les lignes insérées sont supprimées à la fin) :
+//   java -jar target/benchmarks.jar DAOBenchmarks -jvmArgsAppend "-Dconges.db.url=jdbc:mysql://... -Dconges.db.user=..."
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(java.util.concurrent.TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Dconges.db.url=jdbc:h2:mem:bench;MODE=MySQL;DB_CLOSE_DELAY=-1;NON_KEYWORDS=MONTH",
+        "-Dconges.db.user=sa"})
+public class DAOBenchmarks {
+    private static final LocalDate FIRST_DAY = LocalDate.of(2020, 1, 1);
+
+    // Lignes insérées avant la mesure
+    @Param("1000")
+    public int employees;
+
+    @Param("5000")
+    public int holidays;
+
+    // Taille des lots insérés par holidayAddAll
+    @Param("100")
+    public int batch;
+
+    private final EmployeeDAOImpl employeeDAO = new EmployeeDAOImpl();
+    private final HolidayDAOImpl holidayDAO = new HolidayDAOImpl();
+
+    private int[] employeeIds;
+    private int[] seededHolidayIds;
+
+    // Congés insérés pendant une itération, supprimés à sa fin
+    private final List<Integer> inserted = new ArrayList<>();
+    private int firstFreeSlot;
+    private int insertCount;
+
+    @Setup(Level.Trial)
+    public void seed() throws SQLException {
+        SchemaMigrator.migrate();
+
+        List<Employee> employeeBatch = new ArrayList<>(employees);
+        for (int i = 0; i < employees; i++) {
+            employeeBatch.add(new Employee(nom(i), prenom(i), "employe" + i + "@conges.test", "06" + (10_000_000 + i),
+                    2000 + i % 3000, Role.values()[i % Role.values().length], Poste.values()[i % Poste.values().length]));
+        }
+        employeeDAO.addAll(employeeBatch);
+        employeeIds = employeeBatch.stream().mapToInt(Employee::getId).toArray();
+
+        List<Holiday> holidayBatch = new ArrayList<>();
+        List<Integer> ids = new ArrayList<>(holidays);
+        for (int i = 0; i < holidays; i++) {
+            holidayBatch.add(newHoliday(employeeIds[i % employees], i / employees));
+            if (holidayBatch.size() == 10_000 || i == holidays - 1) {
+                holidayDAO.addAll(holidayBatch);
+                holidayBatch.forEach(holiday -> ids.add(holiday.getId()));
+                holidayBatch.clear();
+            }
+        }
+        seededHolidayIds = ids.stream().mapToInt(Integer::intValue).toArray();
+        firstFreeSlot = holidays / Math.max(1, employees) + 1;
+    }
+
+    @TearDown(Level.Iteration)
+    public void deleteInserted() {
+        if (!inserted.isEmpty()) {
+            holidayDAO.deleteAll(inserted.stream().mapToInt(Integer::intValue).toArray());
+            inserted.clear();
+        }
+    }
+
+    // La base retrouve son état d'avant le benchmark
+    @TearDown(Level.Trial)
+    public void deleteSeeded() {
+        holidayDAO.deleteAll(seededHolidayIds);
+        employeeDAO.deleteAll(employeeIds);
+        DBConnection.shutdown();
+    }
+
+    @Benchmark
+    public List<Employee> employeeListAll() {
+        return employeeDAO.listAll();
+    }
+
+    @Benchmark
+    public List<Holiday> holidayListAll() {
+        return holidayDAO.listAll();
+    }
+
+    @Benchmark
+    public void employeeStreamAll(Blackhole blackhole) {
+        try (Stream<Employee> stream = employeeDAO.streamAll()) {
+            stream.forEach(blackhole::consume);
+        }
+    }
+
+    @Benchmark
+    public List<Employee> employeeListPage() {
+        return employeeDAO.listPage(anyOf(employeeIds), 200);
+    }
+
+    @Benchmark
+    public Employee employeeFindById() {
+        return employeeDAO.findById(anyOf(employeeIds));
+    }
+
+    @Benchmark
+    public Holiday holidayFindById() {
+        return holidayDAO.findById(anyOf(seededHolidayIds));
+    }
+
+    @Benchmark
+    public int nameResolution() {
+        int k = ThreadLocalRandom.current().nextInt(employees);
+        return holidayDAO.getEmployeeIdByName(nom(k) + " " + prenom(k));
+    }
+
+    @Benchmark
+    public boolean conflictCheck() {
+        LocalDate start = FIRST_DAY.plusDays(ThreadLocalRandom.current().nextInt(2000));
+        return holidayDAO.getConflictEngine().hasConflict(anyOf(employeeIds), start, start.plusDays(5));
+    }
+
+    // Mise à jour avec verrouillage optimiste : lecture de la version puis écriture conditionnelle
+    @Benchmark
+    public Object employeeUpdate() {
+        int id = anyOf(employeeIds);
+        Employee employee = employeeDAO.findById(id);
+        employee.setSalaire(employee.getSalaire() + 1);
+        return employeeDAO.update(employee, id);
+    }
+
+    @Benchmark
+    public int holidayAdd() {
+        Holiday holiday = newHoliday(anyOf(employeeIds), nextSlot());
+        holidayDAO.add(holiday);
+        inserted.add(holiday.getId());
+        return holiday.getId();
+    }
+
+    @Benchmark
+    public void holidayAddAll(Blackhole blackhole) {
+        List<Holiday> rows = new ArrayList<>(batch);
+        int n = nextSlot();
+        for (int row = 0; row < batch; row++) {
+            rows.add(newHoliday(employeeIds[row % employeeIds.length], n));
+        }
+        blackhole.consume(holidayDAO.addAll(rows));
+        for (Holiday holiday : rows) {
+            inserted.add(holiday.getId());
+        }
+    }
+
+    // Tous les benchmarks de la classe, avec l'allocation par opération
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(DAOBenchmarks.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+
+    // Périodes après celles du jeu de données, sur un nombre borné d'années (type DATE de MySQL)
+    private int nextSlot() {
+        return firstFreeSlot + insertCount++ % 1000;
+    }
+
+    private static int anyOf(int[] ids) {
+        return ids[ThreadLocalRandom.current().nextInt(ids.length)];
+    }
+
+    // Le n-ième congé d'un employé : périodes de 3 jours espacées de 10 jours, sans chevauchement
+    private static Holiday newHoliday(int employeeId, int n) {
+        LocalDate start = FIRST_DAY.plusDays(10L * n);
+        return new Holiday(employeeId, start, start.plusDays(2), Type.values()[n % Type.values().length]);
+    }
+
+    private static String nom(int i) {
+        return "Nom" + i;
+    }
+
+    private static String prenom(int i) {
+        return "Prenom" + i;
+    }
+}
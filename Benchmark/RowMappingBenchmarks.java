@@ -0,0 +1,254 @@
+package Benchmark;
+
+import DAO.DAOMetrics;
+import DAO.RowMappers;
+import Model.Employee;
+import Model.Holiday;
+import Model.Poste;
+import Model.Role;
+import Model.Type;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+// Débit de la conversion des lignes en objets : ancien code des DAO (colonnes par libellé,
+// toUpperCase + valueOf) contre RowMappers (colonnes résolues une fois, enums par table).
+// Sans base : le ResultSet est simulé en mémoire comme un pilote JDBC (recherche du libellé
+// insensible à la casse, nouvelle chaîne à chaque getString). Une opération = un ResultSet lu.
+//   java -jar target/benchmarks.jar RowMappingBenchmarks -p rows=10000 -p invalidPercent=1 -prof gc
+// invalidPercent : rôles invalides dans rowMappersDirtyEmployees (l'ancien listAll() échoue dessus).
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RowMappingBenchmarks {
+    private static final String[] EMPLOYEE_COLUMNS = {"id", "nom", "prenom", "email", "phone", "salaire", "role",
+            "poste", "holidayBalance", "fullName", "version"};
+    private static final String[] HOLIDAY_COLUMNS = {"id", "employeeId", "employeeName", "startDate", "endDate",
+            "type", "version"};
+
+    // Lignes par ResultSet
+    @Param("10000")
+    public int rows;
+
+    @Param("1")
+    public int invalidPercent;
+
+    private Object[][] employees;
+    private Object[][] dirtyEmployees;
+    private Object[][] holidays;
+
+    @Setup(Level.Trial)
+    public void createRows() {
+        employees = employeeRows(rows, 0);
+        dirtyEmployees = employeeRows(rows, invalidPercent);
+        holidays = holidayRows(rows);
+    }
+
+    // Compteurs des valeurs invalides rencontrées (rôles remplacés par la valeur par défaut)
+    @TearDown(Level.Trial)
+    public void printCounters() {
+        Map<String, Long> counters = DAOMetrics.shared().getCounters();
+        if (!counters.isEmpty()) {
+            System.out.println("compteurs : " + counters);
+        }
+    }
+
+    @Benchmark
+    public List<Employee> legacyEmployeeListAll() throws SQLException {
+        return legacyListAll(resultSet(EMPLOYEE_COLUMNS, employees));
+    }
+
+    @Benchmark
+    public void legacyMapEmployee(Blackhole blackhole) throws SQLException {
+        ResultSet rs = resultSet(EMPLOYEE_COLUMNS, employees);
+        while (rs.next()) {
+            blackhole.consume(legacyMapEmployee(rs));
+        }
+    }
+
+    @Benchmark
+    public List<Employee> rowMappersEmployees() throws SQLException {
+        return RowMappers.EMPLOYEE.readAll(resultSet(EMPLOYEE_COLUMNS, employees), new ArrayList<>(rows));
+    }
+
+    @Benchmark
+    public List<Employee> rowMappersDirtyEmployees() throws SQLException {
+        return RowMappers.EMPLOYEE.readAll(resultSet(EMPLOYEE_COLUMNS, dirtyEmployees), new ArrayList<>(rows));
+    }
+
+    @Benchmark
+    public void legacyMapHoliday(Blackhole blackhole) throws SQLException {
+        ResultSet rs = resultSet(HOLIDAY_COLUMNS, holidays);
+        while (rs.next()) {
+            blackhole.consume(legacyMapHoliday(rs));
+        }
+    }
+
+    @Benchmark
+    public List<Holiday> rowMappersHolidays() throws SQLException {
+        return RowMappers.HOLIDAY.readAll(resultSet(HOLIDAY_COLUMNS, holidays), new ArrayList<>(rows));
+    }
+
+    // Ancien EmployeeDAOImpl.listAll(), sans la connexion (lève une exception sur un rôle invalide)
+    private static List<Employee> legacyListAll(ResultSet rs) throws SQLException {
+        List<Employee> employees = new ArrayList<>();
+        while (rs.next()) {
+            String roleStr = rs.getString("role").toUpperCase();
+            String posteStr = rs.getString("poste").toUpperCase();
+
+            Role role = null;
+            Poste poste = null;
+            try {
+                role = Role.valueOf(roleStr);
+            } catch (IllegalArgumentException e) {
+                System.out.println("Role non valide : " + roleStr);
+                role = Role.EMPLOYE;
+            }
+
+            try {
+                poste = Poste.valueOf(posteStr);
+            } catch (IllegalArgumentException e) {
+                System.out.println("Poste non valide : " + posteStr);
+                poste = Poste.INGENIEURE_ETUDE_ET_DEVELOPPEMENT;
+            }
+
+            Employee employee = new Employee(
+                    rs.getString("nom"),
+                    rs.getString("prenom"),
+                    rs.getString("email"),
+                    rs.getString("phone"),
+                    rs.getDouble("salaire"),
+                    Role.valueOf(rs.getString("role")),
+                    Poste.valueOf(rs.getString("poste"))
+            );
+            employee.setId(rs.getInt("id"));
+            employees.add(employee);
+        }
+        return employees;
+    }
+
+    // Ancien EmployeeDAOImpl.mapEmployee() (listPage, findById, streamAll)
+    private static Employee legacyMapEmployee(ResultSet rs) throws SQLException {
+        Employee employee = new Employee(
+                rs.getString("nom"),
+                rs.getString("prenom"),
+                rs.getString("email"),
+                rs.getString("phone"),
+                rs.getDouble("salaire"),
+                Role.valueOf(rs.getString("role")),
+                Poste.valueOf(rs.getString("poste"))
+        );
+        employee.setId(rs.getInt("id"));
+        employee.setHolidayBalance(rs.getDouble("holidayBalance"));
+        employee.setVersion(rs.getInt("version"));
+        return employee;
+    }
+
+    // Ancien HolidayDAOImpl.mapHoliday()
+    private static Holiday legacyMapHoliday(ResultSet rs) throws SQLException {
+        Holiday holiday = new Holiday(
+                rs.getInt("id"),
+                rs.getString("employeeName"),
+                rs.getObject("startDate", LocalDate.class),
+                rs.getObject("endDate", LocalDate.class),
+                Type.valueOf(rs.getString("type"))
+        );
+        holiday.setEmployeeId(rs.getInt("employeeId"));
+        holiday.setVersion(rs.getInt("version"));
+        return holiday;
+    }
+
+    private static Object[][] employeeRows(int count, int invalidPercent) {
+        Object[][] rows = new Object[count][];
+        for (int i = 0; i < count; i++) {
+            String role = i % 100 < invalidPercent ? "STAGIAIRE" : Role.values()[i % Role.values().length].name();
+            rows[i] = new Object[]{i + 1, "Nom" + i, "Prenom" + i, "employe" + i + "@conges.test", "06" + (10_000_000 + i),
+                    2000.0 + i % 3000, role, Poste.values()[i % Poste.values().length].name(), 25.0,
+                    "Nom" + i + " Prenom" + i, i % 7};
+        }
+        return rows;
+    }
+
+    private static Object[][] holidayRows(int count) {
+        Object[][] rows = new Object[count][];
+        LocalDate first = LocalDate.of(2020, 1, 1);
+        for (int i = 0; i < count; i++) {
+            LocalDate start = first.plusDays(i % 2000);
+            rows[i] = new Object[]{i + 1, i % 1000 + 1, "Nom" + i % 1000 + " Prenom" + i % 1000, start, start.plusDays(2),
+                    Type.values()[i % Type.values().length].name(), 0};
+        }
+        return rows;
+    }
+
+    // ResultSet en avant seulement sur des lignes en mémoire : juste ce qu'utilisent les DAO
+    private static ResultSet resultSet(String[] columns, Object[][] rows) {
+        Map<String, Integer> indexes = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (int c = 0; c < columns.length; c++) {
+            indexes.put(columns[c], c + 1);
+        }
+        int[] cursor = {-1};
+        return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[]{ResultSet.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "next":
+                            return ++cursor[0] < rows.length;
+                        case "findColumn":
+                            return column(indexes, (String) args[0]);
+                        case "close":
+                            return null;
+                        case "wasNull":
+                            return false;
+                        default:
+                            break;
+                    }
+                    int column = args[0] instanceof String ? column(indexes, (String) args[0]) : (Integer) args[0];
+                    Object value = rows[cursor[0]][column - 1];
+                    switch (method.getName()) {
+                        case "getString":
+                            // Un pilote décode une nouvelle chaîne à chaque appel
+                            return value == null ? null : new String(value.toString().toCharArray());
+                        case "getInt":
+                            return ((Number) value).intValue();
+                        case "getDouble":
+                            return ((Number) value).doubleValue();
+                        case "getObject":
+                            return value;
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+
+    private static int column(Map<String, Integer> indexes, String label) throws SQLException {
+        Integer index = indexes.get(label);
+        if (index == null) {
+            throw new SQLException(String.format(Locale.ROOT, "Colonne inconnue : %s", label));
+        }
+        return index;
+    }
+}
@@ -0,0 +1,49 @@
+package Controller;
+
+import DAO.ChangeBus;
+import DAO.ChangeEvent;
+
+import javax.swing.SwingUtilities;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+// Abonnement au ChangeBus pour une vue : les événements reçus sur les threads d'écriture sont
+// regroupés et remis en un seul lot sur l'EDT (un import de 100 000 lignes ne poste pas
+// 100 000 tâches Swing).
+final class ChangeBatcher<T> implements AutoCloseable {
+    private final ConcurrentLinkedQueue<ChangeEvent<T>> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final Consumer<List<ChangeEvent<T>>> onEdt;
+    private final ChangeBus.Subscription subscription;
+
+    ChangeBatcher(Class<T> type, Consumer<List<ChangeEvent<T>>> onEdt) {
+        this.onEdt = onEdt;
+        this.subscription = ChangeBus.shared().subscribe(type, this::enqueue);
+    }
+
+    private void enqueue(ChangeEvent<T> event) {
+        pending.add(event);
+        if (scheduled.compareAndSet(false, true)) {
+            SwingUtilities.invokeLater(this::drain);
+        }
+    }
+
+    private void drain() {
+        scheduled.set(false);
+        List<ChangeEvent<T>> batch = new ArrayList<>();
+        for (ChangeEvent<T> event; (event = pending.poll()) != null; ) {
+            batch.add(event);
+        }
+        if (!batch.isEmpty()) {
+            onEdt.accept(batch);
+        }
+    }
+
+    @Override
+    public void close() {
+        subscription.close();
+    }
+}
@@ -1,26 +1,79 @@
 package Controller;
 
-import DAO.GenericDAO;
-import DAO.EmployeeDAOImpl;
+import DAO.CachingDAO;
+import DAO.ChangeEvent;
+import DAO.DAOFactory;
+import DAO.EmployeeSearchIndex;
+import DAO.LeaveBalanceLedger;
 import Model.Employee;
+import Model.Holiday;
 import Model.Poste;
 import Model.Role;
+import Service.AsyncDAOService;
+import Service.CsvTransfer;
 import View.EmployeeView;
 import View.HolidayView;
+import View.LazyTableModel;
+import View.TypeAhead;
 
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 public class EmployeeController {
     private final EmployeeView view;
-    private final GenericDAO<Employee> dao;
+    private final CachingDAO<Employee> dao;
+    private final AsyncDAOService<Employee> async;
     private final HolidayView holidayView;
+    private final LazyTableModel<Employee> tableModel;
+    private final OptimisticUpdate<Employee> updater;
+    // Employee shown in the form, as read: base version for the update and for merging concurrent edits
+    private Employee editing;
+
+    private static final String[] COLUMN_NAMES = {"ID", "Nom", "Prénom", "Email", "Téléphone", "Salaire", "Rôle", "Poste", "Solde"};
+    // Fields edited in the form, merged one by one when another operator changed the employee meanwhile
+    private static final String[] FORM_FIELDS = {"Nom", "Prénom", "Email", "Téléphone", "Salaire", "Rôle", "Poste"};
+    // Number of rows fetched per round trip, and number of pages kept in memory
+    private static final int PAGE_SIZE = 200;
+    private static final int MAX_CACHED_PAGES = 20;
+    // Entity cache in front of the DAO: bounded size and time to live
+    private static final int CACHE_SIZE = 10_000;
+    private static final long CACHE_TTL_MS = 5 * 60 * 1000L;
+    // Beyond this many changes in one batch (e.g. an import), the id list is reloaded once
+    private static final int FULL_RELOAD_THRESHOLD = 1000;
+    // Suggestions shown under the search field
+    private static final int SUGGESTIONS = 20;
 
     public EmployeeController(EmployeeView view, HolidayView holidayView) {
         this.view = view;
-        this.dao = new EmployeeDAOImpl();
+        this.dao = new CachingDAO<>(DAOFactory.employeeDAO(), Employee::getId, CACHE_SIZE, CACHE_TTL_MS);
+        this.async = new AsyncDAOService<>(dao);
         this.holidayView = holidayView;
+        this.tableModel = new LazyTableModel<>(COLUMN_NAMES, async::listPage, EmployeeController::employeeColumn,
+                Employee::getId, PAGE_SIZE, MAX_CACHED_PAGES, AsyncDAOService.EDT);
+        view.employeeTable.setModel(tableModel);
+        // A page that cannot be read would otherwise leave blank rows with no explanation
+        tableModel.setLoadErrorListener(error -> JOptionPane.showMessageDialog(view,
+                "Erreur lors de la lecture des employés : " + AsyncDAOService.unwrap(error).getMessage()));
+        // Write-behind: a queued change the database refused is reported once the flusher gives up on it
+        DAOFactory.setWriteBehindRejectionListener(message -> SwingUtilities.invokeLater(() ->
+                JOptionPane.showMessageDialog(view, message, "Écriture différée", JOptionPane.WARNING_MESSAGE)));
+        this.updater = new OptimisticUpdate<>(view, "L'employé", FORM_FIELDS,
+                EmployeeController::formFields, EmployeeController::withFormFields);
+        async.setProgressListener(busy -> view.progressBar.setVisible(busy));
+        // Load leave balances off the EDT; the balance column repaints once they are in memory
+        onEdt(async.submit(() -> {
+            LeaveBalanceLedger.shared().preload();
+            return true;
+        }), loaded -> tableModel.fireTableDataChanged());
+        // Build the search index off the EDT so that the first keystroke is answered at once
+        async.submit(() -> {
+            EmployeeSearchIndex.shared().preload();
+            return true;
+        });
+        new TypeAhead<>(view.searchField, this::searchEmployees, this::showEmployee);
 
         // Listener for the Add button
         view.addButton.addActionListener(e -> addEmployee());
@@ -34,6 +87,10 @@ public class EmployeeController {
         // Listener for the Modify button
         view.modifyButton.addActionListener(e -> modifyEmployee());
 
+        // Listeners for the CSV import / export buttons
+        view.importButton.addActionListener(e -> importEmployees());
+        view.exportButton.addActionListener(e -> exportEmployees());
+
         // ActionListener for the "Manage Holidays" button
         view.switchViewButton.addActionListener(e -> {
             view.setVisible(false);
@@ -45,35 +102,118 @@ public class EmployeeController {
             if (!e.getValueIsAdjusting()) {
                 int selectedRow = view.employeeTable.getSelectedRow();
                 if (selectedRow != -1) {
-                    // Get data from the selected row
-                    int id = (int) view.employeeTable.getValueAt(selectedRow, 0);
-                    String nom = (String) view.employeeTable.getValueAt(selectedRow, 1);
-                    String prenom = (String) view.employeeTable.getValueAt(selectedRow, 2);
-                    String email = (String) view.employeeTable.getValueAt(selectedRow, 3);
-                    String phone = (String) view.employeeTable.getValueAt(selectedRow, 4);
-                    double salaire = (double) view.employeeTable.getValueAt(selectedRow, 5);
-                    Role role = Role.valueOf(view.employeeTable.getValueAt(selectedRow, 6).toString());
-                    Poste poste = Poste.valueOf(view.employeeTable.getValueAt(selectedRow, 7).toString());
-                  
-
-                    // Populate the modification fields with the selected row's values
-                    view.nameField.setText(nom);
-                    view.surnameField.setText(prenom);
-                    view.emailField.setText(email);
-                    view.phoneField.setText(phone);
-                    view.salaryField.setText(String.valueOf(salaire));
-                    view.roleCombo.setSelectedItem(role.toString());
-                    view.posteCombo.setSelectedItem(poste.toString());
-                    
-
-                    // Save the employee ID in the modify button's action command for update
-                    view.modifyButton.setActionCommand(String.valueOf(id));
+                    // Get data from the selected row (null while its page is still loading)
+                    Employee selected = tableModel.getRow(selectedRow);
+                    if (selected != null) {
+                        fillForm(selected);
+                    }
                 }
             }
         });
 
         // Load the list of employees at startup
         listEmployees();
+
+        // Committed changes, from this view or any other writer (including the write-behind
+        // flusher), are applied row by row instead of reloading the table
+        new ChangeBatcher<>(Employee.class, this::applyEmployeeChanges);
+        new ChangeBatcher<>(Holiday.class, this::applyHolidayChanges);
+    }
+
+    private void applyEmployeeChanges(List<ChangeEvent<Employee>> events) {
+        if (events.size() > FULL_RELOAD_THRESHOLD) {
+            dao.invalidateAll();
+            listEmployees();
+            return;
+        }
+        for (ChangeEvent<Employee> event : events) {
+            dao.invalidate(event.getId());
+            switch (event.getKind()) {
+                case CREATED: tableModel.rowInserted(event.getId()); break;
+                case UPDATED: tableModel.rowUpdated(event.getId(), event.getEntity()); break;
+                default: tableModel.rowDeleted(event.getId());
+            }
+        }
+    }
+
+    // A holiday change only moves its employee's balance: repaint that row. A deletion does not
+    // carry the employee, so the visible rows are repainted (no query either way)
+    private void applyHolidayChanges(List<ChangeEvent<Holiday>> events) {
+        for (ChangeEvent<Holiday> event : events) {
+            if (event.getKind() == ChangeEvent.Kind.DELETED) {
+                if (tableModel.getRowCount() > 0) {
+                    tableModel.fireTableRowsUpdated(0, tableModel.getRowCount() - 1);
+                }
+                return;
+            }
+        }
+        for (ChangeEvent<Holiday> event : events) {
+            tableModel.refreshRow(event.getEntity().getEmployeeId());
+        }
+    }
+
+    // Populates the modification fields with the employee's values
+    private void fillForm(Employee selected) {
+        int id = selected.getId();
+        String nom = selected.getNom();
+        String prenom = selected.getPrenom();
+        String email = selected.getEmail();
+        String phone = selected.getPhone();
+        double salaire = selected.getSalaire();
+        Role role = selected.getRole();
+        Poste poste = selected.getPoste();
+
+        view.nameField.setText(nom);
+        view.surnameField.setText(prenom);
+        view.emailField.setText(email);
+        view.phoneField.setText(phone);
+        view.salaryField.setText(String.valueOf(salaire));
+        view.roleCombo.setSelectedItem(role.toString());
+        view.posteCombo.setSelectedItem(poste.toString());
+
+        // Save the employee ID in the modify button's action command for update
+        view.modifyButton.setActionCommand(String.valueOf(id));
+        editing = selected;
+    }
+
+    private static Object[] formFields(Employee e) {
+        return new Object[]{e.getNom(), e.getPrenom(), e.getEmail(), e.getPhone(), e.getSalaire(), e.getRole(), e.getPoste()};
+    }
+
+    // Employee with the given form values, on top of current (id, version and balance)
+    private static Employee withFormFields(Employee current, Object[] values) {
+        Employee employee = new Employee((String) values[0], (String) values[1], (String) values[2], (String) values[3],
+                (Double) values[4], (Role) values[5], (Poste) values[6]);
+        employee.setId(current.getId());
+        employee.setVersion(current.getVersion());
+        employee.setHolidayBalance(current.getHolidayBalance());
+        return employee;
+    }
+
+    // Type-ahead lookup: answered on the EDT once the index is in memory, in the background before
+    private CompletableFuture<List<EmployeeSearchIndex.Match>> searchEmployees(String query) {
+        EmployeeSearchIndex index = EmployeeSearchIndex.shared();
+        if (index.isLoaded()) {
+            return CompletableFuture.completedFuture(index.search(query, SUGGESTIONS));
+        }
+        return async.latest("search", () -> index.search(query, SUGGESTIONS));
+    }
+
+    // Selects and scrolls to the chosen employee, then fills the form (reading the row if its page is not loaded)
+    private void showEmployee(EmployeeSearchIndex.Match match) {
+        int row = tableModel.rowOf(match.getId());
+        if (row >= 0) {
+            view.employeeTable.setRowSelectionInterval(row, row);
+            view.employeeTable.scrollRectToVisible(view.employeeTable.getCellRect(row, 0, true));
+            if (tableModel.getRow(row) != null) {
+                return;
+            }
+        }
+        onEdt(async.findById(match.getId()), employee -> {
+            if (employee != null) {
+                fillForm(employee);
+            }
+        });
     }
 
     // Method to add an employee with validation
@@ -101,9 +241,7 @@ public class EmployeeController {
             Poste poste = Poste.valueOf(view.posteCombo.getSelectedItem().toString().toUpperCase());
 
             Employee employee = new Employee(nom, prenom, email, phone, salaire, role, poste);
-            dao.add(employee);
-            JOptionPane.showMessageDialog(view, "Employé ajouté avec succès.");
-            listEmployees(); // Refresh the list
+            onEdt(async.add(employee), v -> JOptionPane.showMessageDialog(view, "Employé ajouté avec succès."));
         } catch (NumberFormatException ex) {
             JOptionPane.showMessageDialog(view, "Salaire invalide.");
         } catch (Exception ex) {
@@ -111,17 +249,63 @@ public class EmployeeController {
         }
     }
 
+    // Imports a CSV file in the background; rejected lines are written next to it
+    private void importEmployees() {
+        JFileChooser chooser = new JFileChooser();
+        if (chooser.showOpenDialog(view) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        Path file = chooser.getSelectedFile().toPath();
+        onEdt(async.submit(() -> CsvTransfer.employeeImporter(dao).importFile(file)),
+                report -> JOptionPane.showMessageDialog(view, "Import terminé : " + report + "."));
+    }
+
+    // Streams every employee to a CSV file in the background
+    private void exportEmployees() {
+        JFileChooser chooser = new JFileChooser();
+        if (chooser.showSaveDialog(view) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        Path file = chooser.getSelectedFile().toPath();
+        onEdt(async.submit(() -> CsvTransfer.exportEmployees(dao, file)),
+                count -> JOptionPane.showMessageDialog(view, "Export terminé : " + count + " employé(s)."));
+    }
+
+    // Reloads the sorted id list; rows are then fetched page by page as they become visible.
+    // A newer refresh cancels one that is still running.
     private void listEmployees() {
-        List<Employee> employees = dao.listAll();
-        String[] columnNames = {"ID", "Nom", "Prénom", "Email", "Téléphone", "Salaire", "Rôle", "Poste"};
-        DefaultTableModel model = new DefaultTableModel(columnNames, 0);
+        onEdt(async.refreshIds(), tableModel::setIds);
+    }
 
-        for (Employee emp : employees) {
-            Object[] row = {emp.getId(), emp.getNom(), emp.getPrenom(), emp.getEmail(), emp.getPhone(), emp.getSalaire(), emp.getRole(), emp.getPoste()};
-            model.addRow(row);
+    // Runs the continuation on the EDT once the DAO call completes, reporting failures in a dialog
+    private <R> void onEdt(CompletableFuture<R> future, Consumer<R> onSuccess) {
+        future.whenCompleteAsync((result, error) -> {
+            if (error == null) {
+                onSuccess.accept(result);
+            } else if (!future.isCancelled()) {
+                JOptionPane.showMessageDialog(view, "Erreur: " + AsyncDAOService.unwrap(error).getMessage());
+            }
+        }, AsyncDAOService.EDT);
+    }
+
+    private static Object employeeColumn(Employee emp, int column) {
+        switch (column) {
+            case 0: return emp.getId();
+            case 1: return emp.getNom();
+            case 2: return emp.getPrenom();
+            case 3: return emp.getEmail();
+            case 4: return emp.getPhone();
+            case 5: return emp.getSalaire();
+            case 6: return emp.getRole();
+            case 7: return emp.getPoste();
+            default: return balanceOf(emp);
         }
+    }
 
-        view.employeeTable.setModel(model);
+    // Up-to-date balance from the ledger once loaded, otherwise the value read with the row
+    private static double balanceOf(Employee emp) {
+        LeaveBalanceLedger ledger = LeaveBalanceLedger.shared();
+        return ledger.isLoaded() ? ledger.getBalance(emp.getId()) : emp.getHolidayBalance();
     }
 
     private void deleteEmployee() {
@@ -144,9 +328,7 @@ public class EmployeeController {
                     JOptionPane.YES_NO_OPTION);
 
             if (confirm == JOptionPane.YES_OPTION) {
-                dao.delete(id);
-                JOptionPane.showMessageDialog(view, "Employé supprimé avec succès.");
-                listEmployees();
+                onEdt(async.delete(id), v -> JOptionPane.showMessageDialog(view, "Employé supprimé avec succès."));
             } else {
                 JOptionPane.showMessageDialog(view, "Suppression annulée.");
             }
@@ -184,10 +366,17 @@ public class EmployeeController {
                 Poste poste = Poste.valueOf(view.posteCombo.getSelectedItem().toString().toUpperCase());
 
                 Employee updatedEmployee = new Employee(nom, prenom, email, phone, salaire, role, poste);
-                dao.update(updatedEmployee, id);
-
-                JOptionPane.showMessageDialog(view, "Employé mis à jour avec succès.");
-                listEmployees();
+                updatedEmployee.setId(id);
+                // Only written if nobody changed the employee since it was shown; otherwise merged and retried
+                updatedEmployee.setVersion(editing.getVersion());
+                updater.submit(async, editing, updatedEmployee, employee -> dao.update(employee, id),
+                        (saved, merged) -> {
+                            fillForm(saved);
+                            JOptionPane.showMessageDialog(view, merged
+                                    ? "Employé mis à jour avec succès (fusionné avec la modification d'un autre utilisateur)."
+                                    : "Employé mis à jour avec succès.");
+                        },
+                        this::fillForm);
             } else {
                 JOptionPane.showMessageDialog(view, "Veuillez sélectionner un employé à modifier.");
             }
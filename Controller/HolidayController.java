@@ -1,176 +1,428 @@
 package Controller;
 
-import DAO.DBConnection;
-import DAO.HolidayDAOImpl;
+import DAO.AbsenceIndex;
+import DAO.CachingDAO;
+import DAO.ChangeEvent;
+import DAO.DAOFactory;
+import DAO.EmployeeNameIndex;
+import DAO.EmployeeSearchIndex;
+import DAO.HolidayDAO;
+import DAO.UpdateResult;
+import Model.Employee;
 import Model.Holiday;
+import Model.Poste;
+import Model.Role;
 import Model.Type;
+import Model.WorkingCalendar;
+import Service.AsyncDAOService;
+import Service.CsvTransfer;
 import View.HolidayView;
+import View.LazyTableModel;
+import View.TypeAhead;
 
 import javax.swing.*;
+import javax.swing.text.JTextComponent;
 
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
-import java.sql.SQLException;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.time.temporal.IsoFields;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 public class HolidayController {
     private final HolidayView view;
-    private final HolidayDAOImpl dao;
+    private final HolidayDAO dao;
+    private final AsyncDAOService<Holiday> async;
+    private final CachingDAO<Holiday> cache;
+    private final LazyTableModel<Holiday> tableModel;
+    // IDs des employés de la liste déroulante, dans l'ordre des éléments (croissant)
+    private final List<Integer> employeeIds = new ArrayList<>();
+    private final OptimisticUpdate<Holiday> updater;
+    // Congé affiché dans le formulaire, tel que lu : version de référence de la modification
+    private Holiday editing;
+    private final AbsenceIndex absences;
+    // Premier jour du trimestre affiché dans l'onglet des absences
+    private LocalDate heatmapFrom = LocalDate.now().with(IsoFields.DAY_OF_QUARTER, 1);
+
+    private static final String[] COLUMN_NAMES = {"ID", "Employé", "Date Début", "Date Fin", "Type"};
+    // Champs du formulaire, fusionnés un à un si un autre utilisateur a modifié le congé entre-temps
+    private static final String[] FORM_FIELDS = {"Employé", "Période", "Type"};
+    // Nombre de lignes lues par aller-retour, et nombre de pages gardées en mémoire
+    private static final int PAGE_SIZE = 200;
+    private static final int MAX_CACHED_PAGES = 20;
+    // Cache des congés devant le DAO : taille bornée et durée de vie
+    private static final int CACHE_SIZE = 10_000;
+    private static final long CACHE_TTL_MS = 5 * 60 * 1000L;
+    // Au-delà de ce nombre de changements dans un lot (ex. import), la liste des IDs est relue une fois
+    private static final int FULL_RELOAD_THRESHOLD = 1000;
+    // Suggestions affichées sous la saisie du nom
+    private static final int SUGGESTIONS = 20;
 
     public HolidayController(HolidayView view) {
         this.view = view;
-        this.dao = new HolidayDAOImpl();
+        this.dao = DAOFactory.holidayDAO();
+        this.cache = new CachingDAO<>(dao, Holiday::getId, CACHE_SIZE, CACHE_TTL_MS);
+        this.async = new AsyncDAOService<>(cache);
+        this.tableModel = new LazyTableModel<>(COLUMN_NAMES, async::listPage, HolidayController::holidayColumn,
+                Holiday::getId, PAGE_SIZE, MAX_CACHED_PAGES, AsyncDAOService.EDT);
+        view.holidayTable.setModel(tableModel);
+        // Page illisible : les lignes resteraient vides sans explication
+        tableModel.setLoadErrorListener(error -> JOptionPane.showMessageDialog(view,
+                "Erreur lors de la lecture des congés : " + AsyncDAOService.unwrap(error).getMessage()));
+        this.updater = new OptimisticUpdate<>(view, "Le congé", FORM_FIELDS,
+                HolidayController::formFields, HolidayController::withFormFields);
+        async.setProgressListener(busy -> view.progressBar.setVisible(busy));
 
         loadEmployeeNames();
         refreshHolidayTable();
 
+        // Saisie de l'employé avec suggestions (nom, prénom, email, téléphone, rôle, poste)
+        new TypeAhead<>((JTextComponent) view.employeeNameComboBox.getEditor().getEditorComponent(),
+                this::searchEmployees, match -> view.employeeNameComboBox.setSelectedItem(match.getFullName()));
+
+        // L'index des absences s'abonne au ChangeBus avant les lots ci-dessous : il est à jour
+        // quand la carte est recalculée après un changement
+        this.absences = dao.getAbsenceIndex();
+
+        // Changements validés (de cette vue, d'une autre ou du thread d'écriture différée) :
+        // appliqués ligne par ligne, sans relire la table ni la liste des employés
+        new ChangeBatcher<>(Holiday.class, this::applyHolidayChanges);
+        new ChangeBatcher<>(Employee.class, this::applyEmployeeChanges);
+
         view.addButton.addActionListener(e -> addHoliday());
         view.deleteButton.addActionListener(e -> deleteHoliday());
         view.modifyButton.addActionListener(e -> modifyHoliday());
+        view.importButton.addActionListener(e -> importHolidays());
+        view.exportButton.addActionListener(e -> exportHolidays());
+        view.tabs.addChangeListener(e -> refreshHeatmap());
+        view.heatmapGroupingCombo.addActionListener(e -> refreshHeatmap());
+        view.previousPeriodButton.addActionListener(e -> {
+            heatmapFrom = heatmapFrom.minusMonths(3);
+            refreshHeatmap();
+        });
+        view.nextPeriodButton.addActionListener(e -> {
+            heatmapFrom = heatmapFrom.plusMonths(3);
+            refreshHeatmap();
+        });
 
         view.holidayTable.getSelectionModel().addListSelectionListener(e -> {
             if (!e.getValueIsAdjusting()) {
                 int selectedRow = view.holidayTable.getSelectedRow();
                 if (selectedRow != -1) {
-                    int id = (int) view.holidayTable.getValueAt(selectedRow, 0);
-                    String employeeName = (String) view.holidayTable.getValueAt(selectedRow, 1);
-                    String startDate = (String) view.holidayTable.getValueAt(selectedRow, 2);
-                    String endDate = (String) view.holidayTable.getValueAt(selectedRow, 3);
-                    Type type = Type.valueOf(view.holidayTable.getValueAt(selectedRow, 4).toString());
-
-                    view.employeeNameComboBox.setSelectedItem(employeeName);
-                    view.startDateField.setText(startDate);
-                    view.endDateField.setText(endDate);
-                    view.typeCombo.setSelectedItem(type.toString());
-                    view.modifyButton.setActionCommand(String.valueOf(id));
+                    // null tant que la page de la ligne est en cours de chargement
+                    Holiday selected = tableModel.getRow(selectedRow);
+                    if (selected != null) {
+                        fillForm(selected);
+                    }
                 }
             }
         });
     }
 
+    // Remplit le formulaire avec le congé ; il sert de version de référence pour la modification
+    private void fillForm(Holiday selected) {
+        int id = selected.getId();
+        String employeeName = selected.getEmployeeName();
+        LocalDate startDate = selected.getStartDate();
+        LocalDate endDate = selected.getEndDate();
+        Type type = selected.getType();
+
+        view.employeeNameComboBox.setSelectedItem(employeeName);
+        view.startDateField.setText(startDate.toString());
+        view.endDateField.setText(endDate.toString());
+        view.typeCombo.setSelectedItem(type.toString());
+        view.modifyButton.setActionCommand(String.valueOf(id));
+        editing = selected;
+    }
+
+    // Les dates forment un seul champ : fusionner le début de l'un avec la fin de l'autre
+    // donnerait une période que personne n'a saisie
+    private static Object[] formFields(Holiday h) {
+        return new Object[]{h.getEmployeeName(), Arrays.asList(h.getStartDate(), h.getEndDate()), h.getType()};
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Holiday withFormFields(Holiday current, Object[] values) {
+        List<LocalDate> period = (List<LocalDate>) values[1];
+        Holiday holiday = new Holiday((String) values[0], period.get(0), period.get(1), (Type) values[2]);
+        holiday.setId(current.getId());
+        holiday.setVersion(current.getVersion());
+        return holiday;
+    }
+
     private void loadEmployeeNames() {
-        view.employeeNameComboBox.removeAllItems();
-        List<String> names = dao.getAllEmployeeNames();
+        onEdt(async.coalesce("employeeNames", dao::getEmployeeNamesById), names -> {
+            view.employeeNameComboBox.removeAllItems();
+            employeeIds.clear();
+            names.forEach((id, name) -> {
+                employeeIds.add(id);
+                view.employeeNameComboBox.addItem(name);
+            });
+        });
+    }
 
-        for (String name : names) {
-            view.employeeNameComboBox.addItem(name);
+    private void applyHolidayChanges(List<ChangeEvent<Holiday>> events) {
+        refreshHeatmap();
+        if (events.size() > FULL_RELOAD_THRESHOLD) {
+            cache.invalidateAll();
+            refreshHolidayTable();
+            return;
+        }
+        for (ChangeEvent<Holiday> event : events) {
+            cache.invalidate(event.getId());
+            switch (event.getKind()) {
+                case CREATED: tableModel.rowInserted(event.getId()); break;
+                case UPDATED: tableModel.rowUpdated(event.getId(), event.getEntity()); break;
+                default: tableModel.rowDeleted(event.getId());
+            }
         }
     }
 
+    // Liste déroulante tenue à jour élément par élément. Un employé renommé change le nom affiché
+    // par ses congés : les pages chargées sont relues. Ses congés supprimés en cascade par la base
+    // ne sont pas signalés : la liste des IDs est relue.
+    private void applyEmployeeChanges(List<ChangeEvent<Employee>> events) {
+        refreshHeatmap();
+        boolean renamed = false;
+        boolean deleted = false;
+        for (ChangeEvent<Employee> event : events) {
+            int pos = Collections.binarySearch(employeeIds, event.getId());
+            if (event.getKind() == ChangeEvent.Kind.DELETED) {
+                if (pos >= 0) {
+                    employeeIds.remove(pos);
+                    view.employeeNameComboBox.removeItemAt(pos);
+                }
+                deleted = true;
+                continue;
+            }
+            String name = EmployeeNameIndex.fullName(event.getEntity());
+            if (pos < 0) {
+                pos = -pos - 1;
+                employeeIds.add(pos, event.getId());
+                view.employeeNameComboBox.insertItemAt(name, pos);
+            } else if (!name.equals(view.employeeNameComboBox.getItemAt(pos))) {
+                boolean selected = view.employeeNameComboBox.getSelectedIndex() == pos;
+                view.employeeNameComboBox.removeItemAt(pos);
+                view.employeeNameComboBox.insertItemAt(name, pos);
+                if (selected) {
+                    view.employeeNameComboBox.setSelectedIndex(pos);
+                }
+                renamed = true;
+            }
+        }
+        if (deleted) {
+            cache.invalidateAll();
+            refreshHolidayTable();
+        } else if (renamed) {
+            cache.invalidateAll();
+            tableModel.invalidatePages();
+        }
+    }
+
+    // Répondue sur l'EDT une fois l'index en mémoire, en arrière-plan avant
+    private CompletableFuture<List<EmployeeSearchIndex.Match>> searchEmployees(String query) {
+        EmployeeSearchIndex index = dao.getEmployeeSearchIndex();
+        if (index.isLoaded()) {
+            return CompletableFuture.completedFuture(index.search(query, SUGGESTIONS));
+        }
+        return async.latest("search", () -> index.search(query, SUGGESTIONS));
+    }
+
+    // Recharge la liste triée des IDs ; les lignes sont lues par pages quand elles deviennent visibles.
+    // Un rafraîchissement plus récent annule celui encore en cours.
     private void refreshHolidayTable() {
-        List<Holiday> holidays = dao.listAll();
-        String[] columnNames = {"ID", "Employé", "Date Début", "Date Fin", "Type"};
-        Object[][] data = new Object[holidays.size()][5];
+        onEdt(async.refreshIds(), tableModel::setIds);
+    }
 
-        for (int i = 0; i < holidays.size(); i++) {
-            Holiday h = holidays.get(i);
-            data[i] = new Object[]{h.getId(), h.getEmployeeName(), h.getStartDate(), h.getEndDate(), h.getType()};
+    // Carte des absences du trimestre affiché, recalculée hors de l'EDT (en microsecondes une fois
+    // l'index chargé) ; rien n'est fait tant que l'onglet n'est pas visible
+    private void refreshHeatmap() {
+        if (view.tabs.getSelectedComponent() != view.heatmap.getParent()) {
+            return;
         }
+        LocalDate from = heatmapFrom;
+        LocalDate to = from.plusMonths(3).minusDays(1);
+        boolean byPoste = view.heatmapGroupingCombo.getSelectedIndex() == 0;
+        view.periodLabel.setText("T" + from.get(IsoFields.QUARTER_OF_YEAR) + " " + from.getYear());
+        onEdt(async.latest("heatmap", () -> byPoste
+                ? new HeatmapData(absences.absencesByPoste(from, to), absences.headcountByPoste())
+                : new HeatmapData(absences.absencesByRole(from, to), absences.headcountByRole())), data -> {
+            Enum<?>[] groups = byPoste ? Poste.values() : Role.values();
+            String[] labels = new String[groups.length];
+            for (int i = 0; i < groups.length; i++) {
+                labels[i] = groups[i].name();
+            }
+            view.heatmap.setData(from, labels, data.counts, data.headcounts);
+        });
+    }
+
+    // Absents par groupe et par jour, et effectif de chaque groupe
+    private static final class HeatmapData {
+        final int[][] counts;
+        final int[] headcounts;
+
+        HeatmapData(int[][] counts, int[] headcounts) {
+            this.counts = counts;
+            this.headcounts = headcounts;
+        }
+    }
+
+    // Exécute la suite sur l'EDT quand l'appel DAO se termine ; les erreurs sont affichées
+    private <R> void onEdt(CompletableFuture<R> future, Consumer<R> onSuccess) {
+        future.whenCompleteAsync((result, error) -> {
+            if (error == null) {
+                onSuccess.accept(result);
+            } else if (!future.isCancelled()) {
+                JOptionPane.showMessageDialog(view, "Erreur : " + AsyncDAOService.unwrap(error).getMessage());
+            }
+        }, AsyncDAOService.EDT);
+    }
 
-        view.holidayTable.setModel(new javax.swing.table.DefaultTableModel(data, columnNames));
+    private static Object holidayColumn(Holiday h, int column) {
+        switch (column) {
+            case 0: return h.getId();
+            case 1: return h.getEmployeeName();
+            case 2: return h.getStartDate();
+            case 3: return h.getEndDate();
+            default: return h.getType();
+        }
     }
 
-    private boolean isValidDate(String date) {
+    // Date saisie au format YYYY-MM-DD, lue une seule fois
+    private LocalDate parseDate(String date) {
         try {
-            DateTimeFormatter formatter = DateTimeFormatter.ISO_LOCAL_DATE;
-            LocalDate.parse(date, formatter);
-            return true;
+            return LocalDate.parse(date.trim(), DateTimeFormatter.ISO_LOCAL_DATE);
         } catch (Exception e) {
-            return false;
+            throw new IllegalArgumentException("Les dates doivent être au format YYYY-MM-DD.");
         }
     }
 
-    private boolean isEndDateAfterStartDate(String startDate, String endDate) {
-        DateTimeFormatter formatter = DateTimeFormatter.ISO_LOCAL_DATE;
-        LocalDate start = LocalDate.parse(startDate, formatter);
-        LocalDate end = LocalDate.parse(endDate, formatter);
-
+    private boolean isEndDateAfterStartDate(LocalDate start, LocalDate end) {
         return end.isAfter(start);
     }
 
+    // Nombre de jours ouvrés de la période (week-ends et jours fériés exclus), refusée si elle n'en contient aucun
+    private int requireWorkingDays(LocalDate start, LocalDate end) {
+        int days = WorkingCalendar.workingDays(start, end);
+        if (days == 0) {
+            throw new IllegalArgumentException("La période ne contient aucun jour ouvré.");
+        }
+        return days;
+    }
+
     private void addHoliday() {
         try {
             String employeeName = (String) view.employeeNameComboBox.getSelectedItem();
-            String startDate = view.startDateField.getText();
-            String endDate = view.endDateField.getText();
+            LocalDate startDate = parseDate(view.startDateField.getText());
+            LocalDate endDate = parseDate(view.endDateField.getText());
             Type type = Type.valueOf(view.typeCombo.getSelectedItem().toString().toUpperCase());
             
-            int employeeId = getEmployeeIdByName(employeeName);
-            if (hasHolidayConflict(employeeId, startDate, endDate)) {
-                JOptionPane.showMessageDialog(view, "Cet employé a déjà un congé dans cette période.");
-                return;
-            }
-
-            if (!isValidDate(startDate) || !isValidDate(endDate)) {
-                throw new IllegalArgumentException("Les dates doivent être au format YYYY-MM-DD.");
-            }
-
             if (!isEndDateAfterStartDate(startDate, endDate)) {
                 throw new IllegalArgumentException("La date de fin doit être supérieure à la date de début.");
             }
+            int workingDays = requireWorkingDays(startDate, endDate);
 
+            // Vérification du chevauchement puis ajout, en une seule opération hors de l'EDT ; le DAO
+            // refuse aussi un congé payé que le solde de l'employé ne couvre pas
             Holiday holiday = new Holiday(employeeName, startDate, endDate, type);
-            dao.add(holiday);
-            refreshHolidayTable();
-            JOptionPane.showMessageDialog(view, "Congé ajouté avec succès.");
+            onEdt(async.submit(() -> {
+                int employeeId = dao.getEmployeeIdByName(employeeName);
+                if (employeeId == -1) {
+                    throw new IllegalArgumentException("Employé introuvable.");
+                }
+                return writeIfNoConflict(employeeId, startDate, endDate, 0, () -> {
+                    async.getDao().add(holiday);
+                    return true;
+                }) != null;
+            }), added -> {
+                if (!added) {
+                    JOptionPane.showMessageDialog(view, "Cet employé a déjà un congé dans cette période.");
+                    return;
+                }
+                JOptionPane.showMessageDialog(view, "Congé ajouté avec succès (" + workingDays + " jour(s) ouvré(s)).");
+            });
         } catch (Exception ex) {
             JOptionPane.showMessageDialog(view, "Erreur : " + ex.getMessage());
         }
     }
 
-    private int getEmployeeIdByName(String employeeName) {
-		// TODO Auto-generated method stub
-		return 0;
-	}
-
-	private void modifyHoliday() {
+    private void modifyHoliday() {
         try {
             String actionCommand = view.modifyButton.getActionCommand();
             if (actionCommand != null && !actionCommand.trim().isEmpty()) {
                 int id = Integer.parseInt(actionCommand.trim());
 
                 String employeeName = (String) view.employeeNameComboBox.getSelectedItem();
-                String startDate = view.startDateField.getText();
-                String endDate = view.endDateField.getText();
+                LocalDate startDate = parseDate(view.startDateField.getText());
+                LocalDate endDate = parseDate(view.endDateField.getText());
                 Type type = Type.valueOf(view.typeCombo.getSelectedItem().toString().toUpperCase());
 
-                if (!isValidDate(startDate) || !isValidDate(endDate)) {
-                    throw new IllegalArgumentException("Les dates doivent être au format YYYY-MM-DD.");
-                }
-
                 if (!isEndDateAfterStartDate(startDate, endDate)) {
                     throw new IllegalArgumentException("La date de fin doit être supérieure à la date de début.");
                 }
+                requireWorkingDays(startDate, endDate);
 
                 Holiday holiday = new Holiday(employeeName, startDate, endDate, type);
-                dao.update(holiday, id);
-                refreshHolidayTable();
-                JOptionPane.showMessageDialog(view, "Congé modifié avec succès.");
+                holiday.setId(id);
+                // Écrit seulement si personne n'a modifié le congé depuis son affichage ; sinon fusion puis nouvel essai
+                holiday.setVersion(editing.getVersion());
+                updater.submit(async, editing, holiday, edited -> {
+                    int employeeId = dao.getEmployeeIdByName(edited.getEmployeeName());
+                    if (employeeId == -1) {
+                        throw new IllegalArgumentException("Employé introuvable.");
+                    }
+                    UpdateResult<Holiday> result = writeIfNoConflict(employeeId, edited.getStartDate(),
+                            edited.getEndDate(), id, () -> async.getDao().update(edited, id));
+                    if (result == null) {
+                        throw new IllegalArgumentException("Cet employé a déjà un congé dans cette période.");
+                    }
+                    return result;
+                }, (saved, merged) -> {
+                    fillForm(saved);
+                    JOptionPane.showMessageDialog(view, merged
+                            ? "Congé modifié avec succès (fusionné avec la modification d'un autre utilisateur)."
+                            : "Congé modifié avec succès.");
+                }, this::fillForm);
             }
         } catch (Exception ex) {
             JOptionPane.showMessageDialog(view, "Erreur : " + ex.getMessage());
         }
     }
     
-    private boolean hasHolidayConflict(int employeeId, String startDate, String endDate) {
-        String sql = "SELECT COUNT(*) FROM holiday WHERE employeeId = ? AND ((startDate <= ? AND endDate >= ?) OR (startDate <= ? AND endDate >= ?))";
-        try (Connection conn = DBConnection.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setInt(1, employeeId);
-            stmt.setString(2, endDate);
-            stmt.setString(3, startDate);
-            stmt.setString(4, endDate);
-            stmt.setString(5, startDate);
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                return rs.getInt(1) > 0; // Return true if there is a conflict
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
+    // Écriture si la période ne chevauche aucun autre congé de l'employé (excludeHolidayId = congé modifié,
+    // 0 sinon), vérification comprise sous le verrou du moteur ; null en cas de chevauchement. Le DAO
+    // vérifie à nouveau dans sa transaction d'écriture, contre les congés saisis sur les autres postes
+    private <R> R writeIfNoConflict(int employeeId, LocalDate startDate, LocalDate endDate, int excludeHolidayId,
+                                    Callable<R> write) throws Exception {
+        return dao.getConflictEngine().writeIfNoConflict(employeeId, startDate, endDate, excludeHolidayId, write);
+    }
+
+    // Import CSV en arrière-plan ; les lignes refusées sont écrites à côté du fichier
+    private void importHolidays() {
+        JFileChooser chooser = new JFileChooser();
+        if (chooser.showOpenDialog(view) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        Path file = chooser.getSelectedFile().toPath();
+        onEdt(async.submit(() -> CsvTransfer.holidayImporter(async.getDao()).importFile(file)),
+                report -> JOptionPane.showMessageDialog(view, "Import terminé : " + report + "."));
+    }
+
+    // Export CSV de tous les congés, en flux
+    private void exportHolidays() {
+        JFileChooser chooser = new JFileChooser();
+        if (chooser.showSaveDialog(view) != JFileChooser.APPROVE_OPTION) {
+            return;
         }
-        return false;
+        Path file = chooser.getSelectedFile().toPath();
+        onEdt(async.submit(() -> CsvTransfer.exportHolidays(async.getDao(), file)),
+                count -> JOptionPane.showMessageDialog(view, "Export terminé : " + count + " congé(s)."));
     }
 
     private void deleteHoliday() {
@@ -185,9 +437,7 @@ public class HolidayController {
                         JOptionPane.YES_NO_OPTION);
 
                 if (confirm == JOptionPane.YES_OPTION) {
-                    dao.delete(id);
-                    refreshHolidayTable();
-                    JOptionPane.showMessageDialog(view, "Congé supprimé avec succès.");
+                    onEdt(async.delete(id), v -> JOptionPane.showMessageDialog(view, "Congé supprimé avec succès."));
                 }
             }
         } catch (Exception ex) {
@@ -0,0 +1,136 @@
+package Controller;
+
+import DAO.UpdateResult;
+import Service.AsyncDAOService;
+
+import javax.swing.JOptionPane;
+import java.awt.Component;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+// Modification d'un objet depuis un formulaire, avec verrouillage optimiste. Si l'objet a été
+// modifié par quelqu'un d'autre pendant la saisie, les deux modifications sont fusionnées champ
+// par champ par rapport à la version lue (base) :
+// - champ changé d'un seul côté : ce changement est gardé
+// - champ changé des deux côtés, différemment : l'utilisateur choisit ses valeurs ou les leurs
+// puis la mise à jour est retentée sur la nouvelle version, sans verrou en base.
+final class OptimisticUpdate<T> {
+    // Fusions automatiques successives avant d'abandonner (objet modifié en continu)
+    private static final int MAX_ATTEMPTS = 5;
+
+    // Une tentative de mise à jour, exécutée hors de l'EDT
+    interface Attempt<T> {
+        UpdateResult<T> run(T entity) throws Exception;
+    }
+
+    private final Component parent;
+    private final String noun;
+    private final String[] labels;
+    private final Function<T, Object[]> fieldsOf;
+    private final BiFunction<T, Object[], T> withFields;
+
+    // noun : "L'employé", "Le congé"... ; labels[i] nomme le champ i de fieldsOf ;
+    // withFields(actuel, valeurs) : nouvel objet aux valeurs données, avec l'ID et la version de actuel
+    OptimisticUpdate(Component parent, String noun, String[] labels, Function<T, Object[]> fieldsOf,
+                     BiFunction<T, Object[], T> withFields) {
+        this.parent = parent;
+        this.noun = noun;
+        this.labels = labels;
+        this.fieldsOf = fieldsOf;
+        this.withFields = withFields;
+    }
+
+    // base : objet affiché au début de la saisie ; edited : objet saisi, à la version de base.
+    // onSaved(objet enregistré, fusionné ?) et onReload(état actuel) sont appelés sur l'EDT.
+    void submit(AsyncDAOService<?> async, T base, T edited, Attempt<T> attempt,
+                BiConsumer<T, Boolean> onSaved, Consumer<T> onReload) {
+        run(async, base, edited, attempt, onSaved, onReload, 1, false);
+    }
+
+    private void run(AsyncDAOService<?> async, T base, T edited, Attempt<T> attempt,
+                     BiConsumer<T, Boolean> onSaved, Consumer<T> onReload, int attemptNumber, boolean merged) {
+        Callable<UpdateResult<T>> work = () -> attempt.run(edited);
+        async.submit(work).whenCompleteAsync((result, error) -> {
+            if (error != null) {
+                JOptionPane.showMessageDialog(parent, "Erreur : " + AsyncDAOService.unwrap(error).getMessage());
+                return;
+            }
+            switch (result.getStatus()) {
+                case UPDATED:
+                case QUEUED:
+                    onSaved.accept(edited, merged);
+                    break;
+                case NOT_FOUND:
+                    JOptionPane.showMessageDialog(parent, noun + " a été supprimé par un autre utilisateur.");
+                    break;
+                case CONFLICT:
+                    resolve(async, base, edited, result.getCurrent(), attempt, onSaved, onReload, attemptNumber);
+                    break;
+                default:
+                    JOptionPane.showMessageDialog(parent, result.getError() != null
+                            ? "La mise à jour a échoué : " + result.getError().getMessage()
+                            : "La mise à jour a échoué.");
+            }
+        }, AsyncDAOService.EDT);
+    }
+
+    private void resolve(AsyncDAOService<?> async, T base, T edited, T current, Attempt<T> attempt,
+                         BiConsumer<T, Boolean> onSaved, Consumer<T> onReload, int attemptNumber) {
+        Object[] baseFields = fieldsOf.apply(base);
+        Object[] mine = fieldsOf.apply(edited);
+        Object[] theirs = fieldsOf.apply(current);
+        Object[] merged = theirs.clone();
+        List<Integer> conflicts = new ArrayList<>();
+        boolean changed = false;
+        for (int i = 0; i < merged.length; i++) {
+            if (Objects.equals(mine[i], baseFields[i]) || Objects.equals(mine[i], theirs[i])) {
+                continue;
+            }
+            if (Objects.equals(theirs[i], baseFields[i])) {
+                merged[i] = mine[i];
+                changed = true;
+            } else {
+                conflicts.add(i);
+            }
+        }
+
+        if (!conflicts.isEmpty()) {
+            List<String> names = new ArrayList<>();
+            for (int i : conflicts) {
+                names.add(labels[i] + " (vous : " + mine[i] + ", l'autre : " + theirs[i] + ")");
+            }
+            Object[] options = {"Garder mes valeurs", "Garder les leurs", "Annuler"};
+            int choice = JOptionPane.showOptionDialog(parent,
+                    noun + " a été modifié par un autre utilisateur pendant votre saisie.\n"
+                            + "Champs modifiés des deux côtés :\n  " + String.join("\n  ", names),
+                    "Modification concurrente", JOptionPane.YES_NO_CANCEL_OPTION, JOptionPane.WARNING_MESSAGE,
+                    null, options, options[0]);
+            if (choice == 0) {
+                for (int i : conflicts) {
+                    merged[i] = mine[i];
+                }
+                changed = true;
+            } else if (choice != 1) {
+                onReload.accept(current);
+                return;
+            }
+        } else if (attemptNumber >= MAX_ATTEMPTS) {
+            JOptionPane.showMessageDialog(parent, noun + " est modifié trop souvent par d'autres utilisateurs ; "
+                    + "ses valeurs actuelles sont affichées, réessayez.");
+            onReload.accept(current);
+            return;
+        }
+        // Rien de la saisie à ajouter à la version actuelle : elle est simplement affichée
+        if (!changed) {
+            onReload.accept(current);
+            return;
+        }
+        run(async, current, withFields.apply(current, merged), attempt, onSaved, onReload, attemptNumber + 1, true);
+    }
+}
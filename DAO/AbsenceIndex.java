@@ -0,0 +1,385 @@
+package DAO;
+
+import Model.Employee;
+import Model.Holiday;
+import Model.Poste;
+import Model.Role;
+
+import java.time.LocalDate;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+// Absences par jour, en mémoire et en colonnes : pour chaque jour, le bitmap (IdBitmap) des employés
+// en congé, plus un bitmap des employés de chaque poste et de chaque rôle. Répond sans requête à
+// « combien de mes ingénieurs sont absents chaque jour du prochain trimestre ? » : par jour, taille
+// du bitmap ou de son intersection avec celui du poste ; les regroupements ne parcourent que les
+// absents du jour.
+// Chargé à la première utilisation, puis tenu à jour par les événements validés du ChangeBus.
+public class AbsenceIndex {
+    private static final AbsenceIndex SHARED = new AbsenceIndex(() -> DAOFactory.employeeDAO().streamAll(),
+            () -> DAOFactory.holidayDAO().streamAll());
+
+    private final Supplier<Stream<Employee>> employeeSource;
+    private final Supplier<Stream<Holiday>> holidaySource;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // days[i] : absents du jour firstDay + i (null si personne)
+    private IdBitmap[] days = new IdBitmap[0];
+    private long firstDay;
+    // Congés indexés : ID -> {employé, début, fin} (jours epoch), et congés de chaque employé
+    private final IntObjectMap<int[]> spans = new IntObjectMap<>(1024);
+    private final IntObjectMap<MemoryStore.SortedIds> holidaysByEmployee = new IntObjectMap<>(1024);
+    // Poste et rôle de chaque employé, par ID : tables creuses, les IDs d'une base répartie
+    // commencent au début de sa plage (ex. 10 000 000)
+    private final IntObjectMap<Poste> posteOf = new IntObjectMap<>(1024);
+    private final IntObjectMap<Role> roleOf = new IntObjectMap<>(1024);
+    private final IdBitmap[] byPoste = newBitmaps(Poste.values().length);
+    private final IdBitmap[] byRole = newBitmaps(Role.values().length);
+    private volatile boolean loaded;
+
+    public AbsenceIndex(Supplier<Stream<Employee>> employeeSource, Supplier<Stream<Holiday>> holidaySource) {
+        this.employeeSource = employeeSource;
+        this.holidaySource = holidaySource;
+        ChangeBus.shared().subscribe(Employee.class, this::applyEmployee);
+        ChangeBus.shared().subscribe(Holiday.class, this::applyHoliday);
+    }
+
+    // Index partagé par les vues
+    public static AbsenceIndex shared() {
+        return SHARED;
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    // Charge l'index si besoin (à appeler hors de l'EDT)
+    public void preload() {
+        ensureLoaded();
+    }
+
+    // Absents de chaque jour de [from, to], tous postes confondus si poste est null
+    public int[] absences(LocalDate from, LocalDate to, Poste poste) {
+        ensureLoaded();
+        int[] counts = new int[length(from, to)];
+        lock.readLock().lock();
+        try {
+            for (int d = 0; d < counts.length; d++) {
+                IdBitmap absent = day(from.toEpochDay() + d);
+                if (absent != null) {
+                    counts[d] = poste == null ? absent.cardinality() : absent.andCardinality(byPoste[poste.ordinal()]);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return counts;
+    }
+
+    // Absents de chaque jour de [from, to] par poste : [ordinal du poste][jour]
+    public int[][] absencesByPoste(LocalDate from, LocalDate to) {
+        return grouped(from, to, true);
+    }
+
+    // Absents de chaque jour de [from, to] par rôle : [ordinal du rôle][jour]
+    public int[][] absencesByRole(LocalDate from, LocalDate to) {
+        return grouped(from, to, false);
+    }
+
+    // Employés absents au moins un jour de [from, to], par poste
+    public int[] absentEmployeesByPoste(LocalDate from, LocalDate to) {
+        return distinct(from, to, true);
+    }
+
+    public int[] absentEmployeesByRole(LocalDate from, LocalDate to) {
+        return distinct(from, to, false);
+    }
+
+    // Effectif de chaque poste (ordinal)
+    public int[] headcountByPoste() {
+        return headcounts(byPoste);
+    }
+
+    public int[] headcountByRole() {
+        return headcounts(byRole);
+    }
+
+    // Oublie tout : l'index sera relu à la prochaine utilisation
+    public void invalidate() {
+        lock.writeLock().lock();
+        try {
+            loaded = false;
+            clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private int[][] grouped(LocalDate from, LocalDate to, boolean byPosteGroup) {
+        ensureLoaded();
+        int groups = byPosteGroup ? byPoste.length : byRole.length;
+        int[][] counts = new int[groups][length(from, to)];
+        lock.readLock().lock();
+        try {
+            IntObjectMap<? extends Enum<?>> groupOf = byPosteGroup ? posteOf : roleOf;
+            for (int d = 0; d < counts[0].length; d++) {
+                IdBitmap absent = day(from.toEpochDay() + d);
+                if (absent != null) {
+                    int column = d;
+                    absent.forEach(id -> {
+                        int group = groupOf(groupOf, id);
+                        if (group >= 0) {
+                            counts[group][column]++;
+                        }
+                    });
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return counts;
+    }
+
+    private int[] distinct(LocalDate from, LocalDate to, boolean byPosteGroup) {
+        ensureLoaded();
+        // Union des jours dans un IdBitmap : sa taille suit le nombre d'absents, pas la valeur des IDs
+        IdBitmap union = new IdBitmap();
+        int[] counts = new int[byPosteGroup ? byPoste.length : byRole.length];
+        lock.readLock().lock();
+        try {
+            int n = length(from, to);
+            for (int d = 0; d < n; d++) {
+                IdBitmap absent = day(from.toEpochDay() + d);
+                if (absent != null) {
+                    absent.forEach(union::add);
+                }
+            }
+            IntObjectMap<? extends Enum<?>> groupOf = byPosteGroup ? posteOf : roleOf;
+            union.forEach(id -> {
+                int group = groupOf(groupOf, id);
+                if (group >= 0) {
+                    counts[group]++;
+                }
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+        return counts;
+    }
+
+    private int[] headcounts(IdBitmap[] groups) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            int[] counts = new int[groups.length];
+            for (int g = 0; g < groups.length; g++) {
+                counts[g] = groups[g].cardinality();
+            }
+            return counts;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static int length(LocalDate from, LocalDate to) {
+        long n = to.toEpochDay() - from.toEpochDay() + 1;
+        if (n < 0 || n > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Période invalide : " + from + " - " + to);
+        }
+        return (int) n;
+    }
+
+    private IdBitmap day(long epochDay) {
+        long i = epochDay - firstDay;
+        return i < 0 || i >= days.length ? null : days[(int) i];
+    }
+
+    // Ordinal du poste ou du rôle de l'employé, -1 s'il n'est pas connu
+    private static int groupOf(IntObjectMap<? extends Enum<?>> groups, int id) {
+        Enum<?> group = groups.get(id);
+        return group == null ? -1 : group.ordinal();
+    }
+
+    // Changement validé ; ignoré tant que l'index n'est pas chargé (le chargement lira la base)
+    private void applyHoliday(ChangeEvent<Holiday> event) {
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                return;
+            }
+            unindexHoliday(event.getId());
+            if (event.getKind() != ChangeEvent.Kind.DELETED) {
+                indexHoliday(event.getEntity());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Un employé supprimé emporte ses congés (ON DELETE CASCADE, non signalé par la base)
+    private void applyEmployee(ChangeEvent<Employee> event) {
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                return;
+            }
+            int id = event.getId();
+            if (event.getKind() == ChangeEvent.Kind.DELETED) {
+                MemoryStore.SortedIds holidays = holidaysByEmployee.get(id);
+                if (holidays != null) {
+                    for (int holidayId : holidays.toArray()) {
+                        unindexHoliday(holidayId);
+                    }
+                }
+                unindexEmployee(id);
+            } else {
+                unindexEmployee(id);
+                indexEmployee(id, event.getEntity());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void indexEmployee(int id, Employee employee) {
+        if (employee.getPoste() != null) {
+            posteOf.put(id, employee.getPoste());
+            byPoste[employee.getPoste().ordinal()].add(id);
+        }
+        if (employee.getRole() != null) {
+            roleOf.put(id, employee.getRole());
+            byRole[employee.getRole().ordinal()].add(id);
+        }
+    }
+
+    private void unindexEmployee(int id) {
+        Poste poste = posteOf.remove(id);
+        if (poste != null) {
+            byPoste[poste.ordinal()].remove(id);
+        }
+        Role role = roleOf.remove(id);
+        if (role != null) {
+            byRole[role.ordinal()].remove(id);
+        }
+    }
+
+    private void indexHoliday(Holiday holiday) {
+        int employeeId = holiday.getEmployeeId();
+        int start = holiday.getStartEpochDay();
+        int end = holiday.getEndEpochDay();
+        if (employeeId <= 0 || end < start) {
+            return;
+        }
+        spans.put(holiday.getId(), new int[]{employeeId, start, end});
+        MemoryStore.SortedIds holidays = holidaysByEmployee.get(employeeId);
+        if (holidays == null) {
+            holidays = new MemoryStore.SortedIds(4);
+            holidaysByEmployee.put(employeeId, holidays);
+        }
+        holidays.add(holiday.getId());
+        ensureDays(start, end);
+        for (long d = start; d <= end; d++) {
+            int i = (int) (d - firstDay);
+            if (days[i] == null) {
+                days[i] = new IdBitmap();
+            }
+            days[i].add(employeeId);
+        }
+    }
+
+    // Un jour reste marqué si un autre congé de l'employé le couvre (chevauchements anciens)
+    private void unindexHoliday(int holidayId) {
+        int[] span = spans.remove(holidayId);
+        if (span == null) {
+            return;
+        }
+        int employeeId = span[0];
+        MemoryStore.SortedIds holidays = holidaysByEmployee.get(employeeId);
+        holidays.remove(holidayId);
+        for (long d = span[1]; d <= span[2]; d++) {
+            if (coveredByOther(holidays, d)) {
+                continue;
+            }
+            int i = (int) (d - firstDay);
+            days[i].remove(employeeId);
+            if (days[i].isEmpty()) {
+                days[i] = null;
+            }
+        }
+        if (holidays.size() == 0) {
+            holidaysByEmployee.remove(employeeId);
+        }
+    }
+
+    private boolean coveredByOther(MemoryStore.SortedIds holidays, long day) {
+        for (int i = 0; i < holidays.size(); i++) {
+            int[] other = spans.get(holidays.get(i));
+            if (other[1] <= day && day <= other[2]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Étend la colonne des jours pour couvrir [start, end], avec de la marge des deux côtés
+    private void ensureDays(long start, long end) {
+        if (days.length == 0) {
+            firstDay = start - 366;
+            days = new IdBitmap[(int) (end - firstDay) + 367];
+            return;
+        }
+        long lastDay = firstDay + days.length - 1;
+        if (start >= firstDay && end <= lastDay) {
+            return;
+        }
+        long newFirst = start < firstDay ? Math.min(start, firstDay - days.length / 2) : firstDay;
+        long newLast = end > lastDay ? Math.max(end, lastDay + days.length / 2) : lastDay;
+        IdBitmap[] grown = new IdBitmap[(int) (newLast - newFirst + 1)];
+        System.arraycopy(days, 0, grown, (int) (firstDay - newFirst), days.length);
+        days = grown;
+        firstDay = newFirst;
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (loaded) {
+                return;
+            }
+            clear();
+            try (Stream<Employee> employees = employeeSource.get()) {
+                employees.forEach(employee -> indexEmployee(employee.getId(), employee));
+            }
+            try (Stream<Holiday> holidays = holidaySource.get()) {
+                holidays.forEach(this::indexHoliday);
+            }
+            loaded = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void clear() {
+        days = new IdBitmap[0];
+        spans.clear();
+        holidaysByEmployee.clear();
+        posteOf.clear();
+        roleOf.clear();
+        for (IdBitmap[] groups : new IdBitmap[][]{byPoste, byRole}) {
+            for (int g = 0; g < groups.length; g++) {
+                groups[g] = new IdBitmap();
+            }
+        }
+    }
+
+    private static IdBitmap[] newBitmaps(int n) {
+        IdBitmap[] bitmaps = new IdBitmap[n];
+        for (int i = 0; i < n; i++) {
+            bitmaps[i] = new IdBitmap();
+        }
+        return bitmaps;
+    }
+}
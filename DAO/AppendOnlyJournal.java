@@ -0,0 +1,197 @@
+package DAO;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+// Journal en ajout seul : un enregistrement par ligne, champs séparés par des tabulations
+// (\t, \n et \\ échappés). Une dernière ligne incomplète (arrêt brutal pendant l'écriture) est
+// supprimée à l'ouverture. Avec sync = true, chaque écriture attend que les données soient sur le disque.
+final class AppendOnlyJournal implements Closeable {
+    private final Path file;
+    private final boolean sync;
+    private FileChannel channel;
+    private Writer out;
+
+    AppendOnlyJournal(Path file, boolean sync) throws IOException {
+        this.file = file;
+        this.sync = sync;
+        truncateIncompleteTail();
+        open();
+    }
+
+    private void open() throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        out = new BufferedWriter(new OutputStreamWriter(Channels.newOutputStream(channel), StandardCharsets.UTF_8));
+    }
+
+    Path getFile() {
+        return file;
+    }
+
+    synchronized void append(String... fields) {
+        try {
+            write(fields);
+            flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Écriture du journal impossible : " + file, e);
+        }
+    }
+
+    // Écrit les enregistrements d'un lot en une seule écriture, puis vide le tampon
+    synchronized void appendAll(List<String[]> records) {
+        StringBuilder batch = new StringBuilder(records.size() * 64);
+        for (String[] record : records) {
+            batch.append(encode(record)).append('\n');
+        }
+        try {
+            out.write(batch.toString());
+            flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Écriture du journal impossible : " + file, e);
+        }
+    }
+
+    // Écrit sans vider le tampon : plusieurs enregistrements suivis d'un seul flush()
+    synchronized void write(String... fields) throws IOException {
+        out.write(encode(fields));
+        out.write('\n');
+    }
+
+    synchronized void flush() throws IOException {
+        out.flush();
+        if (sync) {
+            channel.force(false);
+        }
+    }
+
+    // Relit tous les enregistrements complets, dans l'ordre
+    void replay(Consumer<String[]> action) throws IOException {
+        if (!Files.exists(file)) {
+            return;
+        }
+        try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                action.accept(decode(line));
+            }
+        }
+    }
+
+    // Remplace le contenu du journal par les enregistrements donnés (compactage), de façon atomique
+    synchronized void rewrite(Iterable<String[]> records) throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel tmpChannel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+             Writer tmpOut = new BufferedWriter(new OutputStreamWriter(Channels.newOutputStream(tmpChannel),
+                     StandardCharsets.UTF_8))) {
+            for (String[] record : records) {
+                tmpOut.write(encode(record));
+                tmpOut.write('\n');
+            }
+            tmpOut.flush();
+            tmpChannel.force(true);
+        }
+        out.close();
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        open();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        out.close();
+    }
+
+    // Coupe le fichier après le dernier saut de ligne
+    private void truncateIncompleteTail() throws IOException {
+        if (!Files.exists(file)) {
+            return;
+        }
+        try (FileChannel rw = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long end = rw.size();
+            ByteBuffer block = ByteBuffer.allocate(4096);
+            while (end > 0) {
+                long start = Math.max(0, end - block.capacity());
+                block.clear().limit((int) (end - start));
+                while (block.hasRemaining() && rw.read(block, start + block.position()) > 0) {
+                    // lecture du bloc complet
+                }
+                for (int i = block.position() - 1; i >= 0; i--) {
+                    if (block.get(i) == '\n') {
+                        rw.truncate(start + i + 1);
+                        return;
+                    }
+                }
+                end = start;
+            }
+            rw.truncate(0);
+        }
+    }
+
+    private static String encode(String[] fields) {
+        StringBuilder line = new StringBuilder(64);
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) {
+                line.append('\t');
+            }
+            String field = fields[i];
+            if (field == null) {
+                line.append("\\0");
+                continue;
+            }
+            for (int k = 0; k < field.length(); k++) {
+                char c = field.charAt(k);
+                switch (c) {
+                    case '\t': line.append("\\t"); break;
+                    case '\n': line.append("\\n"); break;
+                    case '\r': line.append("\\r"); break;
+                    case '\\': line.append("\\\\"); break;
+                    default: line.append(c);
+                }
+            }
+        }
+        return line.toString();
+    }
+
+    private static String[] decode(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean isNull = false;
+        for (int k = 0; k < line.length(); k++) {
+            char c = line.charAt(k);
+            if (c == '\t') {
+                fields.add(isNull ? null : field.toString());
+                field.setLength(0);
+                isNull = false;
+            } else if (c == '\\' && k + 1 < line.length()) {
+                char next = line.charAt(++k);
+                switch (next) {
+                    case 't': field.append('\t'); break;
+                    case 'n': field.append('\n'); break;
+                    case 'r': field.append('\r'); break;
+                    case '0': isNull = true; break;
+                    default: field.append(next);
+                }
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(isNull ? null : field.toString());
+        return fields.toArray(new String[0]);
+    }
+}
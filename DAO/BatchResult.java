@@ -0,0 +1,117 @@
+package DAO;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Résultat d'une opération en lot : un compteur de lignes et une clé générée par entrée
+public class BatchResult {
+    // Erreur des lots compare-and-set annulés pour conflit de version (SQLSTATE 40001, échec de sérialisation)
+    static final class VersionConflict extends SQLException {
+        private static final long serialVersionUID = 1L;
+
+        VersionConflict(List<Integer> ids) {
+            super("Conflit de version, lot annulé (ID " + ids + ").", "40001");
+        }
+    }
+
+    private final int[] updateCounts;   // Résultat par ligne (Statement.EXECUTE_FAILED si en échec)
+    private final int[] generatedKeys;  // Clé générée par ligne (0 si aucune)
+    private final SQLException error;   // Erreur ayant provoqué l'annulation du lot, sinon null
+    private final String[] refusals;    // Motif par ligne écartée avant l'écriture (règle métier), sinon null
+
+    public BatchResult(int[] updateCounts, int[] generatedKeys, SQLException error) {
+        this(updateCounts, generatedKeys, error, null);
+    }
+
+    public BatchResult(int[] updateCounts, int[] generatedKeys, SQLException error, String[] refusals) {
+        this.updateCounts = updateCounts;
+        this.generatedKeys = generatedKeys;
+        this.error = error;
+        this.refusals = refusals;
+    }
+
+    // Lot entièrement annulé : toutes les lignes sont en échec
+    public static BatchResult failed(int rowCount, SQLException error) {
+        int[] counts = new int[rowCount];
+        Arrays.fill(counts, Statement.EXECUTE_FAILED);
+        return new BatchResult(counts, new int[rowCount], error);
+    }
+
+    public int size() {
+        return updateCounts.length;
+    }
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+
+    public SQLException getError() {
+        return error;
+    }
+
+    // Motif du refus d'une ligne écartée avant l'écriture (ex. chevauchement), null sinon
+    public String getRefusal(int row) {
+        return refusals == null ? null : refusals[row];
+    }
+
+    // Même résultat, avec les motifs des lignes écartées
+    BatchResult withRefusals(String[] refusals) {
+        return new BatchResult(updateCounts, generatedKeys, error, refusals);
+    }
+
+    // Lot compare-and-set annulé parce qu'une ligne n'était plus à la version lue
+    public boolean isVersionConflict() {
+        return error instanceof VersionConflict;
+    }
+
+    public int[] getUpdateCounts() {
+        return updateCounts.clone();
+    }
+
+    public int[] getGeneratedKeys() {
+        return generatedKeys.clone();
+    }
+
+    public int getGeneratedKey(int row) {
+        return generatedKeys[row];
+    }
+
+    public int getUpdateCount(int row) {
+        return updateCounts[row];
+    }
+
+    // Une ligne est réussie si elle a touché au moins une ligne (ou si le pilote ne le sait pas)
+    public boolean isRowSuccessful(int row) {
+        int count = updateCounts[row];
+        return count > 0 || count == Statement.SUCCESS_NO_INFO;
+    }
+
+    public int successCount() {
+        int n = 0;
+        for (int i = 0; i < updateCounts.length; i++) {
+            if (isRowSuccessful(i)) {
+                n++;
+            }
+        }
+        return n;
+    }
+
+    public List<Integer> failedRows() {
+        List<Integer> rows = new ArrayList<>();
+        for (int i = 0; i < updateCounts.length; i++) {
+            if (!isRowSuccessful(i)) {
+                rows.add(i);
+            }
+        }
+        return rows;
+    }
+
+    @Override
+    public String toString() {
+        return "BatchResult[rows=" + size() + ", ok=" + successCount()
+                + (error != null ? ", erreur=" + error.getMessage() : "") + "]";
+    }
+}
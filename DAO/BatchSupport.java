@@ -0,0 +1,113 @@
+package DAO;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntUnaryOperator;
+
+// Exécution JDBC par paquets (addBatch/executeBatch) dans une seule transaction
+final class BatchSupport {
+    // Taille des paquets envoyés au serveur (surchargeable avec -Dconges.batch.size=...)
+    static final int DEFAULT_BATCH_SIZE = Integer.getInteger("conges.batch.size", 500);
+
+    // Lie les paramètres d'une ligne ; retourne false pour ignorer la ligne (marquée en échec)
+    interface RowBinder {
+        boolean bind(PreparedStatement stmt, int row) throws SQLException;
+    }
+
+    // Lecture préalable exécutée dans la transaction du lot, avant la liaison de la première ligne
+    interface BeforeBatch {
+        void run(DAOSession session) throws SQLException;
+    }
+
+    // Travail complémentaire exécuté dans la même transaction, après le lot et avant la validation
+    interface BeforeCommit {
+        void run(DAOSession session, BatchResult result) throws SQLException;
+    }
+
+    private BatchSupport() {
+    }
+
+    static BatchResult execute(String sql, int rowCount, int batchSize, boolean returnKeys, RowBinder binder) {
+        return execute(sql, rowCount, batchSize, returnKeys, binder, null);
+    }
+
+    static BatchResult execute(String sql, int rowCount, int batchSize, boolean returnKeys, RowBinder binder,
+                               BeforeCommit beforeCommit) {
+        return execute(sql, rowCount, batchSize, returnKeys, null, binder, beforeCommit);
+    }
+
+    static BatchResult execute(String sql, int rowCount, int batchSize, boolean returnKeys, BeforeBatch beforeBatch,
+                               RowBinder binder, BeforeCommit beforeCommit) {
+        int[] counts = new int[rowCount];
+        int[] keys = new int[rowCount];
+        Arrays.fill(counts, Statement.EXECUTE_FAILED);
+        if (rowCount == 0) {
+            return new BatchResult(counts, keys, null);
+        }
+
+        try (DAOSession session = DAOSession.open()) {
+            return session.transaction(tx -> {
+                if (beforeBatch != null) {
+                    beforeBatch.run(tx);
+                }
+                PreparedStatement stmt = returnKeys ? tx.prepareWithKeys(sql) : tx.prepare(sql);
+                int[] chunkRows = new int[Math.max(1, batchSize)];
+                int pending = 0;
+                for (int row = 0; row < rowCount; row++) {
+                    if (!binder.bind(stmt, row)) {
+                        continue;
+                    }
+                    stmt.addBatch();
+                    chunkRows[pending++] = row;
+                    if (pending == chunkRows.length) {
+                        flush(stmt, chunkRows, pending, counts, keys, returnKeys);
+                        pending = 0;
+                    }
+                }
+                if (pending > 0) {
+                    flush(stmt, chunkRows, pending, counts, keys, returnKeys);
+                }
+                BatchResult result = new BatchResult(counts, keys, null);
+                if (beforeCommit != null) {
+                    beforeCommit.run(tx, result);
+                }
+                return result;
+            });
+        } catch (SQLException e) {
+            return BatchResult.failed(rowCount, e);
+        }
+    }
+
+    // Lot compare-and-set tout ou rien : une ligne non écrite (version périmée ou ligne supprimée)
+    // annule toute la transaction ; idOfRow donne l'ID de chaque ligne pour le message
+    static void requireAllRows(BatchResult result, IntUnaryOperator idOfRow) throws SQLException {
+        List<Integer> stale = new ArrayList<>();
+        for (int row : result.failedRows()) {
+            stale.add(idOfRow.applyAsInt(row));
+        }
+        if (!stale.isEmpty()) {
+            throw new BatchResult.VersionConflict(stale);
+        }
+    }
+
+    private static void flush(PreparedStatement stmt, int[] chunkRows, int pending, int[] counts, int[] keys,
+                              boolean returnKeys) throws SQLException {
+        int[] results = stmt.executeBatch();
+        for (int i = 0; i < pending && i < results.length; i++) {
+            counts[chunkRows[i]] = results[i];
+        }
+        if (returnKeys) {
+            try (ResultSet rs = stmt.getGeneratedKeys()) {
+                int i = 0;
+                while (i < pending && rs.next()) {
+                    keys[chunkRows[i++]] = DBConnection.currentShard().checkGeneratedId(rs.getInt(1));
+                }
+            }
+        }
+    }
+}
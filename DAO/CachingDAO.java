@@ -0,0 +1,234 @@
+package DAO;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToIntFunction;
+import java.util.stream.Stream;
+
+// Cache de second niveau devant un GenericDAO : findById est servi depuis la mémoire.
+// - taille bornée, éviction LRU, durée de vie (TTL) par entrée
+// - les écritures passent au DAO puis invalident les entrées concernées (ajouts compris)
+// - les pages lues par listPage alimentent le cache
+// Les objets en cache sont partagés : les appelants ne doivent pas les modifier.
+public class CachingDAO<T> implements GenericDAO<T> {
+    private final GenericDAO<T> delegate;
+    private final ToIntFunction<T> idOf;
+    private final long ttlNanos;
+    private final Map<Integer, Entry<T>> entries;
+
+    // Incrémenté à chaque écriture : un chargement commencé avant n'est pas mis en cache
+    private final AtomicLong writeGeneration = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    private static final class Entry<T> {
+        final T value;
+        final long expiresAt;
+
+        Entry(T value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    public CachingDAO(GenericDAO<T> delegate, ToIntFunction<T> idOf, int maxSize, long ttlMillis) {
+        this.delegate = delegate;
+        this.idOf = idOf;
+        this.ttlNanos = ttlMillis * 1_000_000L;
+        this.entries = new LinkedHashMap<Integer, Entry<T>>(Math.min(maxSize, 1024), 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Entry<T>> eldest) {
+                if (size() > maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public GenericDAO<T> getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public T findById(int id) {
+        synchronized (entries) {
+            Entry<T> entry = entries.get(id);
+            if (entry != null) {
+                if (System.nanoTime() - entry.expiresAt < 0) {
+                    hits.increment();
+                    return entry.value;
+                }
+                entries.remove(id);
+                expirations.increment();
+            }
+        }
+        misses.increment();
+        long generation = writeGeneration.get();
+        T value = delegate.findById(id);
+        if (value != null) {
+            cache(value, generation);
+        }
+        return value;
+    }
+
+    @Override
+    public List<T> listPage(int afterId, int limit) {
+        long generation = writeGeneration.get();
+        List<T> page = delegate.listPage(afterId, limit);
+        for (T value : page) {
+            cache(value, generation);
+        }
+        return page;
+    }
+
+    @Override
+    public List<T> listAll() {
+        return delegate.listAll();
+    }
+
+    @Override
+    public Stream<T> streamAll() {
+        return delegate.streamAll();
+    }
+
+    @Override
+    public int[] listIds() {
+        return delegate.listIds();
+    }
+
+    @Override
+    public void add(T entity) {
+        writeGeneration.incrementAndGet();
+        try {
+            delegate.add(entity);
+        } finally {
+            written(idOf.applyAsInt(entity));
+        }
+    }
+
+    @Override
+    public UpdateResult<T> update(T entity, int id) {
+        writeGeneration.incrementAndGet();
+        try {
+            return delegate.update(entity, id);
+        } finally {
+            written(id);
+        }
+    }
+
+    @Override
+    public void delete(int id) {
+        writeGeneration.incrementAndGet();
+        try {
+            delegate.delete(id);
+        } finally {
+            written(id);
+        }
+    }
+
+    @Override
+    public BatchResult addAll(List<T> entities) {
+        writeGeneration.incrementAndGet();
+        try {
+            return delegate.addAll(entities);
+        } finally {
+            written(entities);
+        }
+    }
+
+    @Override
+    public BatchResult updateAll(List<T> entities) {
+        writeGeneration.incrementAndGet();
+        try {
+            return delegate.updateAll(entities);
+        } finally {
+            written(entities);
+        }
+    }
+
+    @Override
+    public BatchResult compareAndSetAll(List<T> entities) {
+        writeGeneration.incrementAndGet();
+        try {
+            return delegate.compareAndSetAll(entities);
+        } finally {
+            written(entities);
+        }
+    }
+
+    @Override
+    public BatchResult deleteAll(int... ids) {
+        writeGeneration.incrementAndGet();
+        try {
+            return delegate.deleteAll(ids);
+        } finally {
+            written(ids);
+        }
+    }
+
+    // Fin d'une écriture : la génération avance de nouveau, en même temps que les entrées sont retirées.
+    // Un chargement commencé pendant l'écriture a pu lire l'ancienne ligne avant la validation :
+    // il ne sera pas mis en cache après ce retrait.
+    private void written(int... ids) {
+        synchronized (entries) {
+            writeGeneration.incrementAndGet();
+            for (int id : ids) {
+                entries.remove(id);
+            }
+        }
+    }
+
+    private void written(List<T> entities) {
+        written(entities.stream().mapToInt(idOf).toArray());
+    }
+
+    public void invalidate(int id) {
+        synchronized (entries) {
+            entries.remove(id);
+        }
+    }
+
+    public void invalidateAll() {
+        writeGeneration.incrementAndGet();
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    private void cache(T value, long generation) {
+        synchronized (entries) {
+            if (writeGeneration.get() == generation) {
+                entries.put(idOf.applyAsInt(value), new Entry<>(value, System.nanoTime() + ttlNanos));
+            }
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long getHits() { return hits.sum(); }
+    public long getMisses() { return misses.sum(); }
+    public long getEvictions() { return evictions.sum(); }
+    public long getExpirations() { return expirations.sum(); }
+
+    public double getHitRate() {
+        long total = getHits() + getMisses();
+        return total == 0 ? 0.0 : (double) getHits() / total;
+    }
+
+    public String stats() {
+        return String.format("cache[size=%d, hits=%d, misses=%d, hitRate=%.1f%%, evictions=%d, expirations=%d]",
+                size(), getHits(), getMisses(), 100 * getHitRate(), getEvictions(), getExpirations());
+    }
+}
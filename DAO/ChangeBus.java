@@ -0,0 +1,66 @@
+package DAO;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+// Bus d'événements en mémoire : les DAO y publient chaque création / modification / suppression,
+// les vues s'y abonnent par type d'entité pour n'appliquer que les changements.
+// Dans une transaction, la publication attend la validation (rien n'est publié en cas d'annulation).
+// Les abonnés sont appelés sur le thread qui a écrit : ils doivent rendre la main rapidement.
+public final class ChangeBus {
+    private static final ChangeBus SHARED = new ChangeBus();
+
+    private final Map<Class<?>, List<Consumer<?>>> listeners = new ConcurrentHashMap<>();
+
+    // Abonnement ; close() le résilie
+    public interface Subscription extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    public static ChangeBus shared() {
+        return SHARED;
+    }
+
+    public <T> Subscription subscribe(Class<T> type, Consumer<ChangeEvent<T>> listener) {
+        List<Consumer<?>> forType = listeners.computeIfAbsent(type, t -> new CopyOnWriteArrayList<>());
+        forType.add(listener);
+        return () -> forType.remove(listener);
+    }
+
+    <T> void created(Class<T> type, int id, T entity) {
+        publish(new ChangeEvent<>(type, ChangeEvent.Kind.CREATED, id, entity));
+    }
+
+    <T> void updated(Class<T> type, int id, T entity) {
+        publish(new ChangeEvent<>(type, ChangeEvent.Kind.UPDATED, id, entity));
+    }
+
+    <T> void deleted(Class<T> type, int id) {
+        publish(new ChangeEvent<>(type, ChangeEvent.Kind.DELETED, id, null));
+    }
+
+    private <T> void publish(ChangeEvent<T> event) {
+        List<Consumer<?>> forType = listeners.get(event.getType());
+        if (forType == null || forType.isEmpty()) {
+            return;
+        }
+        DAOSession.afterCommit(() -> deliver(forType, event));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> void deliver(List<Consumer<?>> forType, ChangeEvent<T> event) {
+        for (Consumer<?> listener : forType) {
+            try {
+                ((Consumer<ChangeEvent<T>>) listener).accept(event);
+            } catch (RuntimeException e) {
+                // Un abonné en erreur ne doit pas faire échouer l'écriture déjà validée
+                System.err.println("Erreur d'un abonné au bus (" + event + ") : " + e.getMessage());
+                e.printStackTrace();
+            }
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package DAO;
+
+// Modification validée d'une entité, publiée par les DAO sur le ChangeBus.
+// L'entité (null pour une suppression) est partagée entre les abonnés : ne pas la modifier.
+public final class ChangeEvent<T> {
+    public enum Kind { CREATED, UPDATED, DELETED }
+
+    private final Class<T> type;
+    private final Kind kind;
+    private final int id;
+    private final T entity;
+
+    ChangeEvent(Class<T> type, Kind kind, int id, T entity) {
+        this.type = type;
+        this.kind = kind;
+        this.id = id;
+        this.entity = entity;
+    }
+
+    public Class<T> getType() { return type; }
+    public Kind getKind() { return kind; }
+    public int getId() { return id; }
+    public T getEntity() { return entity; }
+
+    @Override
+    public String toString() {
+        return type.getSimpleName() + " " + kind + " " + id;
+    }
+}
@@ -0,0 +1,314 @@
+package DAO;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Pool de connexions borné : au plus maxSize connexions physiques ouvertes,
+// validation à l'emprunt, éviction des connexions inactives et recyclage
+// des connexions trop anciennes (maxLifetime).
+// Le temps d'acquisition de chaque emprunt est aussi mesuré dans DAOMetrics (pool.acquire).
+public class ConnectionPool implements ConnectionPoolMXBean {
+    private final String url;
+    private final String user;
+    private final String password;
+    private final int maxSize;
+    private final long maxWaitMillis;
+    private final long idleTimeoutMillis;
+    private final long maxLifetimeMillis;
+    private final int validationTimeoutSeconds;
+
+    // Connexions libres, la plus récemment rendue en tête (LIFO)
+    private final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    private final Semaphore permits;
+    private final AtomicInteger openCount = new AtomicInteger();
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean closed;
+
+    // Métriques
+    private final LongAdder borrowCount = new LongAdder();
+    private final LongAdder createdCount = new LongAdder();
+    private final LongAdder destroyedCount = new LongAdder();
+    private final LongAdder timeoutCount = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final LongAdder totalBorrowNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLong maxBorrowNanos = new AtomicLong();
+    private final DAOMetrics.Operation acquireMetrics =
+            DAOMetrics.isEnabled() ? DAOMetrics.shared().operation("pool.acquire") : null;
+
+    public ConnectionPool(String url, String user, String password, int maxSize, long maxWaitMillis,
+                          long idleTimeoutMillis, long maxLifetimeMillis, int validationTimeoutSeconds) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize doit être positif : " + maxSize);
+        }
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.maxSize = maxSize;
+        this.maxWaitMillis = maxWaitMillis;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.maxLifetimeMillis = maxLifetimeMillis;
+        this.validationTimeoutSeconds = validationTimeoutSeconds;
+        this.permits = new Semaphore(maxSize, true);
+
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "conges-pool-housekeeper");
+            t.setDaemon(true);
+            return t;
+        });
+        long period = Math.max(1000, Math.min(idleTimeoutMillis, maxLifetimeMillis) / 2);
+        housekeeper.scheduleWithFixedDelay(this::evict, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    // Emprunte une connexion ; close() sur la connexion retournée la rend au pool.
+    // Chaque emprunt reçoit sa propre connexion : une fois rendue, elle ne peut plus rien faire
+    // sur la connexion physique, même si celle-ci a depuis été prêtée à un autre thread.
+    public Connection getConnection() throws SQLException {
+        return borrow().connection();
+    }
+
+    Lease borrow() throws SQLException {
+        if (closed) {
+            throw new SQLException("Le pool de connexions est fermé.");
+        }
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS)) {
+                timeoutCount.increment();
+                if (acquireMetrics != null) {
+                    acquireMetrics.failed(start);
+                }
+                throw new SQLTransientConnectionException(
+                        "Aucune connexion disponible après " + maxWaitMillis + " ms (max = " + maxSize + ").");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrompu en attendant une connexion.", e);
+        }
+
+        try {
+            PooledConnection pooled;
+            while ((pooled = idle.pollFirst()) != null) {
+                if (isUsable(pooled)) {
+                    break;
+                }
+                destroy(pooled);
+            }
+            if (pooled == null) {
+                pooled = create();
+            }
+            long waited = System.nanoTime() - start;
+            totalWaitNanos.add(waited);
+            maxWaitNanos.accumulateAndGet(waited, Math::max);
+            borrowCount.increment();
+            if (acquireMetrics != null) {
+                acquireMetrics.record(start, 0);
+            }
+            pooled.borrowedAt = System.nanoTime();
+            Lease lease = new Lease(pooled);
+            pooled.lease = lease;
+            return lease;
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    // Appelé une seule fois par emprunt (Lease.release)
+    private void release(Lease lease) {
+        PooledConnection pooled = lease.pooled;
+        if (pooled.lease != lease) {
+            return;
+        }
+        pooled.lease = null;
+        long held = System.nanoTime() - pooled.borrowedAt;
+        totalBorrowNanos.add(held);
+        maxBorrowNanos.accumulateAndGet(held, Math::max);
+        try {
+            if (closed || pooled.physical.isClosed() || isExpired(pooled, System.currentTimeMillis())) {
+                destroy(pooled);
+            } else {
+                if (!pooled.physical.getAutoCommit()) {
+                    pooled.physical.rollback();
+                    pooled.physical.setAutoCommit(true);
+                }
+                pooled.lastUsedAt = System.currentTimeMillis();
+                idle.offerFirst(pooled);
+            }
+        } catch (SQLException e) {
+            destroy(pooled);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private PooledConnection create() throws SQLException {
+        Connection physical = DriverManager.getConnection(url, user, password);
+        openCount.incrementAndGet();
+        createdCount.increment();
+        return new PooledConnection(this, physical);
+    }
+
+    private boolean isUsable(PooledConnection pooled) {
+        if (isExpired(pooled, System.currentTimeMillis())) {
+            return false;
+        }
+        try {
+            return pooled.physical.isValid(validationTimeoutSeconds);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private boolean isExpired(PooledConnection pooled, long now) {
+        return now - pooled.createdAt >= maxLifetimeMillis;
+    }
+
+    void destroy(PooledConnection pooled) {
+        try {
+            pooled.statements.clear();
+            pooled.physical.close();
+        } catch (SQLException e) {
+            // connexion déjà cassée, rien à faire
+        }
+        openCount.decrementAndGet();
+        destroyedCount.increment();
+    }
+
+    // Ferme les connexions inactives depuis trop longtemps ou trop anciennes
+    private void evict() {
+        long now = System.currentTimeMillis();
+        for (PooledConnection pooled : idle) {
+            if ((now - pooled.lastUsedAt >= idleTimeoutMillis || isExpired(pooled, now)) && idle.remove(pooled)) {
+                destroy(pooled);
+            }
+        }
+    }
+
+    public void close() {
+        closed = true;
+        housekeeper.shutdownNow();
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            destroy(pooled);
+        }
+    }
+
+    public int getMaxSize() { return maxSize; }
+    public int getOpenConnections() { return openCount.get(); }
+    public int getIdleConnections() { return idle.size(); }
+    public int getActiveConnections() { return maxSize - permits.availablePermits(); }
+    public long getBorrowCount() { return borrowCount.sum(); }
+    public long getCreatedCount() { return createdCount.sum(); }
+    public long getDestroyedCount() { return destroyedCount.sum(); }
+    public long getTimeoutCount() { return timeoutCount.sum(); }
+    public long getTotalWaitNanos() { return totalWaitNanos.sum(); }
+    public long getMaxWaitNanos() { return maxWaitNanos.get(); }
+    public long getTotalBorrowNanos() { return totalBorrowNanos.sum(); }
+    public long getMaxBorrowNanos() { return maxBorrowNanos.get(); }
+
+    public String stats() {
+        long borrows = Math.max(1, getBorrowCount());
+        return String.format("pool[open=%d, idle=%d, active=%d/%d, borrows=%d, created=%d, destroyed=%d, timeouts=%d, "
+                        + "wait avg=%.3f ms max=%.3f ms, held avg=%.3f ms max=%.3f ms]",
+                getOpenConnections(), getIdleConnections(), getActiveConnections(), maxSize, getBorrowCount(),
+                getCreatedCount(), getDestroyedCount(), getTimeoutCount(),
+                getTotalWaitNanos() / 1e6 / borrows, getMaxWaitNanos() / 1e6,
+                getTotalBorrowNanos() / 1e6 / borrows, getMaxBorrowNanos() / 1e6);
+    }
+
+    // Connexion physique, ses requêtes préparées en cache et l'emprunt en cours
+    static final class PooledConnection {
+        final ConnectionPool pool;
+        final Connection physical;
+        final StatementCache statements;
+        final long createdAt = System.currentTimeMillis();
+        volatile long lastUsedAt = createdAt;
+        volatile long borrowedAt;
+        volatile Lease lease;
+
+        PooledConnection(ConnectionPool pool, Connection physical) {
+            this.pool = pool;
+            this.physical = physical;
+            this.statements = new StatementCache(physical, StatementCache.DEFAULT_SIZE);
+        }
+    }
+
+    // Un emprunt de connexion, rendu une seule fois ; les appels d'un emprunt rendu sont refusés
+    static final class Lease {
+        final PooledConnection pooled;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        Lease(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+
+        boolean isCurrent() {
+            return !released.get() && pooled.lease == this;
+        }
+
+        // Rend la connexion au pool ; sans effet si c'est déjà fait
+        void release() {
+            if (released.compareAndSet(false, true)) {
+                pooled.pool.release(this);
+            }
+        }
+
+        // Connexion remise à l'appelant pour cet emprunt
+        Connection connection() {
+            return (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, new Handler());
+        }
+
+        private final class Handler implements InvocationHandler {
+            @Override
+            public Object invoke(Object p, java.lang.reflect.Method method, Object[] args) throws Throwable {
+                switch (method.getName()) {
+                    case "close":
+                        release();
+                        return null;
+                    case "isClosed":
+                        return !isCurrent() || pooled.physical.isClosed();
+                    // La connexion physique ne sort pas du pool
+                    case "unwrap":
+                        if (((Class<?>) args[0]).isInstance(p)) {
+                            return p;
+                        }
+                        throw new SQLException("Connexion du pool : pas d'accès à la connexion physique.");
+                    case "isWrapperFor":
+                        return ((Class<?>) args[0]).isInstance(p);
+                    case "equals":
+                        return p == args[0];
+                    case "hashCode":
+                        return System.identityHashCode(p);
+                    case "toString":
+                        return "PooledConnection[" + pooled.physical + "]";
+                    default:
+                        break;
+                }
+                if (!isCurrent()) {
+                    throw new SQLException("Connexion déjà rendue au pool.");
+                }
+                try {
+                    return method.invoke(pooled.physical, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package DAO;
+
+// Vue JMX du pool de connexions (conges:type=ConnectionPool) ; durées en nanosecondes
+public interface ConnectionPoolMXBean {
+    int getMaxSize();
+
+    int getOpenConnections();
+
+    int getIdleConnections();
+
+    int getActiveConnections();
+
+    long getBorrowCount();
+
+    long getCreatedCount();
+
+    long getDestroyedCount();
+
+    long getTimeoutCount();
+
+    long getTotalWaitNanos();
+
+    long getMaxWaitNanos();
+
+    long getTotalBorrowNanos();
+
+    long getMaxBorrowNanos();
+}
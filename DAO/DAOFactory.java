@@ -0,0 +1,213 @@
+package DAO;
+
+import Model.Employee;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.function.Consumer;
+
+// Choix du stockage, une fois pour toute l'application :
+//   -Dconges.storage=jdbc     base MySQL configurée dans DBConnection (par défaut)
+//   -Dconges.storage=memory   stockage en mémoire (tests, postes hors ligne)
+//   -Dconges.storage.journal=fichier       journal du stockage en mémoire (sinon rien n'est conservé)
+//   -Dconges.storage.journal.sync=true     attendre l'écriture sur disque à chaque modification
+// Écriture différée vers MySQL (voir WriteBehindLog), stockage JDBC uniquement, pour les employés :
+// les congés restent écrits directement, pour que les contrôles de chevauchement et de solde
+// portent toujours sur des données validées.
+//   -Dconges.writeBehind=true
+//   -Dconges.writeBehind.journal=fichier   journal local (conges-write-behind.log par défaut)
+//   -Dconges.writeBehind.sync=false        ne pas attendre le disque (plus rapide, moins sûr)
+//   -Dconges.writeBehind.maxPending=N      modifications en attente au-delà desquelles les écrivains patientent
+//   -Dconges.writeBehind.lingerMs=N        attente maximale pour grouper les modifications
+// Avec plusieurs bases (conges.shards, voir DBConnection), les DAO JDBC sont routés par ShardedDAO ;
+// l'écriture différée n'est alors pas disponible.
+// Les DAO rendus sont mesurés (voir DAOMetrics), sauf avec -Dconges.metrics=false.
+public final class DAOFactory {
+    private static final String STORAGE = System.getProperty("conges.storage", "jdbc");
+    private static final String JOURNAL = System.getProperty("conges.storage.journal");
+    private static final boolean JOURNAL_SYNC = Boolean.getBoolean("conges.storage.journal.sync");
+    private static final boolean WRITE_BEHIND = Boolean.getBoolean("conges.writeBehind");
+
+    private static volatile MemoryStore store;
+    private static volatile WriteBehindLog writeBehind;
+    private static volatile boolean writeBehindRefused;
+    private static GenericDAO<Employee> delayedEmployees;
+
+    private DAOFactory() {
+    }
+
+    public static boolean isMemory() {
+        return STORAGE.equalsIgnoreCase("memory");
+    }
+
+    public static boolean isWriteBehind() {
+        return WRITE_BEHIND && !isMemory() && !shardedWrites();
+    }
+
+    // Le journal différé ne sait pas router ses écritures : plusieurs bases le désactivent
+    private static boolean shardedWrites() {
+        if (!DBConnection.isSharded()) {
+            return false;
+        }
+        if (!writeBehindRefused) {
+            writeBehindRefused = true;
+            System.err.println("conges.writeBehind ignoré : non disponible avec plusieurs bases (conges.shards).");
+        }
+        return true;
+    }
+
+    public static GenericDAO<Employee> employeeDAO() {
+        GenericDAO<Employee> dao = storageEmployeeDAO();
+        return DAOMetrics.isEnabled() ? new InstrumentedDAO<>("employee", dao) : dao;
+    }
+
+    public static HolidayDAO holidayDAO() {
+        HolidayDAO dao = storageHolidayDAO();
+        return DAOMetrics.isEnabled() ? new InstrumentedDAO.Holidays(dao) : dao;
+    }
+
+    private static GenericDAO<Employee> storageEmployeeDAO() {
+        if (isMemory()) {
+            return new MemoryEmployeeDAO(store());
+        }
+        if (isWriteBehind()) {
+            writeBehind();
+            return delayedEmployees;
+        }
+        if (DBConnection.isSharded()) {
+            return new ShardedDAO<>(new EmployeeDAOImpl(), Employee::getId, employee -> 0);
+        }
+        return new EmployeeDAOImpl();
+    }
+
+    private static HolidayDAO storageHolidayDAO() {
+        if (isMemory()) {
+            return new MemoryHolidayDAO(store());
+        }
+        if (DBConnection.isSharded()) {
+            return new ShardedDAO.Holidays(new HolidayDAOImpl());
+        }
+        return new HolidayDAOImpl();
+    }
+
+    // Modifications différées abandonnées à la validation : listener reçoit un message pour
+    // l'utilisateur, depuis le thread d'écriture (sans effet sans écriture différée)
+    public static void setWriteBehindRejectionListener(Consumer<String> listener) {
+        if (isWriteBehind()) {
+            writeBehind().setRejectionListener(listener);
+        }
+    }
+
+    // Attend la validation des écritures différées en attente ; false si le délai expire
+    public static boolean flushWrites(long timeoutMs) throws InterruptedException {
+        return !isWriteBehind() || writeBehind().awaitFlushed(timeoutMs);
+    }
+
+    // Acquisition mensuelle des congés payés, une seule fois par mois ; false si déjà créditée
+    public static boolean accrueMonth(YearMonth month) {
+        if (!isMemory()) {
+            return LeaveBalanceLedger.shared().accrueMonth(month);
+        }
+        LeaveBalanceLedger ledger = LeaveBalanceLedger.shared();
+        ledger.preload();
+        if (!store().accrueMonth(month, LeaveBalanceLedger.MONTHLY_ACCRUAL)) {
+            return false;
+        }
+        ledger.applyAccrual(LeaveBalanceLedger.MONTHLY_ACCRUAL);
+        System.out.println("Acquisition de congés créditée pour " + month + ".");
+        return true;
+    }
+
+    // Acquisition de chaque mois non encore crédité jusqu'à upTo, y compris ceux où l'application
+    // n'a pas tourné ; retourne le nombre de mois crédités
+    public static int accrueMonthsUpTo(YearMonth upTo) {
+        if (!isMemory()) {
+            return LeaveBalanceLedger.shared().accrueMonthsUpTo(upTo);
+        }
+        LeaveBalanceLedger ledger = LeaveBalanceLedger.shared();
+        ledger.preload();
+        List<YearMonth> credited = store().accrueMonthsUpTo(upTo, LeaveBalanceLedger.MONTHLY_ACCRUAL);
+        for (YearMonth month : credited) {
+            ledger.applyAccrual(LeaveBalanceLedger.MONTHLY_ACCRUAL);
+            System.out.println("Acquisition de congés créditée pour " + month + ".");
+        }
+        return credited.size();
+    }
+
+    // Ferme le journal ou le pool de connexions (après validation des écritures différées)
+    public static synchronized void shutdown() {
+        DAOMetrics.shared().close();
+        if (!isMemory()) {
+            if (writeBehind != null) {
+                try {
+                    writeBehind.close();
+                } catch (IOException e) {
+                    System.err.println("Erreur lors de la fermeture du journal : " + e.getMessage());
+                }
+                writeBehind = null;
+            }
+            DBConnection.shutdown();
+            return;
+        }
+        if (store != null) {
+            try {
+                store.close();
+            } catch (IOException e) {
+                System.err.println("Erreur lors de la fermeture du journal : " + e.getMessage());
+            }
+            store = null;
+        }
+    }
+
+    private static WriteBehindLog writeBehind() {
+        WriteBehindLog log = writeBehind;
+        if (log == null) {
+            synchronized (DAOFactory.class) {
+                log = writeBehind;
+                if (log == null) {
+                    String file = System.getProperty("conges.writeBehind.journal", "conges-write-behind.log");
+                    try {
+                        log = new WriteBehindLog(Paths.get(file),
+                                Boolean.parseBoolean(System.getProperty("conges.writeBehind.sync", "true")),
+                                Integer.getInteger("conges.writeBehind.maxPending", 10_000),
+                                BatchSupport.DEFAULT_BATCH_SIZE,
+                                Long.getLong("conges.writeBehind.lingerMs", 20L));
+                        EmployeeDAOImpl employees = new EmployeeDAOImpl();
+                        HolidayDAOImpl holidays = new HolidayDAOImpl();
+                        delayedEmployees = new WriteBehindDAO<>(employees, log,
+                                log.channel("E", "l'employé", employees, WriteBehindDAO.EMPLOYEE_CODEC), Employee::getId,
+                                Employee::getVersion, Employee::setVersion);
+                        // Congés : seulement pour rejouer les journaux écrits quand ils étaient différés
+                        log.channel("H", "le congé", holidays, WriteBehindDAO.HOLIDAY_CODEC);
+                        log.start();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException("Ouverture du journal impossible : " + file, e);
+                    }
+                    writeBehind = log;
+                }
+            }
+        }
+        return log;
+    }
+
+    private static MemoryStore store() {
+        MemoryStore s = store;
+        if (s == null) {
+            synchronized (DAOFactory.class) {
+                s = store;
+                if (s == null) {
+                    try {
+                        s = new MemoryStore(JOURNAL == null ? null : Paths.get(JOURNAL), JOURNAL_SYNC);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException("Ouverture du journal impossible : " + JOURNAL, e);
+                    }
+                    store = s;
+                }
+            }
+        }
+        return s;
+    }
+}
@@ -0,0 +1,222 @@
+package DAO;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Métriques des DAO, pour repérer les chemins lents en production sans profileur :
+// - par opération (ex. employee.findById, sql.executeQuery, pool.acquire) : nombre d'appels,
+//   histogramme des latences, lignes lues ou écrites, erreurs
+// - journal des requêtes lentes, avec le SQL et ses paramètres (voir StatementTracer)
+// - compteurs d'événements, ex. valeurs invalides remplacées à la lecture (voir EnumLookup)
+// Publication en JMX (conges:type=DAOOperation,name=<opération> et conges:type=DAOMetrics)
+// et, si demandé, rapport texte périodique sur la sortie standard.
+//   -Dconges.metrics=false              désactive l'instrumentation
+//   -Dconges.metrics.slowQueryMs=N      seuil du journal des requêtes lentes (200 par défaut, 0 = tout)
+//   -Dconges.metrics.dumpIntervalS=N    rapport toutes les N secondes (désactivé par défaut)
+public final class DAOMetrics implements DAOMetricsMXBean {
+    private static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("conges.metrics", "true"));
+    static final long SLOW_QUERY_NANOS = TimeUnit.MILLISECONDS.toNanos(Long.getLong("conges.metrics.slowQueryMs", 200L));
+    private static final long DUMP_INTERVAL_S = Long.getLong("conges.metrics.dumpIntervalS", 0L);
+
+    private static final DAOMetrics SHARED = new DAOMetrics();
+
+    private final Map<String, Operation> operations = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+    private ScheduledExecutorService dumper;
+
+    // Vue JMX d'une opération ; durées en millisecondes
+    public interface OperationMXBean {
+        long getCount();
+
+        long getErrors();
+
+        long getRows();
+
+        double getMeanMillis();
+
+        double getP50Millis();
+
+        double getP90Millis();
+
+        double getP99Millis();
+
+        double getMaxMillis();
+
+        void reset();
+    }
+
+    public static final class Operation implements OperationMXBean {
+        private final String name;
+        private final LatencyHistogram latencies = new LatencyHistogram();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder rows = new LongAdder();
+
+        private Operation(String name) {
+            this.name = name;
+        }
+
+        // Appel réussi commencé à startNanos (System.nanoTime()), rowCount lignes lues ou écrites ;
+        // retourne la durée mesurée
+        public long record(long startNanos, long rowCount) {
+            long elapsed = System.nanoTime() - startNanos;
+            latencies.record(elapsed);
+            if (rowCount > 0) {
+                rows.add(rowCount);
+            }
+            return elapsed;
+        }
+
+        public long failed(long startNanos) {
+            long elapsed = System.nanoTime() - startNanos;
+            latencies.record(elapsed);
+            errors.increment();
+            return elapsed;
+        }
+
+        public String getName() { return name; }
+        @Override public long getCount() { return latencies.getCount(); }
+        @Override public long getErrors() { return errors.sum(); }
+        @Override public long getRows() { return rows.sum(); }
+        @Override public double getMeanMillis() { return latencies.getMean() / 1e6; }
+        @Override public double getP50Millis() { return latencies.percentile(0.50) / 1e6; }
+        @Override public double getP90Millis() { return latencies.percentile(0.90) / 1e6; }
+        @Override public double getP99Millis() { return latencies.percentile(0.99) / 1e6; }
+        @Override public double getMaxMillis() { return latencies.getMax() / 1e6; }
+
+        @Override
+        public void reset() {
+            latencies.reset();
+            errors.reset();
+            rows.reset();
+        }
+
+        String format() {
+            return String.format(Locale.ROOT, "%-28s %9d %7d %11d %9.3f %9.3f %9.3f %9.3f %10.3f",
+                    name, getCount(), getErrors(), getRows(), getMeanMillis(),
+                    getP50Millis(), getP90Millis(), getP99Millis(), getMaxMillis());
+        }
+    }
+
+    private DAOMetrics() {
+        register("conges:type=DAOMetrics", this);
+        if (ENABLED && DUMP_INTERVAL_S > 0) {
+            dumper = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "conges-metrics");
+                t.setDaemon(true);
+                return t;
+            });
+            dumper.scheduleAtFixedRate(() -> System.out.println(getReport()),
+                    DUMP_INTERVAL_S, DUMP_INTERVAL_S, TimeUnit.SECONDS);
+        }
+    }
+
+    public static DAOMetrics shared() {
+        return SHARED;
+    }
+
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    // Opération du nom donné, créée (et publiée en JMX) au premier appel
+    public Operation operation(String name) {
+        Operation operation = operations.get(name);
+        if (operation != null) {
+            return operation;
+        }
+        return operations.computeIfAbsent(name, n -> {
+            Operation created = new Operation(n);
+            register("conges:type=DAOOperation,name=" + n, created);
+            return created;
+        });
+    }
+
+    // Compteur du nom donné, créé au premier appel
+    public LongAdder counter(String name) {
+        return counters.computeIfAbsent(name, n -> new LongAdder());
+    }
+
+    @Override
+    public Map<String, Long> getCounters() {
+        Map<String, Long> values = new TreeMap<>();
+        counters.forEach((name, counter) -> values.put(name, counter.sum()));
+        return values;
+    }
+
+    @Override
+    public String getReport() {
+        StringBuilder report = new StringBuilder(String.format(Locale.ROOT,
+                "%-28s %9s %7s %11s %9s %9s %9s %9s %10s%n", "opération", "appels", "erreurs", "lignes",
+                "moy (ms)", "p50 (ms)", "p90 (ms)", "p99 (ms)", "max (ms)"));
+        for (Operation operation : new TreeMap<>(operations).values()) {
+            if (operation.getCount() > 0) {
+                report.append(operation.format()).append(System.lineSeparator());
+            }
+        }
+        getCounters().forEach((name, value) -> {
+            if (value > 0) {
+                report.append(String.format(Locale.ROOT, "%-28s %9d%n", name, value));
+            }
+        });
+        for (ConnectionPool pool : DBConnection.currentPools()) {
+            report.append(pool.stats()).append(System.lineSeparator());
+        }
+        report.append(DAOSession.stats());
+        return report.toString();
+    }
+
+    @Override
+    public void reset() {
+        operations.values().forEach(Operation::reset);
+        counters.values().forEach(LongAdder::reset);
+    }
+
+    // Arrête le rapport périodique, après un dernier rapport
+    public synchronized void close() {
+        if (dumper != null) {
+            dumper.shutdownNow();
+            dumper = null;
+            System.out.println(getReport());
+        }
+    }
+
+    static void unregister(String name) {
+        if (!ENABLED) {
+            return;
+        }
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(name);
+            if (server.isRegistered(objectName)) {
+                server.unregisterMBean(objectName);
+            }
+        } catch (JMException | RuntimeException e) {
+            System.err.println("Retrait JMX impossible pour " + name + " : " + e.getMessage());
+        }
+    }
+
+    static void register(String name, Object bean) {
+        if (!ENABLED) {
+            return;
+        }
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(name);
+            if (!server.isRegistered(objectName)) {
+                server.registerMBean(bean, objectName);
+            }
+        } catch (JMException | RuntimeException e) {
+            System.err.println("Publication JMX impossible pour " + name + " : " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package DAO;
+
+import java.util.Map;
+
+// Vue JMX de l'ensemble des métriques des DAO (voir DAOMetrics)
+public interface DAOMetricsMXBean {
+    String getReport();
+
+    // Compteurs d'événements (ex. mapping.employee.role.invalid : valeurs invalides lues en base)
+    Map<String, Long> getCounters();
+
+    void reset();
+}
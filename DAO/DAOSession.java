@@ -0,0 +1,130 @@
+package DAO;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+// Session DAO : une connexion empruntée au pool et ses requêtes préparées en cache.
+// La session est propre au thread et réentrante : un appel DAO imbriqué (ex. add() qui
+// résout un employé) réutilise la même connexion. La connexion revient au pool à la
+// fermeture de la session la plus externe ; ses PreparedStatement restent en cache sur
+// la connexion physique pour les sessions suivantes.
+//
+// Les PreparedStatement obtenus par prepare() appartiennent au cache : ne pas les fermer,
+// seulement leurs ResultSet.
+public final class DAOSession implements AutoCloseable {
+    private static final ThreadLocal<DAOSession> CURRENT = new ThreadLocal<>();
+
+    // Travail exécuté dans une transaction de la session
+    public interface Work<R> {
+        R run(DAOSession session) throws SQLException;
+    }
+
+    private final ConnectionPool.Lease lease;
+    private final ConnectionPool.PooledConnection pooled;
+    private int depth = 1;
+    // Actions différées à la validation de la transaction en cours (null hors transaction)
+    private List<Runnable> afterCommit;
+
+    private DAOSession(ConnectionPool.Lease lease) {
+        this.lease = lease;
+        this.pooled = lease.pooled;
+    }
+
+    // La session est ouverte sur la base du routage en cours (voir DBConnection.route) ; une session
+    // imbriquée doit viser la même base : une transaction ne couvre jamais plusieurs bases
+    public static DAOSession open() throws SQLException {
+        DAOSession session = CURRENT.get();
+        ConnectionPool pool = DBConnection.getPool();
+        if (session != null) {
+            if (session.pooled.pool != pool) {
+                throw new SQLException("Une session est déjà ouverte sur une autre base que "
+                        + DBConnection.currentShard().getName() + ".");
+            }
+            session.depth++;
+            return session;
+        }
+        session = new DAOSession(pool.borrow());
+        CURRENT.set(session);
+        return session;
+    }
+
+    public PreparedStatement prepare(String sql) throws SQLException {
+        return pooled.statements.prepare(sql, false);
+    }
+
+    public PreparedStatement prepareWithKeys(String sql) throws SQLException {
+        return pooled.statements.prepare(sql, true);
+    }
+
+    // Connexion de la session, pour les transactions ; ne pas la fermer
+    public Connection getConnection() {
+        return pooled.physical;
+    }
+
+    // Exécute le travail dans une transaction (validée à la fin, annulée en cas d'erreur).
+    // Dans une transaction déjà ouverte, le travail en fait simplement partie.
+    public <R> R transaction(Work<R> work) throws SQLException {
+        Connection conn = pooled.physical;
+        if (!conn.getAutoCommit()) {
+            return work.run(this);
+        }
+        conn.setAutoCommit(false);
+        List<Runnable> actions = new ArrayList<>();
+        afterCommit = actions;
+        R result;
+        try {
+            result = work.run(this);
+            conn.commit();
+        } catch (SQLException | RuntimeException | Error e) {
+            // Toute erreur annule : setAutoCommit(true) validerait sinon le travail à moitié fait
+            conn.rollback();
+            throw e;
+        } finally {
+            afterCommit = null;
+            conn.setAutoCommit(true);
+        }
+        actions.forEach(Runnable::run);
+        return result;
+    }
+
+    // Exécute l'action après validation de la transaction en cours du thread (oubliée en cas
+    // d'annulation), ou tout de suite hors transaction
+    static void afterCommit(Runnable action) {
+        DAOSession session = CURRENT.get();
+        if (session != null && session.afterCommit != null) {
+            session.afterCommit.add(action);
+        } else {
+            action.run();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (--depth == 0) {
+            CURRENT.remove();
+            lease.release();
+        }
+    }
+
+    public static long getStatementCacheHits() {
+        return StatementCache.getHits();
+    }
+
+    public static long getStatementCacheMisses() {
+        return StatementCache.getMisses();
+    }
+
+    public static long getStatementCacheEvictions() {
+        return StatementCache.getEvictions();
+    }
+
+    public static String stats() {
+        long hits = getStatementCacheHits();
+        long total = Math.max(1, hits + getStatementCacheMisses());
+        return String.format("statements[hits=%d, misses=%d, evictions=%d, hitRate=%.1f%%]",
+                hits, getStatementCacheMisses(), getStatementCacheEvictions(), 100.0 * hits / total);
+    }
+}
@@ -1,15 +1,175 @@
 package DAO;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
 
+// Accès aux bases, configuré dans conges.properties ou par -D (voir DatabaseConfig).
+// Une seule base par défaut :
+//   conges.db.url, conges.db.user, conges.db.password
+// Une base par filiale :
+//   conges.shards=paris,lyon
+//   conges.shard.paris.url=jdbc:mysql://db-paris:3306/conges   (.user, .password : sinon ceux de conges.db)
+//   conges.shard.paris.ids=1-9999999     plage d'IDs de la base, disjointe des autres
+//   conges.tenant=paris                  base des employés créés par cette instance (la première sinon)
+// Pool de chaque base : conges.pool.maxSize, .maxWaitMs, .idleTimeoutMs, .maxLifetimeMs, .validationTimeoutS,
+// surchargeables par base (conges.shard.paris.pool.maxSize...).
+// Pour les essais, chaque base peut être une base embarquée (ex. jdbc:h2:mem:paris;MODE=MySQL;DB_CLOSE_DELAY=-1).
+//
+// Les connexions sont empruntées à la base du routage en cours du thread (route()), sinon à celle
+// de l'instance. ShardedDAO route chaque appel DAO vers la base qui possède l'ID.
 public class DBConnection {
-    private static final String URL = "jdbc:mysql://localhost:3306/conges";
-    private static final String USER = "root";
-    private static final String PASSWORD = "";
+    private static final String URL = DatabaseConfig.get("conges.db.url",
+            "jdbc:mysql://localhost:3306/conges?useServerPrepStmts=true"); // requêtes préparées côté serveur
+    private static final String USER = DatabaseConfig.get("conges.db.user", "root");
+    private static final String PASSWORD = DatabaseConfig.get("conges.db.password", "");
 
+    private static final String POOL_MBEAN = "conges:type=ConnectionPool";
+
+    // Bases triées par plage d'IDs croissante
+    private static final List<Shard> SHARDS = loadShards();
+    private static final Shard TENANT = tenant();
+
+    private static final ThreadLocal<Shard> ROUTE = new ThreadLocal<>();
+
+    // Routage du thread vers une base, jusqu'à close() (qui rétablit le routage précédent)
+    public static final class Route implements AutoCloseable {
+        private final Shard previous;
+
+        private Route(Shard previous) {
+            this.previous = previous;
+        }
+
+        @Override
+        public void close() {
+            if (previous == null) {
+                ROUTE.remove();
+            } else {
+                ROUTE.set(previous);
+            }
+        }
+    }
+
+    // Emprunte une connexion au pool ; close() la rend au pool au lieu de la fermer
     public static Connection getConnection() throws SQLException {
-        return DriverManager.getConnection(URL, USER, PASSWORD);
+        return getPool().getConnection();
+    }
+
+    // Pool de la base du routage en cours
+    public static ConnectionPool getPool() {
+        return currentShard().getPool();
+    }
+
+    public static Route route(Shard shard) {
+        Route route = new Route(ROUTE.get());
+        ROUTE.set(shard);
+        return route;
+    }
+
+    public static Shard currentShard() {
+        Shard shard = ROUTE.get();
+        return shard != null ? shard : TENANT;
+    }
+
+    public static List<Shard> shards() {
+        return SHARDS;
+    }
+
+    public static boolean isSharded() {
+        return SHARDS.size() > 1;
+    }
+
+    // Base des objets créés par cette instance
+    public static Shard tenantShard() {
+        return TENANT;
+    }
+
+    // Base qui possède l'ID, null si aucune
+    public static Shard shardOf(int id) {
+        for (Shard shard : SHARDS) {
+            if (shard.ownsId(id)) {
+                return shard;
+            }
+        }
+        return null;
+    }
+
+    // Pools déjà créés (sans en créer)
+    static List<ConnectionPool> currentPools() {
+        List<ConnectionPool> pools = new ArrayList<>();
+        for (Shard shard : SHARDS) {
+            ConnectionPool pool = shard.currentPool();
+            if (pool != null) {
+                pools.add(pool);
+            }
+        }
+        return pools;
+    }
+
+    public static synchronized void shutdown() {
+        for (Shard shard : SHARDS) {
+            shard.shutdown();
+        }
+    }
+
+    private static List<Shard> loadShards() {
+        String names = DatabaseConfig.get("conges.shards", "");
+        if (names.isEmpty()) {
+            return Collections.singletonList(shard("default", URL, USER, PASSWORD, "1-" + Integer.MAX_VALUE,
+                    "conges.pool", POOL_MBEAN));
+        }
+        List<Shard> shards = new ArrayList<>();
+        for (String name : names.split(",")) {
+            name = name.trim();
+            String prefix = "conges.shard." + name;
+            String url = DatabaseConfig.get(prefix + ".url", null);
+            String ids = DatabaseConfig.get(prefix + ".ids", null);
+            if (url == null || ids == null) {
+                throw new IllegalStateException("Base " + name + " : " + prefix + ".url et " + prefix + ".ids sont requis.");
+            }
+            shards.add(shard(name, url, DatabaseConfig.get(prefix + ".user", USER),
+                    DatabaseConfig.get(prefix + ".password", PASSWORD), ids, prefix + ".pool",
+                    POOL_MBEAN + ",shard=" + name));
+        }
+        shards.sort(Comparator.comparingInt(Shard::getFirstId));
+        for (int i = 1; i < shards.size(); i++) {
+            if (shards.get(i).getFirstId() <= shards.get(i - 1).getLastId()) {
+                throw new IllegalStateException("Plages d'IDs qui se chevauchent : " + shards.get(i - 1) + " et " + shards.get(i));
+            }
+        }
+        return Collections.unmodifiableList(shards);
+    }
+
+    // Paramètres du pool : ceux de la base (poolPrefix.xxx), sinon conges.pool.xxx
+    private static Shard shard(String name, String url, String user, String password, String ids,
+                               String poolPrefix, String mbean) {
+        int dash = ids.indexOf('-');
+        return new Shard(name, url, user, password,
+                Integer.parseInt(ids.substring(0, dash).trim()), Integer.parseInt(ids.substring(dash + 1).trim()),
+                DatabaseConfig.getInt(poolPrefix + ".maxSize", DatabaseConfig.getInt("conges.pool.maxSize", 10)),
+                DatabaseConfig.getLong(poolPrefix + ".maxWaitMs", DatabaseConfig.getLong("conges.pool.maxWaitMs", 5_000L)),
+                DatabaseConfig.getLong(poolPrefix + ".idleTimeoutMs",
+                        DatabaseConfig.getLong("conges.pool.idleTimeoutMs", 300_000L)),
+                DatabaseConfig.getLong(poolPrefix + ".maxLifetimeMs",
+                        DatabaseConfig.getLong("conges.pool.maxLifetimeMs", 1_800_000L)),
+                DatabaseConfig.getInt(poolPrefix + ".validationTimeoutS",
+                        DatabaseConfig.getInt("conges.pool.validationTimeoutS", 2)),
+                mbean);
+    }
+
+    private static Shard tenant() {
+        String name = DatabaseConfig.get("conges.tenant", null);
+        if (name == null) {
+            return SHARDS.get(0);
+        }
+        for (Shard shard : SHARDS) {
+            if (shard.getName().equals(name)) {
+                return shard;
+            }
+        }
+        throw new IllegalStateException("Base inconnue pour conges.tenant : " + name);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,59 @@
+package DAO;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Properties;
+
+// Paramètres d'accès aux bases, hors du code : fichier de propriétés (-Dconges.config=fichier,
+// par défaut conges.properties s'il existe), chaque clé pouvant être surchargée par la propriété
+// système de même nom. Les mots de passe n'ont ainsi plus à figurer dans le code ni sur la ligne
+// de commande. Clés reconnues : voir DBConnection.
+public final class DatabaseConfig {
+    private static final String DEFAULT_FILE = "conges.properties";
+
+    private static final Properties FILE = load();
+
+    private DatabaseConfig() {
+    }
+
+    public static String get(String key, String defaultValue) {
+        String value = System.getProperty(key);
+        if (value == null) {
+            value = FILE.getProperty(key);
+        }
+        return value == null ? defaultValue : value.trim();
+    }
+
+    public static int getInt(String key, int defaultValue) {
+        String value = get(key, null);
+        return value == null ? defaultValue : Integer.parseInt(value);
+    }
+
+    public static long getLong(String key, long defaultValue) {
+        String value = get(key, null);
+        return value == null ? defaultValue : Long.parseLong(value);
+    }
+
+    private static Properties load() {
+        String configured = System.getProperty("conges.config");
+        Path file = Paths.get(configured != null ? configured : DEFAULT_FILE);
+        Properties properties = new Properties();
+        if (!Files.exists(file)) {
+            if (configured != null) {
+                throw new IllegalStateException("Fichier de configuration introuvable : " + file);
+            }
+            return properties;
+        }
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Lecture de la configuration impossible : " + file, e);
+        }
+        return properties;
+    }
+}
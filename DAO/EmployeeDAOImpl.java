@@ -1,139 +1,223 @@
 package DAO;
 
 import Model.Employee;
-import Model.Poste;
-import Model.Role;
 
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Stream;
 
 public class EmployeeDAOImpl implements GenericDAO<Employee> {
+    private static final String INSERT_EMPLOYEE_SQL = "INSERT INTO Employe (nom, prenom, email, phone, salaire, role, poste, holidayBalance) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    // Le solde de congés n'est pas modifié ici : il est tenu par LeaveBalanceLedger, sans changer la
+    // version (un congé posé ne doit pas faire échouer la modification de la fiche de l'employé).
+    // La ligne n'est écrite que si elle est encore à la version lue (verrouillage optimiste).
+    private static final String UPDATE_EMPLOYEE_SQL = "UPDATE Employe SET nom = ?, prenom = ?, email = ?, phone = ?, salaire = ?, role = ?, poste = ?, version = version + 1 WHERE id = ? AND version = ?";
+    private static final String DELETE_EMPLOYEE_SQL = "DELETE FROM Employe WHERE id = ?";
+    private static final String SELECT_ALL_EMPLOYEE_SQL = "SELECT * FROM Employe";
+    private static final String SELECT_EMPLOYEE_BY_ID_SQL = "SELECT * FROM Employe WHERE id = ?";
+    private static final String SELECT_EMPLOYEE_PAGE_SQL = "SELECT * FROM Employe WHERE id > ? ORDER BY id LIMIT ?";
+    private static final String SELECT_EMPLOYEE_IDS_SQL = "SELECT id FROM Employe ORDER BY id";
+    private static final String SELECT_ALL_EMPLOYEE_ORDERED_SQL = "SELECT * FROM Employe ORDER BY id";
+
+    private int batchSize = BatchSupport.DEFAULT_BATCH_SIZE;
+
+    public void setBatchSize(int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("La taille de lot doit être positive.");
+        }
+        this.batchSize = batchSize;
+    }
 
     @Override
     public void add(Employee employee) {
-        String sql = "INSERT INTO Employe (nom, prenom, email, phone, salaire, role, poste) VALUES (?, ?, ?, ?, ?, ?, ?)";
-        try (Connection conn = DBConnection.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setString(1, employee.getNom());
-            stmt.setString(2, employee.getPrenom());
-            stmt.setString(3, employee.getEmail());
-            stmt.setString(4, employee.getPhone());
-            stmt.setDouble(5, employee.getSalaire());
-            stmt.setString(6, employee.getRole().name());
-            stmt.setString(7, employee.getPoste().name());
-            stmt.executeUpdate();
+        try (DAOSession session = DAOSession.open()) {
+            // Transaction : un ID généré hors de la plage de la base annule l'insertion
+            int id = session.transaction(tx -> {
+                PreparedStatement stmt = tx.prepareWithKeys(INSERT_EMPLOYEE_SQL);
+                bindEmployee(stmt, employee);
+                stmt.setDouble(8, employee.getHolidayBalance()); // Solde initial
+                stmt.executeUpdate();
+                try (ResultSet keys = stmt.getGeneratedKeys()) {
+                    return keys.next() ? DBConnection.currentShard().checkGeneratedId(keys.getInt(1)) : -1;
+                }
+            });
+            if (id > 0) {
+                employee.setId(id);
+                EmployeeNameIndex.shared().put(employee.getId(), EmployeeNameIndex.fullName(employee));
+                LeaveBalanceLedger.shared().put(employee.getId(), employee.getHolidayBalance());
+                ChangeBus.shared().created(Employee.class, employee.getId(), employee);
+            }
         } catch (SQLException e) {
-            e.printStackTrace();
+            throw new IllegalStateException("Erreur lors de l'ajout de l'employé : " + e.getMessage(), e);
         }
     }
 
     @Override
     public void delete(int id) {
-        String sql = "DELETE FROM Employe WHERE id = ?";
-        try (Connection conn = DBConnection.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql)) {
+        try (DAOSession session = DAOSession.open()) {
+            PreparedStatement stmt = session.prepare(DELETE_EMPLOYEE_SQL);
             stmt.setInt(1, id);
-            stmt.executeUpdate();
+            if (stmt.executeUpdate() > 0) {
+                ChangeBus.shared().deleted(Employee.class, id);
+            }
+            EmployeeNameIndex.shared().remove(id);
+            LeaveBalanceLedger.shared().remove(id);
         } catch (SQLException e) {
-            e.printStackTrace();
+            throw new IllegalStateException("Erreur lors de la suppression de l'employé : " + e.getMessage(), e);
         }
     }
 
     @Override
-public List<Employee> listAll() {
-    List<Employee> employees = new ArrayList<>();
-    String sql = "SELECT * FROM Employe";
-    try (Connection conn = DBConnection.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql);
-         ResultSet rs = stmt.executeQuery()) {
-
-        while (rs.next()) {
-            String roleStr = rs.getString("role").toUpperCase();
-            String posteStr = rs.getString("poste").toUpperCase();
-
-            Role role = null;
-            Poste poste = null;
-            try {
-                role = Role.valueOf(roleStr);
-            } catch (IllegalArgumentException e) {
-                System.out.println("Role non valide : " + roleStr);
-                role = Role.EMPLOYE; // Valeur par défaut
-            }
+    public List<Employee> listAll() {
+        List<Employee> employees = new ArrayList<>();
+        try (DAOSession session = DAOSession.open(); ResultSet rs = session.prepare(SELECT_ALL_EMPLOYEE_SQL).executeQuery()) {
+            RowMappers.EMPLOYEE.readAll(rs, employees);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Erreur lors de la récupération des employés : " + e.getMessage(), e);
+        }
+        return employees;
+    }
 
-            try {
-                poste = Poste.valueOf(posteStr);
-            } catch (IllegalArgumentException e) {
-                System.out.println("Poste non valide : " + posteStr);
-                poste = Poste.INGENIEURE_ETUDE_ET_DEVELOPPEMENT; // Valeur par défaut
+    @Override
+    public List<Employee> listPage(int afterId, int limit) {
+        List<Employee> employees = new ArrayList<>(Math.min(limit, 1000));
+        try (DAOSession session = DAOSession.open()) {
+            PreparedStatement stmt = session.prepare(SELECT_EMPLOYEE_PAGE_SQL);
+            stmt.setInt(1, afterId);
+            stmt.setInt(2, limit);
+            try (ResultSet rs = stmt.executeQuery()) {
+                RowMappers.EMPLOYEE.readAll(rs, employees);
             }
-
-            Employee employee = new Employee(
-                    rs.getString("nom"),
-                    rs.getString("prenom"),
-                    rs.getString("email"),
-                    rs.getString("phone"),
-                    rs.getDouble("salaire"),
-                    Role.valueOf(rs.getString("role")),
-                    Poste.valueOf(rs.getString("poste"))
-            );
-            employee.setId(rs.getInt("id"));
-            employees.add(employee);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Erreur lors de la récupération des employés : " + e.getMessage(), e);
         }
-    } catch (SQLException e) {
-        e.printStackTrace();
+        return employees;
     }
-    return employees;
-}
-
-    
 
+    @Override
+    public Stream<Employee> streamAll() {
+        return ResultStreams.stream(SELECT_ALL_EMPLOYEE_ORDERED_SQL, RowMappers.EMPLOYEE);
+    }
 
+    @Override
+    public int[] listIds() {
+        return ResultStreams.readInts(SELECT_EMPLOYEE_IDS_SQL);
+    }
 
     @Override
     public Employee findById(int id) {
-        String sql = "SELECT * FROM Employe WHERE id = ?";
-        try (Connection conn = DBConnection.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql)) {
+        try (DAOSession session = DAOSession.open()) {
+            PreparedStatement stmt = session.prepare(SELECT_EMPLOYEE_BY_ID_SQL);
             stmt.setInt(1, id);
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                return new Employee(
-                        rs.getString("nom"),
-                        rs.getString("prenom"),
-                        rs.getString("email"),
-                        rs.getString("phone"),
-                        rs.getDouble("salaire"),
-                        Role.valueOf(rs.getString("role")),
-                        Poste.valueOf(rs.getString("poste"))
-                );
+            try (ResultSet rs = stmt.executeQuery()) {
+                return RowMappers.EMPLOYEE.readFirst(rs);
             }
         } catch (SQLException e) {
-            e.printStackTrace();
+            throw new IllegalStateException("Erreur lors de la recherche de l'employé : " + e.getMessage(), e);
         }
-        return null;
     }
 
     @Override
-    public void update(Employee employee, int id) {
-        String sql = "UPDATE Employe SET nom = ?, prenom = ?, email = ?, phone = ?, salaire = ?, role = ?, poste = ? WHERE id = ?";
-            
-        try (Connection conn = DBConnection.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setString(1, employee.getNom());
-            stmt.setString(2, employee.getPrenom());
-            stmt.setString(3, employee.getEmail());
-            stmt.setString(4, employee.getPhone());
-            stmt.setDouble(5, employee.getSalaire());
-            stmt.setString(6, employee.getRole().name()); // Envoi du rôle en tant que chaîne (avec la méthode .name())
-            stmt.setString(7, employee.getPoste().name()); // Idem pour le poste
+    public UpdateResult<Employee> update(Employee employee, int id) {
+        try (DAOSession session = DAOSession.open()) {
+            PreparedStatement stmt = session.prepare(UPDATE_EMPLOYEE_SQL);
+            bindEmployee(stmt, employee);
             stmt.setInt(8, id); // L'ID de l'employé à mettre à jour
+            stmt.setInt(9, employee.getVersion()); // La version lue
             int rowsUpdated = stmt.executeUpdate();
             
             if (rowsUpdated > 0) {
-                System.out.println("L'employé a été mis à jour avec succès.");
-            } else {
-                System.out.println("Aucun employé trouvé avec cet ID.");
+                employee.setId(id);
+                employee.setVersion(employee.getVersion() + 1);
+                EmployeeNameIndex.shared().put(id, EmployeeNameIndex.fullName(employee));
+                ChangeBus.shared().updated(Employee.class, id, employee);
+                return UpdateResult.updated(employee.getVersion());
             }
-            
+            // Modifié entre-temps par un autre, ou supprimé
+            return UpdateResult.staleOrMissing(findById(id));
         } catch (SQLException e) {
-            e.printStackTrace();
+            return UpdateResult.failed(e);
+        }
+    }
+
+    @Override
+    public BatchResult addAll(List<Employee> employees) {
+        BatchResult result = BatchSupport.execute(INSERT_EMPLOYEE_SQL, employees.size(), batchSize, true,
+                (stmt, row) -> {
+                    bindEmployee(stmt, employees.get(row));
+                    stmt.setDouble(8, employees.get(row).getHolidayBalance());
+                    return true;
+                });
+        for (int row = 0; row < employees.size(); row++) {
+            if (result.getGeneratedKey(row) > 0) {
+                Employee employee = employees.get(row);
+                employee.setId(result.getGeneratedKey(row));
+                EmployeeNameIndex.shared().put(employee.getId(), EmployeeNameIndex.fullName(employee));
+                LeaveBalanceLedger.shared().put(employee.getId(), employee.getHolidayBalance());
+                ChangeBus.shared().created(Employee.class, employee.getId(), employee);
+            }
         }
+        return result;
+    }
+
+    @Override
+    public BatchResult updateAll(List<Employee> employees) {
+        return updateRows(employees, false);
+    }
+
+    @Override
+    public BatchResult compareAndSetAll(List<Employee> employees) {
+        return updateRows(employees, true);
+    }
+
+    // Mise à jour en lot avec contrôle de version ; allOrNothing : une ligne périmée annule le lot
+    private BatchResult updateRows(List<Employee> employees, boolean allOrNothing) {
+        BatchResult result = BatchSupport.execute(UPDATE_EMPLOYEE_SQL, employees.size(), batchSize, false,
+                (stmt, row) -> {
+                    Employee employee = employees.get(row);
+                    bindEmployee(stmt, employee);
+                    stmt.setInt(8, employee.getId());
+                    stmt.setInt(9, employee.getVersion());
+                    return true;
+                },
+                allOrNothing ? (tx, updated) -> BatchSupport.requireAllRows(updated, row -> employees.get(row).getId()) : null);
+        for (int row = 0; row < employees.size(); row++) {
+            if (result.isRowSuccessful(row)) {
+                Employee employee = employees.get(row);
+                employee.setVersion(employee.getVersion() + 1);
+                EmployeeNameIndex.shared().put(employee.getId(), EmployeeNameIndex.fullName(employee));
+                ChangeBus.shared().updated(Employee.class, employee.getId(), employee);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public BatchResult deleteAll(int... ids) {
+        BatchResult result = BatchSupport.execute(DELETE_EMPLOYEE_SQL, ids.length, batchSize, false,
+                (stmt, row) -> {
+                    stmt.setInt(1, ids[row]);
+                    return true;
+                });
+        for (int row = 0; row < ids.length; row++) {
+            if (result.isRowSuccessful(row)) {
+                EmployeeNameIndex.shared().remove(ids[row]);
+                LeaveBalanceLedger.shared().remove(ids[row]);
+                ChangeBus.shared().deleted(Employee.class, ids[row]);
+            }
+        }
+        return result;
+    }
+
+    // Paramètres 1 à 7 communs à l'insertion et à la mise à jour
+    private void bindEmployee(PreparedStatement stmt, Employee employee) throws SQLException {
+        stmt.setString(1, employee.getNom());
+        stmt.setString(2, employee.getPrenom());
+        stmt.setString(3, employee.getEmail());
+        stmt.setString(4, employee.getPhone());
+        stmt.setDouble(5, employee.getSalaire());
+        stmt.setString(6, employee.getRole().name()); // Envoi du rôle en tant que chaîne (avec la méthode .name())
+        stmt.setString(7, employee.getPoste().name()); // Idem pour le poste
     }
-    
 }
\ No newline at end of file
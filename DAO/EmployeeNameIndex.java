@@ -0,0 +1,115 @@
+package DAO;
+
+import Model.Employee;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+// Index en mémoire nom complet ("nom prenom") <-> ID employé.
+// Chargé une seule fois à la première utilisation, puis tenu à jour par le DAO des employés
+// à chaque ajout / modification / suppression. Les lectures ne prennent aucun verrou.
+public class EmployeeNameIndex {
+    private static final EmployeeNameIndex SHARED = new EmployeeNameIndex(() -> DAOFactory.employeeDAO().streamAll());
+
+    private final Supplier<Stream<Employee>> source;
+    private final Map<String, Integer> idByName = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<Integer, String> nameById = new ConcurrentSkipListMap<>();
+    private volatile boolean loaded;
+
+    public EmployeeNameIndex(Supplier<Stream<Employee>> source) {
+        this.source = source;
+    }
+
+    // Index partagé par les DAO du stockage configuré
+    public static EmployeeNameIndex shared() {
+        return SHARED;
+    }
+
+    public static String fullName(Employee employee) {
+        return employee.getNom() + " " + employee.getPrenom();
+    }
+
+    // ID de l'employé portant ce nom complet, -1 s'il est inconnu
+    public int idOf(String fullName) {
+        ensureLoaded();
+        if (fullName == null) {
+            return -1;
+        }
+        Integer id = idByName.get(fullName);
+        return id != null ? id : -1;
+    }
+
+    public String nameOf(int id) {
+        ensureLoaded();
+        return nameById.get(id);
+    }
+
+    // Noms de tous les employés, dans l'ordre des IDs
+    public List<String> allNames() {
+        ensureLoaded();
+        return new ArrayList<>(nameById.values());
+    }
+
+    // Copie ID -> nom complet, dans l'ordre des IDs
+    public Map<Integer, String> namesById() {
+        ensureLoaded();
+        return new TreeMap<>(nameById);
+    }
+
+    public synchronized void put(int id, String fullName) {
+        if (!loaded) {
+            return; // le prochain chargement lira la base
+        }
+        remove(id);
+        nameById.put(id, fullName);
+        idByName.putIfAbsent(fullName, id);
+    }
+
+    public synchronized void remove(int id) {
+        if (!loaded) {
+            return;
+        }
+        String oldName = nameById.remove(id);
+        if (oldName != null && idByName.remove(oldName, id)) {
+            // Un homonyme éventuel reprend l'entrée
+            for (Map.Entry<Integer, String> entry : nameById.entrySet()) {
+                if (entry.getValue().equals(oldName)) {
+                    idByName.putIfAbsent(oldName, entry.getKey());
+                    break;
+                }
+            }
+        }
+    }
+
+    // Oublie tout : l'index sera relu à la prochaine utilisation
+    public synchronized void invalidate() {
+        loaded = false;
+        idByName.clear();
+        nameById.clear();
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        synchronized (this) {
+            if (loaded) {
+                return;
+            }
+            try (Stream<Employee> employees = source.get()) {
+                employees.forEach(employee -> {
+                    String name = fullName(employee);
+                    nameById.put(employee.getId(), name);
+                    idByName.putIfAbsent(name, employee.getId());
+                });
+            }
+            loaded = true;
+        }
+    }
+}
@@ -0,0 +1,359 @@
+package DAO;
+
+import Model.Employee;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+// Recherche plein texte des employés (nom, prénom, email, téléphone, rôle, poste), en mémoire.
+// Index inversé : dictionnaire trié des mots (minuscules, sans accents) -> IDs triés. Chaque mot
+// de la requête est un préfixe : ses mots sont une plage contiguë du dictionnaire, sans parcours
+// des employés. Le mot le plus sélectif donne les candidats, les autres sont vérifiés sur les mots
+// du candidat ; la recherche s'arrête dès que limit résultats sont trouvés (par ID croissant).
+// Un préfixe très courant (ex. "m") ne rassemble pas ses milliers d'IDs : les employés sont
+// alors parcourus par ID croissant, et les limit premiers résultats arrivent très vite.
+// Chargé à la première utilisation, puis tenu à jour par les événements validés du ChangeBus.
+public class EmployeeSearchIndex {
+    private static final EmployeeSearchIndex SHARED = new EmployeeSearchIndex(() -> DAOFactory.employeeDAO().streamAll());
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    // Au-delà de ce nombre d'IDs pour le mot le plus sélectif, parcours des employés par ID
+    private static final int MAX_CANDIDATES = 2000;
+
+    // Employé trouvé : de quoi l'afficher sans relire la base
+    public static final class Match {
+        private final int id;
+        private final String fullName;
+        private final String email;
+
+        Match(int id, String fullName, String email) {
+            this.id = id;
+            this.fullName = fullName;
+            this.email = email;
+        }
+
+        public int getId() { return id; }
+        public String getFullName() { return fullName; }
+        public String getEmail() { return email; }
+
+        @Override
+        public String toString() {
+            return email == null || email.isEmpty() ? fullName : fullName + " (" + email + ")";
+        }
+    }
+
+    private static final class Entry {
+        final Match match;
+        final String[] tokens;
+
+        Entry(Match match, String[] tokens) {
+            this.match = match;
+            this.tokens = tokens;
+        }
+    }
+
+    private final Supplier<Stream<Employee>> source;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TreeMap<String, MemoryStore.SortedIds> postings = new TreeMap<>();
+    private final IntObjectMap<Entry> entries = new IntObjectMap<>(1024);
+    private final MemoryStore.SortedIds ids = new MemoryStore.SortedIds();
+    private volatile boolean loaded;
+
+    public EmployeeSearchIndex(Supplier<Stream<Employee>> source) {
+        this.source = source;
+        ChangeBus.shared().subscribe(Employee.class, this::apply);
+    }
+
+    // Index partagé par les vues
+    public static EmployeeSearchIndex shared() {
+        return SHARED;
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    // Charge l'index si besoin (à appeler hors de l'EDT)
+    public void preload() {
+        ensureLoaded();
+    }
+
+    // Au plus limit employés dont chaque mot de la requête commence un de leurs mots, par ID croissant
+    public List<Match> search(String query, int limit) {
+        String[] terms = query == null ? new String[0] : WHITESPACE.split(normalize(query).trim());
+        List<Match> matches = new ArrayList<>();
+        if (limit <= 0 || terms.length == 0 || terms[0].isEmpty()) {
+            return matches;
+        }
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            // Plusieurs mots courants : leur combinaison peut être rare, le parcours serait long ;
+            // on accepte alors plus de candidats (jusqu'au huitième des employés)
+            int best = mostSelective(terms, MAX_CANDIDATES);
+            if (best < 0 && terms.length > 1) {
+                best = mostSelective(terms, Math.max(MAX_CANDIDATES, ids.size() / 8));
+            }
+            if (best >= 0 && postingSize(terms[best], 1) == 0) {
+                return matches;
+            }
+            if (best < 0) {
+                for (int i = 0; i < ids.size() && matches.size() < limit; i++) {
+                    Entry entry = entries.get(ids.get(i));
+                    if (matchesAll(entry, terms, -1)) {
+                        matches.add(entry.match);
+                    }
+                }
+                return matches;
+            }
+            // Candidats rassemblés puis triés : la taille suit leur nombre, pas la valeur des IDs
+            // (ceux d'une base répartie commencent au début de sa plage)
+            Collection<MemoryStore.SortedIds> postingsOfBest = withPrefix(terms[best]);
+            int n = 0;
+            for (MemoryStore.SortedIds posting : postingsOfBest) {
+                n += posting.size();
+            }
+            int[] candidates = new int[n];
+            n = 0;
+            for (MemoryStore.SortedIds posting : postingsOfBest) {
+                for (int i = 0; i < posting.size(); i++) {
+                    candidates[n++] = posting.get(i);
+                }
+            }
+            Arrays.sort(candidates);
+            for (int i = 0; i < n && matches.size() < limit; i++) {
+                // Un employé peut avoir plusieurs mots de même préfixe
+                if (i > 0 && candidates[i] == candidates[i - 1]) {
+                    continue;
+                }
+                Entry entry = entries.get(candidates[i]);
+                if (entry != null && matchesAll(entry, terms, best)) {
+                    matches.add(entry.match);
+                }
+            }
+            return matches;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Oublie tout : l'index sera relu à la prochaine utilisation
+    public void invalidate() {
+        lock.writeLock().lock();
+        try {
+            loaded = false;
+            postings.clear();
+            entries.clear();
+            ids.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Changement validé ; ignoré tant que l'index n'est pas chargé (le chargement lira la base)
+    private void apply(ChangeEvent<Employee> event) {
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                return;
+            }
+            unindex(event.getId());
+            if (event.getKind() != ChangeEvent.Kind.DELETED) {
+                index(event.getId(), event.getEntity(), postings);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (loaded) {
+                return;
+            }
+            // Mots regroupés d'abord dans une table de hachage : une seule insertion par mot distinct
+            // dans le dictionnaire trié
+            Map<String, MemoryStore.SortedIds> staging = new HashMap<>();
+            try (Stream<Employee> employees = source.get()) {
+                employees.forEach(employee -> index(employee.getId(), employee, staging));
+            }
+            postings.putAll(staging);
+            loaded = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void index(int id, Employee employee, Map<String, MemoryStore.SortedIds> target) {
+        String[] tokens = tokensOf(employee);
+        entries.put(id, new Entry(new Match(id, EmployeeNameIndex.fullName(employee), employee.getEmail()), tokens));
+        ids.add(id);
+        for (String token : tokens) {
+            target.computeIfAbsent(token, t -> new MemoryStore.SortedIds(1)).add(id);
+        }
+    }
+
+    private void unindex(int id) {
+        Entry entry = entries.remove(id);
+        if (entry == null) {
+            return;
+        }
+        ids.remove(id);
+        for (String token : entry.tokens) {
+            MemoryStore.SortedIds posting = postings.get(token);
+            if (posting != null) {
+                posting.remove(id);
+                if (posting.size() == 0) {
+                    postings.remove(token);
+                }
+            }
+        }
+    }
+
+    private Collection<MemoryStore.SortedIds> withPrefix(String prefix) {
+        NavigableMap<String, MemoryStore.SortedIds> range =
+                postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+        return range.values();
+    }
+
+    // Mot dont les IDs sont les moins nombreux, s'il en a au plus cap ; -1 sinon
+    private int mostSelective(String[] terms, long cap) {
+        int best = -1;
+        long bestSize = cap + 1;
+        for (int t = 0; t < terms.length && bestSize > 0; t++) {
+            long size = postingSize(terms[t], bestSize);
+            if (size < bestSize) {
+                best = t;
+                bestSize = size;
+            }
+        }
+        return best;
+    }
+
+    // Nombre d'IDs des mots commençant par prefix ; le calcul s'arrête au-delà de cap
+    private long postingSize(String prefix, long cap) {
+        long size = 0;
+        for (MemoryStore.SortedIds posting : withPrefix(prefix)) {
+            size += posting.size();
+            if (size >= cap) {
+                break;
+            }
+        }
+        return size;
+    }
+
+    private static boolean matchesAll(Entry entry, String[] terms, int skip) {
+        for (int t = 0; t < terms.length; t++) {
+            if (t != skip && !hasPrefix(entry.tokens, terms[t])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean hasPrefix(String[] tokens, String prefix) {
+        for (String token : tokens) {
+            if (token.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Mots indexés : chaque mot des champs, plus la valeur entière des champs composés
+    // (ex. jean.dupont@x.fr, team_leader) et le téléphone réduit à ses chiffres
+    static String[] tokensOf(Employee employee) {
+        Set<String> tokens = new LinkedHashSet<>();
+        addWords(tokens, employee.getNom());
+        addWords(tokens, employee.getPrenom());
+        addWords(tokens, employee.getEmail());
+        addWords(tokens, employee.getPhone());
+        if (employee.getPhone() != null) {
+            StringBuilder digits = new StringBuilder(employee.getPhone().length());
+            for (int i = 0; i < employee.getPhone().length(); i++) {
+                char c = employee.getPhone().charAt(i);
+                if (c >= '0' && c <= '9') {
+                    digits.append(c);
+                }
+            }
+            if (digits.length() > 0) {
+                tokens.add(digits.toString());
+            }
+        }
+        if (employee.getRole() != null) {
+            addWords(tokens, employee.getRole().name());
+        }
+        if (employee.getPoste() != null) {
+            addWords(tokens, employee.getPoste().name());
+        }
+        return tokens.toArray(new String[0]);
+    }
+
+    private static void addWords(Set<String> tokens, String text) {
+        if (text == null) {
+            return;
+        }
+        String normalized = normalize(text).trim();
+        if (normalized.isEmpty()) {
+            return;
+        }
+        boolean single = true;
+        int start = -1;
+        for (int i = 0; i <= normalized.length(); i++) {
+            char c = i < normalized.length() ? normalized.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                if (start < 0) {
+                    start = i;
+                }
+                continue;
+            }
+            single &= !Character.isWhitespace(c) || i == normalized.length();
+            if (start >= 0) {
+                tokens.add(normalized.substring(start, i));
+                start = -1;
+            }
+        }
+        if (single) {
+            tokens.add(normalized);
+        }
+    }
+
+    // Minuscules sans accents ("Élodie" -> "elodie")
+    static String normalize(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) >= 0x80) {
+                text = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+                break;
+            }
+        }
+        return text.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,92 @@
+package DAO;
+
+import java.sql.SQLDataException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+// Décodage d'une colonne texte en enum, par table précalculée (nom exact -> constante) :
+// ni toUpperCase() ni valueOf() par ligne, donc ni allocation ni exception pour une valeur connue.
+// Une casse ou des espaces différents ("admin ", "Team_Leader") sont reconnus sans allocation.
+// Une valeur inconnue ou NULL est remplacée par la valeur de repli et comptée
+// (compteur mapping.<colonne>.invalid de DAOMetrics) ; seule la première est signalée sur la sortie d'erreur.
+// Repli configurable : -Dconges.mapping.<colonne>.fallback=CONSTANTE, ou "none" pour refuser la ligne.
+final class EnumLookup<E extends Enum<E>> {
+    private final String column;
+    private final E[] constants;
+    private final Map<String, E> byName;
+    private final E fallback;
+    private final LongAdder invalid;
+    private final AtomicBoolean reported = new AtomicBoolean();
+
+    // column : nom logique, ex. employee.role ; defaultFallback : null pour refuser les valeurs inconnues
+    EnumLookup(String column, Class<E> type, E defaultFallback) {
+        this.column = column;
+        this.constants = type.getEnumConstants();
+        this.byName = new HashMap<>(constants.length * 2);
+        for (E constant : constants) {
+            byName.put(constant.name(), constant);
+        }
+        String configured = System.getProperty("conges.mapping." + column + ".fallback");
+        if (configured == null) {
+            this.fallback = defaultFallback;
+        } else if (configured.trim().equalsIgnoreCase("none")) {
+            this.fallback = null;
+        } else {
+            this.fallback = Enum.valueOf(type, configured.trim().toUpperCase(Locale.ROOT));
+        }
+        this.invalid = DAOMetrics.shared().counter("mapping." + column + ".invalid");
+    }
+
+    E decode(String raw) throws SQLDataException {
+        if (raw != null) {
+            E value = byName.get(raw);
+            if (value != null) {
+                return value;
+            }
+            value = lenient(raw);
+            if (value != null) {
+                return value;
+            }
+        }
+        invalid.increment();
+        if (reported.compareAndSet(false, true)) {
+            System.err.println("Valeur invalide dans " + column + " : " + raw
+                    + (fallback != null ? ", remplacée par " + fallback : ", ligne refusée")
+                    + " (suivantes comptées dans mapping." + column + ".invalid).");
+        }
+        if (fallback == null) {
+            throw new SQLDataException("Valeur invalide dans " + column + " : " + raw);
+        }
+        return fallback;
+    }
+
+    E getFallback() {
+        return fallback;
+    }
+
+    long invalidCount() {
+        return invalid.sum();
+    }
+
+    // Comparaison sans tenir compte de la casse ni des espaces autour, sans créer de chaîne
+    private E lenient(String raw) {
+        int start = 0;
+        int end = raw.length();
+        while (start < end && Character.isWhitespace(raw.charAt(start))) {
+            start++;
+        }
+        while (end > start && Character.isWhitespace(raw.charAt(end - 1))) {
+            end--;
+        }
+        for (E constant : constants) {
+            String name = constant.name();
+            if (name.length() == end - start && raw.regionMatches(true, start, name, 0, name.length())) {
+                return constant;
+            }
+        }
+        return null;
+    }
+}
@@ -1,10 +1,32 @@
 package DAO;
 
 import java.util.List;
+import java.util.stream.Stream;
+// Erreur d'accès aux données : exception non vérifiée (IllegalStateException, UncheckedIOException pour un
+// journal) ; update répond FAILED et un lot échoué rend un BatchResult en échec
 public interface GenericDAO<T> {
     void add(T entity); // Ajouter un objet
     void delete(int id); // Supprimer un objet par ID
     List<T> listAll(); // Lister tous les objets
     T findById(int id); // Trouver un objet par ID
-    void update(T entity, int id); // Mettre à jour un objet
+    // Mettre à jour un objet, s'il est encore à la version lue (verrouillage optimiste) ;
+    // en cas de succès, la version de l'objet passé est avancée
+    UpdateResult<T> update(T entity, int id);
+
+    // Lecture paginée par clé : au plus limit objets d'ID > afterId, triés par ID
+    List<T> listPage(int afterId, int limit);
+    // Parcours de tous les objets en flux ; le Stream doit être fermé (try-with-resources)
+    Stream<T> streamAll();
+    // IDs de tous les objets, triés par ordre croissant
+    int[] listIds();
+
+    // Opérations en lot, exécutées dans une seule transaction
+    BatchResult addAll(List<T> entities); // Ajouter plusieurs objets (clés générées dans le résultat)
+    // Mettre à jour plusieurs objets d'après leur ID et leur version : une ligne modifiée entre-temps
+    // (ou supprimée) n'est pas écrite et compte 0 ligne, les autres sont validées
+    BatchResult updateAll(List<T> entities);
+    // Comme updateAll, mais tout ou rien : si une seule ligne n'est plus à la version lue, aucune
+    // n'est écrite (résultat en échec, isVersionConflict())
+    BatchResult compareAndSetAll(List<T> entities);
+    BatchResult deleteAll(int... ids); // Supprimer plusieurs objets par ID
 }
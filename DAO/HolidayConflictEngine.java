@@ -0,0 +1,360 @@
+package DAO;
+
+import Model.Holiday;
+
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+// Détection des chevauchements de congés, sans requête SQL.
+// Pour chaque employé, les congés sont gardés triés par date de début, vus comme un arbre
+// binaire équilibré implicite (nœud = milieu de chaque plage) où chaque nœud porte la plus
+// grande date de fin de son sous-arbre : un sous-arbre qui finit avant la période, ou qui
+// commence après elle, n'est pas parcouru. Savoir si une période [début, fin] (bornes
+// incluses) chevauche un congé existant coûte O(log n).
+// Chargé une fois depuis les congés enregistrés, puis tenu à jour par le DAO des congés : il ne voit
+// que les écritures de ce processus. C'est un filtre rapide ; la règle elle-même est vérifiée par le
+// stockage au moment d'écrire (HolidayRules), contre les congés de tous les postes.
+public class HolidayConflictEngine {
+    private static final HolidayConflictEngine SHARED = new HolidayConflictEngine(() -> DAOFactory.holidayDAO().streamAll());
+
+    // Chevauchement entre deux congés d'un même employé
+    public static final class Overlap {
+        private final int employeeId;
+        private final int firstHolidayId;
+        private final int secondHolidayId;
+
+        Overlap(int employeeId, int firstHolidayId, int secondHolidayId) {
+            this.employeeId = employeeId;
+            this.firstHolidayId = firstHolidayId;
+            this.secondHolidayId = secondHolidayId;
+        }
+
+        public int getEmployeeId() { return employeeId; }
+        public int getFirstHolidayId() { return firstHolidayId; }
+        public int getSecondHolidayId() { return secondHolidayId; }
+
+        @Override
+        public String toString() {
+            return "employé " + employeeId + " : congés " + firstHolidayId + " et " + secondHolidayId;
+        }
+    }
+
+    // Congés d'un employé, triés par début ; jamais modifié une fois publié (copie à l'écriture)
+    private static final class Intervals {
+        static final Intervals EMPTY = new Intervals(new int[0], new long[0], new long[0]);
+
+        final int[] ids;
+        final long[] starts;
+        final long[] ends;
+        // maxEnds[milieu] = plus grande fin de la plage [lo, hi] dont milieu est le nœud
+        final long[] maxEnds;
+
+        Intervals(int[] ids, long[] starts, long[] ends) {
+            this.ids = ids;
+            this.starts = starts;
+            this.ends = ends;
+            this.maxEnds = new long[ends.length];
+            buildMaxEnds(0, ends.length - 1);
+        }
+
+        private long buildMaxEnds(int lo, int hi) {
+            if (lo > hi) {
+                return Long.MIN_VALUE;
+            }
+            int mid = (lo + hi) >>> 1;
+            long max = Math.max(ends[mid], Math.max(buildMaxEnds(lo, mid - 1), buildMaxEnds(mid + 1, hi)));
+            maxEnds[mid] = max;
+            return max;
+        }
+
+        // Congés de [lo, hi] qui chevauchent [start, end] ; false quand firstOnly et un congé est trouvé
+        boolean search(int lo, int hi, long start, long end, int excludeId, boolean firstOnly, List<Integer> found) {
+            if (lo > hi || starts[lo] > end) {
+                return true;
+            }
+            int mid = (lo + hi) >>> 1;
+            if (maxEnds[mid] < start) {
+                return true;
+            }
+            if (!search(lo, mid - 1, start, end, excludeId, firstOnly, found)) {
+                return false;
+            }
+            if (starts[mid] <= end && ends[mid] >= start && ids[mid] != excludeId) {
+                found.add(ids[mid]);
+                if (firstOnly) {
+                    return false;
+                }
+            }
+            return search(mid + 1, hi, start, end, excludeId, firstOnly, found);
+        }
+
+        int size() {
+            return ids.length;
+        }
+
+        // Index du dernier congé qui commence au plus tard le jour donné, -1 sinon
+        int lastStartingOnOrBefore(long day) {
+            int lo = 0;
+            int hi = starts.length - 1;
+            int found = -1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                if (starts[mid] <= day) {
+                    found = mid;
+                    lo = mid + 1;
+                } else {
+                    hi = mid - 1;
+                }
+            }
+            return found;
+        }
+
+        Intervals with(int id, long start, long end) {
+            Intervals base = without(id);
+            int n = base.size();
+            int pos = base.lastStartingOnOrBefore(start) + 1;
+            int[] newIds = new int[n + 1];
+            long[] newStarts = new long[n + 1];
+            long[] newEnds = new long[n + 1];
+            System.arraycopy(base.ids, 0, newIds, 0, pos);
+            System.arraycopy(base.starts, 0, newStarts, 0, pos);
+            System.arraycopy(base.ends, 0, newEnds, 0, pos);
+            newIds[pos] = id;
+            newStarts[pos] = start;
+            newEnds[pos] = end;
+            System.arraycopy(base.ids, pos, newIds, pos + 1, n - pos);
+            System.arraycopy(base.starts, pos, newStarts, pos + 1, n - pos);
+            System.arraycopy(base.ends, pos, newEnds, pos + 1, n - pos);
+            return new Intervals(newIds, newStarts, newEnds);
+        }
+
+        Intervals without(int id) {
+            for (int i = 0; i < ids.length; i++) {
+                if (ids[i] == id) {
+                    int n = ids.length - 1;
+                    int[] newIds = new int[n];
+                    long[] newStarts = new long[n];
+                    long[] newEnds = new long[n];
+                    System.arraycopy(ids, 0, newIds, 0, i);
+                    System.arraycopy(starts, 0, newStarts, 0, i);
+                    System.arraycopy(ends, 0, newEnds, 0, i);
+                    System.arraycopy(ids, i + 1, newIds, i, n - i);
+                    System.arraycopy(starts, i + 1, newStarts, i, n - i);
+                    System.arraycopy(ends, i + 1, newEnds, i, n - i);
+                    return new Intervals(newIds, newStarts, newEnds);
+                }
+            }
+            return this;
+        }
+    }
+
+    private final Supplier<Stream<Holiday>> source;
+    private final Map<Integer, Intervals> byEmployee = new ConcurrentHashMap<>();
+    private final Map<Integer, Integer> employeeByHoliday = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+
+    public HolidayConflictEngine(Supplier<Stream<Holiday>> source) {
+        this.source = source;
+    }
+
+    // Moteur partagé par les DAO du stockage configuré
+    public static HolidayConflictEngine shared() {
+        return SHARED;
+    }
+
+    public boolean hasConflict(int employeeId, LocalDate start, LocalDate end) {
+        return hasConflict(employeeId, start, end, 0);
+    }
+
+    // Vrai si la période chevauche un congé de l'employé autre que excludeHolidayId (0 = aucun)
+    public boolean hasConflict(int employeeId, LocalDate start, LocalDate end, int excludeHolidayId) {
+        return !conflicts(employeeId, start.toEpochDay(), end.toEpochDay(), excludeHolidayId, true).isEmpty();
+    }
+
+    // IDs des congés de l'employé qui chevauchent la période
+    public List<Integer> findConflicts(int employeeId, LocalDate start, LocalDate end, int excludeHolidayId) {
+        return conflicts(employeeId, start.toEpochDay(), end.toEpochDay(), excludeHolidayId, false);
+    }
+
+    // Exécute l'écriture seulement si la période ne chevauche aucun autre congé connu de l'employé
+    // (excludeHolidayId = congé modifié, 0 sinon). Vérification et écriture se font sous le verrou
+    // du moteur : dans ce processus, la seconde de deux demandes qui se chevauchent est refusée
+    // sans aller jusqu'à la base. Celles d'autres postes sont refusées par le DAO, dans sa transaction.
+    // Retourne le résultat de l'écriture, ou null si la période chevauche un congé.
+    public synchronized <R> R writeIfNoConflict(int employeeId, LocalDate start, LocalDate end, int excludeHolidayId,
+                                                Callable<R> write) throws Exception {
+        if (hasConflict(employeeId, start, end, excludeHolidayId)) {
+            return null;
+        }
+        return write.call();
+    }
+
+    // Version en lot de writeIfNoConflict : les demandes en conflit (checkBatch) sont refusées, les
+    // autres écrites par write, sous le verrou du moteur. Le résultat couvre tout le lot ; le
+    // stockage peut encore refuser des lignes (autres postes, solde), avec leur motif.
+    public synchronized BatchResult writeBatchIfNoConflict(List<Holiday> holidays,
+                                                           Function<List<Holiday>, BatchResult> write) {
+        List<Integer> conflicting = checkBatch(holidays);
+        int[] counts = new int[holidays.size()];
+        int[] keys = new int[holidays.size()];
+        String[] refusals = new String[holidays.size()];
+        List<Holiday> accepted = new ArrayList<>(holidays.size() - conflicting.size());
+        int[] acceptedRows = new int[holidays.size() - conflicting.size()];
+        for (int row = 0, next = 0; row < holidays.size(); row++) {
+            if (next < conflicting.size() && conflicting.get(next) == row) {
+                counts[row] = Statement.EXECUTE_FAILED;
+                refusals[row] = HolidayRules.OVERLAP;
+                next++;
+            } else {
+                acceptedRows[accepted.size()] = row;
+                accepted.add(holidays.get(row));
+            }
+        }
+        BatchResult written = accepted.isEmpty() ? null : write.apply(accepted);
+        for (int i = 0; i < accepted.size(); i++) {
+            counts[acceptedRows[i]] = written.getUpdateCount(i);
+            keys[acceptedRows[i]] = written.getGeneratedKey(i);
+            refusals[acceptedRows[i]] = written.getRefusal(i);
+        }
+        return new BatchResult(counts, keys, written == null ? null : written.getError(), refusals);
+    }
+
+    // Vérifie un lot de demandes : rangs (dans le lot) des congés en conflit avec l'existant
+    // ou avec une demande précédente du même lot. Les congés doivent porter leur employeeId.
+    public List<Integer> checkBatch(List<Holiday> holidays) {
+        List<Integer> rejected = new ArrayList<>();
+        Map<Integer, Intervals> accepted = new HashMap<>();
+        for (int row = 0; row < holidays.size(); row++) {
+            Holiday holiday = holidays.get(row);
+            long start = startOf(holiday);
+            long end = endOf(holiday);
+            Intervals pending = accepted.getOrDefault(holiday.getEmployeeId(), Intervals.EMPTY);
+            if (!conflicts(holiday.getEmployeeId(), start, end, holiday.getId(), true).isEmpty()
+                    || !scan(pending, start, end, 0, true).isEmpty()) {
+                rejected.add(row);
+            } else {
+                accepted.put(holiday.getEmployeeId(), pending.with(-(row + 1), start, end));
+            }
+        }
+        return rejected;
+    }
+
+    // Audit des données existantes : tous les couples de congés qui se chevauchent
+    public List<Overlap> findAllOverlaps() {
+        ensureLoaded();
+        List<Overlap> overlaps = new ArrayList<>();
+        for (Map.Entry<Integer, Intervals> entry : byEmployee.entrySet()) {
+            Intervals intervals = entry.getValue();
+            // Balayage par début croissant : les congés « ouverts » sont ceux dont la fin n'est pas dépassée
+            List<Integer> open = new ArrayList<>();
+            for (int i = 0; i < intervals.size(); i++) {
+                long start = intervals.starts[i];
+                open.removeIf(j -> intervals.ends[j] < start);
+                for (int j : open) {
+                    overlaps.add(new Overlap(entry.getKey(), intervals.ids[j], intervals.ids[i]));
+                }
+                open.add(i);
+            }
+        }
+        overlaps.sort(Comparator.comparingInt(Overlap::getEmployeeId)
+                .thenComparingInt(Overlap::getFirstHolidayId)
+                .thenComparingInt(Overlap::getSecondHolidayId));
+        return overlaps;
+    }
+
+    // Ajoute ou remplace un congé (il doit porter son id et son employeeId)
+    public synchronized void put(Holiday holiday) {
+        if (!loaded) {
+            return; // le prochain chargement lira la base
+        }
+        remove(holiday.getId());
+        index(holiday);
+    }
+
+    public synchronized void remove(int holidayId) {
+        if (!loaded) {
+            return;
+        }
+        Integer employeeId = employeeByHoliday.remove(holidayId);
+        if (employeeId != null) {
+            byEmployee.computeIfPresent(employeeId, (k, intervals) -> {
+                Intervals rest = intervals.without(holidayId);
+                return rest.size() == 0 ? null : rest;
+            });
+        }
+    }
+
+    public synchronized void invalidate() {
+        loaded = false;
+        byEmployee.clear();
+        employeeByHoliday.clear();
+    }
+
+    private List<Integer> conflicts(int employeeId, long start, long end, int excludeHolidayId, boolean firstOnly) {
+        ensureLoaded();
+        return scan(byEmployee.getOrDefault(employeeId, Intervals.EMPTY), start, end, excludeHolidayId, firstOnly);
+    }
+
+    // Congés qui chevauchent la période, par début croissant
+    private static List<Integer> scan(Intervals intervals, long start, long end, int excludeId, boolean firstOnly) {
+        List<Integer> found = new ArrayList<>(1);
+        intervals.search(0, intervals.size() - 1, start, end, excludeId, firstOnly, found);
+        return found;
+    }
+
+    private void index(Holiday holiday) {
+        employeeByHoliday.put(holiday.getId(), holiday.getEmployeeId());
+        byEmployee.merge(holiday.getEmployeeId(), Intervals.EMPTY.with(holiday.getId(), startOf(holiday), endOf(holiday)),
+                (current, single) -> current.with(holiday.getId(), single.starts[0], single.ends[0]));
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        synchronized (this) {
+            if (loaded) {
+                return;
+            }
+            Map<Integer, List<Holiday>> grouped = new HashMap<>();
+            try (Stream<Holiday> holidays = source.get()) {
+                holidays.forEach(h -> grouped.computeIfAbsent(h.getEmployeeId(), k -> new ArrayList<>()).add(h));
+            }
+            for (Map.Entry<Integer, List<Holiday>> entry : grouped.entrySet()) {
+                List<Holiday> list = entry.getValue();
+                list.sort(Comparator.comparingLong(HolidayConflictEngine::startOf));
+                int n = list.size();
+                int[] ids = new int[n];
+                long[] starts = new long[n];
+                long[] ends = new long[n];
+                for (int i = 0; i < n; i++) {
+                    Holiday h = list.get(i);
+                    ids[i] = h.getId();
+                    starts[i] = startOf(h);
+                    ends[i] = endOf(h);
+                    employeeByHoliday.put(h.getId(), entry.getKey());
+                }
+                byEmployee.put(entry.getKey(), new Intervals(ids, starts, ends));
+            }
+            loaded = true;
+        }
+    }
+
+    private static long startOf(Holiday holiday) {
+        return holiday.getStartEpochDay();
+    }
+
+    private static long endOf(Holiday holiday) {
+        return holiday.getEndEpochDay();
+    }
+}
@@ -0,0 +1,54 @@
+package DAO;
+
+import Model.Holiday;
+import Model.Type;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+// Opérations propres aux congés, communes à tous les stockages (JDBC, mémoire)
+public interface HolidayDAO extends GenericDAO<Holiday> {
+    // Congés qui chevauchent [from, to] (bornes incluses), en flux ; le Stream doit être fermé
+    Stream<Holiday> streamOverlapping(LocalDate from, LocalDate to);
+
+    // ID de l'employé par nom complet ("nom prenom"), -1 s'il est inconnu
+    default int getEmployeeIdByName(String employeeName) {
+        return EmployeeNameIndex.shared().idOf(employeeName);
+    }
+
+    default List<String> getAllEmployeeNames() {
+        return EmployeeNameIndex.shared().allNames();
+    }
+
+    // Noms complets des employés par ID, dans l'ordre des IDs
+    default Map<Integer, String> getEmployeeNamesById() {
+        return EmployeeNameIndex.shared().namesById();
+    }
+
+    // Recherche des employés par préfixes (type-ahead), tenue à jour par les écritures validées
+    default EmployeeSearchIndex getEmployeeSearchIndex() {
+        return EmployeeSearchIndex.shared();
+    }
+
+    // Moteur de détection des chevauchements, tenu à jour par le DAO
+    default HolidayConflictEngine getConflictEngine() {
+        return HolidayConflictEngine.shared();
+    }
+
+    // Absences par jour, par poste et par rôle, tenues à jour par les écritures validées
+    default AbsenceIndex getAbsenceIndex() {
+        return AbsenceIndex.shared();
+    }
+
+    // Soldes de congés payés, tenus à jour par le DAO
+    default LeaveBalanceLedger getBalanceLedger() {
+        return LeaveBalanceLedger.shared();
+    }
+
+    default List<Type> getAllHolidayTypes() {
+        return Arrays.asList(Type.values());
+    }
+}
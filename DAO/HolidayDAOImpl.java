@@ -1,55 +1,106 @@
 package DAO;
 
 import Model.Holiday;
-import Model.Type;
 
 import java.sql.*;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.stream.Stream;
 
-public class HolidayDAOImpl implements GenericDAO<Holiday> {
+public class HolidayDAOImpl implements HolidayDAO {
 
     // Constants for SQL queries
-    private static final String INSERT_HOLIDAY_SQL = "INSERT INTO holiday (employeeId, startDate, endDate, type) VALUES (?, ?, ?, ?)";
+    private static final String INSERT_HOLIDAY_SQL = "INSERT INTO holiday (employeeId, startDate, endDate, type, deductedDays) VALUES (?, ?, ?, ?, ?)";
     private static final String DELETE_HOLIDAY_SQL = "DELETE FROM holiday WHERE id = ?";
-    private static final String SELECT_ALL_HOLIDAY_SQL = "SELECT h.id, CONCAT(e.nom, ' ', e.prenom) AS employeeName, h.startDate, h.endDate, h.type FROM holiday h JOIN employe e ON h.employeeId = e.id";
-    private static final String SELECT_HOLIDAY_BY_ID_SQL = "SELECT h.id, CONCAT(e.nom, ' ', e.prenom) AS employeeName, h.startDate, h.endDate, h.type FROM holiday h JOIN employe e ON h.employeeId = e.id WHERE h.id = ?";
-    private static final String SELECT_EMPLOYEE_ID_BY_NAME_SQL = "SELECT id FROM employe WHERE CONCAT(nom, ' ', prenom) = ?";
+    private static final String SELECT_ALL_HOLIDAY_SQL = "SELECT h.id, h.employeeId, e.fullName AS employeeName, h.startDate, h.endDate, h.type, h.version, h.deductedDays FROM holiday h JOIN Employe e ON h.employeeId = e.id";
+    private static final String SELECT_HOLIDAY_BY_ID_SQL = SELECT_ALL_HOLIDAY_SQL + " WHERE h.id = ?";
+    private static final String SELECT_HOLIDAYS_BY_IDS_SQL = SELECT_ALL_HOLIDAY_SQL + " WHERE h.id IN (%s)";
+    private static final String SELECT_HOLIDAY_PAGE_SQL = SELECT_ALL_HOLIDAY_SQL + " WHERE h.id > ? ORDER BY h.id LIMIT ?";
+    private static final String SELECT_HOLIDAY_OVERLAPPING_SQL = SELECT_ALL_HOLIDAY_SQL + " WHERE h.startDate <= ? AND h.endDate >= ? ORDER BY h.id";
+    private static final String SELECT_HOLIDAY_IDS_SQL = "SELECT id FROM holiday ORDER BY id";
+    private static final String SELECT_ALL_HOLIDAY_ORDERED_SQL = SELECT_ALL_HOLIDAY_SQL + " ORDER BY h.id";
+    // Écrit seulement si le congé est encore à la version lue (verrouillage optimiste)
+    private static final String UPDATE_HOLIDAY_SQL = "UPDATE holiday SET employeeId = ?, startDate = ?, endDate = ?, type = ?, deductedDays = ?, version = version + 1 WHERE id = ? AND version = ?";
+    // Verrou de l'employé jusqu'à la fin de la transaction : sérialise les écritures de ses congés, quel que soit le poste
+    private static final String LOCK_EMPLOYEE_SQL = "SELECT holidayBalance FROM Employe WHERE id = ? FOR UPDATE";
+    // Un congé validé de l'employé qui chevauche la période, autre que le congé modifié (index idx_holiday_employee_period)
+    private static final String SELECT_OVERLAP_SQL = "SELECT id FROM holiday WHERE employeeId = ? AND startDate <= ? AND endDate >= ? AND id <> ? LIMIT 1";
+
+    private int batchSize = BatchSupport.DEFAULT_BATCH_SIZE;
+
+    public void setBatchSize(int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("La taille de lot doit être positive.");
+        }
+        this.batchSize = batchSize;
+    }
+
     // Méthode pour ajouter un congé
     @Override
     public void add(Holiday holiday) {
-        try (Connection conn = DBConnection.getConnection(); PreparedStatement stmt = conn.prepareStatement(INSERT_HOLIDAY_SQL)) {
-            int employeeId = getEmployeeIdByName(holiday.getEmployeeName());
-            if (employeeId == -1) {
-                System.out.println("Erreur : Employé introuvable.");
-                return;
-            }
-            stmt.setInt(1, employeeId);
-            stmt.setString(2, holiday.getStartDate());
-            stmt.setString(3, holiday.getEndDate());
-            stmt.setString(4, holiday.getType().name());
-            stmt.executeUpdate();
-            System.out.println("Congé ajouté avec succès.");
+        int employeeId = resolveEmployeeId(holiday);
+        if (employeeId == -1) {
+            throw new IllegalArgumentException("Employé introuvable.");
+        }
+        LeaveBalanceLedger.Deltas deltas = new LeaveBalanceLedger.Deltas();
+        try (DAOSession session = DAOSession.open()) {
+            // Insertion et décompte du solde dans la même transaction
+            int id = session.transaction(tx -> {
+                requireRules(tx, holiday, null);
+                PreparedStatement stmt = tx.prepareWithKeys(INSERT_HOLIDAY_SQL);
+                stmt.setInt(1, employeeId);
+                stmt.setObject(2, holiday.getStartDate());
+                stmt.setObject(3, holiday.getEndDate());
+                stmt.setString(4, holiday.getType().name());
+                stmt.setInt(5, holiday.getDeductedDays());
+                stmt.executeUpdate();
+                deltas.add(employeeId, -holiday.getDeductedDays());
+                LeaveBalanceLedger.shared().write(tx, deltas);
+                try (ResultSet keys = stmt.getGeneratedKeys()) {
+                    return keys.next() ? DBConnection.currentShard().checkGeneratedId(keys.getInt(1)) : -1;
+                }
+            });
+            LeaveBalanceLedger.shared().applyCommitted(deltas);
+            if (id > 0) {
+                holiday.setId(id);
+                holiday.setEmployeeId(employeeId);
+                HolidayConflictEngine.shared().put(holiday);
+                publishCreated(holiday);
+            }
         } catch (SQLException e) {
-            System.err.println("Erreur lors de l'ajout du congé : " + e.getMessage());
-            e.printStackTrace();
+            throw new IllegalStateException("Erreur lors de l'ajout du congé : " + e.getMessage(), e);
         }
     }
 
     // Méthode pour supprimer un congé par ID
     @Override
     public void delete(int id) {
-        try (Connection conn = DBConnection.getConnection(); PreparedStatement stmt = conn.prepareStatement(DELETE_HOLIDAY_SQL)) {
-            stmt.setInt(1, id);
-            int rowsDeleted = stmt.executeUpdate();
+        LeaveBalanceLedger.Deltas deltas = new LeaveBalanceLedger.Deltas();
+        try (DAOSession session = DAOSession.open()) {
+            // Suppression et recrédit du solde dans la même transaction
+            int rowsDeleted = session.transaction(tx -> {
+                Holiday old = findById(id);
+                PreparedStatement stmt = tx.prepare(DELETE_HOLIDAY_SQL);
+                stmt.setInt(1, id);
+                int rows = stmt.executeUpdate();
+                if (rows > 0 && old != null) {
+                    deltas.add(old.getEmployeeId(), old.getDeductedDays());
+                    LeaveBalanceLedger.shared().write(tx, deltas);
+                }
+                return rows;
+            });
+            LeaveBalanceLedger.shared().applyCommitted(deltas);
             if (rowsDeleted > 0) {
-                System.out.println("Congé supprimé avec succès.");
-            } else {
-                System.out.println("Aucun congé trouvé avec cet ID.");
+                HolidayConflictEngine.shared().remove(id);
+                ChangeBus.shared().deleted(Holiday.class, id);
             }
         } catch (SQLException e) {
-            System.err.println("Erreur lors de la suppression du congé : " + e.getMessage());
-            e.printStackTrace();
+            throw new IllegalStateException("Erreur lors de la suppression du congé : " + e.getMessage(), e);
         }
     }
 
@@ -57,116 +108,363 @@ public class HolidayDAOImpl implements GenericDAO<Holiday> {
     @Override
     public List<Holiday> listAll() {
         List<Holiday> holidays = new ArrayList<>();
-        try (Connection conn = DBConnection.getConnection(); PreparedStatement stmt = conn.prepareStatement(SELECT_ALL_HOLIDAY_SQL); ResultSet rs = stmt.executeQuery()) {
-            while (rs.next()) {
-                Holiday holiday = new Holiday(
-                        rs.getInt("id"),
-                        rs.getString("employeeName"),
-                        rs.getString("startDate"),
-                        rs.getString("endDate"),
-                        Type.valueOf(rs.getString("type"))
-                );
-                holidays.add(holiday);
+        try (DAOSession session = DAOSession.open(); ResultSet rs = session.prepare(SELECT_ALL_HOLIDAY_SQL).executeQuery()) {
+            RowMappers.HOLIDAY.readAll(rs, holidays);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Erreur lors de la récupération des congés : " + e.getMessage(), e);
+        }
+        return holidays;
+    }
+
+    // Méthode pour lister une page de congés (pagination par clé sur l'ID)
+    @Override
+    public List<Holiday> listPage(int afterId, int limit) {
+        List<Holiday> holidays = new ArrayList<>(Math.min(limit, 1000));
+        try (DAOSession session = DAOSession.open()) {
+            PreparedStatement stmt = session.prepare(SELECT_HOLIDAY_PAGE_SQL);
+            stmt.setInt(1, afterId);
+            stmt.setInt(2, limit);
+            try (ResultSet rs = stmt.executeQuery()) {
+                RowMappers.HOLIDAY.readAll(rs, holidays);
             }
         } catch (SQLException e) {
-            System.err.println("Erreur lors de la récupération des congés : " + e.getMessage());
-            e.printStackTrace();
+            throw new IllegalStateException("Erreur lors de la récupération des congés : " + e.getMessage(), e);
         }
         return holidays;
     }
 
+    // Méthode pour parcourir tous les congés en flux, sans les charger en mémoire
+    @Override
+    public Stream<Holiday> streamAll() {
+        return ResultStreams.stream(SELECT_ALL_HOLIDAY_ORDERED_SQL, RowMappers.HOLIDAY);
+    }
+
+    // Méthode pour parcourir en flux les congés qui chevauchent [from, to] (bornes incluses).
+    // Comparaison directe sur les colonnes DATE : le prédicat peut utiliser leur index.
+    @Override
+    public Stream<Holiday> streamOverlapping(LocalDate from, LocalDate to) {
+        return ResultStreams.stream(SELECT_HOLIDAY_OVERLAPPING_SQL, RowMappers.HOLIDAY, to, from);
+    }
+
+    // Méthode pour lister les IDs de tous les congés, triés
+    @Override
+    public int[] listIds() {
+        return ResultStreams.readInts(SELECT_HOLIDAY_IDS_SQL);
+    }
+
     // Méthode pour trouver un congé par ID
     @Override
     public Holiday findById(int id) {
-        try (Connection conn = DBConnection.getConnection(); PreparedStatement stmt = conn.prepareStatement(SELECT_HOLIDAY_BY_ID_SQL)) {
+        try (DAOSession session = DAOSession.open()) {
+            PreparedStatement stmt = session.prepare(SELECT_HOLIDAY_BY_ID_SQL);
             stmt.setInt(1, id);
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                return new Holiday(
-                        rs.getInt("id"),
-                        rs.getString("employeeName"),
-                        rs.getString("startDate"),
-                        rs.getString("endDate"),
-                        Type.valueOf(rs.getString("type"))
-                );
+            try (ResultSet rs = stmt.executeQuery()) {
+                return RowMappers.HOLIDAY.readFirst(rs);
             }
         } catch (SQLException e) {
-            System.err.println("Erreur lors de la recherche du congé : " + e.getMessage());
-            e.printStackTrace();
+            throw new IllegalStateException("Erreur lors de la recherche du congé : " + e.getMessage(), e);
         }
-        return null;
     }
 
-    // Méthode pour mettre à jour un congé
+    // Méthode pour mettre à jour un congé, s'il est encore à la version lue
     @Override
-    public void update(Holiday holiday, int id) {
-        try (Connection conn = DBConnection.getConnection(); PreparedStatement stmt = conn.prepareStatement("UPDATE holiday SET employeeId = ?, startDate = ?, endDate = ?, type = ? WHERE id = ?")) {
-            int employeeId = getEmployeeIdByName(holiday.getEmployeeName());
-            if (employeeId == -1) {
-                System.out.println("Erreur : Employé introuvable.");
-                return;
-            }
-            stmt.setInt(1, employeeId);
-            stmt.setString(2, holiday.getStartDate());
-            stmt.setString(3, holiday.getEndDate());
-            stmt.setString(4, holiday.getType().name());
-            stmt.setInt(5, id);
-            int rowsUpdated = stmt.executeUpdate();
+    public UpdateResult<Holiday> update(Holiday holiday, int id) {
+        int employeeId = resolveEmployeeId(holiday);
+        if (employeeId == -1) {
+            throw new IllegalArgumentException(HolidayRules.UNKNOWN_EMPLOYEE);
+        }
+        LeaveBalanceLedger.Deltas deltas = new LeaveBalanceLedger.Deltas();
+        Holiday[] current = new Holiday[1];
+        try (DAOSession session = DAOSession.open()) {
+            // Mise à jour et ajustement du solde (ancien congé recrédité, nouveau décompté) dans la même transaction
+            int rowsUpdated = session.transaction(tx -> {
+                Holiday old = findById(id);
+                // Déjà périmé ou supprimé : inutile d'écrire
+                if (old == null || old.getVersion() != holiday.getVersion()) {
+                    current[0] = old;
+                    return 0;
+                }
+                holiday.setId(id);
+                requireRules(tx, holiday, old);
+                PreparedStatement stmt = tx.prepare(UPDATE_HOLIDAY_SQL);
+                stmt.setInt(1, employeeId);
+                stmt.setObject(2, holiday.getStartDate());
+                stmt.setObject(3, holiday.getEndDate());
+                stmt.setString(4, holiday.getType().name());
+                stmt.setInt(5, holiday.getDeductedDays());
+                stmt.setInt(6, id);
+                stmt.setInt(7, holiday.getVersion());
+                int rows = stmt.executeUpdate();
+                if (rows > 0) {
+                    deltas.add(old.getEmployeeId(), old.getDeductedDays());
+                    deltas.add(employeeId, -holiday.getDeductedDays());
+                    LeaveBalanceLedger.shared().write(tx, deltas);
+                } else {
+                    // Modifié par un autre entre la lecture et l'écriture
+                    current[0] = findById(id);
+                }
+                return rows;
+            });
+            LeaveBalanceLedger.shared().applyCommitted(deltas);
             if (rowsUpdated > 0) {
-                System.out.println("Congé mis à jour avec succès.");
-            } else {
-                System.out.println("Aucun congé trouvé avec cet ID.");
+                holiday.setId(id);
+                holiday.setEmployeeId(employeeId);
+                holiday.setVersion(holiday.getVersion() + 1);
+                HolidayConflictEngine.shared().put(holiday);
+                publishUpdated(holiday);
+                return UpdateResult.updated(holiday.getVersion());
             }
+            return UpdateResult.staleOrMissing(current[0]);
         } catch (SQLException e) {
-            System.err.println("Erreur lors de la mise à jour du congé : " + e.getMessage());
-            e.printStackTrace();
+            return UpdateResult.failed(e);
         }
     }
 
-    // Méthode pour récupérer l'ID de l'employé par nom complet
-    public int getEmployeeIdByName(String employeeName) {
-        try (Connection conn = DBConnection.getConnection(); PreparedStatement stmt = conn.prepareStatement(SELECT_EMPLOYEE_ID_BY_NAME_SQL)) {
-            stmt.setString(1, employeeName);
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                return rs.getInt("id");
+    // Méthode pour ajouter plusieurs congés en une transaction (lignes refusées par les règles en échec)
+    @Override
+    public BatchResult addAll(List<Holiday> holidays) {
+        String[] refusals = new String[holidays.size()];
+        LeaveBalanceLedger.Deltas deltas = new LeaveBalanceLedger.Deltas();
+        BatchResult result = BatchSupport.execute(INSERT_HOLIDAY_SQL, holidays.size(), batchSize, true,
+                tx -> checkRules(tx, holidays, null, refusals),
+                (stmt, row) -> refusals[row] == null && bindHoliday(stmt, holidays.get(row)),
+                (tx, inserted) -> {
+                    for (int row = 0; row < holidays.size(); row++) {
+                        if (inserted.isRowSuccessful(row)) {
+                            deltas.add(holidays.get(row).getEmployeeId(), -holidays.get(row).getDeductedDays());
+                        }
+                    }
+                    LeaveBalanceLedger.shared().write(tx, deltas);
+                });
+        if (result.isSuccess()) {
+            LeaveBalanceLedger.shared().applyCommitted(deltas);
+            result = result.withRefusals(refusals);
+        }
+        for (int row = 0; row < holidays.size(); row++) {
+            if (result.getGeneratedKey(row) > 0) {
+                holidays.get(row).setId(result.getGeneratedKey(row));
+                HolidayConflictEngine.shared().put(holidays.get(row));
+                publishCreated(holidays.get(row));
             }
-        } catch (SQLException e) {
-            System.err.println("Erreur lors de la récupération de l'ID employé : " + e.getMessage());
-            e.printStackTrace();
         }
-        return -1;
+        return result;
     }
 
-    // Méthode pour récupérer tous les noms des employés
-    public List<String> getAllEmployeeNames() {
-        List<String> employeeNames = new ArrayList<>();
-        String query = "SELECT CONCAT(nom, ' ', prenom) AS fullName FROM employe";
+    // Méthode pour mettre à jour plusieurs congés d'après leur ID et leur version
+    @Override
+    public BatchResult updateAll(List<Holiday> holidays) {
+        return updateRows(holidays, false);
+    }
 
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(query);
-             ResultSet rs = stmt.executeQuery()) {
+    // Méthode pour mettre à jour plusieurs congés en tout ou rien (aucun si l'un est périmé)
+    @Override
+    public BatchResult compareAndSetAll(List<Holiday> holidays) {
+        return updateRows(holidays, true);
+    }
 
-            while (rs.next()) {
-                String fullName = rs.getString("fullName");
-                System.out.println("Nom récupéré : " + fullName); // Pour debug
-                employeeNames.add(fullName);
+    private BatchResult updateRows(List<Holiday> holidays, boolean allOrNothing) {
+        Holiday[] previous = new Holiday[holidays.size()];
+        String[] refusals = new String[holidays.size()];
+        LeaveBalanceLedger.Deltas deltas = new LeaveBalanceLedger.Deltas();
+        BatchResult result = BatchSupport.execute(UPDATE_HOLIDAY_SQL, holidays.size(), batchSize, false,
+                tx -> {
+                    findByIds(tx, holidays.stream().mapToInt(Holiday::getId).toArray(), previous);
+                    checkRules(tx, holidays, previous, refusals);
+                },
+                (stmt, row) -> {
+                    Holiday holiday = holidays.get(row);
+                    if (refusals[row] != null || !bindHoliday(stmt, holiday)) {
+                        return false;
+                    }
+                    stmt.setInt(6, holiday.getId());
+                    stmt.setInt(7, holiday.getVersion());
+                    return true;
+                },
+                (tx, updated) -> {
+                    if (allOrNothing) {
+                        BatchSupport.requireAllRows(updated, row -> holidays.get(row).getId());
+                    }
+                    for (int row = 0; row < holidays.size(); row++) {
+                        if (updated.isRowSuccessful(row)) {
+                            if (previous[row] != null) {
+                                deltas.add(previous[row].getEmployeeId(), previous[row].getDeductedDays());
+                            }
+                            deltas.add(holidays.get(row).getEmployeeId(), -holidays.get(row).getDeductedDays());
+                        }
+                    }
+                    LeaveBalanceLedger.shared().write(tx, deltas);
+                });
+        if (result.isSuccess()) {
+            LeaveBalanceLedger.shared().applyCommitted(deltas);
+            result = result.withRefusals(refusals);
+        }
+        for (int row = 0; row < holidays.size(); row++) {
+            if (result.isRowSuccessful(row)) {
+                holidays.get(row).setVersion(holidays.get(row).getVersion() + 1);
+                HolidayConflictEngine.shared().put(holidays.get(row));
+                publishUpdated(holidays.get(row));
+            }
+        }
+        return result;
+    }
+
+    // Méthode pour supprimer plusieurs congés par ID
+    @Override
+    public BatchResult deleteAll(int... ids) {
+        Holiday[] previous = new Holiday[ids.length];
+        LeaveBalanceLedger.Deltas deltas = new LeaveBalanceLedger.Deltas();
+        BatchResult result = BatchSupport.execute(DELETE_HOLIDAY_SQL, ids.length, batchSize, false,
+                tx -> findByIds(tx, ids, previous),
+                (stmt, row) -> {
+                    stmt.setInt(1, ids[row]);
+                    return true;
+                },
+                (tx, deleted) -> {
+                    for (int row = 0; row < ids.length; row++) {
+                        if (deleted.isRowSuccessful(row) && previous[row] != null) {
+                            deltas.add(previous[row].getEmployeeId(), previous[row].getDeductedDays());
+                        }
+                    }
+                    LeaveBalanceLedger.shared().write(tx, deltas);
+                });
+        if (result.isSuccess()) {
+            LeaveBalanceLedger.shared().applyCommitted(deltas);
+        }
+        for (int row = 0; row < ids.length; row++) {
+            if (result.isRowSuccessful(row)) {
+                HolidayConflictEngine.shared().remove(ids[row]);
+                ChangeBus.shared().deleted(Holiday.class, ids[row]);
+            }
+        }
+        return result;
+    }
+
+    // Congés des IDs donnés avant leur modification, dans into (null si absent) : une requête
+    // par paquet de batchSize IDs plutôt qu'une par ligne ; le dernier paquet est complété en
+    // répétant son dernier ID, pour réutiliser la même requête préparée
+    private void findByIds(DAOSession tx, int[] ids, Holiday[] into) throws SQLException {
+        int chunk = Math.min(batchSize, ids.length);
+        PreparedStatement stmt = tx.prepare(String.format(SELECT_HOLIDAYS_BY_IDS_SQL,
+                String.join(", ", Collections.nCopies(chunk, "?"))));
+        Map<Integer, Holiday> found = new HashMap<>(ids.length * 2);
+        List<Holiday> rows = new ArrayList<>(chunk);
+        for (int from = 0; from < ids.length; from += chunk) {
+            for (int i = 0; i < chunk; i++) {
+                stmt.setInt(i + 1, ids[Math.min(from + i, ids.length - 1)]);
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                RowMappers.HOLIDAY.readAll(rs, rows);
+            }
+            for (Holiday holiday : rows) {
+                found.put(holiday.getId(), holiday);
+            }
+            rows.clear();
+        }
+        for (int row = 0; row < ids.length; row++) {
+            into[row] = found.get(ids[row]);
+        }
+    }
+
+    // Règles vérifiées sur la base dans la transaction d'écriture (voir HolidayRules) : les employés
+    // concernés sont d'abord verrouillés, par ID croissant, et leur solde lu ; chaque congé est ensuite
+    // comparé aux congés validés de son employé et à ceux qui le précèdent dans le lot, puis son
+    // décompte au solde restant. replaced = congés modifiés (null pour des ajouts) ; refusals reçoit
+    // le motif du refus de chaque ligne (null si elle est acceptée)
+    private void checkRules(DAOSession tx, List<Holiday> holidays, Holiday[] replaced, String[] refusals)
+            throws SQLException {
+        TreeSet<Integer> employeeIds = new TreeSet<>();
+        for (int row = 0; row < holidays.size(); row++) {
+            Holiday holiday = holidays.get(row);
+            int employeeId = resolveEmployeeId(holiday);
+            if (employeeId != -1) {
+                holiday.setEmployeeId(employeeId);
+                employeeIds.add(employeeId);
+            }
+            if (replaced != null && replaced[row] != null) {
+                employeeIds.add(replaced[row].getEmployeeId());
             }
-        } catch (SQLException e) {
-            System.err.println("Erreur lors de la récupération des noms des employés : " + e.getMessage());
         }
+        Map<Integer, Double> balances = new HashMap<>();
+        PreparedStatement lock = tx.prepare(LOCK_EMPLOYEE_SQL);
+        for (int employeeId : employeeIds) {
+            lock.setInt(1, employeeId);
+            try (ResultSet rs = lock.executeQuery()) {
+                if (rs.next()) {
+                    balances.put(employeeId, rs.getDouble(1));
+                }
+            }
+        }
+        HolidayRules rules = new HolidayRules(balances::get);
+        PreparedStatement overlap = tx.prepare(SELECT_OVERLAP_SQL);
+        for (int row = 0; row < holidays.size(); row++) {
+            Holiday holiday = holidays.get(row);
+            Holiday previous = replaced == null ? null : replaced[row];
+            if (!balances.containsKey(holiday.getEmployeeId())) {
+                refusals[row] = HolidayRules.UNKNOWN_EMPLOYEE;
+                continue;
+            }
+            overlap.setInt(1, holiday.getEmployeeId());
+            overlap.setObject(2, holiday.getEndDate());
+            overlap.setObject(3, holiday.getStartDate());
+            overlap.setInt(4, holiday.getId());
+            try (ResultSet rs = overlap.executeQuery()) {
+                if (rs.next() || rules.overlapsBatch(holiday)) {
+                    refusals[row] = HolidayRules.OVERLAP;
+                    continue;
+                }
+            }
+            // Décompte fixé ici, d'après le calendrier actuel, et enregistré avec le congé
+            holiday.setDeductedDays(holiday.getType().balanceDeduction(holiday));
+            refusals[row] = rules.checkBalance(holiday, previous);
+            if (refusals[row] == null) {
+                rules.accept(holiday, previous);
+            }
+        }
+    }
+
+    // Écriture d'un seul congé (replaced = congé modifié, null pour un ajout) : un refus annule la transaction
+    private void requireRules(DAOSession tx, Holiday holiday, Holiday replaced) throws SQLException {
+        String[] refusal = new String[1];
+        checkRules(tx, Collections.singletonList(holiday), new Holiday[]{replaced}, refusal);
+        if (refusal[0] != null) {
+            throw new IllegalArgumentException(refusal[0]);
+        }
+    }
+
+    // Paramètres 1 à 5 communs à l'insertion et à la mise à jour ; false si l'employé est introuvable.
+    // Le décompte du solde, fixé par checkRules d'après le calendrier actuel, est enregistré avec le congé
+    private boolean bindHoliday(PreparedStatement stmt, Holiday holiday) throws SQLException {
+        int employeeId = resolveEmployeeId(holiday);
+        if (employeeId == -1) {
+            return false;
+        }
+        holiday.setEmployeeId(employeeId);
+        stmt.setInt(1, employeeId);
+        stmt.setObject(2, holiday.getStartDate());
+        stmt.setObject(3, holiday.getEndDate());
+        stmt.setString(4, holiday.getType().name());
+        stmt.setInt(5, holiday.getDeductedDays());
+        return true;
+    }
+
+    // ID porté par le congé, sinon retrouvé à partir du nom complet (-1 si inconnu)
+    private int resolveEmployeeId(Holiday holiday) {
+        return holiday.getEmployeeId() > 0 ? holiday.getEmployeeId() : getEmployeeIdByName(holiday.getEmployeeName());
+    }
+
+    // Événement de création / modification : le nom de l'employé est complété pour l'affichage
+    private static void publishCreated(Holiday holiday) {
+        ChangeBus.shared().created(Holiday.class, holiday.getId(), withEmployeeName(holiday));
+    }
 
-        return employeeNames;
+    private static void publishUpdated(Holiday holiday) {
+        ChangeBus.shared().updated(Holiday.class, holiday.getId(), withEmployeeName(holiday));
     }
-    
-    
 
-    // Méthode pour récupérer les types de congés (Enum)
-    public List<Type> getAllHolidayTypes() {
-        List<Type> holidayTypes = new ArrayList<>();
-        for (Type type : Type.values()) {
-            holidayTypes.add(type);
+    private static Holiday withEmployeeName(Holiday holiday) {
+        if (holiday.getEmployeeName() == null) {
+            holiday.setEmployeeName(EmployeeNameIndex.shared().nameOf(holiday.getEmployeeId()));
         }
-        return holidayTypes;
+        return holiday;
     }
 }
@@ -0,0 +1,74 @@
+package DAO;
+
+import Model.Holiday;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntToDoubleFunction;
+
+// Règles d'écriture des congés, vérifiées par le stockage au moment d'écrire : dans la transaction
+// JDBC, employé verrouillé, ou sous le verrou d'écriture du stockage en mémoire. Les index en
+// mémoire (HolidayConflictEngine) ne font que refuser tôt : ils ignorent les écritures des autres postes.
+// Une instance par écriture : un congé du lot est aussi comparé aux congés acceptés avant lui, et
+// le solde disponible tient compte des jours qu'ils décomptent ou rendent.
+final class HolidayRules {
+    static final String UNKNOWN_EMPLOYEE = "Employé introuvable.";
+    static final String OVERLAP = "Cet employé a déjà un congé dans cette période.";
+
+    private final IntToDoubleFunction storedBalance;
+    private final Map<Integer, List<Holiday>> accepted = new HashMap<>();
+    private final Map<Integer, Double> balances = new HashMap<>();
+
+    // storedBalance : solde enregistré d'un employé existant, lu sous le verrou de l'écriture
+    HolidayRules(IntToDoubleFunction storedBalance) {
+        this.storedBalance = storedBalance;
+    }
+
+    static String insufficientBalance(double available, int requested) {
+        return String.format("Solde de congés insuffisant : %.1f jour(s) disponible(s), %d demandé(s).",
+                available, requested);
+    }
+
+    // Vrai si le congé chevauche un autre congé de son employé accepté plus haut dans le lot
+    boolean overlapsBatch(Holiday holiday) {
+        for (Holiday other : accepted.getOrDefault(holiday.getEmployeeId(), List.of())) {
+            if (other != holiday && overlaps(holiday, other)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Motif du refus si le décompte du congé (getDeductedDays, déjà fixé) dépasse le solde de son
+    // employé, null sinon ; replaced = congé modifié (ses jours sont rendus avant), null pour un ajout
+    String checkBalance(Holiday holiday, Holiday replaced) {
+        int requested = holiday.getDeductedDays();
+        if (requested == 0) {
+            return null;
+        }
+        double available = balance(holiday.getEmployeeId());
+        if (replaced != null && replaced.getEmployeeId() == holiday.getEmployeeId()) {
+            available += replaced.getDeductedDays();
+        }
+        return available < requested ? insufficientBalance(available, requested) : null;
+    }
+
+    void accept(Holiday holiday, Holiday replaced) {
+        accepted.computeIfAbsent(holiday.getEmployeeId(), k -> new ArrayList<>(1)).add(holiday);
+        if (replaced != null) {
+            balances.put(replaced.getEmployeeId(), balance(replaced.getEmployeeId()) + replaced.getDeductedDays());
+        }
+        balances.put(holiday.getEmployeeId(), balance(holiday.getEmployeeId()) - holiday.getDeductedDays());
+    }
+
+    private double balance(int employeeId) {
+        return balances.computeIfAbsent(employeeId, storedBalance::applyAsDouble);
+    }
+
+    // Bornes incluses
+    static boolean overlaps(Holiday a, Holiday b) {
+        return a.getStartEpochDay() <= b.getEndEpochDay() && a.getEndEpochDay() >= b.getStartEpochDay();
+    }
+}
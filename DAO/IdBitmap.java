@@ -0,0 +1,236 @@
+package DAO;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+// Ensemble d'IDs compressé à la manière des bitmaps « roaring » : les IDs sont répartis par tranche
+// de 65 536 (16 bits hauts) ; chaque tranche garde ses 16 bits bas dans un tableau trié tant
+// qu'elle est peu remplie, puis dans un bitmap de 8 Ko au-delà de 4 096 éléments.
+// Un jour d'absences (quelques dizaines d'IDs) tient en quelques centaines d'octets, un poste de
+// milliers d'employés en un bitmap. Non synchronisé : l'appelant protège les accès.
+final class IdBitmap {
+    private static final int ARRAY_MAX = 4096;
+    private static final int BITMAP_WORDS = 1024;
+
+    // Une tranche : values trié (bits == null) ou bitmap
+    private static final class Container {
+        char[] values = new char[4];
+        long[] bits;
+        int size;
+
+        boolean contains(char low) {
+            if (bits != null) {
+                return (bits[low >>> 6] & (1L << low)) != 0;
+            }
+            return Arrays.binarySearch(values, 0, size, low) >= 0;
+        }
+
+        boolean add(char low) {
+            if (bits != null) {
+                long before = bits[low >>> 6];
+                bits[low >>> 6] = before | (1L << low);
+                if (before == bits[low >>> 6]) {
+                    return false;
+                }
+                size++;
+                return true;
+            }
+            int index = Arrays.binarySearch(values, 0, size, low);
+            if (index >= 0) {
+                return false;
+            }
+            index = -index - 1;
+            if (size == ARRAY_MAX) {
+                toBitmap();
+                return add(low);
+            }
+            if (size == values.length) {
+                values = Arrays.copyOf(values, Math.min(ARRAY_MAX, size * 2));
+            }
+            System.arraycopy(values, index, values, index + 1, size - index);
+            values[index] = low;
+            size++;
+            return true;
+        }
+
+        boolean remove(char low) {
+            if (bits != null) {
+                long before = bits[low >>> 6];
+                bits[low >>> 6] = before & ~(1L << low);
+                if (before == bits[low >>> 6]) {
+                    return false;
+                }
+                // Retour au tableau bien en dessous du seuil : pas d'allers-retours autour de 4 096
+                if (--size <= ARRAY_MAX / 2) {
+                    toArray();
+                }
+                return true;
+            }
+            int index = Arrays.binarySearch(values, 0, size, low);
+            if (index < 0) {
+                return false;
+            }
+            System.arraycopy(values, index + 1, values, index, size - index - 1);
+            size--;
+            return true;
+        }
+
+        void forEach(int high, IntConsumer action) {
+            if (bits == null) {
+                for (int i = 0; i < size; i++) {
+                    action.accept(high | values[i]);
+                }
+                return;
+            }
+            for (int w = 0; w < BITMAP_WORDS; w++) {
+                for (long word = bits[w]; word != 0; word &= word - 1) {
+                    action.accept(high | (w << 6) + Long.numberOfTrailingZeros(word));
+                }
+            }
+        }
+
+        // Nombre d'éléments communs aux deux tranches
+        int andCardinality(Container other) {
+            if (bits != null && other.bits != null) {
+                int count = 0;
+                for (int w = 0; w < BITMAP_WORDS; w++) {
+                    count += Long.bitCount(bits[w] & other.bits[w]);
+                }
+                return count;
+            }
+            if (bits != null) {
+                return other.andCardinality(this);
+            }
+            int count = 0;
+            if (other.bits != null) {
+                for (int i = 0; i < size; i++) {
+                    if (other.contains(values[i])) {
+                        count++;
+                    }
+                }
+                return count;
+            }
+            // Deux tableaux triés : fusion
+            for (int i = 0, j = 0; i < size && j < other.size; ) {
+                if (values[i] < other.values[j]) {
+                    i++;
+                } else if (values[i] > other.values[j]) {
+                    j++;
+                } else {
+                    count++;
+                    i++;
+                    j++;
+                }
+            }
+            return count;
+        }
+
+        private void toBitmap() {
+            bits = new long[BITMAP_WORDS];
+            for (int i = 0; i < size; i++) {
+                bits[values[i] >>> 6] |= 1L << values[i];
+            }
+            values = null;
+        }
+
+        private void toArray() {
+            char[] array = new char[Math.max(4, size)];
+            int n = 0;
+            for (int w = 0; w < BITMAP_WORDS; w++) {
+                for (long word = bits[w]; word != 0; word &= word - 1) {
+                    array[n++] = (char) ((w << 6) + Long.numberOfTrailingZeros(word));
+                }
+            }
+            values = array;
+            bits = null;
+        }
+    }
+
+    private int[] keys = new int[0];
+    private Container[] containers = new Container[0];
+    private int cardinality;
+
+    boolean contains(int id) {
+        int index = Arrays.binarySearch(keys, id >>> 16);
+        return index >= 0 && containers[index].contains((char) id);
+    }
+
+    boolean add(int id) {
+        int key = id >>> 16;
+        int index = Arrays.binarySearch(keys, key);
+        if (index < 0) {
+            index = -index - 1;
+            keys = insert(keys, index, key);
+            Container[] grown = new Container[containers.length + 1];
+            System.arraycopy(containers, 0, grown, 0, index);
+            System.arraycopy(containers, index, grown, index + 1, containers.length - index);
+            grown[index] = new Container();
+            containers = grown;
+        }
+        if (!containers[index].add((char) id)) {
+            return false;
+        }
+        cardinality++;
+        return true;
+    }
+
+    boolean remove(int id) {
+        int index = Arrays.binarySearch(keys, id >>> 16);
+        if (index < 0 || !containers[index].remove((char) id)) {
+            return false;
+        }
+        cardinality--;
+        if (containers[index].size == 0) {
+            int n = keys.length - 1;
+            int[] newKeys = new int[n];
+            Container[] newContainers = new Container[n];
+            System.arraycopy(keys, 0, newKeys, 0, index);
+            System.arraycopy(keys, index + 1, newKeys, index, n - index);
+            System.arraycopy(containers, 0, newContainers, 0, index);
+            System.arraycopy(containers, index + 1, newContainers, index, n - index);
+            keys = newKeys;
+            containers = newContainers;
+        }
+        return true;
+    }
+
+    int cardinality() {
+        return cardinality;
+    }
+
+    boolean isEmpty() {
+        return cardinality == 0;
+    }
+
+    // IDs par ordre croissant
+    void forEach(IntConsumer action) {
+        for (int i = 0; i < keys.length; i++) {
+            containers[i].forEach(keys[i] << 16, action);
+        }
+    }
+
+    // Taille de l'intersection, sans la construire
+    int andCardinality(IdBitmap other) {
+        int count = 0;
+        for (int i = 0, j = 0; i < keys.length && j < other.keys.length; ) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                count += containers[i].andCardinality(other.containers[j]);
+                i++;
+                j++;
+            }
+        }
+        return count;
+    }
+
+    private static int[] insert(int[] array, int index, int value) {
+        int[] grown = new int[array.length + 1];
+        System.arraycopy(array, 0, grown, 0, index);
+        System.arraycopy(array, index, grown, index + 1, array.length - index);
+        grown[index] = value;
+        return grown;
+    }
+}
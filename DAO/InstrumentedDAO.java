@@ -0,0 +1,226 @@
+package DAO;
+
+import Model.Holiday;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+// DAO mesuré (voir DAOMetrics) : durée, lignes et erreurs de chaque appel, sous le nom
+// <entité>.<méthode>. Les lignes comptées sont celles lues, ou réussies pour un lot ; un lot
+// annulé compte comme une erreur (un conflit de version n'en est pas une pour update). Les Stream sont mesurés de l'ouverture à la fermeture.
+// Les DAO signalent les erreurs d'accès par une exception (voir GenericDAO) : ce sont elles qui sont comptées.
+class InstrumentedDAO<T> implements GenericDAO<T> {
+    protected final GenericDAO<T> target;
+    private final DAOMetrics.Operation add;
+    private final DAOMetrics.Operation delete;
+    private final DAOMetrics.Operation listAll;
+    private final DAOMetrics.Operation findById;
+    private final DAOMetrics.Operation update;
+    private final DAOMetrics.Operation listPage;
+    private final DAOMetrics.Operation streamAll;
+    private final DAOMetrics.Operation listIds;
+    private final DAOMetrics.Operation addAll;
+    private final DAOMetrics.Operation updateAll;
+    private final DAOMetrics.Operation compareAndSetAll;
+    private final DAOMetrics.Operation deleteAll;
+
+    InstrumentedDAO(String entity, GenericDAO<T> target) {
+        this.target = target;
+        DAOMetrics metrics = DAOMetrics.shared();
+        this.add = metrics.operation(entity + ".add");
+        this.delete = metrics.operation(entity + ".delete");
+        this.listAll = metrics.operation(entity + ".listAll");
+        this.findById = metrics.operation(entity + ".findById");
+        this.update = metrics.operation(entity + ".update");
+        this.listPage = metrics.operation(entity + ".listPage");
+        this.streamAll = metrics.operation(entity + ".streamAll");
+        this.listIds = metrics.operation(entity + ".listIds");
+        this.addAll = metrics.operation(entity + ".addAll");
+        this.updateAll = metrics.operation(entity + ".updateAll");
+        this.compareAndSetAll = metrics.operation(entity + ".compareAndSetAll");
+        this.deleteAll = metrics.operation(entity + ".deleteAll");
+    }
+
+    @Override
+    public void add(T entity) {
+        long start = System.nanoTime();
+        try {
+            target.add(entity);
+            add.record(start, 0);
+        } catch (RuntimeException e) {
+            add.failed(start);
+            throw e;
+        }
+    }
+
+    @Override
+    public void delete(int id) {
+        long start = System.nanoTime();
+        try {
+            target.delete(id);
+            delete.record(start, 0);
+        } catch (RuntimeException e) {
+            delete.failed(start);
+            throw e;
+        }
+    }
+
+    @Override
+    public List<T> listAll() {
+        long start = System.nanoTime();
+        try {
+            List<T> all = target.listAll();
+            listAll.record(start, all.size());
+            return all;
+        } catch (RuntimeException e) {
+            listAll.failed(start);
+            throw e;
+        }
+    }
+
+    @Override
+    public T findById(int id) {
+        long start = System.nanoTime();
+        try {
+            T value = target.findById(id);
+            findById.record(start, value == null ? 0 : 1);
+            return value;
+        } catch (RuntimeException e) {
+            findById.failed(start);
+            throw e;
+        }
+    }
+
+    @Override
+    public UpdateResult<T> update(T entity, int id) {
+        long start = System.nanoTime();
+        try {
+            UpdateResult<T> result = target.update(entity, id);
+            if (result.getStatus() == UpdateResult.Status.FAILED) {
+                update.failed(start);
+            } else {
+                update.record(start, result.getStatus() == UpdateResult.Status.UPDATED ? 1 : 0);
+            }
+            return result;
+        } catch (RuntimeException e) {
+            update.failed(start);
+            throw e;
+        }
+    }
+
+    @Override
+    public List<T> listPage(int afterId, int limit) {
+        long start = System.nanoTime();
+        try {
+            List<T> page = target.listPage(afterId, limit);
+            listPage.record(start, page.size());
+            return page;
+        } catch (RuntimeException e) {
+            listPage.failed(start);
+            throw e;
+        }
+    }
+
+    @Override
+    public Stream<T> streamAll() {
+        return measured(streamAll, target::streamAll);
+    }
+
+    @Override
+    public int[] listIds() {
+        long start = System.nanoTime();
+        try {
+            int[] ids = target.listIds();
+            listIds.record(start, ids.length);
+            return ids;
+        } catch (RuntimeException e) {
+            listIds.failed(start);
+            throw e;
+        }
+    }
+
+    @Override
+    public BatchResult addAll(List<T> entities) {
+        long start = System.nanoTime();
+        try {
+            return batch(addAll, start, target.addAll(entities));
+        } catch (RuntimeException e) {
+            addAll.failed(start);
+            throw e;
+        }
+    }
+
+    @Override
+    public BatchResult updateAll(List<T> entities) {
+        long start = System.nanoTime();
+        try {
+            return batch(updateAll, start, target.updateAll(entities));
+        } catch (RuntimeException e) {
+            updateAll.failed(start);
+            throw e;
+        }
+    }
+
+    @Override
+    public BatchResult compareAndSetAll(List<T> entities) {
+        long start = System.nanoTime();
+        try {
+            return batch(compareAndSetAll, start, target.compareAndSetAll(entities));
+        } catch (RuntimeException e) {
+            compareAndSetAll.failed(start);
+            throw e;
+        }
+    }
+
+    @Override
+    public BatchResult deleteAll(int... ids) {
+        long start = System.nanoTime();
+        try {
+            return batch(deleteAll, start, target.deleteAll(ids));
+        } catch (RuntimeException e) {
+            deleteAll.failed(start);
+            throw e;
+        }
+    }
+
+    private static BatchResult batch(DAOMetrics.Operation operation, long start, BatchResult result) {
+        if (result.isSuccess()) {
+            operation.record(start, result.successCount());
+        } else {
+            operation.failed(start);
+        }
+        return result;
+    }
+
+    // Durée mesurée à la fermeture du Stream, lignes comptées au passage
+    static <R> Stream<R> measured(DAOMetrics.Operation operation, Supplier<Stream<R>> open) {
+        long start = System.nanoTime();
+        Stream<R> stream;
+        try {
+            stream = open.get();
+        } catch (RuntimeException e) {
+            operation.failed(start);
+            throw e;
+        }
+        LongAdder rows = new LongAdder();
+        return stream.peek(row -> rows.increment()).onClose(() -> operation.record(start, rows.sum()));
+    }
+
+    // Congés : mêmes mesures, plus la recherche par période
+    static final class Holidays extends InstrumentedDAO<Holiday> implements HolidayDAO {
+        private final DAOMetrics.Operation streamOverlapping;
+
+        Holidays(HolidayDAO target) {
+            super("holiday", target);
+            this.streamOverlapping = DAOMetrics.shared().operation("holiday.streamOverlapping");
+        }
+
+        @Override
+        public Stream<Holiday> streamOverlapping(LocalDate from, LocalDate to) {
+            return measured(streamOverlapping, () -> ((HolidayDAO) target).streamOverlapping(from, to));
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package DAO;
+
+import Model.Employee;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntPredicate;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+// Soldes de congés payés des employés (colonne Employe.holidayBalance).
+// Les soldes ne sont jamais recalculés depuis l'historique : chaque écriture de congé
+// applique sa variation (en jours ouvrés) dans sa propre transaction, et la copie en
+// mémoire est mise à jour après validation. La lecture d'un solde est donc en O(1).
+// Cette copie ne sert qu'à l'affichage : elle ignore les écritures des autres postes. Le solde
+// suffisant est exigé par le stockage, dans la transaction d'écriture (voir HolidayRules).
+public class LeaveBalanceLedger {
+    private static final LeaveBalanceLedger SHARED = new LeaveBalanceLedger(() -> DAOFactory.employeeDAO().streamAll());
+
+    // Jours acquis chaque mois (-Dconges.accrual.monthly=...)
+    public static final double MONTHLY_ACCRUAL =
+            Double.parseDouble(System.getProperty("conges.accrual.monthly", "2.5"));
+
+    private static final String ADJUST_BALANCE_SQL = "UPDATE Employe SET holidayBalance = holidayBalance + ? WHERE id = ?";
+    // Décompte seulement si le solde le couvre
+    private static final String DEDUCT_BALANCE_SQL = "UPDATE Employe SET holidayBalance = holidayBalance - ? WHERE id = ? AND holidayBalance >= ?";
+    private static final String ACCRUE_ALL_SQL = "UPDATE Employe SET holidayBalance = holidayBalance + ?";
+    private static final String INSERT_ACCRUAL_SQL = "INSERT INTO balance_accrual (month) VALUES (?)";
+    private static final String LAST_ACCRUAL_SQL = "SELECT MAX(month) FROM balance_accrual";
+
+    private final Supplier<Stream<Employee>> source;
+    private final Map<Integer, Double> balances = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+
+    public LeaveBalanceLedger(Supplier<Stream<Employee>> source) {
+        this.source = source;
+    }
+
+    // Variations de solde d'une transaction : ID employé -> jours (négatif = décompte)
+    static final class Deltas {
+        private final Map<Integer, Double> byEmployee = new HashMap<>();
+
+        void add(int employeeId, double days) {
+            if (days != 0) {
+                byEmployee.merge(employeeId, days, Double::sum);
+            }
+        }
+
+        boolean isEmpty() {
+            return byEmployee.isEmpty();
+        }
+    }
+
+    // Registre partagé par les DAO du stockage configuré
+    public static LeaveBalanceLedger shared() {
+        return SHARED;
+    }
+
+    // Solde de l'employé, 0 s'il est inconnu
+    public double getBalance(int employeeId) {
+        ensureLoaded();
+        return balances.getOrDefault(employeeId, 0.0);
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public void preload() {
+        ensureLoaded();
+    }
+
+    // Écrit les variations dans la transaction en cours de la session ; un décompte que le solde
+    // ne couvre pas fait échouer la transaction. La copie en mémoire n'est modifiée qu'après
+    // validation, par applyCommitted.
+    void write(DAOSession session, Deltas deltas) throws SQLException {
+        ensureLoaded(); // chargé avant la validation : le chargement ne peut pas compter la variation deux fois
+        if (deltas.isEmpty()) {
+            return;
+        }
+        PreparedStatement credit = session.prepare(ADJUST_BALANCE_SQL);
+        PreparedStatement deduct = session.prepare(DEDUCT_BALANCE_SQL);
+        boolean credits = false;
+        for (Map.Entry<Integer, Double> entry : deltas.byEmployee.entrySet()) {
+            if (entry.getValue() > 0) {
+                credit.setDouble(1, entry.getValue());
+                credit.setInt(2, entry.getKey());
+                credit.addBatch();
+                credits = true;
+                continue;
+            }
+            deduct.setDouble(1, -entry.getValue());
+            deduct.setInt(2, entry.getKey());
+            deduct.setDouble(3, -entry.getValue());
+            if (deduct.executeUpdate() == 0) {
+                throw new SQLException("Solde de congés insuffisant (employé " + entry.getKey() + ").", "23514");
+            }
+        }
+        if (credits) {
+            credit.executeBatch();
+        }
+    }
+
+    synchronized void applyCommitted(Deltas deltas) {
+        if (!loaded) {
+            return; // le prochain chargement lira la base
+        }
+        for (Map.Entry<Integer, Double> entry : deltas.byEmployee.entrySet()) {
+            balances.computeIfPresent(entry.getKey(), (id, balance) -> balance + entry.getValue());
+        }
+    }
+
+    synchronized void put(int employeeId, double balance) {
+        if (loaded) {
+            balances.put(employeeId, balance);
+        }
+    }
+
+    synchronized void remove(int employeeId) {
+        balances.remove(employeeId);
+    }
+
+    // Ajoute l'acquisition mensuelle à tous les employés, une seule fois par mois et par base.
+    // Retourne false si le mois a déjà été crédité partout.
+    public boolean accrueMonth(YearMonth month) {
+        boolean credited = false;
+        for (Shard shard : DBConnection.shards()) {
+            DBConnection.Route route = DBConnection.route(shard);
+            try (route) {
+                credited |= accrueMonth(month, shard);
+            }
+        }
+        return credited;
+    }
+
+    // Crédite chaque mois depuis la dernière acquisition enregistrée jusqu'à upTo inclus, pour les
+    // mois où l'application n'a pas tourné ; sur une base sans acquisition, seul upTo est crédité.
+    // Retourne le nombre de mois crédités, toutes bases confondues.
+    public int accrueMonthsUpTo(YearMonth upTo) {
+        int credited = 0;
+        for (Shard shard : DBConnection.shards()) {
+            DBConnection.Route route = DBConnection.route(shard);
+            try (route) {
+                YearMonth last = lastAccrual();
+                for (YearMonth month = last == null ? upTo : last.plusMonths(1); !month.isAfter(upTo);
+                     month = month.plusMonths(1)) {
+                    if (accrueMonth(month, shard)) {
+                        credited++;
+                    }
+                }
+            } catch (SQLException e) {
+                System.err.println("Erreur lors de la lecture des acquisitions de congés : " + e.getMessage());
+                e.printStackTrace();
+            }
+        }
+        return credited;
+    }
+
+    // Dernier mois crédité sur la base du routage en cours, null si aucun
+    private static YearMonth lastAccrual() throws SQLException {
+        try (DAOSession session = DAOSession.open()) {
+            try (ResultSet rs = session.prepare(LAST_ACCRUAL_SQL).executeQuery()) {
+                String last = rs.next() ? rs.getString(1) : null;
+                return last == null ? null : YearMonth.parse(last.trim());
+            }
+        }
+    }
+
+    private boolean accrueMonth(YearMonth month, Shard shard) {
+        try (DAOSession session = DAOSession.open()) {
+            ensureLoaded();
+            boolean credited = session.transaction(tx -> {
+                PreparedStatement insert = tx.prepare(INSERT_ACCRUAL_SQL);
+                insert.setString(1, month.toString());
+                try {
+                    insert.executeUpdate();
+                } catch (SQLIntegrityConstraintViolationException alreadyCredited) {
+                    return false;
+                }
+                PreparedStatement accrue = tx.prepare(ACCRUE_ALL_SQL);
+                accrue.setDouble(1, MONTHLY_ACCRUAL);
+                accrue.executeUpdate();
+                return true;
+            });
+            if (credited) {
+                applyAccrual(MONTHLY_ACCRUAL, shard::ownsId);
+                System.out.println("Acquisition de congés créditée pour " + month
+                        + (DBConnection.isSharded() ? " (base " + shard.getName() + ")." : "."));
+            }
+            return credited;
+        } catch (SQLException e) {
+            System.err.println("Erreur lors de l'acquisition mensuelle des congés : " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    // Acquisition validée : ajoutée à la copie en mémoire de tous les soldes
+    synchronized void applyAccrual(double days) {
+        applyAccrual(days, id -> true);
+    }
+
+    // Acquisition validée sur une base : seuls les soldes de ses employés changent
+    private synchronized void applyAccrual(double days, IntPredicate employees) {
+        balances.replaceAll((id, balance) -> employees.test(id) ? balance + days : balance);
+    }
+
+    // Oublie tout : les soldes seront relus à la prochaine utilisation
+    public synchronized void invalidate() {
+        loaded = false;
+        balances.clear();
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        synchronized (this) {
+            if (loaded) {
+                return;
+            }
+            try (Stream<Employee> employees = source.get()) {
+                employees.forEach(employee -> balances.put(employee.getId(), employee.getHolidayBalance()));
+                loaded = true;
+            } catch (IllegalStateException e) {
+                System.err.println("Erreur lors du chargement des soldes de congés : " + e.getMessage());
+                e.printStackTrace();
+            }
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package DAO;
+
+import Model.Employee;
+import Model.Holiday;
+
+import java.io.UncheckedIOException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+
+// Employés du stockage en mémoire (voir DAOFactory)
+class MemoryEmployeeDAO implements GenericDAO<Employee> {
+    private final MemoryStore store;
+
+    MemoryEmployeeDAO(MemoryStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public void add(Employee employee) {
+        employee.setId(store.insertEmployees(Collections.singletonList(employee))[0]);
+        EmployeeNameIndex.shared().put(employee.getId(), EmployeeNameIndex.fullName(employee));
+        LeaveBalanceLedger.shared().put(employee.getId(), employee.getHolidayBalance());
+        ChangeBus.shared().created(Employee.class, employee.getId(), employee);
+    }
+
+    @Override
+    public void delete(int id) {
+        int[] removedHolidays = store.deleteEmployees(new int[]{id})[0];
+        if (removedHolidays != null) {
+            forgetEmployee(id, removedHolidays);
+        }
+    }
+
+    @Override
+    public List<Employee> listAll() {
+        return store.employeePage(0, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public Employee findById(int id) {
+        return store.findEmployee(id);
+    }
+
+    @Override
+    public UpdateResult<Employee> update(Employee employee, int id) {
+        try {
+            if (store.updateEmployees(Collections.singletonList(employee), new int[]{id}, false)[0]) {
+                employee.setId(id);
+                employee.setVersion(employee.getVersion() + 1);
+                EmployeeNameIndex.shared().put(id, EmployeeNameIndex.fullName(employee));
+                ChangeBus.shared().updated(Employee.class, id, employee);
+                return UpdateResult.updated(employee.getVersion());
+            }
+            return UpdateResult.staleOrMissing(store.findEmployee(id));
+        } catch (UncheckedIOException e) {
+            return UpdateResult.failed(e);
+        }
+    }
+
+    @Override
+    public List<Employee> listPage(int afterId, int limit) {
+        return store.employeePage(afterId, limit);
+    }
+
+    @Override
+    public Stream<Employee> streamAll() {
+        return store.streamEmployees();
+    }
+
+    @Override
+    public int[] listIds() {
+        return store.employeeIds();
+    }
+
+    @Override
+    public BatchResult addAll(List<Employee> employees) {
+        int[] ids;
+        try {
+            ids = store.insertEmployees(employees);
+        } catch (UncheckedIOException e) {
+            return BatchResult.failed(employees.size(), new SQLException(e.getMessage(), e));
+        }
+        int[] counts = new int[ids.length];
+        for (int row = 0; row < ids.length; row++) {
+            Employee employee = employees.get(row);
+            employee.setId(ids[row]);
+            counts[row] = 1;
+            EmployeeNameIndex.shared().put(employee.getId(), EmployeeNameIndex.fullName(employee));
+            LeaveBalanceLedger.shared().put(employee.getId(), employee.getHolidayBalance());
+            ChangeBus.shared().created(Employee.class, employee.getId(), employee);
+        }
+        return new BatchResult(counts, ids, null);
+    }
+
+    @Override
+    public BatchResult updateAll(List<Employee> employees) {
+        return updateRows(employees, false);
+    }
+
+    @Override
+    public BatchResult compareAndSetAll(List<Employee> employees) {
+        return updateRows(employees, true);
+    }
+
+    private BatchResult updateRows(List<Employee> employees, boolean allOrNothing) {
+        int[] ids = new int[employees.size()];
+        for (int row = 0; row < ids.length; row++) {
+            ids[row] = employees.get(row).getId();
+        }
+        boolean[] updated;
+        try {
+            updated = store.updateEmployees(employees, ids, allOrNothing);
+        } catch (UncheckedIOException e) {
+            return BatchResult.failed(employees.size(), new SQLException(e.getMessage(), e));
+        }
+        int[] counts = new int[ids.length];
+        for (int row = 0; row < ids.length; row++) {
+            counts[row] = updated[row] ? 1 : 0;
+            if (updated[row]) {
+                employees.get(row).setVersion(employees.get(row).getVersion() + 1);
+                EmployeeNameIndex.shared().put(ids[row], EmployeeNameIndex.fullName(employees.get(row)));
+                ChangeBus.shared().updated(Employee.class, ids[row], employees.get(row));
+            }
+        }
+        // Tout ou rien : aucune ligne écrite dès que la première ne l'est pas
+        if (allOrNothing && ids.length > 0 && !updated[0]) {
+            return BatchResult.failed(ids.length, new BatchResult.VersionConflict(staleIds(employees, ids)));
+        }
+        return new BatchResult(counts, new int[ids.length], null);
+    }
+
+    // Lignes d'un lot annulé qui ne sont plus à la version lue (toutes si aucune ne l'est)
+    private List<Integer> staleIds(List<Employee> employees, int[] ids) {
+        List<Integer> stale = new ArrayList<>();
+        for (int row = 0; row < ids.length; row++) {
+            Employee current = store.findEmployee(ids[row]);
+            if (current == null || current.getVersion() != employees.get(row).getVersion()) {
+                stale.add(ids[row]);
+            }
+        }
+        if (stale.isEmpty()) {
+            for (int id : ids) {
+                stale.add(id);
+            }
+        }
+        return stale;
+    }
+
+    @Override
+    public BatchResult deleteAll(int... ids) {
+        int[][] removedHolidays;
+        try {
+            removedHolidays = store.deleteEmployees(ids);
+        } catch (UncheckedIOException e) {
+            return BatchResult.failed(ids.length, new SQLException(e.getMessage(), e));
+        }
+        int[] counts = new int[ids.length];
+        for (int row = 0; row < ids.length; row++) {
+            counts[row] = removedHolidays[row] != null ? 1 : 0;
+            if (removedHolidays[row] != null) {
+                forgetEmployee(ids[row], removedHolidays[row]);
+            }
+        }
+        return new BatchResult(counts, new int[ids.length], null);
+    }
+
+    // Comme ON DELETE CASCADE : les congés de l'employé disparaissent aussi des index
+    private static void forgetEmployee(int id, int[] removedHolidays) {
+        EmployeeNameIndex.shared().remove(id);
+        LeaveBalanceLedger.shared().remove(id);
+        for (int holidayId : removedHolidays) {
+            HolidayConflictEngine.shared().remove(holidayId);
+            ChangeBus.shared().deleted(Holiday.class, holidayId);
+        }
+        ChangeBus.shared().deleted(Employee.class, id);
+    }
+}
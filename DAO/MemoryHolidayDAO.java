@@ -0,0 +1,249 @@
+package DAO;
+
+import Model.Holiday;
+
+import java.io.UncheckedIOException;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+
+// Congés du stockage en mémoire (voir DAOFactory). Les soldes sont ajustés par le stockage,
+// sous le même verrou que l'écriture du congé.
+class MemoryHolidayDAO implements HolidayDAO {
+    private final MemoryStore store;
+
+    MemoryHolidayDAO(MemoryStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public void add(Holiday holiday) {
+        if (!resolveEmployee(holiday)) {
+            throw new IllegalArgumentException("Employé introuvable.");
+        }
+        LeaveBalanceLedger.Deltas deltas = newDeltas();
+        String[] refusal = new String[1];
+        int id = store.insertHolidays(Collections.singletonList(holiday), refusal, deltas)[0];
+        LeaveBalanceLedger.shared().applyCommitted(deltas);
+        if (id == -1) {
+            throw new IllegalArgumentException(refusal[0]);
+        }
+        holiday.setId(id);
+        HolidayConflictEngine.shared().put(holiday);
+        publishCreated(holiday);
+    }
+
+    @Override
+    public void delete(int id) {
+        LeaveBalanceLedger.Deltas deltas = newDeltas();
+        boolean deleted = store.deleteHolidays(new int[]{id}, deltas)[0];
+        LeaveBalanceLedger.shared().applyCommitted(deltas);
+        if (deleted) {
+            HolidayConflictEngine.shared().remove(id);
+            ChangeBus.shared().deleted(Holiday.class, id);
+        }
+    }
+
+    @Override
+    public List<Holiday> listAll() {
+        return store.holidayPage(0, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<Holiday> listPage(int afterId, int limit) {
+        return store.holidayPage(afterId, limit);
+    }
+
+    @Override
+    public Stream<Holiday> streamAll() {
+        return store.streamHolidays();
+    }
+
+    @Override
+    public Stream<Holiday> streamOverlapping(LocalDate from, LocalDate to) {
+        return store.holidaysOverlapping(from, to).stream();
+    }
+
+    @Override
+    public int[] listIds() {
+        return store.holidayIds();
+    }
+
+    @Override
+    public Holiday findById(int id) {
+        return store.findHoliday(id);
+    }
+
+    @Override
+    public UpdateResult<Holiday> update(Holiday holiday, int id) {
+        if (!resolveEmployee(holiday)) {
+            throw new IllegalArgumentException(HolidayRules.UNKNOWN_EMPLOYEE);
+        }
+        LeaveBalanceLedger.Deltas deltas = newDeltas();
+        String[] refusal = new String[1];
+        try {
+            boolean updated = store.updateHolidays(Collections.singletonList(holiday), new int[]{id}, false, refusal,
+                    deltas)[0];
+            LeaveBalanceLedger.shared().applyCommitted(deltas);
+            if (refusal[0] != null) {
+                throw new IllegalArgumentException(refusal[0]);
+            }
+            if (updated) {
+                holiday.setId(id);
+                holiday.setVersion(holiday.getVersion() + 1);
+                HolidayConflictEngine.shared().put(holiday);
+                publishUpdated(holiday);
+                return UpdateResult.updated(holiday.getVersion());
+            }
+            return UpdateResult.staleOrMissing(store.findHoliday(id));
+        } catch (UncheckedIOException e) {
+            return UpdateResult.failed(e);
+        }
+    }
+
+    // Lignes refusées par les règles (employé inconnu, chevauchement) en échec
+    @Override
+    public BatchResult addAll(List<Holiday> holidays) {
+        for (Holiday holiday : holidays) {
+            resolveEmployee(holiday);
+        }
+        LeaveBalanceLedger.Deltas deltas = newDeltas();
+        String[] refusals = new String[holidays.size()];
+        int[] ids;
+        try {
+            ids = store.insertHolidays(holidays, refusals, deltas);
+        } catch (UncheckedIOException e) {
+            return BatchResult.failed(holidays.size(), new SQLException(e.getMessage(), e));
+        } finally {
+            LeaveBalanceLedger.shared().applyCommitted(deltas);
+        }
+        int[] counts = new int[ids.length];
+        for (int row = 0; row < ids.length; row++) {
+            if (ids[row] == -1) {
+                counts[row] = Statement.EXECUTE_FAILED;
+                ids[row] = 0;
+                continue;
+            }
+            counts[row] = 1;
+            holidays.get(row).setId(ids[row]);
+            HolidayConflictEngine.shared().put(holidays.get(row));
+            publishCreated(holidays.get(row));
+        }
+        return new BatchResult(counts, ids, null, refusals);
+    }
+
+    @Override
+    public BatchResult updateAll(List<Holiday> holidays) {
+        return updateRows(holidays, false);
+    }
+
+    @Override
+    public BatchResult compareAndSetAll(List<Holiday> holidays) {
+        return updateRows(holidays, true);
+    }
+
+    private BatchResult updateRows(List<Holiday> holidays, boolean allOrNothing) {
+        int[] ids = new int[holidays.size()];
+        for (int row = 0; row < ids.length; row++) {
+            ids[row] = holidays.get(row).getId();
+            resolveEmployee(holidays.get(row));
+        }
+        LeaveBalanceLedger.Deltas deltas = newDeltas();
+        String[] refusals = new String[holidays.size()];
+        boolean[] updated;
+        try {
+            updated = store.updateHolidays(holidays, ids, allOrNothing, refusals, deltas);
+        } catch (UncheckedIOException e) {
+            return BatchResult.failed(holidays.size(), new SQLException(e.getMessage(), e));
+        } finally {
+            LeaveBalanceLedger.shared().applyCommitted(deltas);
+        }
+        int[] counts = new int[ids.length];
+        for (int row = 0; row < ids.length; row++) {
+            counts[row] = updated[row] ? 1 : 0;
+            if (updated[row]) {
+                holidays.get(row).setVersion(holidays.get(row).getVersion() + 1);
+                HolidayConflictEngine.shared().put(holidays.get(row));
+                publishUpdated(holidays.get(row));
+            }
+        }
+        // Tout ou rien : aucune ligne écrite dès que la première ne l'est pas
+        if (allOrNothing && ids.length > 0 && !updated[0]) {
+            return BatchResult.failed(ids.length, new BatchResult.VersionConflict(staleIds(holidays, ids)));
+        }
+        return new BatchResult(counts, new int[ids.length], null, refusals);
+    }
+
+    // Lignes d'un lot annulé qui ne sont plus à la version lue (toutes si aucune ne l'est)
+    private List<Integer> staleIds(List<Holiday> holidays, int[] ids) {
+        List<Integer> stale = new ArrayList<>();
+        for (int row = 0; row < ids.length; row++) {
+            Holiday current = store.findHoliday(ids[row]);
+            if (current == null || current.getVersion() != holidays.get(row).getVersion()) {
+                stale.add(ids[row]);
+            }
+        }
+        if (stale.isEmpty()) {
+            for (int id : ids) {
+                stale.add(id);
+            }
+        }
+        return stale;
+    }
+
+    @Override
+    public BatchResult deleteAll(int... ids) {
+        LeaveBalanceLedger.Deltas deltas = newDeltas();
+        boolean[] deleted;
+        try {
+            deleted = store.deleteHolidays(ids, deltas);
+        } catch (UncheckedIOException e) {
+            return BatchResult.failed(ids.length, new SQLException(e.getMessage(), e));
+        } finally {
+            LeaveBalanceLedger.shared().applyCommitted(deltas);
+        }
+        int[] counts = new int[ids.length];
+        for (int row = 0; row < ids.length; row++) {
+            counts[row] = deleted[row] ? 1 : 0;
+            if (deleted[row]) {
+                HolidayConflictEngine.shared().remove(ids[row]);
+                ChangeBus.shared().deleted(Holiday.class, ids[row]);
+            }
+        }
+        return new BatchResult(counts, new int[ids.length], null);
+    }
+
+    // Soldes chargés avant l'écriture : le chargement ne peut pas compter la variation deux fois
+    private static LeaveBalanceLedger.Deltas newDeltas() {
+        LeaveBalanceLedger.shared().preload();
+        return new LeaveBalanceLedger.Deltas();
+    }
+
+    // Complète l'ID de l'employé à partir de son nom complet ; false si l'employé est inconnu
+    private boolean resolveEmployee(Holiday holiday) {
+        if (holiday.getEmployeeId() <= 0) {
+            holiday.setEmployeeId(getEmployeeIdByName(holiday.getEmployeeName()));
+        }
+        return holiday.getEmployeeId() > 0;
+    }
+
+    // Événement de création / modification : le nom de l'employé est complété pour l'affichage
+    private static void publishCreated(Holiday holiday) {
+        ChangeBus.shared().created(Holiday.class, holiday.getId(), withEmployeeName(holiday));
+    }
+
+    private static void publishUpdated(Holiday holiday) {
+        ChangeBus.shared().updated(Holiday.class, holiday.getId(), withEmployeeName(holiday));
+    }
+
+    private static Holiday withEmployeeName(Holiday holiday) {
+        if (holiday.getEmployeeName() == null) {
+            holiday.setEmployeeName(EmployeeNameIndex.shared().nameOf(holiday.getEmployeeId()));
+        }
+        return holiday;
+    }
+}
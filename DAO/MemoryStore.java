@@ -0,0 +1,710 @@
+package DAO;
+
+import Model.Employee;
+import Model.Holiday;
+import Model.Poste;
+import Model.Role;
+import Model.Type;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.TreeSet;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+// Stockage en mémoire des employés et des congés, partagé par MemoryEmployeeDAO et MemoryHolidayDAO.
+// - tables par ID (IntObjectMap) et liste triée des IDs pour la pagination et les parcours ordonnés
+// - index secondaires : congés par employé et congés par date de début (recherche par période) ;
+//   le nom complet -> ID reste dans EmployeeNameIndex, tenu à jour par les DAO comme avec JDBC
+// - lectures concurrentes, écritures exclusives
+// - journal facultatif en ajout seul : chaque écriture y est ajoutée avant d'être appliquée,
+//   il est rejoué à l'ouverture puis compacté s'il contient surtout des versions périmées
+// Les objets stockés ne sortent jamais d'ici : les lectures renvoient des copies, comme une requête SQL.
+final class MemoryStore implements Closeable {
+    private static final int STREAM_PAGE = 1000;
+
+    // Enregistrements du journal
+    private static final String EMPLOYEE = "E";
+    private static final String EMPLOYEE_DELETED = "E-";
+    private static final String HOLIDAY = "H";
+    private static final String HOLIDAY_DELETED = "H-";
+    private static final String ACCRUAL = "A";
+    // Enregistrements d'un journal compacté : état final, sans effet sur les soldes
+    private static final String HOLIDAY_STATE = "HS";
+    private static final String ACCRUAL_STATE = "AS";
+    private static final String SEQUENCES = "SEQ";
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final IntObjectMap<Employee> employees = new IntObjectMap<>(1024);
+    private final IntObjectMap<Holiday> holidays = new IntObjectMap<>(1024);
+    private final SortedIds employeeIds = new SortedIds();
+    private final SortedIds holidayIds = new SortedIds();
+    private final IntObjectMap<SortedIds> holidaysByEmployee = new IntObjectMap<>(1024);
+    private final TreeSet<Long> holidaysByStart = new TreeSet<>(); // (jour de début << 32) | ID
+    private int longestHoliday; // plus longue durée en jours : borne la recherche par période
+    private final Set<String> accruedMonths = new HashSet<>();
+    private int lastEmployeeId;
+    private int lastHolidayId;
+
+    private final AppendOnlyJournal journal;
+
+    MemoryStore(Path journalFile, boolean sync) throws IOException {
+        if (journalFile == null) {
+            journal = null;
+            return;
+        }
+        journal = new AppendOnlyJournal(journalFile, sync);
+        int[] records = new int[1];
+        journal.replay(record -> {
+            replay(record);
+            records[0]++;
+        });
+        int live = employees.size() + holidays.size() + accruedMonths.size() + 1;
+        if (records[0] > 2 * live) {
+            journal.rewrite(snapshot());
+        }
+    }
+
+    // Liste triée d'IDs (insertion en fin dans le cas courant des IDs croissants)
+    static final class SortedIds {
+        private int[] ids;
+        private int size;
+
+        SortedIds() {
+            this(16);
+        }
+
+        SortedIds(int capacity) {
+            ids = new int[Math.max(1, capacity)];
+        }
+
+        void add(int id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            int index = size == 0 || ids[size - 1] < id ? size : -Arrays.binarySearch(ids, 0, size, id) - 1;
+            if (index < 0) {
+                return; // déjà présent
+            }
+            System.arraycopy(ids, index, ids, index + 1, size - index);
+            ids[index] = id;
+            size++;
+        }
+
+        void remove(int id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index >= 0) {
+                System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+                size--;
+            }
+        }
+
+        void clear() {
+            size = 0;
+        }
+
+        // Position du premier ID > afterId
+        int indexAfter(int afterId) {
+            int index = Arrays.binarySearch(ids, 0, size, afterId);
+            return index >= 0 ? index + 1 : -index - 1;
+        }
+
+        int get(int index) {
+            return ids[index];
+        }
+
+        int size() {
+            return size;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(ids, size);
+        }
+    }
+
+    // ---- Lectures ----
+
+    Employee findEmployee(int id) {
+        Lock read = lock.readLock();
+        read.lock();
+        try {
+            Employee employee = employees.get(id);
+            return employee == null ? null : copy(employee);
+        } finally {
+            read.unlock();
+        }
+    }
+
+    List<Employee> employeePage(int afterId, int limit) {
+        return page(employeeIds, afterId, limit, id -> copy(employees.get(id)));
+    }
+
+    int[] employeeIds() {
+        return ids(employeeIds);
+    }
+
+    Stream<Employee> streamEmployees() {
+        return stream(this::employeePage, Employee::getId);
+    }
+
+    Holiday findHoliday(int id) {
+        Lock read = lock.readLock();
+        read.lock();
+        try {
+            Holiday holiday = holidays.get(id);
+            return holiday == null ? null : view(holiday);
+        } finally {
+            read.unlock();
+        }
+    }
+
+    List<Holiday> holidayPage(int afterId, int limit) {
+        return page(holidayIds, afterId, limit, id -> view(holidays.get(id)));
+    }
+
+    int[] holidayIds() {
+        return ids(holidayIds);
+    }
+
+    Stream<Holiday> streamHolidays() {
+        return stream(this::holidayPage, Holiday::getId);
+    }
+
+    // Congés qui chevauchent [from, to], triés par ID
+    List<Holiday> holidaysOverlapping(LocalDate from, LocalDate to) {
+        long fromDay = from.toEpochDay();
+        long toDay = to.toEpochDay();
+        List<Holiday> result = new ArrayList<>();
+        Lock read = lock.readLock();
+        read.lock();
+        try {
+            // Un congé qui chevauche commence au plus tôt longestHoliday jours avant from
+            long low = (fromDay - longestHoliday) << 32;
+            long high = (toDay << 32) | 0xFFFFFFFFL;
+            for (long key : holidaysByStart.subSet(low, true, high, true)) {
+                Holiday holiday = holidays.get((int) key);
+                if (holiday.getEndEpochDay() >= fromDay) {
+                    result.add(view(holiday));
+                }
+            }
+        } finally {
+            read.unlock();
+        }
+        result.sort((a, b) -> Integer.compare(a.getId(), b.getId()));
+        return result;
+    }
+
+    // ---- Écritures : journal d'abord, puis application en mémoire ----
+    // Chaque écriture prépare ses enregistrements sans rien modifier ; ils sont ajoutés au journal
+    // et vidés sur disque, puis appliqués en mémoire ensemble. Une erreur pendant la préparation ou
+    // l'écriture du journal laisse donc la mémoire intacte, jamais un lot à moitié appliqué.
+
+    // Retourne l'ID attribué à chaque employé
+    int[] insertEmployees(List<Employee> batch) {
+        int[] ids = new int[batch.size()];
+        write(changes -> {
+            int lastId = lastEmployeeId;
+            for (int row = 0; row < batch.size(); row++) {
+                Employee employee = copy(batch.get(row));
+                employee.setId(++lastId);
+                employee.setVersion(0);
+                changes.add(() -> putEmployee(employee), employeeRecord(employee));
+                ids[row] = employee.getId();
+            }
+        });
+        return ids;
+    }
+
+    // Le solde n'est pas modifié : il ne change qu'avec les congés et l'acquisition mensuelle.
+    // Une ligne n'est écrite que si elle est encore à la version de l'objet passé ; allOrNothing :
+    // aucune ne l'est si l'une est périmée ou absente.
+    boolean[] updateEmployees(List<Employee> batch, int[] ids, boolean allOrNothing) {
+        boolean[] updated = new boolean[batch.size()];
+        write(changes -> {
+            if (allOrNothing && !allCurrent(employees, batch, ids, Employee::getVersion)) {
+                return;
+            }
+            for (int row = 0; row < batch.size(); row++) {
+                Employee current = employees.get(ids[row]);
+                // Une ligne déjà modifiée plus haut dans le lot n'est plus à la version lue
+                if (current == null || current.getVersion() != batch.get(row).getVersion()
+                        || !changes.touch(ids[row])) {
+                    continue;
+                }
+                Employee employee = copy(batch.get(row));
+                employee.setId(ids[row]);
+                employee.setVersion(current.getVersion() + 1);
+                employee.setHolidayBalance(current.getHolidayBalance());
+                changes.add(() -> putEmployee(employee), employeeRecord(employee));
+                updated[row] = true;
+            }
+        });
+        return updated;
+    }
+
+    // Supprime les employés et leurs congés ; retourne les IDs des congés supprimés, null si l'employé n'existait pas
+    int[][] deleteEmployees(int[] ids) {
+        int[][] removedHolidays = new int[ids.length][];
+        write(changes -> {
+            for (int row = 0; row < ids.length; row++) {
+                if (employees.get(ids[row]) == null || !changes.touch(ids[row])) {
+                    continue;
+                }
+                int id = ids[row];
+                int index = row;
+                changes.add(() -> removedHolidays[index] = removeEmployee(id), EMPLOYEE_DELETED, Integer.toString(id));
+            }
+        });
+        return removedHolidays;
+    }
+
+    // Retourne l'ID attribué à chaque congé, -1 s'il est refusé par les règles (motif dans refusals)
+    int[] insertHolidays(List<Holiday> batch, String[] refusals, LeaveBalanceLedger.Deltas deltas) {
+        int[] ids = new int[batch.size()];
+        write(changes -> {
+            HolidayRules rules = rules();
+            int lastId = lastHolidayId;
+            for (int row = 0; row < batch.size(); row++) {
+                Holiday stored = copy(batch.get(row), lastId + 1);
+                refusals[row] = refusal(stored, null, rules);
+                if (refusals[row] != null) {
+                    ids[row] = -1;
+                    continue;
+                }
+                lastId++;
+                rules.accept(stored, null);
+                changes.add(() -> putHoliday(stored, true, deltas), holidayRecord(HOLIDAY, stored));
+                ids[row] = stored.getId();
+            }
+        });
+        return ids;
+    }
+
+    // Même contrôle de version que pour les employés ; une ligne refusée par les règles n'est pas
+    // écrite (motif dans refusals), et avec allOrNothing aucune ne l'est
+    boolean[] updateHolidays(List<Holiday> batch, int[] ids, boolean allOrNothing, String[] refusals,
+                             LeaveBalanceLedger.Deltas deltas) {
+        boolean[] updated = new boolean[batch.size()];
+        write(changes -> {
+            if (allOrNothing && !allCurrent(holidays, batch, ids, Holiday::getVersion)) {
+                return;
+            }
+            HolidayRules rules = rules();
+            for (int row = 0; row < batch.size(); row++) {
+                Holiday holiday = batch.get(row);
+                Holiday current = holidays.get(ids[row]);
+                if (current == null || current.getVersion() != holiday.getVersion() || !changes.touch(ids[row])) {
+                    continue;
+                }
+                Holiday stored = copy(holiday, ids[row]);
+                stored.setVersion(current.getVersion() + 1);
+                refusals[row] = refusal(stored, current, rules);
+                if (refusals[row] != null) {
+                    if (allOrNothing) {
+                        changes.clear();
+                        Arrays.fill(updated, false);
+                        return;
+                    }
+                    continue;
+                }
+                rules.accept(stored, current);
+                changes.add(() -> putHoliday(stored, true, deltas), holidayRecord(HOLIDAY, stored));
+                updated[row] = true;
+            }
+        });
+        return updated;
+    }
+
+    // Règles d'une écriture de congés, d'après les soldes stockés (verrou d'écriture tenu)
+    private HolidayRules rules() {
+        return new HolidayRules(employeeId -> employees.get(employeeId).getHolidayBalance());
+    }
+
+    // Motif du refus d'un congé par les règles d'écriture (HolidayRules), null s'il peut être écrit ;
+    // replaced = congé modifié, null pour un ajout. Le stockage appartient à ce seul processus : ses
+    // congés et ses soldes sont la référence (verrou d'écriture tenu)
+    private String refusal(Holiday holiday, Holiday replaced, HolidayRules rules) {
+        if (employees.get(holiday.getEmployeeId()) == null) {
+            return HolidayRules.UNKNOWN_EMPLOYEE;
+        }
+        SortedIds owned = holidaysByEmployee.get(holiday.getEmployeeId());
+        for (int i = 0; owned != null && i < owned.size(); i++) {
+            if (owned.get(i) != holiday.getId() && HolidayRules.overlaps(holiday, holidays.get(owned.get(i)))) {
+                return HolidayRules.OVERLAP;
+            }
+        }
+        return rules.overlapsBatch(holiday) ? HolidayRules.OVERLAP : rules.checkBalance(holiday, replaced);
+    }
+
+    // Vrai si chaque ligne existe et est encore à la version de l'objet correspondant (verrou d'écriture tenu)
+    private static <T> boolean allCurrent(IntObjectMap<T> table, List<T> batch, int[] ids, ToIntFunction<T> versionOf) {
+        Set<Integer> seen = new HashSet<>();
+        for (int row = 0; row < batch.size(); row++) {
+            T current = table.get(ids[row]);
+            if (current == null || versionOf.applyAsInt(current) != versionOf.applyAsInt(batch.get(row))
+                    || !seen.add(ids[row])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    boolean[] deleteHolidays(int[] ids, LeaveBalanceLedger.Deltas deltas) {
+        boolean[] deleted = new boolean[ids.length];
+        write(changes -> {
+            for (int row = 0; row < ids.length; row++) {
+                if (holidays.get(ids[row]) == null || !changes.touch(ids[row])) {
+                    continue;
+                }
+                int id = ids[row];
+                changes.add(() -> removeHoliday(id, true, deltas), HOLIDAY_DELETED, Integer.toString(id));
+                deleted[row] = true;
+            }
+        });
+        return deleted;
+    }
+
+    // Crédite days à tous les employés, une seule fois par mois ; false si déjà fait
+    boolean accrueMonth(YearMonth month, double days) {
+        boolean[] credited = new boolean[1];
+        write(changes -> {
+            if (accruedMonths.contains(month.toString())) {
+                return;
+            }
+            changes.add(() -> accrue(month.toString(), days), ACCRUAL, month.toString(), Double.toString(days));
+            credited[0] = true;
+        });
+        return credited[0];
+    }
+
+    // Crédite days pour chaque mois après le dernier crédité, jusqu'à upTo inclus (seulement upTo
+    // si aucun mois ne l'a été) ; retourne les mois crédités
+    List<YearMonth> accrueMonthsUpTo(YearMonth upTo, double days) {
+        List<YearMonth> credited = new ArrayList<>();
+        write(changes -> {
+            YearMonth last = accruedMonths.stream().map(YearMonth::parse).max(YearMonth::compareTo).orElse(null);
+            for (YearMonth month = last == null ? upTo : last.plusMonths(1); !month.isAfter(upTo);
+                 month = month.plusMonths(1)) {
+                String key = month.toString();
+                changes.add(() -> accrue(key, days), ACCRUAL, key, Double.toString(days));
+                credited.add(month);
+            }
+        });
+        return credited;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    // ---- Application en mémoire (verrou d'écriture tenu) ----
+
+    private void putEmployee(Employee employee) {
+        employees.put(employee.getId(), employee);
+        employeeIds.add(employee.getId());
+        lastEmployeeId = Math.max(lastEmployeeId, employee.getId());
+    }
+
+    private int[] removeEmployee(int id) {
+        SortedIds owned = holidaysByEmployee.get(id);
+        int[] removed = owned == null ? new int[0] : owned.toArray();
+        for (int holidayId : removed) {
+            removeHoliday(holidayId, false, null);
+        }
+        employees.remove(id);
+        employeeIds.remove(id);
+        return removed;
+    }
+
+    // Ajoute ou remplace un congé ; withBalance : l'ancien congé est recrédité, le nouveau décompté
+    private void putHoliday(Holiday holiday, boolean withBalance, LeaveBalanceLedger.Deltas deltas) {
+        if (holidays.get(holiday.getId()) != null) {
+            removeHoliday(holiday.getId(), withBalance, deltas);
+        }
+        holidays.put(holiday.getId(), holiday);
+        holidayIds.add(holiday.getId());
+        SortedIds owned = holidaysByEmployee.get(holiday.getEmployeeId());
+        if (owned == null) {
+            owned = new SortedIds();
+            holidaysByEmployee.put(holiday.getEmployeeId(), owned);
+        }
+        owned.add(holiday.getId());
+        holidaysByStart.add(startKey(holiday));
+        longestHoliday = Math.max(longestHoliday, holiday.getEndEpochDay() - holiday.getStartEpochDay());
+        lastHolidayId = Math.max(lastHolidayId, holiday.getId());
+        if (withBalance) {
+            adjustBalance(holiday.getEmployeeId(), -holiday.getDeductedDays(), deltas);
+        }
+    }
+
+    private void removeHoliday(int id, boolean withBalance, LeaveBalanceLedger.Deltas deltas) {
+        Holiday holiday = holidays.remove(id);
+        if (holiday == null) {
+            return;
+        }
+        holidayIds.remove(id);
+        SortedIds owned = holidaysByEmployee.get(holiday.getEmployeeId());
+        if (owned != null) {
+            owned.remove(id);
+            if (owned.size() == 0) {
+                holidaysByEmployee.remove(holiday.getEmployeeId());
+            }
+        }
+        holidaysByStart.remove(startKey(holiday));
+        if (withBalance) {
+            adjustBalance(holiday.getEmployeeId(), holiday.getDeductedDays(), deltas);
+        }
+    }
+
+    private void adjustBalance(int employeeId, double days, LeaveBalanceLedger.Deltas deltas) {
+        Employee employee = employees.get(employeeId);
+        if (employee == null || days == 0) {
+            return;
+        }
+        employee.setHolidayBalance(employee.getHolidayBalance() + days);
+        if (deltas != null) {
+            deltas.add(employeeId, days);
+        }
+    }
+
+    private void accrue(String month, double days) {
+        accruedMonths.add(month);
+        employees.forEachValue(employee -> employee.setHolidayBalance(employee.getHolidayBalance() + days));
+    }
+
+    private static long startKey(Holiday holiday) {
+        return ((long) holiday.getStartEpochDay() << 32) | (holiday.getId() & 0xFFFFFFFFL);
+    }
+
+    // ---- Journal ----
+
+    // Modifications préparées d'une écriture : enregistrements du journal et leur application en mémoire
+    private static final class Changes {
+        final List<String[]> records = new ArrayList<>();
+        final List<Runnable> updates = new ArrayList<>();
+        private final Set<Integer> touched = new HashSet<>();
+
+        void add(Runnable update, String... record) {
+            records.add(record);
+            updates.add(update);
+        }
+
+        // Faux si la ligne a déjà été modifiée par une ligne précédente du lot
+        boolean touch(int id) {
+            return touched.add(id);
+        }
+
+        // Abandon de l'écriture : rien n'est journalisé ni appliqué
+        void clear() {
+            records.clear();
+            updates.clear();
+        }
+    }
+
+    private void write(Consumer<Changes> plan) {
+        Lock write = lock.writeLock();
+        write.lock();
+        try {
+            Changes changes = new Changes();
+            plan.accept(changes);
+            if (changes.records.isEmpty()) {
+                return;
+            }
+            if (journal != null) {
+                journal.appendAll(changes.records);
+            }
+            changes.updates.forEach(Runnable::run);
+        } finally {
+            write.unlock();
+        }
+    }
+
+    private void replay(String[] record) {
+        switch (record[0]) {
+            case EMPLOYEE: {
+                Employee employee = new Employee(record[2], record[3], record[4], record[5],
+                        Double.parseDouble(record[6]), Role.valueOf(record[7]), Poste.valueOf(record[8]));
+                employee.setId(Integer.parseInt(record[1]));
+                employee.setHolidayBalance(Double.parseDouble(record[9]));
+                // Journaux antérieurs au verrouillage optimiste : pas de version
+                employee.setVersion(record.length > 10 ? Integer.parseInt(record[10]) : 0);
+                putEmployee(employee);
+                break;
+            }
+            case EMPLOYEE_DELETED:
+                removeEmployee(Integer.parseInt(record[1]));
+                break;
+            case HOLIDAY:
+            case HOLIDAY_STATE: {
+                Holiday holiday = new Holiday(Integer.parseInt(record[2]),
+                        LocalDate.ofEpochDay(Long.parseLong(record[3])), LocalDate.ofEpochDay(Long.parseLong(record[4])),
+                        Type.valueOf(record[5]));
+                holiday.setId(Integer.parseInt(record[1]));
+                holiday.setVersion(record.length > 6 ? Integer.parseInt(record[6]) : 0);
+                // Journaux antérieurs au décompte enregistré : celui du calendrier actuel
+                holiday.setDeductedDays(record.length > 7 ? Integer.parseInt(record[7])
+                        : holiday.getType().balanceDeduction(holiday));
+                putHoliday(holiday, record[0].equals(HOLIDAY), null);
+                break;
+            }
+            case HOLIDAY_DELETED:
+                removeHoliday(Integer.parseInt(record[1]), true, null);
+                break;
+            case ACCRUAL:
+                accrue(record[1], Double.parseDouble(record[2]));
+                break;
+            case ACCRUAL_STATE:
+                accruedMonths.add(record[1]);
+                break;
+            case SEQUENCES:
+                lastEmployeeId = Math.max(lastEmployeeId, Integer.parseInt(record[1]));
+                lastHolidayId = Math.max(lastHolidayId, Integer.parseInt(record[2]));
+                break;
+            default:
+                throw new IllegalStateException("Enregistrement de journal inconnu : " + record[0]);
+        }
+    }
+
+    // État courant sous forme d'enregistrements, pour compacter le journal
+    private List<String[]> snapshot() {
+        List<String[]> records = new ArrayList<>(employees.size() + holidays.size() + accruedMonths.size() + 1);
+        records.add(new String[]{SEQUENCES, Integer.toString(lastEmployeeId), Integer.toString(lastHolidayId)});
+        for (String month : accruedMonths) {
+            records.add(new String[]{ACCRUAL_STATE, month});
+        }
+        for (int i = 0; i < employeeIds.size(); i++) {
+            records.add(employeeRecord(employees.get(employeeIds.get(i))));
+        }
+        for (int i = 0; i < holidayIds.size(); i++) {
+            records.add(holidayRecord(HOLIDAY_STATE, holidays.get(holidayIds.get(i))));
+        }
+        return records;
+    }
+
+    private static String[] employeeRecord(Employee employee) {
+        return new String[]{EMPLOYEE, Integer.toString(employee.getId()), employee.getNom(), employee.getPrenom(),
+                employee.getEmail(), employee.getPhone(), Double.toString(employee.getSalaire()),
+                employee.getRole().name(), employee.getPoste().name(), Double.toString(employee.getHolidayBalance()),
+                Integer.toString(employee.getVersion())};
+    }
+
+    private static String[] holidayRecord(String kind, Holiday holiday) {
+        return new String[]{kind, Integer.toString(holiday.getId()), Integer.toString(holiday.getEmployeeId()),
+                Integer.toString(holiday.getStartEpochDay()), Integer.toString(holiday.getEndEpochDay()),
+                holiday.getType().name(), Integer.toString(holiday.getVersion()),
+                Integer.toString(holiday.getDeductedDays())};
+    }
+
+    // ---- Copies ----
+
+    private static Employee copy(Employee source) {
+        Employee employee = new Employee(source.getNom(), source.getPrenom(), source.getEmail(), source.getPhone(),
+                source.getSalaire(), source.getRole(), source.getPoste());
+        employee.setId(source.getId());
+        employee.setHolidayBalance(source.getHolidayBalance());
+        employee.setVersion(source.getVersion());
+        return employee;
+    }
+
+    // Copie à enregistrer : le décompte du solde est fixé à ce moment, d'après le calendrier actuel,
+    // et reporté sur l'original comme le fait HolidayDAOImpl
+    private static Holiday copy(Holiday source, int id) {
+        Holiday holiday = new Holiday(source.getEmployeeId(), source.getStartDate(), source.getEndDate(), source.getType());
+        holiday.setId(id);
+        source.setDeductedDays(source.getType().balanceDeduction(source));
+        holiday.setDeductedDays(source.getDeductedDays());
+        return holiday;
+    }
+
+    // Copie du congé avec le nom de l'employé, comme la jointure SQL
+    private Holiday view(Holiday stored) {
+        Employee employee = employees.get(stored.getEmployeeId());
+        Holiday holiday = new Holiday(stored.getId(), employee == null ? null : EmployeeNameIndex.fullName(employee),
+                stored.getStartDate(), stored.getEndDate(), stored.getType());
+        holiday.setEmployeeId(stored.getEmployeeId());
+        holiday.setVersion(stored.getVersion());
+        holiday.setDeductedDays(stored.getDeductedDays());
+        return holiday;
+    }
+
+    private <T> List<T> page(SortedIds ids, int afterId, int limit, IntFunction<T> reader) {
+        Lock read = lock.readLock();
+        read.lock();
+        try {
+            int from = ids.indexAfter(afterId);
+            int to = Math.min(ids.size(), from + Math.max(0, limit));
+            List<T> result = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                result.add(reader.apply(ids.get(i)));
+            }
+            return result;
+        } finally {
+            read.unlock();
+        }
+    }
+
+    private int[] ids(SortedIds ids) {
+        Lock read = lock.readLock();
+        read.lock();
+        try {
+            return ids.toArray();
+        } finally {
+            read.unlock();
+        }
+    }
+
+    interface PageReader<T> {
+        List<T> read(int afterId, int limit);
+    }
+
+    // Parcours par pages successives, comme un curseur : le verrou n'est pas tenu entre deux pages
+    private static <T> Stream<T> stream(PageReader<T> reader, java.util.function.ToIntFunction<T> idOf) {
+        Iterator<T> iterator = new Iterator<T>() {
+            private List<T> page = reader.read(0, STREAM_PAGE);
+            private int index;
+
+            @Override
+            public boolean hasNext() {
+                if (index < page.size()) {
+                    return true;
+                }
+                if (page.size() < STREAM_PAGE) {
+                    return false;
+                }
+                page = reader.read(idOf.applyAsInt(page.get(page.size() - 1)), STREAM_PAGE);
+                index = 0;
+                return !page.isEmpty();
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return page.get(index++);
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator,
+                Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+}
@@ -0,0 +1,111 @@
+package DAO;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+// Parcours d'un ResultSet sous forme de Stream, sans charger toutes les lignes en mémoire.
+// La connexion reste empruntée jusqu'à la fermeture du Stream (try-with-resources).
+// Un Stream utilise sa propre connexion et non la DAOSession du thread : un curseur MySQL
+// en mode streaming bloque sa connexion tant qu'il est ouvert.
+final class ResultStreams {
+    // Taille de lecture pour les pilotes qui ne supportent pas le mode streaming de MySQL
+    private static final int FETCH_SIZE = 1000;
+
+    private ResultStreams() {
+    }
+
+    static <T> Stream<T> stream(String sql, RowMapper<T> mapper, Object... params) {
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        try {
+            conn = DBConnection.getConnection();
+            stmt = StatementTracer.wrap(
+                    conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY), sql);
+            enableStreaming(conn, stmt);
+            for (int i = 0; i < params.length; i++) {
+                stmt.setObject(i + 1, params[i]);
+            }
+            rs = stmt.executeQuery();
+        } catch (SQLException e) {
+            closeQuietly(rs, stmt, conn);
+            throw new IllegalStateException("Erreur lors de l'ouverture du curseur : " + e.getMessage(), e);
+        }
+
+        ResultSet cursor = rs;
+        PreparedStatement statement = stmt;
+        Connection connection = conn;
+        Spliterator<T> spliterator = new Spliterators.AbstractSpliterator<T>(Long.MAX_VALUE,
+                Spliterator.ORDERED | Spliterator.NONNULL) {
+            private RowMapper.Reader<T> reader; // Colonnes résolues à la première ligne
+
+            @Override
+            public boolean tryAdvance(Consumer<? super T> action) {
+                try {
+                    if (!cursor.next()) {
+                        return false;
+                    }
+                    if (reader == null) {
+                        reader = mapper.bind(cursor);
+                    }
+                    action.accept(reader.read(cursor));
+                    return true;
+                } catch (SQLException e) {
+                    throw new IllegalStateException("Erreur lors de la lecture du curseur : " + e.getMessage(), e);
+                }
+            }
+        };
+        return StreamSupport.stream(spliterator, false)
+                .onClose(() -> closeQuietly(cursor, statement, connection));
+    }
+
+    // Lit la première colonne entière de chaque ligne dans un tableau compact
+    static int[] readInts(String sql) {
+        int[] values = new int[1024];
+        int size = 0;
+        try (DAOSession session = DAOSession.open()) {
+            PreparedStatement stmt = session.prepare(sql);
+            enableStreaming(session.getConnection(), stmt);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    if (size == values.length) {
+                        values = Arrays.copyOf(values, size * 2);
+                    }
+                    values[size++] = rs.getInt(1);
+                }
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Erreur lors de la lecture des identifiants : " + e.getMessage(), e);
+        }
+        return Arrays.copyOf(values, size);
+    }
+
+    // MySQL ne lit ligne par ligne que si fetchSize vaut Integer.MIN_VALUE
+    static void enableStreaming(Connection conn, PreparedStatement stmt) throws SQLException {
+        if (conn.getMetaData().getDatabaseProductName().toLowerCase().contains("mysql")) {
+            stmt.setFetchSize(Integer.MIN_VALUE);
+        } else {
+            stmt.setFetchSize(FETCH_SIZE);
+        }
+    }
+
+    private static void closeQuietly(AutoCloseable... resources) {
+        for (AutoCloseable resource : resources) {
+            if (resource != null) {
+                try {
+                    resource.close();
+                } catch (Exception e) {
+                    // fermeture best-effort
+                }
+            }
+        }
+    }
+}
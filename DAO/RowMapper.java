@@ -0,0 +1,44 @@
+package DAO;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+// Conversion des lignes d'un ResultSet en objets. bind() résout les colonnes une seule fois par
+// ResultSet (findColumn) ; le lecteur obtenu lit ensuite chaque ligne par index, sans recherche
+// de libellé. Voir RowMappers pour les employés et les congés.
+public interface RowMapper<T> {
+
+    // Lecteur lié aux colonnes d'un ResultSet : ne pas le réutiliser pour un autre
+    interface Reader<T> {
+        T read(ResultSet rs) throws SQLException;
+    }
+
+    Reader<T> bind(ResultSet rs) throws SQLException;
+
+    // Ajoute à into toutes les lignes restantes du ResultSet
+    default List<T> readAll(ResultSet rs, List<T> into) throws SQLException {
+        if (!rs.next()) {
+            return into;
+        }
+        Reader<T> reader = bind(rs);
+        do {
+            into.add(reader.read(rs));
+        } while (rs.next());
+        return into;
+    }
+
+    // Première ligne du ResultSet, null s'il est vide
+    default T readFirst(ResultSet rs) throws SQLException {
+        return rs.next() ? bind(rs).read(rs) : null;
+    }
+
+    // Index de la colonne, 0 si le ResultSet ne la contient pas
+    static int optionalColumn(ResultSet rs, String label) {
+        try {
+            return rs.findColumn(label);
+        } catch (SQLException e) {
+            return 0;
+        }
+    }
+}
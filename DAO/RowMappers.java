@@ -0,0 +1,76 @@
+package DAO;
+
+import Model.Employee;
+import Model.Holiday;
+import Model.Poste;
+import Model.Role;
+import Model.Type;
+
+import java.time.LocalDate;
+
+// Lecture des employés et des congés (SELECT * FROM Employe, requêtes de HolidayDAOImpl).
+// Les enums passent par des tables précalculées ; une valeur inconnue est remplacée et comptée
+// plutôt que de faire échouer toute la liste (voir EnumLookup).
+public final class RowMappers {
+    // Replis des anciennes lectures de listAll()
+    static final EnumLookup<Role> ROLES = new EnumLookup<>("employee.role", Role.class, Role.EMPLOYE);
+    static final EnumLookup<Poste> POSTES = new EnumLookup<>("employee.poste", Poste.class,
+            Poste.INGENIEURE_ETUDE_ET_DEVELOPPEMENT);
+    // Pas de repli par défaut : un type deviné fausserait le décompte des soldes
+    static final EnumLookup<Type> TYPES = new EnumLookup<>("holiday.type", Type.class, null);
+
+    // Solde et version facultatifs : lisibles aussi sur un schéma plus ancien
+    public static final RowMapper<Employee> EMPLOYEE = rs -> {
+        int id = rs.findColumn("id");
+        int nom = rs.findColumn("nom");
+        int prenom = rs.findColumn("prenom");
+        int email = rs.findColumn("email");
+        int phone = rs.findColumn("phone");
+        int salaire = rs.findColumn("salaire");
+        int role = rs.findColumn("role");
+        int poste = rs.findColumn("poste");
+        int holidayBalance = RowMapper.optionalColumn(rs, "holidayBalance");
+        int version = RowMapper.optionalColumn(rs, "version");
+        return row -> {
+            Employee employee = new Employee(row.getString(nom), row.getString(prenom), row.getString(email),
+                    row.getString(phone), row.getDouble(salaire),
+                    ROLES.decode(row.getString(role)), POSTES.decode(row.getString(poste)));
+            employee.setId(row.getInt(id));
+            if (holidayBalance > 0) {
+                employee.setHolidayBalance(row.getDouble(holidayBalance));
+            }
+            if (version > 0) {
+                employee.setVersion(row.getInt(version));
+            }
+            return employee;
+        };
+    };
+
+    // Nom de l'employé (jointure), version et jours décomptés facultatifs ; sans la colonne deductedDays
+    // (schéma antérieur), le décompte est celui du calendrier actuel
+    public static final RowMapper<Holiday> HOLIDAY = rs -> {
+        int id = rs.findColumn("id");
+        int employeeId = rs.findColumn("employeeId");
+        int employeeName = RowMapper.optionalColumn(rs, "employeeName");
+        int startDate = rs.findColumn("startDate");
+        int endDate = rs.findColumn("endDate");
+        int type = rs.findColumn("type");
+        int version = RowMapper.optionalColumn(rs, "version");
+        int deductedDays = RowMapper.optionalColumn(rs, "deductedDays");
+        return row -> {
+            Holiday holiday = new Holiday(row.getInt(id), employeeName > 0 ? row.getString(employeeName) : null,
+                    row.getObject(startDate, LocalDate.class), row.getObject(endDate, LocalDate.class),
+                    TYPES.decode(row.getString(type)));
+            holiday.setEmployeeId(row.getInt(employeeId));
+            if (version > 0) {
+                holiday.setVersion(row.getInt(version));
+            }
+            holiday.setDeductedDays(deductedDays > 0 ? row.getInt(deductedDays)
+                    : holiday.getType().balanceDeduction(holiday));
+            return holiday;
+        };
+    };
+
+    private RowMappers() {
+    }
+}
@@ -0,0 +1,292 @@
+package DAO;
+
+import Model.Type;
+import Model.WorkingCalendar;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+// Migrations versionnées du schéma "conges". Chaque version appliquée est enregistrée dans
+// schema_version ; au démarrage, seules les versions manquantes sont exécutées, dans l'ordre.
+// MySQL valide chaque DDL immédiatement : les étapes vérifient donc ce qui existe déjà
+// (tables, colonnes, index, clés) pour qu'une migration interrompue puisse être relancée.
+// Le SQL reste compatible avec H2 en mode MySQL, pour tester sur une base embarquée.
+public class SchemaMigrator {
+
+    // Une étape de migration
+    interface Step {
+        void apply(Connection conn) throws SQLException;
+    }
+
+    static final class Migration {
+        final int version;
+        final String description;
+        final List<Step> steps;
+
+        Migration(int version, String description, Step... steps) {
+            this.version = version;
+            this.description = description;
+            this.steps = Arrays.asList(steps);
+        }
+    }
+
+    private static final String CREATE_VERSION_TABLE_SQL = "CREATE TABLE IF NOT EXISTS schema_version ("
+            + "version INT PRIMARY KEY, description VARCHAR(200) NOT NULL, "
+            + "installedAt TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP)";
+    private static final String SELECT_VERSIONS_SQL = "SELECT version FROM schema_version";
+    private static final String INSERT_VERSION_SQL = "INSERT INTO schema_version (version, description) VALUES (?, ?)";
+
+    // Ne jamais modifier une migration publiée : en ajouter une nouvelle
+    private static final List<Migration> MIGRATIONS = Collections.unmodifiableList(Arrays.asList(
+            new Migration(1, "Tables Employe, holiday et balance_accrual",
+                    sql("CREATE TABLE IF NOT EXISTS Employe ("
+                            + "id INT AUTO_INCREMENT PRIMARY KEY, "
+                            + "nom VARCHAR(100) NOT NULL, "
+                            + "prenom VARCHAR(100) NOT NULL, "
+                            + "email VARCHAR(150) NOT NULL, "
+                            + "phone VARCHAR(30), "
+                            + "salaire DOUBLE NOT NULL, "
+                            + "role VARCHAR(20) NOT NULL, "
+                            + "poste VARCHAR(50) NOT NULL, "
+                            + "holidayBalance DOUBLE NOT NULL DEFAULT 0)"),
+                    addColumnIfMissing("Employe", "holidayBalance", "DOUBLE NOT NULL DEFAULT 0"),
+                    sql("CREATE TABLE IF NOT EXISTS holiday ("
+                            + "id INT AUTO_INCREMENT PRIMARY KEY, "
+                            + "employeeId INT NOT NULL, "
+                            + "startDate DATE NOT NULL, "
+                            + "endDate DATE NOT NULL, "
+                            + "type VARCHAR(20) NOT NULL)"),
+                    // Anciennes bases : dates stockées en texte "YYYY-MM-DD"
+                    convertToDate("holiday", "startDate"),
+                    convertToDate("holiday", "endDate"),
+                    sql("CREATE TABLE IF NOT EXISTS balance_accrual (month CHAR(7) PRIMARY KEY)")),
+            new Migration(2, "Clé étrangère holiday.employeeId et index de recherche par période",
+                    // La suppression d'un employé supprime ses congés
+                    addForeignKeyIfMissing("holiday", "fk_holiday_employe",
+                            "FOREIGN KEY (employeeId) REFERENCES Employe (id) ON DELETE CASCADE"),
+                    // Conflits d'un employé : employeeId = ? AND startDate <= ? AND endDate >= ?
+                    createIndexIfMissing("holiday", "idx_holiday_employee_period", "employeeId, startDate, endDate"),
+                    // Congés qui chevauchent une période, tous employés confondus (rapports, exports)
+                    createIndexIfMissing("holiday", "idx_holiday_period", "startDate, endDate")),
+            new Migration(3, "Colonne calculée Employe.fullName indexée",
+                    addColumnIfMissing("Employe", "fullName",
+                            "VARCHAR(201) GENERATED ALWAYS AS (CONCAT(nom, ' ', prenom))"),
+                    createIndexIfMissing("Employe", "idx_employe_fullname", "fullName")),
+            new Migration(4, "Table write_behind (reprise de l'écriture différée)",
+                    sql("CREATE TABLE IF NOT EXISTS write_behind ("
+                            + "name VARCHAR(100) PRIMARY KEY, "
+                            + "seq BIGINT NOT NULL)")),
+            new Migration(5, "Colonnes version (verrouillage optimiste)",
+                    // Incrémentée à chaque mise à jour ; une mise à jour n'aboutit que si la ligne
+                    // est encore à la version lue
+                    addColumnIfMissing("Employe", "version", "INT NOT NULL DEFAULT 0"),
+                    addColumnIfMissing("holiday", "version", "INT NOT NULL DEFAULT 0")),
+            new Migration(6, "Colonne holiday.deductedDays (jours retirés du solde)",
+                    // Rendus tels quels à la suppression ou à la modification du congé, même si les
+                    // jours fériés ont changé entre-temps
+                    addColumnIfMissing("holiday", "deductedDays", "INT NOT NULL DEFAULT 0"),
+                    backfillDeductedDays())
+    ));
+
+    private final Connection conn;
+
+    public SchemaMigrator(Connection conn) {
+        this.conn = conn;
+    }
+
+    // Met à jour chaque base configurée dans DBConnection ; retourne le nombre de migrations appliquées
+    public static int migrate() throws SQLException {
+        int count = 0;
+        for (Shard shard : DBConnection.shards()) {
+            DBConnection.Route route = DBConnection.route(shard);
+            try (route; Connection conn = DBConnection.getConnection()) {
+                SchemaMigrator migrator = new SchemaMigrator(conn);
+                count += migrator.run();
+                migrator.reserveIds(shard.getFirstId());
+            }
+        }
+        return count;
+    }
+
+    // Les IDs générés d'une base commencent au début de sa plage (tables encore en dessous seulement)
+    public void reserveIds(int firstId) throws SQLException {
+        if (firstId <= 1) {
+            return;
+        }
+        boolean h2 = conn.getMetaData().getDatabaseProductName().toUpperCase(Locale.ROOT).contains("H2");
+        for (String table : Arrays.asList("Employe", "holiday")) {
+            int max;
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(id), 0) FROM " + table)) {
+                max = rs.next() ? rs.getInt(1) : 0;
+            }
+            if (max < firstId) {
+                sql(h2 ? "ALTER TABLE " + table + " ALTER COLUMN id RESTART WITH " + firstId
+                        : "ALTER TABLE " + table + " AUTO_INCREMENT = " + firstId).apply(conn);
+            }
+        }
+    }
+
+    public static int latestVersion() {
+        return MIGRATIONS.get(MIGRATIONS.size() - 1).version;
+    }
+
+    public int run() throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute(CREATE_VERSION_TABLE_SQL);
+        }
+        List<Integer> applied = appliedVersions();
+        int count = 0;
+        for (Migration migration : MIGRATIONS) {
+            if (applied.contains(migration.version)) {
+                continue;
+            }
+            for (Step step : migration.steps) {
+                step.apply(conn);
+            }
+            try (PreparedStatement stmt = conn.prepareStatement(INSERT_VERSION_SQL)) {
+                stmt.setInt(1, migration.version);
+                stmt.setString(2, migration.description);
+                stmt.executeUpdate();
+            }
+            System.out.println("Schéma : migration " + migration.version + " appliquée (" + migration.description + ").");
+            count++;
+        }
+        return count;
+    }
+
+    public List<Integer> appliedVersions() throws SQLException {
+        List<Integer> versions = new ArrayList<>();
+        try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(SELECT_VERSIONS_SQL)) {
+            while (rs.next()) {
+                versions.add(rs.getInt(1));
+            }
+        }
+        Collections.sort(versions);
+        return versions;
+    }
+
+    private static Step sql(String statement) {
+        return conn -> {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute(statement);
+            }
+        };
+    }
+
+    private static Step addColumnIfMissing(String table, String column, String definition) {
+        return conn -> {
+            if (columnType(conn, table, column) == null) {
+                sql("ALTER TABLE " + table + " ADD COLUMN " + column + " " + definition).apply(conn);
+            }
+        };
+    }
+
+    // Congés déjà saisis : décompte d'après le calendrier actuel, au plus près de celui retenu alors
+    private static Step backfillDeductedDays() {
+        return conn -> {
+            List<String> types = new ArrayList<>();
+            for (Type type : Type.values()) {
+                if (type.deductsBalance()) {
+                    types.add("'" + type.name() + "'");
+                }
+            }
+            try (Statement select = conn.createStatement();
+                 ResultSet rs = select.executeQuery("SELECT id, startDate, endDate FROM holiday WHERE type IN ("
+                         + String.join(", ", types) + ")");
+                 PreparedStatement update = conn.prepareStatement("UPDATE holiday SET deductedDays = ? WHERE id = ?")) {
+                while (rs.next()) {
+                    update.setInt(1, WorkingCalendar.workingDays(rs.getObject(2, LocalDate.class),
+                            rs.getObject(3, LocalDate.class)));
+                    update.setInt(2, rs.getInt(1));
+                    update.addBatch();
+                }
+                update.executeBatch();
+            }
+        };
+    }
+
+    private static Step convertToDate(String table, String column) {
+        return conn -> {
+            Integer type = columnType(conn, table, column);
+            if (type != null && type != Types.DATE) {
+                sql("ALTER TABLE " + table + " MODIFY " + column + " DATE NOT NULL").apply(conn);
+            }
+        };
+    }
+
+    private static Step createIndexIfMissing(String table, String index, String columns) {
+        return conn -> {
+            if (!hasIndex(conn, table, index)) {
+                sql("CREATE INDEX " + index + " ON " + table + " (" + columns + ")").apply(conn);
+            }
+        };
+    }
+
+    private static Step addForeignKeyIfMissing(String table, String name, String definition) {
+        return conn -> {
+            if (!hasForeignKey(conn, table, name)) {
+                sql("ALTER TABLE " + table + " ADD CONSTRAINT " + name + " " + definition).apply(conn);
+            }
+        };
+    }
+
+    // Les métadonnées gardent la casse de la base (H2 : majuscules, MySQL : telle que créée)
+    private static List<String> spellings(String name) {
+        return Arrays.asList(name, name.toUpperCase(Locale.ROOT), name.toLowerCase(Locale.ROOT));
+    }
+
+    // Type JDBC de la colonne (java.sql.Types), null si elle n'existe pas
+    private static Integer columnType(Connection conn, String table, String column) throws SQLException {
+        DatabaseMetaData meta = conn.getMetaData();
+        for (String t : spellings(table)) {
+            try (ResultSet rs = meta.getColumns(conn.getCatalog(), null, t, null)) {
+                while (rs.next()) {
+                    if (rs.getString("COLUMN_NAME").equalsIgnoreCase(column)) {
+                        return rs.getInt("DATA_TYPE");
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    private static boolean hasIndex(Connection conn, String table, String index) throws SQLException {
+        DatabaseMetaData meta = conn.getMetaData();
+        for (String t : spellings(table)) {
+            try (ResultSet rs = meta.getIndexInfo(conn.getCatalog(), null, t, false, true)) {
+                while (rs.next()) {
+                    if (index.equalsIgnoreCase(rs.getString("INDEX_NAME"))) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean hasForeignKey(Connection conn, String table, String name) throws SQLException {
+        DatabaseMetaData meta = conn.getMetaData();
+        for (String t : spellings(table)) {
+            try (ResultSet rs = meta.getImportedKeys(conn.getCatalog(), null, t)) {
+                while (rs.next()) {
+                    if (name.equalsIgnoreCase(rs.getString("FK_NAME"))) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+}
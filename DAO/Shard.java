@@ -0,0 +1,96 @@
+package DAO;
+
+import java.sql.SQLException;
+
+// Une base de données de l'application (celle d'une filiale) et son pool de connexions.
+// Chaque base attribue ses IDs d'employés et de congés dans sa propre plage [firstId, lastId],
+// disjointe de celles des autres : l'ID suffit pour retrouver la base d'un objet.
+public final class Shard {
+    private final String name;
+    private final String url;
+    private final String user;
+    private final String password;
+    private final int firstId;
+    private final int lastId;
+    private final int poolMaxSize;
+    private final long poolMaxWaitMs;
+    private final long poolIdleTimeoutMs;
+    private final long poolMaxLifetimeMs;
+    private final int poolValidationTimeoutS;
+    private final String poolMBean;
+
+    private volatile ConnectionPool pool;
+
+    Shard(String name, String url, String user, String password, int firstId, int lastId, int poolMaxSize,
+          long poolMaxWaitMs, long poolIdleTimeoutMs, long poolMaxLifetimeMs, int poolValidationTimeoutS,
+          String poolMBean) {
+        if (firstId < 1 || lastId < firstId) {
+            throw new IllegalStateException("Plage d'IDs invalide pour la base " + name + " : " + firstId + "-" + lastId);
+        }
+        this.name = name;
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.firstId = firstId;
+        this.lastId = lastId;
+        this.poolMaxSize = poolMaxSize;
+        this.poolMaxWaitMs = poolMaxWaitMs;
+        this.poolIdleTimeoutMs = poolIdleTimeoutMs;
+        this.poolMaxLifetimeMs = poolMaxLifetimeMs;
+        this.poolValidationTimeoutS = poolValidationTimeoutS;
+        this.poolMBean = poolMBean;
+    }
+
+    public String getName() { return name; }
+    public int getFirstId() { return firstId; }
+    public int getLastId() { return lastId; }
+
+    public boolean ownsId(int id) {
+        return id >= firstId && id <= lastId;
+    }
+
+    // ID généré par une insertion dans cette base ; hors de la plage (plage épuisée), l'exception
+    // annule la transaction de l'insertion plutôt que d'enregistrer un objet introuvable ensuite
+    int checkGeneratedId(int id) throws SQLException {
+        if (!ownsId(id)) {
+            throw new SQLException("Plage d'IDs de la base " + this + " épuisée (ID généré : " + id
+                    + ") : agrandir conges.shard." + name + ".ids.");
+        }
+        return id;
+    }
+
+    // Pool de la base, créé au premier emprunt
+    ConnectionPool getPool() {
+        ConnectionPool p = pool;
+        if (p == null) {
+            synchronized (this) {
+                p = pool;
+                if (p == null) {
+                    p = new ConnectionPool(url, user, password, poolMaxSize, poolMaxWaitMs,
+                            poolIdleTimeoutMs, poolMaxLifetimeMs, poolValidationTimeoutS);
+                    pool = p;
+                    DAOMetrics.register(poolMBean, p);
+                }
+            }
+        }
+        return p;
+    }
+
+    // Pool déjà créé, sinon null (sans le créer)
+    ConnectionPool currentPool() {
+        return pool;
+    }
+
+    synchronized void shutdown() {
+        if (pool != null) {
+            pool.close();
+            pool = null;
+            DAOMetrics.unregister(poolMBean);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return name + " [" + firstId + "-" + lastId + "]";
+    }
+}
@@ -0,0 +1,253 @@
+package DAO;
+
+import Model.Holiday;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+import java.util.stream.Stream;
+
+// DAO réparti sur les bases de DBConnection (une par filiale). Chaque appel est routé vers la base
+// qui possède l'ID ; un nouvel objet va dans la base de homeIdOf (ex. celle de l'employé d'un congé),
+// ou dans celle de l'instance. Les lectures globales (listAll, listIds) interrogent toutes les bases
+// en parallèle puis rassemblent les résultats ; les plages d'IDs étant disjointes et triées,
+// listPage et streamAll parcourent simplement les bases dans l'ordre des IDs.
+// Les lots sont répartis par base, chaque part dans sa propre transaction : un lot sur plusieurs
+// bases n'est pas atomique, et compareAndSetAll le refuse.
+// Un ID généré hors de la plage de sa base fait échouer l'insertion, annulée dans sa transaction
+// (voir Shard.checkGeneratedId) : l'objet serait sinon cherché dans une autre base.
+class ShardedDAO<T> implements GenericDAO<T> {
+    // Un thread par base au plus pour les lectures parallèles
+    private static final ExecutorService SCATTER = Executors.newFixedThreadPool(
+            Math.max(1, DBConnection.shards().size()), r -> {
+                Thread t = new Thread(r, "conges-shards");
+                t.setDaemon(true);
+                return t;
+            });
+
+    protected final GenericDAO<T> target;
+    private final ToIntFunction<T> idOf;
+    private final ToIntFunction<T> homeIdOf;
+
+    // homeIdOf : ID dont la base reçoit un nouvel objet, 0 pour la base de l'instance
+    ShardedDAO(GenericDAO<T> target, ToIntFunction<T> idOf, ToIntFunction<T> homeIdOf) {
+        this.target = target;
+        this.idOf = idOf;
+        this.homeIdOf = homeIdOf;
+    }
+
+    @Override
+    public void add(T entity) {
+        on(homeOf(entity), () -> {
+            target.add(entity);
+            return null;
+        });
+    }
+
+    @Override
+    public void delete(int id) {
+        // ID hors de toute plage : rien à supprimer, comme pour un ID absent de sa base
+        Shard shard = DBConnection.shardOf(id);
+        if (shard == null) {
+            return;
+        }
+        on(shard, () -> {
+            target.delete(id);
+            return null;
+        });
+    }
+
+    @Override
+    public List<T> listAll() {
+        List<T> all = new ArrayList<>();
+        scatter(shard -> target.listAll()).forEach(all::addAll);
+        return all;
+    }
+
+    @Override
+    public T findById(int id) {
+        Shard shard = DBConnection.shardOf(id);
+        return shard == null ? null : on(shard, () -> target.findById(id));
+    }
+
+    @Override
+    public UpdateResult<T> update(T entity, int id) {
+        Shard shard = DBConnection.shardOf(id);
+        return shard == null ? UpdateResult.notFound() : on(shard, () -> target.update(entity, id));
+    }
+
+    // Bases dans l'ordre des IDs, à partir de celle qui suit afterId
+    @Override
+    public List<T> listPage(int afterId, int limit) {
+        List<T> page = new ArrayList<>(Math.max(0, limit));
+        for (Shard shard : DBConnection.shards()) {
+            if (page.size() >= limit) {
+                break;
+            }
+            if (shard.getLastId() <= afterId) {
+                continue;
+            }
+            int after = Math.max(afterId, shard.getFirstId() - 1);
+            int remaining = limit - page.size();
+            page.addAll(on(shard, () -> target.listPage(after, remaining)));
+        }
+        return page;
+    }
+
+    // Un curseur à la fois, ouvert quand le parcours atteint sa base
+    @Override
+    public Stream<T> streamAll() {
+        return DBConnection.shards().stream().flatMap(shard -> on(shard, target::streamAll));
+    }
+
+    @Override
+    public int[] listIds() {
+        List<int[]> parts = scatter(shard -> target.listIds());
+        int[] ids = new int[parts.stream().mapToInt(part -> part.length).sum()];
+        int offset = 0;
+        for (int[] part : parts) {
+            System.arraycopy(part, 0, ids, offset, part.length);
+            offset += part.length;
+        }
+        return ids;
+    }
+
+    @Override
+    public BatchResult addAll(List<T> entities) {
+        return perShard(entities.size(), row -> homeOf(entities.get(row)),
+                (shard, rows) -> target.addAll(select(entities, rows)));
+    }
+
+    @Override
+    public BatchResult updateAll(List<T> entities) {
+        return perShard(entities.size(), row -> DBConnection.shardOf(idOf.applyAsInt(entities.get(row))),
+                (shard, rows) -> target.updateAll(select(entities, rows)));
+    }
+
+    // Tout ou rien seulement dans une base : un lot qui en couvre plusieurs est refusé
+    @Override
+    public BatchResult compareAndSetAll(List<T> entities) {
+        Shard shard = null;
+        for (T entity : entities) {
+            Shard owner = DBConnection.shardOf(idOf.applyAsInt(entity));
+            if (owner == null || (shard != null && owner != shard)) {
+                return BatchResult.failed(entities.size(),
+                        new SQLException("Lot compare-and-set sur plusieurs bases : non pris en charge."));
+            }
+            shard = owner;
+        }
+        return shard == null ? target.compareAndSetAll(entities) : on(shard, () -> target.compareAndSetAll(entities));
+    }
+
+    @Override
+    public BatchResult deleteAll(int... ids) {
+        return perShard(ids.length, row -> DBConnection.shardOf(ids[row]), (shard, rows) -> {
+            int[] part = new int[rows.size()];
+            for (int i = 0; i < part.length; i++) {
+                part[i] = ids[rows.get(i)];
+            }
+            return target.deleteAll(part);
+        });
+    }
+
+    // Base d'un nouvel objet : celle de son ID de rattachement, sinon celle de l'instance
+    private Shard homeOf(T entity) {
+        int homeId = homeIdOf.applyAsInt(entity);
+        Shard shard = homeId > 0 ? DBConnection.shardOf(homeId) : null;
+        return shard != null ? shard : DBConnection.tenantShard();
+    }
+
+    static <R> R on(Shard shard, Supplier<R> call) {
+        DBConnection.Route route = DBConnection.route(shard);
+        try (route) {
+            return call.get();
+        }
+    }
+
+    // Même appel sur chaque base en parallèle ; résultats dans l'ordre des bases
+    private static <R> List<R> scatter(Function<Shard, R> call) {
+        List<Shard> shards = DBConnection.shards();
+        if (shards.size() == 1) {
+            return List.of(on(shards.get(0), () -> call.apply(shards.get(0))));
+        }
+        List<CompletableFuture<R>> futures = new ArrayList<>();
+        for (Shard shard : shards) {
+            futures.add(CompletableFuture.supplyAsync(() -> on(shard, () -> call.apply(shard)), SCATTER));
+        }
+        List<R> results = new ArrayList<>();
+        try {
+            for (CompletableFuture<R> future : futures) {
+                results.add(future.join());
+            }
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
+        return results;
+    }
+
+    // Répartit les lignes d'un lot par base (une ligne sans base compte 0), exécute chaque part
+    // et replace les résultats dans l'ordre du lot. L'erreur rendue est celle de la première part annulée.
+    private static BatchResult perShard(int size, Function<Integer, Shard> shardOfRow,
+                                        BiFunction<Shard, List<Integer>, BatchResult> batch) {
+        Map<Shard, List<Integer>> rowsByShard = new LinkedHashMap<>();
+        for (int row = 0; row < size; row++) {
+            Shard shard = shardOfRow.apply(row);
+            if (shard != null) {
+                rowsByShard.computeIfAbsent(shard, s -> new ArrayList<>()).add(row);
+            }
+        }
+        int[] counts = new int[size];
+        int[] keys = new int[size];
+        SQLException error = null;
+        for (Map.Entry<Shard, List<Integer>> entry : rowsByShard.entrySet()) {
+            Shard shard = entry.getKey();
+            List<Integer> rows = entry.getValue();
+            BatchResult part = on(shard, () -> batch.apply(shard, rows));
+            for (int i = 0; i < rows.size(); i++) {
+                counts[rows.get(i)] = part.getUpdateCount(i);
+                keys[rows.get(i)] = part.getGeneratedKey(i);
+            }
+            if (error == null && part.getError() != null) {
+                error = part.getError();
+            }
+        }
+        return new BatchResult(counts, keys, error);
+    }
+
+    private static <T> List<T> select(List<T> entities, List<Integer> rows) {
+        List<T> part = new ArrayList<>(rows.size());
+        for (int row : rows) {
+            part.add(entities.get(row));
+        }
+        return part;
+    }
+
+    // Congés : un congé va dans la base de son employé
+    static final class Holidays extends ShardedDAO<Holiday> implements HolidayDAO {
+        Holidays(HolidayDAO target) {
+            super(target, Holiday::getId, Holidays::employeeIdOf);
+        }
+
+        @Override
+        public Stream<Holiday> streamOverlapping(LocalDate from, LocalDate to) {
+            return DBConnection.shards().stream()
+                    .flatMap(shard -> on(shard, () -> ((HolidayDAO) target).streamOverlapping(from, to)));
+        }
+
+        private static int employeeIdOf(Holiday holiday) {
+            return holiday.getEmployeeId() > 0 ? holiday.getEmployeeId()
+                    : EmployeeNameIndex.shared().idOf(holiday.getEmployeeName());
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package DAO;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+// Cache LRU borné des PreparedStatement d'une connexion physique, indexé par le texte SQL.
+// Une requête déjà préparée sur cette connexion n'est ni ré-analysée ni re-planifiée.
+final class StatementCache {
+    static final int DEFAULT_SIZE = Integer.getInteger("conges.statementCache.size", 32);
+
+    // Compteurs globaux, toutes connexions confondues
+    private static final LongAdder HITS = new LongAdder();
+    private static final LongAdder MISSES = new LongAdder();
+    private static final LongAdder EVICTIONS = new LongAdder();
+
+    private final Connection connection;
+    private final Map<String, PreparedStatement> statements;
+
+    StatementCache(Connection connection, int maxSize) {
+        this.connection = connection;
+        this.statements = new LinkedHashMap<String, PreparedStatement>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                if (size() > maxSize) {
+                    EVICTIONS.increment();
+                    closeQuietly(eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    // Une connexion n'est utilisée que par un thread à la fois : pas de synchronisation
+    PreparedStatement prepare(String sql, boolean returnKeys) throws SQLException {
+        String key = returnKeys ? "K:" + sql : sql;
+        PreparedStatement stmt = statements.get(key);
+        if (stmt != null && !stmt.isClosed()) {
+            HITS.increment();
+            stmt.clearParameters();
+            stmt.clearBatch(); // lot éventuellement laissé par une exécution en erreur
+            return stmt;
+        }
+        MISSES.increment();
+        stmt = StatementTracer.wrap(returnKeys
+                ? connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)
+                : connection.prepareStatement(sql), sql);
+        statements.put(key, stmt);
+        return stmt;
+    }
+
+    void clear() {
+        for (PreparedStatement stmt : statements.values()) {
+            closeQuietly(stmt);
+        }
+        statements.clear();
+    }
+
+    int size() {
+        return statements.size();
+    }
+
+    static long getHits() { return HITS.sum(); }
+    static long getMisses() { return MISSES.sum(); }
+    static long getEvictions() { return EVICTIONS.sum(); }
+
+    private static void closeQuietly(PreparedStatement stmt) {
+        try {
+            stmt.close();
+        } catch (SQLException e) {
+            // déjà fermé avec la connexion
+        }
+    }
+}
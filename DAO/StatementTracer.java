@@ -0,0 +1,157 @@
+package DAO;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.PreparedStatement;
+import java.util.Arrays;
+import java.util.Locale;
+
+// Requête préparée instrumentée : chaque exécution est mesurée dans DAOMetrics (sql.executeQuery,
+// sql.executeUpdate, sql.executeBatch, sql.execute) et, au-delà du seuil des requêtes lentes,
+// journalisée avec son SQL et ses paramètres. Pour executeQuery, la mesure s'arrête au premier
+// résultat : la lecture des lignes est comptée dans l'opération DAO appelante.
+final class StatementTracer implements InvocationHandler {
+    private static final int MAX_PARAM_LENGTH = 100;
+
+    private final PreparedStatement target;
+    private final String sql;
+    // Paramètres liés, par position (1 à n)
+    private Object[] params = new Object[8];
+    private int lastParam;
+    private int batchRows;
+
+    private StatementTracer(PreparedStatement target, String sql) {
+        this.target = target;
+        this.sql = sql;
+    }
+
+    // Requête inchangée si les métriques sont désactivées
+    static PreparedStatement wrap(PreparedStatement stmt, String sql) {
+        if (!DAOMetrics.isEnabled()) {
+            return stmt;
+        }
+        return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class}, new StatementTracer(stmt, sql));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        String name = method.getName();
+        if (args == null) {
+            switch (name) {
+                case "executeQuery":
+                case "executeUpdate":
+                case "executeLargeUpdate":
+                case "executeBatch":
+                case "executeLargeBatch":
+                case "execute":
+                    return execute(method, name);
+                case "clearParameters":
+                    Arrays.fill(params, null);
+                    lastParam = 0;
+                    break;
+                case "addBatch":
+                    batchRows++;
+                    break;
+                case "clearBatch":
+                    batchRows = 0;
+                    break;
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "TracedStatement[" + sql + "]";
+                default:
+                    break;
+            }
+        } else if (name.startsWith("set") && method.getDeclaringClass() == PreparedStatement.class
+                && args.length >= 2 && args[0] instanceof Integer) {
+            bind((Integer) args[0], name.equals("setNull") ? null : args[1]);
+        } else if (name.equals("equals")) {
+            return proxy == args[0];
+        }
+        return call(method, args);
+    }
+
+    private Object execute(Method method, String name) throws Throwable {
+        DAOMetrics.Operation operation = DAOMetrics.shared().operation("sql." + name.replace("Large", ""));
+        int rowsInBatch = batchRows;
+        long start = System.nanoTime();
+        Object result;
+        try {
+            result = call(method, null);
+        } catch (Throwable e) {
+            logIfSlow(operation.failed(start), rowsInBatch, " (en erreur : " + e.getMessage() + ")");
+            throw e;
+        } finally {
+            if (name.endsWith("Batch")) {
+                batchRows = 0;
+            }
+        }
+        logIfSlow(operation.record(start, rowCount(result)), rowsInBatch, "");
+        return result;
+    }
+
+    private Object call(Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static long rowCount(Object result) {
+        if (result instanceof Number) {
+            return Math.max(0, ((Number) result).longValue());
+        }
+        long rows = 0;
+        if (result instanceof int[]) {
+            for (int count : (int[]) result) {
+                rows += Math.max(0, count);
+            }
+        } else if (result instanceof long[]) {
+            for (long count : (long[]) result) {
+                rows += Math.max(0, count);
+            }
+        }
+        return rows;
+    }
+
+    private void bind(int index, Object value) {
+        if (index >= params.length) {
+            params = Arrays.copyOf(params, Math.max(index + 1, params.length * 2));
+        }
+        params[index] = value;
+        lastParam = Math.max(lastParam, index);
+    }
+
+    // Un lot est journalisé avec les paramètres de sa dernière ligne
+    private void logIfSlow(long elapsed, int rowsInBatch, String suffix) {
+        if (elapsed < DAOMetrics.SLOW_QUERY_NANOS) {
+            return;
+        }
+        StringBuilder line = new StringBuilder(String.format(Locale.ROOT, "Requête lente (%.1f ms) : %s",
+                elapsed / 1e6, sql));
+        if (rowsInBatch > 0) {
+            line.append(" [lot de ").append(rowsInBatch).append(" ligne(s), dernière :");
+        } else {
+            line.append(" [");
+        }
+        for (int i = 1; i <= lastParam; i++) {
+            line.append(i == 1 ? " " : ", ").append(format(params[i]));
+        }
+        System.err.println(line.append(" ]").append(suffix));
+    }
+
+    private static String format(Object value) {
+        if (value == null) {
+            return "NULL";
+        }
+        String text = value.toString();
+        if (text.length() > MAX_PARAM_LENGTH) {
+            text = text.substring(0, MAX_PARAM_LENGTH) + "…";
+        }
+        return value instanceof String ? "'" + text + "'" : text;
+    }
+}
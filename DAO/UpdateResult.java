@@ -0,0 +1,89 @@
+package DAO;
+
+// Résultat d'une mise à jour avec verrouillage optimiste : la ligne n'est modifiée que si elle est
+// encore à la version lue par l'appelant (getVersion() de l'objet passé à update)
+public final class UpdateResult<T> {
+    public enum Status {
+        UPDATED,   // Ligne modifiée ; getVersion() = nouvelle version
+        CONFLICT,  // Ligne modifiée entre-temps par un autre ; getCurrent() = son état actuel
+        NOT_FOUND, // Ligne supprimée (ou ID inconnu)
+        QUEUED,    // Écriture différée : acceptée, le contrôle de version aura lieu à la validation
+        FAILED     // Erreur d'accès aux données ; getError() = sa cause
+    }
+
+    private static final UpdateResult<?> NOT_FOUND = new UpdateResult<>(Status.NOT_FOUND, 0, null, null);
+    private static final UpdateResult<?> QUEUED = new UpdateResult<>(Status.QUEUED, 0, null, null);
+
+    private final Status status;
+    private final int version;
+    private final T current;
+    private final Exception error;
+
+    private UpdateResult(Status status, int version, T current, Exception error) {
+        this.status = status;
+        this.version = version;
+        this.current = current;
+        this.error = error;
+    }
+
+    public static <T> UpdateResult<T> updated(int version) {
+        return new UpdateResult<>(Status.UPDATED, version, null, null);
+    }
+
+    public static <T> UpdateResult<T> conflict(T current) {
+        return new UpdateResult<>(Status.CONFLICT, 0, current, null);
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> UpdateResult<T> notFound() {
+        return (UpdateResult<T>) NOT_FOUND;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> UpdateResult<T> queued() {
+        return (UpdateResult<T>) QUEUED;
+    }
+
+    public static <T> UpdateResult<T> failed(Exception error) {
+        return new UpdateResult<>(Status.FAILED, 0, null, error);
+    }
+
+    // Conflit si la ligne existe encore (current non null), introuvable sinon
+    static <T> UpdateResult<T> staleOrMissing(T current) {
+        return current != null ? conflict(current) : notFound();
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    // Modification acceptée (appliquée, ou mise en file en écriture différée)
+    public boolean isAccepted() {
+        return status == Status.UPDATED || status == Status.QUEUED;
+    }
+
+    public boolean isConflict() {
+        return status == Status.CONFLICT;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public T getCurrent() {
+        return current;
+    }
+
+    // Cause d'un échec (FAILED), null sinon
+    public Exception getError() {
+        return error;
+    }
+
+    @Override
+    public String toString() {
+        if (status == Status.UPDATED) {
+            return "UpdateResult[UPDATED, version=" + version + "]";
+        }
+        return error != null ? "UpdateResult[FAILED, " + error.getMessage() + "]" : "UpdateResult[" + status + "]";
+    }
+}
@@ -0,0 +1,184 @@
+package DAO;
+
+import Model.Employee;
+import Model.Holiday;
+import Model.Poste;
+import Model.Role;
+import Model.Type;
+
+import java.io.UncheckedIOException;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.ObjIntConsumer;
+import java.util.function.ToIntFunction;
+import java.util.stream.Stream;
+
+// DAO en écriture différée (voir WriteBehindLog) : les écritures sont journalisées et rendues
+// aussitôt, les lectures passent au DAO JDBC et ne voient une écriture qu'une fois validée.
+// Les ID des nouvelles lignes sont attribués par la base à la validation : add() ne les renseigne pas.
+// La version d'une mise à jour n'est contrôlée qu'à la validation : update() répond QUEUED et avance
+// aussitôt la version de l'objet, comme le ferait l'écriture ; une modification périmée entre-temps
+// est abandonnée à la validation et signalée comme une écriture refusée (voir WriteBehindLog).
+class WriteBehindDAO<T> implements GenericDAO<T> {
+    static final WriteBehindLog.Codec<Employee> EMPLOYEE_CODEC = new WriteBehindLog.Codec<Employee>() {
+        @Override
+        public String[] encode(Employee employee) {
+            return new String[]{employee.getNom(), employee.getPrenom(), employee.getEmail(), employee.getPhone(),
+                    Double.toString(employee.getSalaire()), employee.getRole().name(), employee.getPoste().name(),
+                    Double.toString(employee.getHolidayBalance()), Integer.toString(employee.getVersion())};
+        }
+
+        @Override
+        public Employee decode(int id, String[] fields) {
+            Employee employee = new Employee(fields[0], fields[1], fields[2], fields[3],
+                    Double.parseDouble(fields[4]), Role.valueOf(fields[5]), Poste.valueOf(fields[6]));
+            employee.setId(id);
+            employee.setHolidayBalance(Double.parseDouble(fields[7]));
+            // Journaux antérieurs au verrouillage optimiste : pas de version
+            employee.setVersion(fields.length > 8 ? Integer.parseInt(fields[8]) : 0);
+            return employee;
+        }
+    };
+
+    // L'employé est désigné par son ID, ou par son nom s'il n'était pas encore résolu.
+    // Les congés ne sont plus différés : ce format ne sert qu'à rejouer les anciens journaux.
+    static final WriteBehindLog.Codec<Holiday> HOLIDAY_CODEC = new WriteBehindLog.Codec<Holiday>() {
+        @Override
+        public String[] encode(Holiday holiday) {
+            return new String[]{Integer.toString(holiday.getEmployeeId()), holiday.getEmployeeName(),
+                    holiday.getStartDate().toString(), holiday.getEndDate().toString(), holiday.getType().name(),
+                    Integer.toString(holiday.getVersion())};
+        }
+
+        @Override
+        public Holiday decode(int id, String[] fields) {
+            Holiday holiday = new Holiday(id, fields[1], LocalDate.parse(fields[2]), LocalDate.parse(fields[3]),
+                    Type.valueOf(fields[4]));
+            holiday.setEmployeeId(Integer.parseInt(fields[0]));
+            holiday.setVersion(fields.length > 5 ? Integer.parseInt(fields[5]) : 0);
+            return holiday;
+        }
+    };
+
+    protected final GenericDAO<T> target;
+    private final WriteBehindLog log;
+    private final WriteBehindLog.Channel<T> channel;
+    private final ToIntFunction<T> idOf;
+    private final ToIntFunction<T> versionOf;
+    private final ObjIntConsumer<T> setVersion;
+
+    WriteBehindDAO(GenericDAO<T> target, WriteBehindLog log, WriteBehindLog.Channel<T> channel, ToIntFunction<T> idOf,
+                   ToIntFunction<T> versionOf, ObjIntConsumer<T> setVersion) {
+        this.target = target;
+        this.log = log;
+        this.channel = channel;
+        this.idOf = idOf;
+        this.versionOf = versionOf;
+        this.setVersion = setVersion;
+    }
+
+    @Override
+    public void add(T entity) {
+        log.add(channel, Collections.singletonList(entity));
+    }
+
+    @Override
+    public void delete(int id) {
+        log.delete(channel, new int[]{id});
+    }
+
+    @Override
+    public UpdateResult<T> update(T entity, int id) {
+        try {
+            log.update(channel, Collections.singletonList(entity), new int[]{id});
+            advanceVersion(entity);
+            return UpdateResult.queued();
+        } catch (UncheckedIOException | IllegalStateException e) {
+            return UpdateResult.failed(e);
+        }
+    }
+
+    @Override
+    public List<T> listAll() {
+        return target.listAll();
+    }
+
+    @Override
+    public T findById(int id) {
+        return target.findById(id);
+    }
+
+    @Override
+    public List<T> listPage(int afterId, int limit) {
+        return target.listPage(afterId, limit);
+    }
+
+    @Override
+    public Stream<T> streamAll() {
+        return target.streamAll();
+    }
+
+    @Override
+    public int[] listIds() {
+        return target.listIds();
+    }
+
+    // Lots acceptés : toutes les lignes en SUCCESS_NO_INFO, sans clé générée
+    @Override
+    public BatchResult addAll(List<T> entities) {
+        try {
+            log.add(channel, entities);
+            return accepted(entities.size());
+        } catch (UncheckedIOException | IllegalStateException e) {
+            return BatchResult.failed(entities.size(), new SQLException(e.getMessage(), e));
+        }
+    }
+
+    @Override
+    public BatchResult updateAll(List<T> entities) {
+        int[] ids = new int[entities.size()];
+        for (int row = 0; row < ids.length; row++) {
+            ids[row] = idOf.applyAsInt(entities.get(row));
+        }
+        try {
+            log.update(channel, entities, ids);
+            entities.forEach(this::advanceVersion);
+            return accepted(entities.size());
+        } catch (UncheckedIOException | IllegalStateException e) {
+            return BatchResult.failed(entities.size(), new SQLException(e.getMessage(), e));
+        }
+    }
+
+    // Tout ou rien : le résultat doit être connu tout de suite, le lot est donc écrit directement
+    // (les modifications encore en file pour ces lignes échoueront ensuite sur leur version)
+    @Override
+    public BatchResult compareAndSetAll(List<T> entities) {
+        return target.compareAndSetAll(entities);
+    }
+
+    @Override
+    public BatchResult deleteAll(int... ids) {
+        try {
+            log.delete(channel, ids);
+            return accepted(ids.length);
+        } catch (UncheckedIOException | IllegalStateException e) {
+            return BatchResult.failed(ids.length, new SQLException(e.getMessage(), e));
+        }
+    }
+
+    // Une fois journalisée, la modification est encodée à la version lue : l'objet passe à la version
+    // qu'elle donnera en base, pour qu'une modification suivante du même objet ne soit pas en conflit
+    private void advanceVersion(T entity) {
+        setVersion.accept(entity, versionOf.applyAsInt(entity) + 1);
+    }
+
+    private static BatchResult accepted(int rowCount) {
+        int[] counts = new int[rowCount];
+        Arrays.fill(counts, Statement.SUCCESS_NO_INFO);
+        return new BatchResult(counts, new int[rowCount], null);
+    }
+}
@@ -0,0 +1,578 @@
+package DAO;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+// Écriture différée (write-behind) vers la base :
+// - chaque modification est ajoutée au journal local (AppendOnlyJournal) puis mise en file,
+//   l'appelant n'attend pas la base
+// - un thread unique valide la file par groupes, dans l'ordre, une transaction par groupe ;
+//   les modifications consécutives de même nature passent par addAll / updateAll / deleteAll
+// - le numéro de la dernière modification validée est enregistré dans la même transaction
+//   (table write_behind) : après un arrêt brutal, le journal est rejoué à partir de ce point,
+//   sans doublon ni perte
+// - file bornée : au-delà de maxPending modifications en attente, les écrivains attendent
+// - base inaccessible : le groupe est retenté avec un délai croissant ; une modification
+//   refusée par la base est isolée et abandonnée pour ne pas bloquer la file. Elle est copiée dans
+//   <journal>.rejets (même format, raison en tête) et signalée à l'écouteur (setRejectionListener)
+final class WriteBehindLog implements Closeable {
+    private static final String SELECT_CHECKPOINT_SQL = "SELECT seq FROM write_behind WHERE name = ?";
+    private static final String UPDATE_CHECKPOINT_SQL = "UPDATE write_behind SET seq = ? WHERE name = ?";
+    private static final String INSERT_CHECKPOINT_SQL = "INSERT INTO write_behind (name, seq) VALUES (?, ?)";
+
+    private static final long MAX_RETRY_DELAY_MS = 30_000;
+    private static final int COMPACT_EVERY = 10_000; // modifications validées entre deux compactages du journal
+
+    private static final String ADD = "A";
+    private static final String UPDATE = "U";
+    private static final String DELETE = "D";
+    private static final String SEQUENCE = "SEQ"; // journal compacté : prochain numéro à attribuer
+
+    // Représentation d'une entité dans le journal (sans son ID)
+    interface Codec<T> {
+        String[] encode(T entity);
+
+        T decode(int id, String[] fields);
+    }
+
+    // Entités d'un type, écrites par le DAO JDBC cible
+    static final class Channel<T> {
+        private final String name;
+        private final String label; // nom de l'entité dans les messages
+        private final GenericDAO<T> target;
+        private final Codec<T> codec;
+
+        private Channel(String name, String label, GenericDAO<T> target, Codec<T> codec) {
+            this.name = name;
+            this.label = label;
+            this.target = target;
+            this.codec = codec;
+        }
+
+        // Applique une suite de modifications de même nature ; lignes refusées -> rejected
+        private void apply(String kind, List<Operation> run, Map<Operation, String> rejected) throws SQLException {
+            BatchResult result;
+            if (kind.equals(DELETE)) {
+                int[] ids = new int[run.size()];
+                for (int i = 0; i < ids.length; i++) {
+                    ids[i] = run.get(i).id;
+                }
+                result = target.deleteAll(ids);
+            } else {
+                List<T> entities = new ArrayList<>(run.size());
+                for (Operation op : run) {
+                    entities.add(codec.decode(op.id, op.fields));
+                }
+                result = kind.equals(ADD) ? target.addAll(entities) : target.updateAll(entities);
+            }
+            if (!result.isSuccess()) {
+                throw result.getError();
+            }
+            // Une mise à jour ou suppression d'une ligne disparue entre-temps n'est pas une erreur ;
+            // une mise à jour d'une ligne modifiée depuis sa lecture est abandonnée et signalée (conflit de version)
+            for (int row : result.failedRows()) {
+                if (result.getUpdateCount(row) != 0) {
+                    rejected.put(run.get(row), "ligne refusée par la base");
+                } else if (kind.equals(UPDATE) && target.findById(run.get(row).id) != null) {
+                    rejected.put(run.get(row), "conflit de version, modifiée entre-temps par un autre utilisateur");
+                }
+            }
+        }
+    }
+
+    private static final class Operation {
+        final long seq;
+        final Channel<?> channel;
+        final String kind;
+        final int id;
+        final String[] fields;
+
+        Operation(long seq, Channel<?> channel, String kind, int id, String[] fields) {
+            this.seq = seq;
+            this.channel = channel;
+            this.kind = kind;
+            this.id = id;
+            this.fields = fields;
+        }
+
+        boolean sameRun(Operation other) {
+            return channel == other.channel && kind.equals(other.kind);
+        }
+
+        String[] record() {
+            String[] record = new String[4 + fields.length];
+            record[0] = Long.toString(seq);
+            record[1] = channel.name;
+            record[2] = kind;
+            record[3] = Integer.toString(id);
+            System.arraycopy(fields, 0, record, 4, fields.length);
+            return record;
+        }
+
+        // Pour l'utilisateur : "modification de l'employé 12"
+        String describe() {
+            String action = kind.equals(ADD) ? "ajout" : kind.equals(UPDATE) ? "modification" : "suppression";
+            return action + " de " + channel.label + (kind.equals(ADD) ? "" : " " + id);
+        }
+
+        @Override
+        public String toString() {
+            return "n°" + seq + " " + channel.name + " " + kind + " " + id + " " + Arrays.toString(fields);
+        }
+    }
+
+    private final AppendOnlyJournal journal;
+    private final AppendOnlyJournal rejects;
+    private final String name;
+    private final int maxPending;
+    private final int batchSize;
+    private final long lingerMs;
+    private final Map<String, Channel<?>> channels = new HashMap<>();
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private final Condition drained = lock.newCondition();
+    private final ArrayDeque<Operation> queue = new ArrayDeque<>();
+    private long nextSeq = 1;
+    private int committedSinceCompaction;
+    private boolean closing;
+    private Thread flusher;
+    private volatile Consumer<String> rejectionListener;
+
+    // Dernière modification validée en base, lue au premier groupe (thread du flusher uniquement)
+    private long checkpoint = -1;
+
+    WriteBehindLog(Path journalFile, boolean sync, int maxPending, int batchSize, long lingerMs) throws IOException {
+        this.journal = new AppendOnlyJournal(journalFile, sync);
+        this.rejects = new AppendOnlyJournal(rejectFile(journalFile), sync);
+        this.name = journalFile.getFileName().toString();
+        this.maxPending = maxPending;
+        this.batchSize = batchSize;
+        this.lingerMs = lingerMs;
+    }
+
+    static Path rejectFile(Path journalFile) {
+        return journalFile.resolveSibling(journalFile.getFileName() + ".rejets");
+    }
+
+    // À appeler pour chaque type d'entité avant start()
+    <T> Channel<T> channel(String channelName, String label, GenericDAO<T> target, Codec<T> codec) {
+        Channel<T> channel = new Channel<>(channelName, label, target, codec);
+        channels.put(channelName, channel);
+        return channel;
+    }
+
+    // Remet en file les modifications du journal (le flusher écarte celles déjà validées) puis démarre le flusher
+    void start() throws IOException {
+        journal.replay(record -> {
+            if (record[0].equals(SEQUENCE)) {
+                nextSeq = Math.max(nextSeq, Long.parseLong(record[1]));
+                return;
+            }
+            long seq = Long.parseLong(record[0]);
+            Channel<?> channel = channels.get(record[1]);
+            if (channel == null) {
+                throw new IllegalStateException("Journal d'écriture différée : type inconnu " + record[1]);
+            }
+            queue.add(new Operation(seq, channel, record[2], Integer.parseInt(record[3]),
+                    Arrays.copyOfRange(record, 4, record.length)));
+            nextSeq = Math.max(nextSeq, seq + 1);
+        });
+        if (!queue.isEmpty()) {
+            System.out.println("Écriture différée : " + queue.size() + " modification(s) du journal à rejouer.");
+        }
+        flusher = new Thread(this::flushLoop, "conges-write-behind");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    <T> void add(Channel<T> channel, List<T> entities) {
+        submit(channel, ADD, entities, null);
+    }
+
+    <T> void update(Channel<T> channel, List<T> entities, int[] ids) {
+        submit(channel, UPDATE, entities, ids);
+    }
+
+    void delete(Channel<?> channel, int[] ids) {
+        submit(channel, DELETE, null, ids);
+    }
+
+    // Reçoit, depuis le thread du flusher, le message de chaque modification abandonnée
+    void setRejectionListener(Consumer<String> listener) {
+        this.rejectionListener = listener;
+    }
+
+    int pending() {
+        lock.lock();
+        try {
+            return queue.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Attend que toutes les modifications en file soient validées ; false si le délai expire
+    boolean awaitFlushed(long timeoutMs) throws InterruptedException {
+        long remaining = TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        lock.lock();
+        try {
+            while (!queue.isEmpty()) {
+                if (remaining <= 0) {
+                    return false;
+                }
+                remaining = drained.awaitNanos(remaining);
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Refuse les nouvelles modifications, laisse le flusher vider la file puis ferme le journal.
+    // Ce qui n'a pas pu être validé reste dans le journal pour le prochain démarrage.
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            closing = true;
+            notEmpty.signalAll();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        if (flusher != null) {
+            try {
+                flusher.join(MAX_RETRY_DELAY_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        lock.lock();
+        try {
+            compact();
+        } finally {
+            lock.unlock();
+        }
+        journal.close();
+        rejects.close();
+    }
+
+    // Journalise puis met en file, par paquets pour respecter la limite de la file
+    private <T> void submit(Channel<T> channel, String kind, List<T> entities, int[] ids) {
+        int count = entities != null ? entities.size() : ids.length;
+        int done = 0;
+        while (done < count) {
+            lock.lock();
+            try {
+                while (queue.size() >= maxPending && !closing) {
+                    notFull.awaitUninterruptibly();
+                }
+                if (closing) {
+                    throw new IllegalStateException("Écriture différée arrêtée.");
+                }
+                int end = Math.min(count, done + Math.max(1, maxPending - queue.size()));
+                List<Operation> accepted = new ArrayList<>(end - done);
+                for (int row = done; row < end; row++) {
+                    int id = ids != null ? ids[row] : 0;
+                    String[] fields = entities != null ? channel.codec.encode(entities.get(row)) : new String[0];
+                    Operation op = new Operation(nextSeq++, channel, kind, id, fields);
+                    journal.write(op.record());
+                    accepted.add(op);
+                }
+                journal.flush();
+                queue.addAll(accepted);
+                notEmpty.signal();
+                done = end;
+            } catch (IOException e) {
+                throw new UncheckedIOException("Écriture du journal impossible : " + journal.getFile(), e);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void flushLoop() {
+        int failures = 0;
+        while (true) {
+            List<Operation> group = nextGroup();
+            if (group == null) {
+                return;
+            }
+            int replayed = 0;
+            try {
+                if (checkpoint < 0) {
+                    checkpoint = readCheckpoint();
+                }
+                // Après un arrêt brutal, la tête du journal peut avoir déjà été validée
+                while (replayed < group.size() && group.get(replayed).seq <= checkpoint) {
+                    replayed++;
+                }
+                if (replayed < group.size()) {
+                    commit(group.subList(replayed, group.size()));
+                }
+                committed(group.size());
+                failures = 0;
+            } catch (SQLException e) {
+                if (checkpoint >= 0 && !isTransient(e)) {
+                    // Seules les modifications résolues (validées ou abandonnées) quittent la file ;
+                    // si la fermeture interrompt l'isolement, le reste est gardé dans le journal
+                    List<Operation> pending = group.subList(replayed, group.size());
+                    int resolved = isolate(pending);
+                    committed(replayed + resolved);
+                    if (resolved < pending.size()) {
+                        return;
+                    }
+                    continue;
+                }
+                long delay = Math.min(MAX_RETRY_DELAY_MS, 100L << Math.min(failures++, 9));
+                System.err.println("Écriture différée : base indisponible (" + e.getMessage()
+                        + "), nouvel essai dans " + delay + " ms.");
+                if (!sleep(delay)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    // Prochain groupe (sans le retirer de la file) : attend une première modification, puis jusqu'à
+    // lingerMs que le groupe se remplisse. null quand la file est vide après close().
+    private List<Operation> nextGroup() {
+        lock.lock();
+        try {
+            while (queue.isEmpty()) {
+                if (closing) {
+                    return null;
+                }
+                notEmpty.awaitUninterruptibly();
+            }
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lingerMs);
+            while (queue.size() < batchSize && !closing) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    break;
+                }
+                try {
+                    notEmpty.awaitNanos(remaining);
+                } catch (InterruptedException e) {
+                    break;
+                }
+            }
+            List<Operation> group = new ArrayList<>(Math.min(queue.size(), batchSize));
+            for (Operation op : queue) {
+                if (group.size() == batchSize) {
+                    break;
+                }
+                group.add(op);
+            }
+            return group;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Une transaction : les suites de même nature, puis le point de reprise, avancé après validation.
+    // Les lignes refusées par la base sont abandonnées une fois la transaction validée.
+    private void commit(List<Operation> group) throws SQLException {
+        long last = group.get(group.size() - 1).seq;
+        Map<Operation, String> rejected = new LinkedHashMap<>();
+        try {
+            try (DAOSession session = DAOSession.open()) {
+                session.transaction(tx -> {
+                    int start = 0;
+                    while (start < group.size()) {
+                        int end = start + 1;
+                        while (end < group.size() && group.get(end).sameRun(group.get(start))) {
+                            end++;
+                        }
+                        Operation first = group.get(start);
+                        first.channel.apply(first.kind, group.subList(start, end), rejected);
+                        start = end;
+                    }
+                    saveCheckpoint(tx, last);
+                    return null;
+                });
+            }
+        } catch (SQLException | RuntimeException e) {
+            // Les index en mémoire ont pu suivre des écritures annulées : ils seront relus.
+            // Hors session : la connexion est rendue avant d'attendre les verrous des index.
+            EmployeeNameIndex.shared().invalidate();
+            HolidayConflictEngine.shared().invalidate();
+            LeaveBalanceLedger.shared().invalidate();
+            if (e instanceof RuntimeException) {
+                throw new SQLException(e.getMessage(), e);
+            }
+            throw e;
+        }
+        checkpoint = last;
+        rejected.forEach(this::reject);
+    }
+
+    // Groupe refusé par la base : une transaction par modification, celles refusées sont abandonnées.
+    // Retourne le nombre de modifications résolues, en tête du groupe (moins que le groupe si close()
+    // interrompt l'attente d'une base indisponible).
+    private int isolate(List<Operation> group) {
+        int resolved = 0;
+        for (Operation op : group) {
+            while (true) {
+                try {
+                    commit(Collections.singletonList(op));
+                    break;
+                } catch (SQLException e) {
+                    if (isTransient(e)) {
+                        if (!sleep(MAX_RETRY_DELAY_MS / 10)) {
+                            return resolved;
+                        }
+                        continue;
+                    }
+                    try {
+                        checkpoint = commitCheckpointOnly(op.seq);
+                        reject(op, e.getMessage());
+                        break;
+                    } catch (SQLException retry) {
+                        if (!sleep(MAX_RETRY_DELAY_MS / 10)) {
+                            return resolved;
+                        }
+                    }
+                }
+            }
+            resolved++;
+        }
+        return resolved;
+    }
+
+    // Modification abandonnée : copiée dans le fichier des rejets, puis signalée
+    private void reject(Operation op, String reason) {
+        System.err.println("Écriture différée abandonnée (" + op + ") : " + reason);
+        String[] record = op.record();
+        String[] rejected = new String[record.length + 1];
+        rejected[0] = reason;
+        System.arraycopy(record, 0, rejected, 1, record.length);
+        try {
+            rejects.append(rejected);
+        } catch (UncheckedIOException e) {
+            System.err.println("Écriture du fichier des rejets impossible : " + e.getMessage());
+        }
+        Consumer<String> listener = rejectionListener;
+        if (listener != null) {
+            listener.accept("Modification non enregistrée (" + op.describe() + ") : " + reason
+                    + ". Elle est conservée dans " + rejects.getFile() + ".");
+        }
+    }
+
+    private long commitCheckpointOnly(long seq) throws SQLException {
+        try (DAOSession session = DAOSession.open()) {
+            session.transaction(tx -> {
+                saveCheckpoint(tx, seq);
+                return null;
+            });
+        }
+        return seq;
+    }
+
+    // Retire de la file les count premières modifications, validées ; compacte le journal de temps en temps
+    private void committed(int count) {
+        lock.lock();
+        try {
+            for (int i = 0; i < count && !queue.isEmpty(); i++) {
+                queue.poll();
+            }
+            notFull.signalAll();
+            if (queue.isEmpty()) {
+                drained.signalAll();
+            }
+            committedSinceCompaction += count;
+            if (committedSinceCompaction >= COMPACT_EVERY) {
+                compact();
+            }
+        } catch (IOException e) {
+            System.err.println("Compactage du journal d'écriture différée impossible : " + e.getMessage());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Réécrit le journal avec les seules modifications en attente (verrou tenu).
+    // Le numéro suivant est conservé : il doit rester supérieur au point de reprise en base.
+    private void compact() throws IOException {
+        List<String[]> remaining = new ArrayList<>(queue.size() + 1);
+        remaining.add(new String[]{SEQUENCE, Long.toString(nextSeq)});
+        for (Operation op : queue) {
+            remaining.add(op.record());
+        }
+        journal.rewrite(remaining);
+        committedSinceCompaction = 0;
+    }
+
+    private long readCheckpoint() throws SQLException {
+        try (DAOSession session = DAOSession.open()) {
+            PreparedStatement stmt = session.prepare(SELECT_CHECKPOINT_SQL);
+            stmt.setString(1, name);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0;
+            }
+        }
+    }
+
+    private void saveCheckpoint(DAOSession tx, long seq) throws SQLException {
+        PreparedStatement update = tx.prepare(UPDATE_CHECKPOINT_SQL);
+        update.setLong(1, seq);
+        update.setString(2, name);
+        if (update.executeUpdate() == 0) {
+            PreparedStatement insert = tx.prepare(INSERT_CHECKPOINT_SQL);
+            insert.setString(1, name);
+            insert.setLong(2, seq);
+            insert.executeUpdate();
+        }
+    }
+
+    // Erreurs de connexion ou passagères (classe SQLSTATE 08, délai, interblocage) : on réessaie
+    private static boolean isTransient(SQLException e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof SQLTransientException || t instanceof SQLRecoverableException) {
+                return true;
+            }
+            if (t instanceof SQLException && ((SQLException) t).getSQLState() != null
+                    && ((SQLException) t).getSQLState().startsWith("08")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // false si le flusher doit s'arrêter (fermeture pendant l'attente)
+    private boolean sleep(long delayMs) {
+        lock.lock();
+        try {
+            if (closing) {
+                return false;
+            }
+            notEmpty.await(delayMs, TimeUnit.MILLISECONDS);
+            return !closing;
+        } catch (InterruptedException e) {
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
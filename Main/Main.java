@@ -2,11 +2,32 @@ package Main;
 
 import Controller.EmployeeController;
 import Controller.HolidayController;
+import DAO.DAOFactory;
+import DAO.SchemaMigrator;
 import View.EmployeeView;
 import View.HolidayView;
 
+import javax.swing.JOptionPane;
+import java.sql.SQLException;
+import java.time.YearMonth;
+
 public class Main {
     public static void main(String[] args) {
+        // Mettre le schéma de la base à jour avant tout accès (stockage JDBC uniquement)
+        try {
+            if (!DAOFactory.isMemory()) {
+                SchemaMigrator.migrate();
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            JOptionPane.showMessageDialog(null, "Impossible de mettre à jour la base de données : " + e.getMessage(),
+                    "Erreur", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+
+        // À la fermeture : valider les écritures différées en attente et rendre les connexions
+        Runtime.getRuntime().addShutdownHook(new Thread(DAOFactory::shutdown, "conges-shutdown"));
+
         // Créer les vues
         EmployeeView employeeView = new EmployeeView();
         HolidayView holidayView = new HolidayView();
@@ -15,6 +36,11 @@ public class Main {
         new EmployeeController(employeeView, holidayView);
         new HolidayController(holidayView);
 
+        // Créditer l'acquisition de congés des mois pas encore crédités jusqu'au mois en cours, en arrière-plan
+        Thread accrual = new Thread(() -> DAOFactory.accrueMonthsUpTo(YearMonth.now()), "conges-accrual");
+        accrual.setDaemon(true);
+        accrual.start();
+
         // Définir quelle vue sera affichée par défaut (exemple : vue des employés)
         employeeView.setVisible(true);
 
@@ -9,7 +9,8 @@ public class Employee {
     private double salaire;
     private Role role;
     private Poste poste;
-    private int holidayBalance; 
+    private double holidayBalance; // Solde de congés payés, en jours ouvrés
+    private int version; // Version de la ligne lue, incrémentée à chaque mise à jour (verrouillage optimiste)
 
     public Employee(String nom, String prenom, String email, String phone, double salaire, Role role, Poste poste) {
        
@@ -20,7 +21,6 @@ public class Employee {
         this.salaire = salaire;
         this.role = role;
         this.poste = poste;
-        this.holidayBalance = holidayBalance;
     }
 
     public Employee() {
@@ -43,8 +43,10 @@ public class Employee {
     public void setRole(Role role) { this.role = role; }
     public Poste getPoste() { return poste; }
     public void setPoste(Poste poste) { this.poste = poste; }
-    public int getHolidayBalance() { return holidayBalance; }
-    public void setHolidayBalance(int holidayBalance) { this.holidayBalance = holidayBalance; }
+    public double getHolidayBalance() { return holidayBalance; }
+    public void setHolidayBalance(double holidayBalance) { this.holidayBalance = holidayBalance; }
+    public int getVersion() { return version; }
+    public void setVersion(int version) { this.version = version; }
    
 
     public void setnom(String nouveauNom) {
@@ -1,33 +1,37 @@
 package Model;
 
+import java.time.LocalDate;
+
 public class Holiday {
     private int id; // Identifiant du congé
     private int employeeId; // ID de l'employé
     private String employeeName; // Nom complet de l'employé
-    private String startDate; // Date de début
-    private String endDate;   // Date de fin
+    private int startDay; // Date de début (jours depuis le 1970-01-01, bornes incluses)
+    private int endDay;   // Date de fin
     private Type type;        // Type de congé (enum)
+    private int version;      // Version de la ligne lue (verrouillage optimiste)
+    private int deductedDays; // Jours retirés du solde à l'enregistrement, rendus tels quels à la suppression
 
     // Constructeur avec employeeName pour listAll()
-    public Holiday(int id, String employeeName, String startDate, String endDate, Type type) {
+    public Holiday(int id, String employeeName, LocalDate startDate, LocalDate endDate, Type type) {
         this.id = id;
         this.employeeName = employeeName;
-        this.startDate = startDate;
-        this.endDate = endDate;
+        this.startDay = (int) startDate.toEpochDay();
+        this.endDay = (int) endDate.toEpochDay();
         this.type = type;
     }
-    public Holiday(String employeeName, String startDate, String endDate, Type type) {
+    public Holiday(String employeeName, LocalDate startDate, LocalDate endDate, Type type) {
         this.employeeName = employeeName;
-        this.startDate = startDate;
-        this.endDate = endDate;
+        this.startDay = (int) startDate.toEpochDay();
+        this.endDay = (int) endDate.toEpochDay();
         this.type = type;
     }
 
     // Constructeur pour add() et update() (sans employeeName)
-    public Holiday(int employeeId, String startDate, String endDate, Type type) {
+    public Holiday(int employeeId, LocalDate startDate, LocalDate endDate, Type type) {
         this.employeeId = employeeId;
-        this.startDate = startDate;
-        this.endDate = endDate;
+        this.startDay = (int) startDate.toEpochDay();
+        this.endDay = (int) endDate.toEpochDay();
         this.type = type;
     }
 
@@ -36,20 +40,37 @@ public class Holiday {
         return id;
     }
 
+    public void setId(int id) {
+        this.id = id;
+    }
+
     public int getEmployeeId() {
         return employeeId;
     }
 
+    public void setEmployeeId(int employeeId) {
+        this.employeeId = employeeId;
+    }
+
     public String getEmployeeName() {
         return employeeName; // Retourne le nom complet
     }
 
-    public String getStartDate() {
-        return startDate;
+    public LocalDate getStartDate() {
+        return LocalDate.ofEpochDay(startDay);
     }
 
-    public String getEndDate() {
-        return endDate;
+    public LocalDate getEndDate() {
+        return LocalDate.ofEpochDay(endDay);
+    }
+
+    // Dates en jours depuis le 1970-01-01, sans allocation
+    public int getStartEpochDay() {
+        return startDay;
+    }
+
+    public int getEndEpochDay() {
+        return endDay;
     }
 
     public Type getType() {
@@ -59,4 +80,20 @@ public class Holiday {
     public void setEmployeeName(String employeeName) {
         this.employeeName = employeeName;
     }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
+    public int getDeductedDays() {
+        return deductedDays;
+    }
+
+    public void setDeductedDays(int deductedDays) {
+        this.deductedDays = deductedDays;
+    }
 }
@@ -1,7 +1,23 @@
 package Model;
 
 public enum Type {
-    CONGE_MALADIE,
-    CONGE_PAYE,
-    CONGE_NON_PAYE
+    CONGE_MALADIE(false),
+    CONGE_PAYE(true),
+    CONGE_NON_PAYE(false);
+
+    private final boolean deductsBalance; // Décompté du solde de congés de l'employé
+
+    Type(boolean deductsBalance) {
+        this.deductsBalance = deductsBalance;
+    }
+
+    public boolean deductsBalance() {
+        return deductsBalance;
+    }
+
+    // Jours à retirer du solde pour un congé de ce type, d'après le calendrier actuel (0 s'il n'est pas
+    // décompté) ; un congé enregistré rend les jours retenus alors (Holiday.getDeductedDays)
+    public int balanceDeduction(Holiday holiday) {
+        return deductsBalance ? WorkingCalendar.workingDays(holiday.getStartEpochDay(), holiday.getEndEpochDay()) : 0;
+    }
 }
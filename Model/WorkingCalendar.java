@@ -0,0 +1,248 @@
+package Model;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.MonthDay;
+import java.time.Year;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Jours ouvrés : du lundi au vendredi, hors jours fériés.
+// Pour chaque année de la plage couverte (-Dconges.calendar.years=2000-2100), un bitset marque les jours
+// ouvrés et un tableau de sommes préfixes compte les jours ouvrés depuis le début de la plage : le nombre
+// de jours ouvrés d'une période est une soustraction, en temps constant. Hors de la plage, seuls les
+// week-ends sont exclus.
+// Les jours fériés sont lus une fois au démarrage (-Dconges.calendar.holidays=fichier, par défaut
+// jours_feries.txt s'il existe), une règle par ligne, suivie d'un libellé facultatif :
+//   2025-05-29          date précise
+//   05-01 Fête du travail   chaque année (MM-JJ)
+//   PAQUES+1 Lundi de Pâques   relatif au dimanche de Pâques (PAQUES+39 Ascension, PAQUES+50 Pentecôte)
+// Modifier le fichier ne change que le décompte des congés saisis ensuite : chaque congé garde les jours
+// retirés du solde à son enregistrement (Holiday.getDeductedDays), et rend exactement ceux-là.
+public final class WorkingCalendar {
+    private static final String DEFAULT_HOLIDAYS_FILE = "jours_feries.txt";
+
+    private static final WorkingCalendar SHARED = load();
+
+    private final long firstDay;     // 1er janvier de la première année
+    private final long endDay;       // 1er janvier suivant la dernière année
+    private final long[] yearStart;  // jour epoch du 1er janvier de chaque année
+    private final long[][] bits;     // par année : bit i = i-ème jour de l'année ouvré
+    private final int[][] before;    // par année : jours ouvrés de [firstDay, i-ème jour de l'année[
+    private final int total;
+    private final Map<Long, String> names = new HashMap<>();
+
+    private WorkingCalendar(int firstYear, int lastYear, List<Rule> rules) {
+        int years = lastYear - firstYear + 1;
+        this.firstDay = LocalDate.of(firstYear, 1, 1).toEpochDay();
+        this.endDay = LocalDate.of(lastYear + 1, 1, 1).toEpochDay();
+        this.yearStart = new long[years];
+        this.bits = new long[years][];
+        this.before = new int[years][];
+        int count = 0;
+        for (int y = 0; y < years; y++) {
+            int year = firstYear + y;
+            int length = Year.isLeap(year) ? 366 : 365;
+            long start = LocalDate.of(year, 1, 1).toEpochDay();
+            long[] yearBits = new long[(length + 63) / 64];
+            for (int i = 0; i < length; i++) {
+                if (isWeekday(start + i)) {
+                    yearBits[i >> 6] |= 1L << i;
+                }
+            }
+            for (Rule rule : rules) {
+                LocalDate date = rule.dateIn(year);
+                if (date != null) {
+                    int i = date.getDayOfYear() - 1;
+                    yearBits[i >> 6] &= ~(1L << i);
+                    names.putIfAbsent(date.toEpochDay(), rule.name);
+                }
+            }
+            int[] prefix = new int[length + 1];
+            for (int i = 0; i < length; i++) {
+                prefix[i] = count;
+                count += (int) (yearBits[i >> 6] >>> i) & 1;
+            }
+            prefix[length] = count;
+            yearStart[y] = start;
+            bits[y] = yearBits;
+            before[y] = prefix;
+        }
+        this.total = count;
+    }
+
+    // Nombre de jours ouvrés entre deux dates incluses, en temps constant
+    public static int workingDays(LocalDate start, LocalDate end) {
+        return workingDays(start.toEpochDay(), end.toEpochDay());
+    }
+
+    public static int workingDays(long startEpochDay, long endEpochDay) {
+        if (endEpochDay < startEpochDay) {
+            return 0;
+        }
+        return SHARED.daysBefore(endEpochDay + 1) - SHARED.daysBefore(startEpochDay);
+    }
+
+    public static boolean isWorkingDay(LocalDate day) {
+        return isWorkingDay(day.toEpochDay());
+    }
+
+    public static boolean isWorkingDay(long epochDay) {
+        if (epochDay < SHARED.firstDay || epochDay >= SHARED.endDay) {
+            return isWeekday(epochDay);
+        }
+        int y = SHARED.yearOf(epochDay);
+        int i = (int) (epochDay - SHARED.yearStart[y]);
+        return (SHARED.bits[y][i >> 6] & (1L << i)) != 0;
+    }
+
+    // Libellé du jour férié, null si le jour n'en est pas un
+    public static String publicHolidayName(LocalDate day) {
+        return SHARED.names.get(day.toEpochDay());
+    }
+
+    // Jours ouvrés dans [firstDay, epochDay[ (négatif avant la plage)
+    private int daysBefore(long epochDay) {
+        if (epochDay <= firstDay) {
+            return weekdaysBefore(epochDay) - weekdaysBefore(firstDay);
+        }
+        if (epochDay >= endDay) {
+            return total + weekdaysBefore(epochDay) - weekdaysBefore(endDay);
+        }
+        int y = yearOf(epochDay);
+        return before[y][(int) (epochDay - yearStart[y])];
+    }
+
+    // Index de l'année contenant le jour (dans la plage) : estimation sur 365,2425 jours, corrigée d'un an au plus
+    private int yearOf(long epochDay) {
+        int y = (int) Math.min((epochDay - firstDay) * 400 / 146097, yearStart.length - 1);
+        if (y + 1 < yearStart.length && yearStart[y + 1] <= epochDay) {
+            y++;
+        } else if (yearStart[y] > epochDay) {
+            y--;
+        }
+        return y;
+    }
+
+    // Jours du lundi au vendredi dans [jour 0, epochDay[, où le jour 0 (1970-01-01) est un jeudi
+    private static int weekdaysBefore(long epochDay) {
+        // Décalage pour que les semaines commencent un lundi : 1970-01-05 est un lundi
+        long fromMonday = epochDay + 3;
+        long weeks = Math.floorDiv(fromMonday, 7);
+        long rest = Math.floorMod(fromMonday, 7);
+        return (int) (weeks * 5 + Math.min(rest, 5) - 3);
+    }
+
+    private static boolean isWeekday(long epochDay) {
+        return Math.floorMod(epochDay + 3, 7) < 5;
+    }
+
+    private static WorkingCalendar load() {
+        String years = System.getProperty("conges.calendar.years", "2000-2100");
+        int dash = years.indexOf('-', 1);
+        int firstYear = Integer.parseInt(years.substring(0, dash).trim());
+        int lastYear = Integer.parseInt(years.substring(dash + 1).trim());
+
+        String configured = System.getProperty("conges.calendar.holidays");
+        Path file = Paths.get(configured != null ? configured : DEFAULT_HOLIDAYS_FILE);
+        List<Rule> rules = Collections.emptyList();
+        if (Files.exists(file)) {
+            try {
+                rules = parse(file, Files.readAllLines(file, StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                System.err.println("Jours fériés illisibles (" + file + ") : " + e.getMessage());
+            }
+        } else if (configured != null) {
+            System.err.println("Fichier des jours fériés introuvable : " + file);
+        }
+        return new WorkingCalendar(firstYear, lastYear, rules);
+    }
+
+    // Les lignes invalides sont signalées puis ignorées
+    private static List<Rule> parse(Path file, List<String> lines) {
+        List<Rule> rules = new ArrayList<>();
+        for (int n = 0; n < lines.size(); n++) {
+            String line = lines.get(n);
+            int comment = line.indexOf('#');
+            line = (comment >= 0 ? line.substring(0, comment) : line).trim();
+            if (line.isEmpty()) {
+                continue;
+            }
+            String[] parts = line.split("\\s+", 2);
+            String name = parts.length > 1 ? parts[1] : parts[0];
+            try {
+                rules.add(Rule.parse(parts[0].toUpperCase(Locale.ROOT), name));
+            } catch (DateTimeException | IllegalArgumentException e) {
+                System.err.println(file + ", ligne " + (n + 1) + " ignorée : " + lines.get(n).trim());
+            }
+        }
+        return rules;
+    }
+
+    // Une ligne du fichier : date précise, jour fixe de chaque année ou décalage depuis Pâques
+    private static final class Rule {
+        private final LocalDate date;
+        private final MonthDay monthDay;
+        private final Integer easterOffset;
+        private final String name;
+
+        private Rule(LocalDate date, MonthDay monthDay, Integer easterOffset, String name) {
+            this.date = date;
+            this.monthDay = monthDay;
+            this.easterOffset = easterOffset;
+            this.name = name;
+        }
+
+        static Rule parse(String spec, String name) {
+            if (spec.startsWith("PAQUES")) {
+                String offset = spec.substring("PAQUES".length());
+                return new Rule(null, null, offset.isEmpty() ? 0 : Integer.parseInt(offset), name);
+            }
+            if (spec.length() == 5) {
+                return new Rule(null, MonthDay.parse("--" + spec), null, name);
+            }
+            return new Rule(LocalDate.parse(spec), null, null, name);
+        }
+
+        // Date de la règle dans l'année, null si elle n'y tombe pas
+        LocalDate dateIn(int year) {
+            LocalDate day;
+            if (date != null) {
+                day = date;
+            } else if (monthDay != null) {
+                day = monthDay.isValidYear(year) ? monthDay.atYear(year) : null;
+            } else {
+                day = easterSunday(year).plusDays(easterOffset);
+            }
+            return day != null && day.getYear() == year ? day : null;
+        }
+
+        // Dimanche de Pâques du calendrier grégorien (algorithme de Meeus/Jones/Butcher)
+        private static LocalDate easterSunday(int year) {
+            int a = year % 19;
+            int b = year / 100;
+            int c = year % 100;
+            int d = b / 4;
+            int e = b % 4;
+            int f = (b + 8) / 25;
+            int g = (b - f + 1) / 3;
+            int h = (19 * a + b - d - g + 15) % 30;
+            int i = c / 4;
+            int k = c % 4;
+            int l = (32 + 2 * e + 2 * i - h - k) % 7;
+            int m = (a + 11 * h + 22 * l) / 451;
+            int month = (h + l - 7 * m + 114) / 31;
+            int day = (h + l - 7 * m + 114) % 31 + 1;
+            return LocalDate.of(year, month, day);
+        }
+    }
+}
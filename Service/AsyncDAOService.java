@@ -0,0 +1,164 @@
+package Service;
+
+import DAO.GenericDAO;
+import DAO.UpdateResult;
+
+import javax.swing.SwingUtilities;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+// Exécute les appels DAO hors du thread Swing (EDT) et renvoie des CompletableFuture.
+// - coalesce() : deux demandes identiques en cours partagent le même résultat
+// - latest()   : une nouvelle demande sur un canal annule la précédente (rafraîchissements)
+// - les écouteurs de progression sont notifiés sur l'EDT
+public class AsyncDAOService<T> {
+    // Exécuteur partagé : threads virtuels si la JVM les propose (Java 21+), sinon pool de threads démons
+    private static final ExecutorService EXECUTOR = createExecutor();
+
+    // Exécuteur qui replace une continuation sur l'EDT
+    public static final Executor EDT = command -> {
+        if (SwingUtilities.isEventDispatchThread()) {
+            command.run();
+        } else {
+            SwingUtilities.invokeLater(command);
+        }
+    };
+
+    private final GenericDAO<T> dao;
+    private final Map<Object, CompletableFuture<?>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<?>> latest = new ConcurrentHashMap<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private volatile Consumer<Boolean> progressListener = busy -> { };
+
+    public AsyncDAOService(GenericDAO<T> dao) {
+        this.dao = dao;
+    }
+
+    public GenericDAO<T> getDao() {
+        return dao;
+    }
+
+    // Appelé sur l'EDT avec true au début d'une activité et false quand plus rien n'est en cours
+    public void setProgressListener(Consumer<Boolean> listener) {
+        this.progressListener = listener;
+    }
+
+    public CompletableFuture<Void> add(T entity) {
+        return submit(() -> {
+            dao.add(entity);
+            return null;
+        });
+    }
+
+    public CompletableFuture<UpdateResult<T>> update(T entity, int id) {
+        return submit(() -> dao.update(entity, id));
+    }
+
+    public CompletableFuture<Void> delete(int id) {
+        return submit(() -> {
+            dao.delete(id);
+            return null;
+        });
+    }
+
+    public CompletableFuture<T> findById(int id) {
+        return coalesce("findById:" + id, () -> dao.findById(id));
+    }
+
+    public CompletableFuture<List<T>> listPage(int afterId, int limit) {
+        return coalesce("listPage:" + afterId + ":" + limit, () -> dao.listPage(afterId, limit));
+    }
+
+    // Rafraîchissement de la liste des IDs : une demande plus récente annule l'ancienne
+    public CompletableFuture<int[]> refreshIds() {
+        return latest("listIds", dao::listIds);
+    }
+
+    // Exécute un travail quelconque hors de l'EDT
+    public <R> CompletableFuture<R> submit(Callable<R> work) {
+        CompletableFuture<R> future = new CompletableFuture<>();
+        start(future, work);
+        return future;
+    }
+
+    // Une seule exécution à la fois par clé ; les appels concurrents reçoivent le même futur
+    @SuppressWarnings("unchecked")
+    public <R> CompletableFuture<R> coalesce(Object key, Callable<R> work) {
+        CompletableFuture<R> future = new CompletableFuture<>();
+        CompletableFuture<R> existing = (CompletableFuture<R>) inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            return existing;
+        }
+        future.whenComplete((r, e) -> inFlight.remove(key, future));
+        start(future, work);
+        return future;
+    }
+
+    // Annule la demande précédente du même canal si elle n'est pas terminée
+    public <R> CompletableFuture<R> latest(String channel, Callable<R> work) {
+        CompletableFuture<R> future = new CompletableFuture<>();
+        CompletableFuture<?> previous = latest.put(channel, future);
+        if (previous != null) {
+            previous.cancel(true);
+        }
+        future.whenComplete((r, e) -> latest.remove(channel, future));
+        start(future, work);
+        return future;
+    }
+
+    private <R> void start(CompletableFuture<R> future, Callable<R> work) {
+        if (pending.getAndIncrement() == 0) {
+            EDT.execute(() -> progressListener.accept(true));
+        }
+        Future<?> task = EXECUTOR.submit(() -> {
+            try {
+                future.complete(work.call());
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        });
+        future.whenComplete((r, e) -> {
+            if (future.isCancelled()) {
+                task.cancel(true);
+            }
+            if (pending.decrementAndGet() == 0) {
+                EDT.execute(() -> {
+                    if (pending.get() == 0) {
+                        progressListener.accept(false);
+                    }
+                });
+            }
+        });
+    }
+
+    // Cause réelle d'une erreur remontée par un CompletableFuture
+    public static Throwable unwrap(Throwable e) {
+        while ((e instanceof java.util.concurrent.CompletionException
+                || e instanceof java.util.concurrent.ExecutionException) && e.getCause() != null) {
+            e = e.getCause();
+        }
+        return e;
+    }
+
+    private static ExecutorService createExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger counter = new AtomicInteger();
+            return Executors.newFixedThreadPool(Integer.getInteger("conges.async.threads", 8), r -> {
+                Thread t = new Thread(r, "conges-dao-" + counter.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+}
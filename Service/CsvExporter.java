@@ -0,0 +1,67 @@
+package Service;
+
+import DAO.GenericDAO;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+// Export CSV en flux : les entités sont lues avec streamAll (curseur côté serveur) et écrites
+// au fil de l'eau, sans construire la liste complète. Le fichier est écrit à côté puis renommé,
+// un export interrompu ne laisse donc pas de fichier tronqué.
+public final class CsvExporter {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    // Ajoute les champs d'une entité à la ligne (sans le saut de ligne)
+    public interface RowWriter<T> {
+        void write(T entity, StringBuilder line);
+    }
+
+    private CsvExporter() {
+    }
+
+    // Retourne le nombre de lignes écrites, en-tête non compris
+    public static <T> long export(GenericDAO<T> dao, Path file, String header, RowWriter<T> writer) throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        long count = 0;
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+             BufferedWriter out = new BufferedWriter(
+                     new OutputStreamWriter(Channels.newOutputStream(channel), StandardCharsets.UTF_8), BUFFER_SIZE);
+             Stream<T> entities = dao.streamAll()) {
+            out.write(header);
+            out.write('\n');
+            StringBuilder line = new StringBuilder(256);
+            Iterator<T> it = entities.iterator();
+            while (it.hasNext()) {
+                line.setLength(0);
+                writer.write(it.next(), line);
+                line.append('\n');
+                out.append(line);
+                count++;
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return count;
+    }
+
+    // Champ texte, entre guillemets s'il contient le séparateur ou un guillemet
+    public static StringBuilder appendField(StringBuilder line, String value) {
+        if (value == null) {
+            return line;
+        }
+        return line.append(CsvImporter.quote(value));
+    }
+}
@@ -0,0 +1,482 @@
+package Service;
+
+import DAO.BatchResult;
+import DAO.GenericDAO;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+// Import CSV (séparateur ';', première ligne = en-tête) vers un GenericDAO :
+// - le fichier est lu par blocs via un FileChannel, ligne par ligne, sans tout charger
+// - les lignes sont analysées et validées par lots sur un pool de threads
+// - les lots valides sont insérés avec addAll, dans l'ordre du fichier
+// - après chaque lot, un point de reprise (<fichier>.checkpoint) mémorise la position atteinte :
+//   un import interrompu reprend là où il s'était arrêté. Le lot en cours d'insertion y est noté
+//   avant addAll : s'il a été validé sans que le point de reprise suive, ses lignes déjà en base
+//   (même clé naturelle, voir setNaturalKey) ne sont pas insérées une seconde fois à la reprise
+// - les lignes refusées vont dans <fichier>.rejets.csv, avec l'en-tête d'origine et deux colonnes
+//   "ligne" et "erreur" en plus : une fois corrigé, ce fichier se réimporte tel quel. À la reprise,
+//   il est ramené à sa taille au dernier point de reprise, sans doublon de rejet
+// Les champs peuvent être entre guillemets, mais ne peuvent pas contenir de saut de ligne.
+public class CsvImporter<T> {
+    public static final char SEPARATOR = ';';
+
+    // Taille des lots et nombre de threads d'analyse (-Dconges.import.xxx=...)
+    private static final int DEFAULT_BATCH_SIZE = Integer.getInteger("conges.import.batchSize", 1000);
+    private static final int DEFAULT_THREADS = Integer.getInteger("conges.import.threads",
+            Runtime.getRuntime().availableProcessors());
+
+    // Transforme une ligne en entité ; IllegalArgumentException (message affiché dans les rejets) si invalide
+    public interface RowParser<T> {
+        T parse(Row row);
+    }
+
+    // Ligne CSV, champs accessibles par nom de colonne (insensible à la casse)
+    public static final class Row {
+        private final Map<String, Integer> columns;
+        private final String[] fields;
+
+        Row(Map<String, Integer> columns, String[] fields) {
+            this.columns = columns;
+            this.fields = fields;
+        }
+
+        // Valeur de la colonne, null si la colonne est absente ou vide
+        public String get(String column) {
+            Integer index = columns.get(column.toLowerCase(Locale.ROOT));
+            if (index == null || index >= fields.length) {
+                return null;
+            }
+            String value = fields[index].trim();
+            return value.isEmpty() ? null : value;
+        }
+
+        public String required(String column) {
+            String value = get(column);
+            if (value == null) {
+                throw new IllegalArgumentException("Colonne \"" + column + "\" manquante.");
+            }
+            return value;
+        }
+    }
+
+    public static final class Report {
+        private long imported;
+        private long rejected;
+        private long lines;
+        private boolean resumed;
+
+        public long getImported() { return imported; }
+        public long getRejected() { return rejected; }
+        public long getLines() { return lines; }
+        public boolean isResumed() { return resumed; }
+
+        @Override
+        public String toString() {
+            return String.format("%d ligne(s) lue(s), %d importée(s), %d rejetée(s)%s",
+                    lines, imported, rejected, resumed ? " (reprise)" : "");
+        }
+    }
+
+    private final GenericDAO<T> dao;
+    private final RowParser<T> parser;
+    private final int batchSize;
+    private final int threads;
+    private Function<List<T>, BatchResult> batchWriter; // insertion d'un lot, dao.addAll par défaut
+    private Function<T, Object> naturalKey; // identifie une ligne déjà importée, sans son ID
+
+    // État de l'import en cours
+    private Properties checkpoint;
+    private long pendingLine;          // dernière ligne du lot interrompu, 0 si aucun
+    private Set<Object> storedKeys;    // clés naturelles en base, lues au besoin à la reprise
+
+    public CsvImporter(GenericDAO<T> dao, RowParser<T> parser) {
+        this(dao, parser, DEFAULT_BATCH_SIZE, DEFAULT_THREADS);
+    }
+
+    public CsvImporter(GenericDAO<T> dao, RowParser<T> parser, int batchSize, int threads) {
+        if (batchSize <= 0 || threads <= 0) {
+            throw new IllegalArgumentException("La taille de lot et le nombre de threads doivent être positifs.");
+        }
+        this.dao = dao;
+        this.parser = parser;
+        this.batchSize = batchSize;
+        this.threads = threads;
+        this.batchWriter = dao::addAll;
+    }
+
+    // Insertion d'un lot à la place de dao.addAll (ex. sous le verrou d'un contrôle de chevauchement) ;
+    // les motifs de refus du résultat (BatchResult.getRefusal) vont dans les rejets
+    public void setBatchWriter(Function<List<T>, BatchResult> batchWriter) {
+        this.batchWriter = batchWriter;
+    }
+
+    // Clé naturelle des lignes (ex. email d'un employé) : à la reprise, les lignes du lot interrompu
+    // dont la clé est déjà en base sont comptées comme importées au lieu d'être réinsérées
+    public void setNaturalKey(Function<T, Object> naturalKey) {
+        this.naturalKey = naturalKey;
+    }
+
+    public static Path checkpointFile(Path csv) {
+        return csv.resolveSibling(csv.getFileName() + ".checkpoint");
+    }
+
+    public static Path rejectFile(Path csv) {
+        return csv.resolveSibling(csv.getFileName() + ".rejets.csv");
+    }
+
+    // Lot de lignes brutes, puis analysées
+    private static final class Chunk<T> {
+        final long firstLine;
+        final List<String> lines = new ArrayList<>();
+        long endOffset;
+
+        final List<T> entities = new ArrayList<>();
+        final List<Integer> entityIndexes = new ArrayList<>(); // position dans lines
+        final Map<Integer, String> errors = new HashMap<>();  // position dans lines -> erreur
+
+        Chunk(long firstLine) {
+            this.firstLine = firstLine;
+        }
+    }
+
+    public Report importFile(Path csv) throws IOException {
+        Report report = new Report();
+        Path checkpointPath = checkpointFile(csv);
+        Path rejectPath = rejectFile(csv);
+        checkpoint = loadCheckpoint(checkpointPath);
+        report.resumed = checkpoint != null;
+        pendingLine = report.resumed ? Long.parseLong(checkpoint.getProperty("pending", "0")) : 0;
+        storedKeys = null;
+        if (report.resumed && checkpoint.getProperty("rejectsOffset") != null) {
+            // Rejets écrits après le dernier point de reprise : ceux du lot repris, réécrits plus bas
+            try (FileChannel channel = FileChannel.open(rejectPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                channel.truncate(Long.parseLong(checkpoint.getProperty("rejectsOffset")));
+            }
+        }
+
+        ExecutorService workers = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "conges-csv-import");
+            t.setDaemon(true);
+            return t;
+        });
+        try (LineReader reader = new LineReader(csv);
+             BufferedWriter rejects = Files.newBufferedWriter(rejectPath, StandardCharsets.UTF_8,
+                     StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                     report.resumed ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING)) {
+            String header = reader.readLine();
+            if (header == null) {
+                return report;
+            }
+            Map<String, Integer> columns = parseHeader(header);
+            int width = split(header).length;
+            long lineNumber = 1;
+            if (report.resumed) {
+                reader.seek(Long.parseLong(checkpoint.getProperty("offset")));
+                lineNumber = Long.parseLong(checkpoint.getProperty("line"));
+                report.imported = Long.parseLong(checkpoint.getProperty("imported"));
+                report.rejected = Long.parseLong(checkpoint.getProperty("rejected"));
+                report.lines = lineNumber - 1;
+            } else {
+                rejects.write(header + SEPARATOR + "ligne" + SEPARATOR + "erreur\n");
+                rejects.flush();
+                checkpoint = new Properties();
+                checkpoint.setProperty("offset", Long.toString(reader.position()));
+                checkpoint.setProperty("line", "1");
+                checkpoint.setProperty("imported", "0");
+                checkpoint.setProperty("rejected", "0");
+                checkpoint.setProperty("rejectsOffset", Long.toString(Files.size(rejectPath)));
+            }
+
+            // Lots analysés en parallèle, insérés dans l'ordre du fichier
+            ArrayDeque<Future<Chunk<T>>> inFlight = new ArrayDeque<>();
+            while (true) {
+                Chunk<T> chunk = new Chunk<>(lineNumber + 1);
+                String line;
+                while (chunk.lines.size() < batchSize && (line = reader.readLine()) != null) {
+                    chunk.lines.add(line);
+                }
+                if (chunk.lines.isEmpty()) {
+                    break;
+                }
+                chunk.endOffset = reader.position();
+                lineNumber += chunk.lines.size();
+                inFlight.add(workers.submit(() -> parse(chunk, columns)));
+                if (inFlight.size() >= threads * 2) {
+                    commit(await(inFlight.poll()), width, report, rejects, rejectPath, checkpointPath);
+                }
+            }
+            while (!inFlight.isEmpty()) {
+                commit(await(inFlight.poll()), width, report, rejects, rejectPath, checkpointPath);
+            }
+            Files.deleteIfExists(checkpointPath); // import terminé
+            return report;
+        } finally {
+            workers.shutdownNow();
+            checkpoint = null;
+            storedKeys = null;
+        }
+    }
+
+    private Chunk<T> parse(Chunk<T> chunk, Map<String, Integer> columns) {
+        for (int i = 0; i < chunk.lines.size(); i++) {
+            String line = chunk.lines.get(i);
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+            try {
+                chunk.entities.add(parser.parse(new Row(columns, split(line))));
+                chunk.entityIndexes.add(i);
+            } catch (RuntimeException e) {
+                chunk.errors.put(i, e.getMessage() != null ? e.getMessage() : e.toString());
+            }
+        }
+        return chunk;
+    }
+
+    private void commit(Chunk<T> chunk, int width, Report report, BufferedWriter rejects, Path rejectPath,
+                        Path checkpointPath) throws IOException {
+        List<T> entities = chunk.entities;
+        List<Integer> indexes = chunk.entityIndexes;
+        long lastLine = chunk.firstLine + chunk.lines.size() - 1;
+
+        // Lot repris après une interruption pendant son insertion : ses lignes déjà en base sont retirées
+        if (chunk.firstLine <= pendingLine && naturalKey != null && !entities.isEmpty()) {
+            if (storedKeys == null) {
+                storedKeys = new HashSet<>();
+                try (Stream<T> stored = dao.streamAll()) {
+                    stored.forEach(entity -> storedKeys.add(naturalKey.apply(entity)));
+                }
+            }
+            List<T> kept = new ArrayList<>(entities.size());
+            List<Integer> keptIndexes = new ArrayList<>(entities.size());
+            for (int row = 0; row < entities.size(); row++) {
+                if (storedKeys.contains(naturalKey.apply(entities.get(row)))) {
+                    report.imported++;
+                } else {
+                    kept.add(entities.get(row));
+                    keptIndexes.add(indexes.get(row));
+                }
+            }
+            entities = kept;
+            indexes = keptIndexes;
+        }
+
+        if (!entities.isEmpty()) {
+            // Noté avant l'insertion : le lot peut être validé sans que le point de reprise suive
+            checkpoint.setProperty("pending", Long.toString(lastLine));
+            saveCheckpoint(checkpointPath);
+            BatchResult result = batchWriter.apply(entities);
+            for (int row = 0; row < entities.size(); row++) {
+                if (result.isRowSuccessful(row)) {
+                    report.imported++;
+                } else {
+                    String refusal = result.getRefusal(row);
+                    chunk.errors.put(indexes.get(row), !result.isSuccess()
+                            ? "Lot annulé : " + result.getError().getMessage()
+                            : refusal != null ? refusal : "Ligne refusée par la base.");
+                }
+            }
+        }
+
+        Integer[] rejected = chunk.errors.keySet().toArray(new Integer[0]);
+        Arrays.sort(rejected);
+        StringBuilder reject = new StringBuilder();
+        for (int i : rejected) {
+            String line = chunk.lines.get(i);
+            reject.setLength(0);
+            reject.append(line);
+            // Colonnes manquantes complétées pour que "ligne" et "erreur" restent alignées sur l'en-tête
+            for (int n = split(line).length; n < width; n++) {
+                reject.append(SEPARATOR);
+            }
+            reject.append(SEPARATOR).append(chunk.firstLine + i)
+                    .append(SEPARATOR).append(quote(chunk.errors.get(i))).append('\n');
+            rejects.write(reject.toString());
+        }
+        rejects.flush();
+        report.rejected += rejected.length;
+        report.lines += chunk.lines.size();
+
+        // Le point de reprise n'est avancé qu'une fois le lot inséré et ses rejets enregistrés
+        checkpoint.setProperty("offset", Long.toString(chunk.endOffset));
+        checkpoint.setProperty("line", Long.toString(lastLine)); // dernière ligne lue
+        checkpoint.setProperty("imported", Long.toString(report.imported));
+        checkpoint.setProperty("rejected", Long.toString(report.rejected));
+        checkpoint.setProperty("rejectsOffset", Long.toString(Files.size(rejectPath)));
+        checkpoint.remove("pending");
+        saveCheckpoint(checkpointPath);
+    }
+
+    private void saveCheckpoint(Path checkpointPath) throws IOException {
+        Path tmp = checkpointPath.resolveSibling(checkpointPath.getFileName() + ".tmp");
+        try (OutputStream out = Files.newOutputStream(tmp)) {
+            checkpoint.store(out, null);
+        }
+        Files.move(tmp, checkpointPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static <C> C await(Future<C> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Import interrompu.", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Erreur lors de l'analyse du fichier : " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    private static Properties loadCheckpoint(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return null;
+        }
+        Properties checkpoint = new Properties();
+        try (InputStream in = Files.newInputStream(path)) {
+            checkpoint.load(in);
+        }
+        return checkpoint;
+    }
+
+    private static Map<String, Integer> parseHeader(String header) {
+        String[] names = split(header);
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < names.length; i++) {
+            columns.putIfAbsent(names[i].trim().toLowerCase(Locale.ROOT), i);
+        }
+        return columns;
+    }
+
+    // Découpe une ligne sur ';' en tenant compte des guillemets ("" = guillemet échappé)
+    static String[] split(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == SEPARATOR) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields.toArray(new String[0]);
+    }
+
+    static String quote(String value) {
+        if (value.indexOf(SEPARATOR) < 0 && value.indexOf('"') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    // Lecture ligne à ligne d'un FileChannel, en suivant la position en octets du début de la ligne suivante
+    private static final class LineReader implements Closeable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16);
+        private byte[] line = new byte[256];
+        private long position;
+        private boolean firstLine = true;
+
+        LineReader(Path file) throws IOException {
+            this.channel = FileChannel.open(file, StandardOpenOption.READ);
+            buffer.limit(0);
+        }
+
+        long position() {
+            return position;
+        }
+
+        void seek(long offset) throws IOException {
+            channel.position(offset);
+            buffer.limit(0);
+            position = offset;
+            firstLine = offset == 0;
+        }
+
+        // Ligne suivante sans le saut de ligne, null en fin de fichier
+        String readLine() throws IOException {
+            int length = 0;
+            boolean any = false;
+            while (true) {
+                if (!buffer.hasRemaining()) {
+                    buffer.clear();
+                    int read = channel.read(buffer);
+                    buffer.flip();
+                    if (read <= 0) {
+                        break;
+                    }
+                }
+                any = true;
+                byte b = buffer.get();
+                position++;
+                if (b == '\n') {
+                    break;
+                }
+                if (length == line.length) {
+                    line = Arrays.copyOf(line, length * 2);
+                }
+                line[length++] = b;
+            }
+            if (!any) {
+                return null;
+            }
+            if (length > 0 && line[length - 1] == '\r') {
+                length--;
+            }
+            int start = 0;
+            if (firstLine && length >= 3
+                    && line[0] == (byte) 0xEF && line[1] == (byte) 0xBB && line[2] == (byte) 0xBF) {
+                start = 3; // BOM UTF-8 en début de fichier
+            }
+            firstLine = false;
+            return new String(line, start, length - start, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
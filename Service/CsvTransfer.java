@@ -0,0 +1,189 @@
+package Service;
+
+import DAO.DAOFactory;
+import DAO.EmployeeNameIndex;
+import DAO.GenericDAO;
+import DAO.HolidayConflictEngine;
+import Model.Employee;
+import Model.Holiday;
+import Model.Poste;
+import Model.Role;
+import Model.Type;
+import Model.WorkingCalendar;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+// Formats CSV des employés et des congés (import / export), et point d'entrée en ligne de commande
+public final class CsvTransfer {
+    public static final String EMPLOYEE_HEADER = "id;nom;prenom;email;phone;salaire;role;poste;holidayBalance";
+    public static final String HOLIDAY_HEADER = "id;employeId;employe;startDate;endDate;type";
+
+    private static final Pattern EMAIL = Pattern.compile("^[^@\\s;]+@[^@\\s;]+\\.[^@\\s;]+$");
+
+    private CsvTransfer() {
+    }
+
+    // La colonne id est ignorée à l'import : les lignes reçoivent un nouvel ID.
+    // Clé naturelle d'un employé (reprise d'un import interrompu) : son email.
+    public static CsvImporter<Employee> employeeImporter(GenericDAO<Employee> dao) {
+        CsvImporter<Employee> importer = new CsvImporter<>(dao, CsvTransfer::parseEmployee);
+        importer.setNaturalKey(employee -> employee.getEmail().toLowerCase(Locale.ROOT));
+        return importer;
+    }
+
+    // Congés : employé désigné par employeId ou, à défaut, par son nom complet ("nom prenom").
+    // Mêmes règles qu'une saisie : les congés qui chevauchent un congé existant (ou un autre congé
+    // du lot), et les congés payés que le solde de l'employé ne couvre pas, sont rejetés. Les lots
+    // sont vérifiés et insérés sous le verrou du moteur de chevauchement, puis revérifiés par le DAO.
+    public static CsvImporter<Holiday> holidayImporter(GenericDAO<Holiday> dao) {
+        CsvImporter<Holiday> importer = new CsvImporter<>(dao, CsvTransfer::parseHoliday);
+        importer.setBatchWriter(holidays ->
+                HolidayConflictEngine.shared().writeBatchIfNoConflict(holidays, dao::addAll));
+        importer.setNaturalKey(holiday -> List.of(holiday.getEmployeeId(), holiday.getStartDate(),
+                holiday.getEndDate(), holiday.getType()));
+        return importer;
+    }
+
+    public static long exportEmployees(GenericDAO<Employee> dao, Path file) throws IOException {
+        return CsvExporter.export(dao, file, EMPLOYEE_HEADER, CsvTransfer::writeEmployee);
+    }
+
+    public static long exportHolidays(GenericDAO<Holiday> dao, Path file) throws IOException {
+        return CsvExporter.export(dao, file, HOLIDAY_HEADER, CsvTransfer::writeHoliday);
+    }
+
+    static Employee parseEmployee(CsvImporter.Row row) {
+        String email = row.required("email");
+        if (!EMAIL.matcher(email).matches()) {
+            throw new IllegalArgumentException("Email invalide : " + email);
+        }
+        Employee employee = new Employee(
+                row.required("nom"),
+                row.required("prenom"),
+                email,
+                row.get("phone"),
+                parseAmount(row.required("salaire"), "Salaire"),
+                parseEnum(Role.class, row.required("role"), "Rôle"),
+                parseEnum(Poste.class, row.required("poste"), "Poste"));
+        String balance = row.get("holidayBalance");
+        if (balance != null) {
+            employee.setHolidayBalance(parseAmount(balance, "Solde"));
+        }
+        return employee;
+    }
+
+    static Holiday parseHoliday(CsvImporter.Row row) {
+        int employeeId;
+        String idText = row.get("employeId");
+        if (idText != null) {
+            try {
+                employeeId = Integer.parseInt(idText);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("ID employé invalide : " + idText);
+            }
+            if (EmployeeNameIndex.shared().nameOf(employeeId) == null) {
+                throw new IllegalArgumentException("Employé introuvable : " + employeeId);
+            }
+        } else {
+            String name = row.required("employe");
+            employeeId = EmployeeNameIndex.shared().idOf(name);
+            if (employeeId == -1) {
+                throw new IllegalArgumentException("Employé introuvable : " + name);
+            }
+        }
+        LocalDate start = parseDate(row.required("startDate"));
+        LocalDate end = parseDate(row.required("endDate"));
+        if (!end.isAfter(start)) {
+            throw new IllegalArgumentException("La date de fin doit être supérieure à la date de début.");
+        }
+        if (WorkingCalendar.workingDays(start, end) == 0) {
+            throw new IllegalArgumentException("La période ne contient aucun jour ouvré.");
+        }
+        Holiday holiday = new Holiday(employeeId, start, end, parseEnum(Type.class, row.required("type"), "Type"));
+        holiday.setEmployeeName(EmployeeNameIndex.shared().nameOf(employeeId));
+        return holiday;
+    }
+
+    static void writeEmployee(Employee employee, StringBuilder line) {
+        line.append(employee.getId()).append(CsvImporter.SEPARATOR);
+        CsvExporter.appendField(line, employee.getNom()).append(CsvImporter.SEPARATOR);
+        CsvExporter.appendField(line, employee.getPrenom()).append(CsvImporter.SEPARATOR);
+        CsvExporter.appendField(line, employee.getEmail()).append(CsvImporter.SEPARATOR);
+        CsvExporter.appendField(line, employee.getPhone()).append(CsvImporter.SEPARATOR);
+        line.append(employee.getSalaire()).append(CsvImporter.SEPARATOR)
+                .append(employee.getRole()).append(CsvImporter.SEPARATOR)
+                .append(employee.getPoste()).append(CsvImporter.SEPARATOR)
+                .append(employee.getHolidayBalance());
+    }
+
+    static void writeHoliday(Holiday holiday, StringBuilder line) {
+        line.append(holiday.getId()).append(CsvImporter.SEPARATOR)
+                .append(holiday.getEmployeeId()).append(CsvImporter.SEPARATOR);
+        CsvExporter.appendField(line, holiday.getEmployeeName()).append(CsvImporter.SEPARATOR);
+        line.append(holiday.getStartDate()).append(CsvImporter.SEPARATOR)
+                .append(holiday.getEndDate()).append(CsvImporter.SEPARATOR)
+                .append(holiday.getType());
+    }
+
+    private static double parseAmount(String text, String label) {
+        try {
+            double value = Double.parseDouble(text.replace(',', '.'));
+            if (value < 0 || Double.isNaN(value) || Double.isInfinite(value)) {
+                throw new NumberFormatException();
+            }
+            return value;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(label + " invalide : " + text);
+        }
+    }
+
+    private static LocalDate parseDate(String text) {
+        try {
+            return LocalDate.parse(text);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Les dates doivent être au format YYYY-MM-DD : " + text);
+        }
+    }
+
+    private static <E extends Enum<E>> E parseEnum(Class<E> type, String text, String label) {
+        try {
+            return Enum.valueOf(type, text.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(label + " inconnu : " + text);
+        }
+    }
+
+    // Usage : java Service.CsvTransfer import|export employes|conges fichier.csv
+    public static void main(String[] args) throws IOException {
+        if (args.length != 3 || !args[0].matches("import|export") || !args[1].matches("employes|conges")) {
+            System.err.println("Usage : java Service.CsvTransfer import|export employes|conges fichier.csv");
+            System.exit(2);
+        }
+        Path file = Paths.get(args[2]);
+        boolean employees = args[1].equals("employes");
+        long start = System.nanoTime();
+        try {
+            if (args[0].equals("import")) {
+                CsvImporter.Report report = employees
+                        ? employeeImporter(DAOFactory.employeeDAO()).importFile(file)
+                        : holidayImporter(DAOFactory.holidayDAO()).importFile(file);
+                System.out.println("Import terminé : " + report + ". Rejets : " + CsvImporter.rejectFile(file));
+            } else {
+                long count = employees
+                        ? exportEmployees(DAOFactory.employeeDAO(), file)
+                        : exportHolidays(DAOFactory.holidayDAO(), file);
+                System.out.println("Export terminé : " + count + " ligne(s) écrite(s) dans " + file);
+            }
+            System.out.printf(Locale.ROOT, "Durée : %.0f ms%n", (System.nanoTime() - start) / 1e6);
+        } finally {
+            DAOFactory.shutdown();
+        }
+    }
+}
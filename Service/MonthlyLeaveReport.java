@@ -0,0 +1,413 @@
+package Service;
+
+import DAO.DAOFactory;
+import DAO.GenericDAO;
+import DAO.HolidayDAO;
+import Model.Employee;
+import Model.Holiday;
+import Model.Poste;
+import Model.Type;
+import Model.WorkingCalendar;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.Stream;
+
+// Rapport de fin de mois congés / paie : jours pris par type, retenues pour congé non payé
+// et taux d'absence, par employé, par poste et par type de congé, écrits en CSV.
+// Employés et congés du mois sont lus en flux et rangés dans des tableaux primitifs indexés
+// par employé : la mémoire dépend du nombre d'employés et de congés du mois, pas de l'historique.
+// L'agrégation se fait en fork/join sur des plages d'employés disjointes, sans verrou.
+public class MonthlyLeaveReport {
+    // Nombre d'employés traités par une tâche feuille (-Dconges.report.threshold=...)
+    private static final int THRESHOLD = Integer.getInteger("conges.report.threshold", 2048);
+
+    private static final Type[] TYPES = Type.values();
+    private static final Poste[] POSTES = Poste.values();
+
+    private final GenericDAO<Employee> employeeDao;
+    private final HolidayDAO holidayDao;
+    private final ForkJoinPool pool;
+
+    public MonthlyLeaveReport(GenericDAO<Employee> employeeDao, HolidayDAO holidayDao) {
+        this(employeeDao, holidayDao, ForkJoinPool.commonPool());
+    }
+
+    public MonthlyLeaveReport(GenericDAO<Employee> employeeDao, HolidayDAO holidayDao, ForkJoinPool pool) {
+        this.employeeDao = employeeDao;
+        this.holidayDao = holidayDao;
+        this.pool = pool;
+    }
+
+    // Totaux par poste et par type ; une instance par tâche, fusionnées en remontant
+    static final class Totals {
+        final int[] employeesByPoste = new int[POSTES.length];
+        final long[] daysByPosteType = new long[POSTES.length * TYPES.length];
+        final double[] deductionByPoste = new double[POSTES.length];
+        final int[] employeesByType = new int[TYPES.length]; // employés ayant au moins un jour de ce type
+
+        void merge(Totals other) {
+            for (int i = 0; i < employeesByPoste.length; i++) {
+                employeesByPoste[i] += other.employeesByPoste[i];
+                deductionByPoste[i] += other.deductionByPoste[i];
+            }
+            for (int i = 0; i < daysByPosteType.length; i++) {
+                daysByPosteType[i] += other.daysByPosteType[i];
+            }
+            for (int i = 0; i < employeesByType.length; i++) {
+                employeesByType[i] += other.employeesByType[i];
+            }
+        }
+    }
+
+    // Résultat du calcul, indexé par position de l'employé (IDs triés)
+    public static final class Result {
+        final YearMonth month;
+        final int workingDays;
+        final int employeeCount;
+        final int holidayCount;
+        final int[] ids;
+        final double[] salaries;
+        final byte[] postes;
+        final int[] daysByType;     // [employé * nombre de types + type]
+        final double[] deductions;
+        final Totals totals;
+
+        Result(YearMonth month, int workingDays, int employeeCount, int holidayCount, int[] ids, double[] salaries,
+               byte[] postes, int[] daysByType, double[] deductions, Totals totals) {
+            this.month = month;
+            this.workingDays = workingDays;
+            this.employeeCount = employeeCount;
+            this.holidayCount = holidayCount;
+            this.ids = ids;
+            this.salaries = salaries;
+            this.postes = postes;
+            this.daysByType = daysByType;
+            this.deductions = deductions;
+            this.totals = totals;
+        }
+
+        public YearMonth getMonth() { return month; }
+        public int getWorkingDays() { return workingDays; }
+        public int getEmployeeCount() { return employeeCount; }
+        public int getHolidayCount() { return holidayCount; }
+
+        public int getDays(int employeeId, Type type) {
+            int index = Arrays.binarySearch(ids, 0, employeeCount, employeeId);
+            return index < 0 ? 0 : daysByType[index * TYPES.length + type.ordinal()];
+        }
+
+        public double getDeduction(int employeeId) {
+            int index = Arrays.binarySearch(ids, 0, employeeCount, employeeId);
+            return index < 0 ? 0 : deductions[index];
+        }
+
+        public long getDays(Poste poste, Type type) {
+            return totals.daysByPosteType[poste.ordinal() * TYPES.length + type.ordinal()];
+        }
+
+        public double getDeduction(Poste poste) {
+            return totals.deductionByPoste[poste.ordinal()];
+        }
+
+        public double getAbsenceRate(Poste poste) {
+            long capacity = (long) totals.employeesByPoste[poste.ordinal()] * workingDays;
+            long absent = 0;
+            for (Type type : TYPES) {
+                absent += getDays(poste, type);
+            }
+            return capacity == 0 ? 0 : (double) absent / capacity;
+        }
+    }
+
+    // Congés du mois, en colonnes
+    private static final class HolidayRows {
+        int size;
+        int[] employee = new int[1024];
+        int[] start = new int[1024];
+        int[] end = new int[1024];
+        byte[] type = new byte[1024];
+
+        void add(int employeeIndex, int startDay, int endDay, Type holidayType) {
+            if (size == employee.length) {
+                int capacity = size * 2;
+                employee = Arrays.copyOf(employee, capacity);
+                start = Arrays.copyOf(start, capacity);
+                end = Arrays.copyOf(end, capacity);
+                type = Arrays.copyOf(type, capacity);
+            }
+            employee[size] = employeeIndex;
+            start[size] = startDay;
+            end[size] = endDay;
+            type[size] = (byte) holidayType.ordinal();
+            size++;
+        }
+    }
+
+    public Result compute(YearMonth month) {
+        int from = (int) month.atDay(1).toEpochDay();
+        int to = (int) month.atEndOfMonth().toEpochDay();
+        int workingDays = WorkingCalendar.workingDays(from, to);
+
+        // 1. Employés, triés par ID
+        int n = 0;
+        int[] ids = new int[1024];
+        double[] salaries = new double[1024];
+        byte[] postes = new byte[1024];
+        try (Stream<Employee> employees = employeeDao.streamAll()) {
+            for (Employee employee : (Iterable<Employee>) employees::iterator) {
+                if (n == ids.length) {
+                    ids = Arrays.copyOf(ids, n * 2);
+                    salaries = Arrays.copyOf(salaries, n * 2);
+                    postes = Arrays.copyOf(postes, n * 2);
+                }
+                ids[n] = employee.getId();
+                salaries[n] = employee.getSalaire();
+                postes[n] = (byte) employee.getPoste().ordinal();
+                n++;
+            }
+        }
+
+        // 2. Congés qui chevauchent le mois
+        HolidayRows rows = new HolidayRows();
+        try (Stream<Holiday> holidays = holidayDao.streamOverlapping(month.atDay(1), month.atEndOfMonth())) {
+            for (Holiday holiday : (Iterable<Holiday>) holidays::iterator) {
+                int index = Arrays.binarySearch(ids, 0, n, holiday.getEmployeeId());
+                if (index >= 0) {
+                    rows.add(index, holiday.getStartEpochDay(), holiday.getEndEpochDay(), holiday.getType());
+                }
+            }
+        }
+
+        // 3. Tri par dénombrement des congés par employé : offsets[e]..offsets[e+1] dans order
+        int[] offsets = new int[n + 1];
+        for (int i = 0; i < rows.size; i++) {
+            offsets[rows.employee[i] + 1]++;
+        }
+        for (int e = 0; e < n; e++) {
+            offsets[e + 1] += offsets[e];
+        }
+        int[] order = new int[rows.size];
+        int[] cursor = Arrays.copyOf(offsets, n);
+        for (int i = 0; i < rows.size; i++) {
+            order[cursor[rows.employee[i]]++] = i;
+        }
+
+        // 4. Agrégation parallèle
+        int[] daysByType = new int[n * TYPES.length];
+        double[] deductions = new double[n];
+        Aggregate root = new Aggregate(0, n, from, to, workingDays, rows, offsets, order,
+                salaries, postes, daysByType, deductions);
+        Totals totals = pool.invoke(root);
+        return new Result(month, workingDays, n, rows.size, ids, salaries, postes, daysByType, deductions, totals);
+    }
+
+    // Agrège une plage d'employés [lo, hi[ ; chaque tâche écrit dans ses propres cases des tableaux partagés
+    private static final class Aggregate extends RecursiveTask<Totals> {
+        private static final long serialVersionUID = 1L;
+
+        private final int lo, hi, from, to, workingDays;
+        private final HolidayRows rows;
+        private final int[] offsets, order;
+        private final double[] salaries;
+        private final byte[] postes;
+        private final int[] daysByType;
+        private final double[] deductions;
+
+        Aggregate(int lo, int hi, int from, int to, int workingDays, HolidayRows rows, int[] offsets, int[] order,
+                  double[] salaries, byte[] postes, int[] daysByType, double[] deductions) {
+            this.lo = lo;
+            this.hi = hi;
+            this.from = from;
+            this.to = to;
+            this.workingDays = workingDays;
+            this.rows = rows;
+            this.offsets = offsets;
+            this.order = order;
+            this.salaries = salaries;
+            this.postes = postes;
+            this.daysByType = daysByType;
+            this.deductions = deductions;
+        }
+
+        private Aggregate slice(int sliceLo, int sliceHi) {
+            return new Aggregate(sliceLo, sliceHi, from, to, workingDays, rows, offsets, order,
+                    salaries, postes, daysByType, deductions);
+        }
+
+        @Override
+        protected Totals compute() {
+            if (hi - lo <= THRESHOLD) {
+                return computeDirectly();
+            }
+            int mid = (lo + hi) >>> 1;
+            Aggregate left = slice(lo, mid);
+            left.fork();
+            Totals totals = slice(mid, hi).compute();
+            totals.merge(left.join());
+            return totals;
+        }
+
+        private Totals computeDirectly() {
+            Totals totals = new Totals();
+            int types = TYPES.length;
+            int unpaid = Type.CONGE_NON_PAYE.ordinal();
+            for (int e = lo; e < hi; e++) {
+                int base = e * types;
+                for (int k = offsets[e]; k < offsets[e + 1]; k++) {
+                    int row = order[k];
+                    int days = WorkingCalendar.workingDays(Math.max(rows.start[row], from), Math.min(rows.end[row], to));
+                    daysByType[base + rows.type[row]] += days;
+                }
+                // Retenue : salaire mensuel proratisé sur les jours ouvrés du mois
+                double deduction = workingDays == 0 ? 0 : salaries[e] / workingDays * daysByType[base + unpaid];
+                deductions[e] = deduction;
+
+                int poste = postes[e];
+                totals.employeesByPoste[poste]++;
+                totals.deductionByPoste[poste] += deduction;
+                for (int t = 0; t < types; t++) {
+                    int days = daysByType[base + t];
+                    if (days > 0) {
+                        totals.daysByPosteType[poste * types + t] += days;
+                        totals.employeesByType[t]++;
+                    }
+                }
+            }
+            return totals;
+        }
+    }
+
+    // Écrit employes-AAAA-MM.csv, postes-AAAA-MM.csv et types-AAAA-MM.csv dans le dossier
+    public void writeCsv(Result result, Path directory) throws IOException {
+        Files.createDirectories(directory);
+        writeEmployees(result, directory.resolve("employes-" + result.month + ".csv"));
+        writePostes(result, directory.resolve("postes-" + result.month + ".csv"));
+        writeTypes(result, directory.resolve("types-" + result.month + ".csv"));
+    }
+
+    // Deuxième lecture en flux des employés pour les colonnes texte, jointe par ID
+    private void writeEmployees(Result result, Path file) throws IOException {
+        int types = TYPES.length;
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+             Stream<Employee> employees = employeeDao.streamAll()) {
+            StringBuilder line = new StringBuilder(256);
+            line.append("id;nom;prenom;role;poste;salaire");
+            for (Type type : TYPES) {
+                line.append(';').append(type.name());
+            }
+            line.append(";total;tauxAbsence;retenue\n");
+            out.write(line.toString());
+
+            for (Employee employee : (Iterable<Employee>) employees::iterator) {
+                int e = Arrays.binarySearch(result.ids, 0, result.employeeCount, employee.getId());
+                if (e < 0) {
+                    continue; // ajouté après le calcul
+                }
+                line.setLength(0);
+                line.append(employee.getId()).append(';');
+                appendText(line, employee.getNom()).append(';');
+                appendText(line, employee.getPrenom()).append(';');
+                line.append(employee.getRole()).append(';')
+                        .append(employee.getPoste()).append(';')
+                        .append(format(employee.getSalaire()));
+                int total = 0;
+                for (int t = 0; t < types; t++) {
+                    int days = result.daysByType[e * types + t];
+                    total += days;
+                    line.append(';').append(days);
+                }
+                line.append(';').append(total)
+                        .append(';').append(format(result.workingDays == 0 ? 0 : (double) total / result.workingDays))
+                        .append(';').append(format(result.deductions[e]))
+                        .append('\n');
+                out.write(line.toString());
+            }
+        }
+    }
+
+    private void writePostes(Result result, Path file) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            StringBuilder line = new StringBuilder("poste;employes");
+            for (Type type : TYPES) {
+                line.append(';').append(type.name());
+            }
+            line.append(";tauxAbsence;retenues\n");
+            for (Poste poste : POSTES) {
+                line.append(poste).append(';').append(result.totals.employeesByPoste[poste.ordinal()]);
+                for (Type type : TYPES) {
+                    line.append(';').append(result.getDays(poste, type));
+                }
+                line.append(';').append(format(result.getAbsenceRate(poste)))
+                        .append(';').append(format(result.getDeduction(poste)))
+                        .append('\n');
+            }
+            out.write(line.toString());
+        }
+    }
+
+    private void writeTypes(Result result, Path file) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            StringBuilder line = new StringBuilder("type;jours;employes\n");
+            for (Type type : TYPES) {
+                long days = 0;
+                for (Poste poste : POSTES) {
+                    days += result.getDays(poste, type);
+                }
+                line.append(type).append(';').append(days)
+                        .append(';').append(result.totals.employeesByType[type.ordinal()])
+                        .append('\n');
+            }
+            out.write(line.toString());
+        }
+    }
+
+    // Nombre à deux décimales, sans passer par String.format (appelé pour chaque cellule)
+    private static String format(double value) {
+        long cents = Math.round(value * 100);
+        StringBuilder text = new StringBuilder(16);
+        if (cents < 0) {
+            text.append('-');
+            cents = -cents;
+        }
+        long fraction = cents % 100;
+        return text.append(cents / 100).append('.').append(fraction < 10 ? "0" : "").append(fraction).toString();
+    }
+
+    // Champ texte CSV, entre guillemets s'il contient un séparateur
+    private static StringBuilder appendText(StringBuilder line, String value) {
+        if (value == null) {
+            return line;
+        }
+        if (value.indexOf(';') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return line.append(value);
+        }
+        return line.append('"').append(value.replace("\"", "\"\"")).append('"');
+    }
+
+    // Usage : java Service.MonthlyLeaveReport [AAAA-MM] [dossier]
+    public static void main(String[] args) throws IOException {
+        YearMonth month = args.length > 0 ? YearMonth.parse(args[0]) : YearMonth.now().minusMonths(1);
+        Path directory = Paths.get(args.length > 1 ? args[1] : ".");
+
+        MonthlyLeaveReport report = new MonthlyLeaveReport(DAOFactory.employeeDAO(), DAOFactory.holidayDAO());
+        long start = System.nanoTime();
+        Result result = report.compute(month);
+        long computed = System.nanoTime();
+        report.writeCsv(result, directory);
+        long written = System.nanoTime();
+        System.out.printf(Locale.ROOT, "Rapport %s : %d employés, %d congés, calcul %.0f ms, écriture %.0f ms -> %s%n",
+                month, result.getEmployeeCount(), result.getHolidayCount(),
+                (computed - start) / 1e6, (written - computed) / 1e6, directory.toAbsolutePath());
+        DAOFactory.shutdown();
+    }
+}
@@ -0,0 +1,132 @@
+package View;
+
+import Model.WorkingCalendar;
+
+import javax.swing.JComponent;
+import javax.swing.ToolTipManager;
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.event.MouseEvent;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
+// Carte des absences : une ligne par groupe (poste, rôle...), une colonne par jour.
+// La couleur d'une case suit la part du groupe absente ce jour-là ; les week-ends et jours fériés
+// sans absent sont grisés. Le détail s'affiche au survol.
+public class AbsenceHeatmap extends JComponent {
+    private static final long serialVersionUID = 1L;
+
+    private static final int LABEL_WIDTH = 230;
+    private static final int HEADER_HEIGHT = 20;
+    private static final int ROW_HEIGHT = 28;
+    private static final Color EMPTY = new Color(245, 245, 245);
+    private static final Color CLOSED = new Color(215, 215, 215);
+    private static final Color FULL = new Color(200, 30, 30);
+    private static final DateTimeFormatter DAY = DateTimeFormatter.ofPattern("EEE dd/MM/yyyy", Locale.FRENCH);
+    private static final DateTimeFormatter MONTH = DateTimeFormatter.ofPattern("MMMM yyyy", Locale.FRENCH);
+
+    private LocalDate from;
+    private String[] rows = new String[0];
+    private int[][] counts = new int[0][];
+    private int[] headcounts = new int[0];
+
+    public AbsenceHeatmap() {
+        ToolTipManager.sharedInstance().registerComponent(this);
+    }
+
+    // counts[ligne][jour] : absents du groupe rows[ligne] le jour from + jour ; headcounts[ligne] : effectif
+    public void setData(LocalDate from, String[] rows, int[][] counts, int[] headcounts) {
+        this.from = from;
+        this.rows = rows;
+        this.counts = counts;
+        this.headcounts = headcounts;
+        revalidate();
+        repaint();
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        return new Dimension(LABEL_WIDTH + 2 * dayCount(), HEADER_HEIGHT + ROW_HEIGHT * rows.length);
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        g.setColor(getBackground() != null ? getBackground() : Color.WHITE);
+        g.fillRect(0, 0, getWidth(), getHeight());
+        int days = dayCount();
+        if (days == 0) {
+            return;
+        }
+        double cell = cellWidth();
+        FontMetrics metrics = g.getFontMetrics();
+        int text = (ROW_HEIGHT + metrics.getAscent() - metrics.getDescent()) / 2;
+
+        // Mois en en-tête, séparés par un trait vertical
+        g.setColor(Color.DARK_GRAY);
+        for (int d = 0; d < days; d++) {
+            LocalDate day = from.plusDays(d);
+            if (d == 0 || day.getDayOfMonth() == 1) {
+                int x = LABEL_WIDTH + (int) (d * cell);
+                g.drawString(MONTH.format(day), x + 3, HEADER_HEIGHT - 5);
+                g.drawLine(x, 0, x, HEADER_HEIGHT + ROW_HEIGHT * rows.length);
+            }
+        }
+
+        for (int r = 0; r < rows.length; r++) {
+            int y = HEADER_HEIGHT + r * ROW_HEIGHT;
+            g.setColor(Color.BLACK);
+            g.drawString(rows[r] + " (" + headcounts[r] + ")", 4, y + text);
+            for (int d = 0; d < days; d++) {
+                int x = LABEL_WIDTH + (int) (d * cell);
+                int width = Math.max(1, LABEL_WIDTH + (int) ((d + 1) * cell) - x - 1);
+                g.setColor(colorOf(r, d));
+                g.fillRect(x + 1, y + 1, width, ROW_HEIGHT - 2);
+            }
+        }
+    }
+
+    @Override
+    public String getToolTipText(MouseEvent event) {
+        int days = dayCount();
+        int r = (event.getY() - HEADER_HEIGHT) / ROW_HEIGHT;
+        int d = (int) ((event.getX() - LABEL_WIDTH) / cellWidth());
+        if (days == 0 || event.getY() < HEADER_HEIGHT || event.getX() < LABEL_WIDTH || r >= rows.length || d >= days) {
+            return null;
+        }
+        LocalDate day = from.plusDays(d);
+        StringBuilder tip = new StringBuilder(DAY.format(day)).append(" – ").append(rows[r]).append(" : ")
+                .append(counts[r][d]).append(" absent(s) sur ").append(headcounts[r]);
+        String holiday = WorkingCalendar.publicHolidayName(day);
+        if (holiday != null) {
+            tip.append(" (").append(holiday).append(')');
+        }
+        return tip.toString();
+    }
+
+    private Color colorOf(int row, int day) {
+        int absent = counts[row][day];
+        if (absent == 0) {
+            return WorkingCalendar.isWorkingDay(from.plusDays(day)) ? EMPTY : CLOSED;
+        }
+        // Au moins un quart de la teinte dès le premier absent, pleine teinte quand tout le groupe est absent
+        double ratio = headcounts[row] == 0 ? 1 : Math.min(1, (double) absent / headcounts[row]);
+        double t = 0.25 + 0.75 * ratio;
+        return new Color(blend(EMPTY.getRed(), FULL.getRed(), t), blend(EMPTY.getGreen(), FULL.getGreen(), t),
+                blend(EMPTY.getBlue(), FULL.getBlue(), t));
+    }
+
+    private static int blend(int from, int to, double t) {
+        return (int) Math.round(from + (to - from) * t);
+    }
+
+    private int dayCount() {
+        return counts.length == 0 ? 0 : counts[0].length;
+    }
+
+    private double cellWidth() {
+        return Math.max(2.0, (double) (getWidth() - LABEL_WIDTH) / Math.max(1, dayCount()));
+    }
+}
@@ -6,8 +6,9 @@ import java.awt.*;
 
 public class EmployeeView extends JFrame {
     public JTable employeeTable;
-    public JButton addButton, listButton, deleteButton, modifyButton, switchViewButton;
-    public JTextField nameField, surnameField, emailField, phoneField, salaryField;
+    public JProgressBar progressBar;
+    public JButton addButton, listButton, deleteButton, modifyButton, importButton, exportButton, switchViewButton;
+    public JTextField searchField, nameField, surnameField, emailField, phoneField, salaryField;
     public JComboBox<String> roleCombo, posteCombo;
 
     public EmployeeView() {
@@ -18,6 +19,11 @@ public class EmployeeView extends JFrame {
 
         JPanel inputPanel = new JPanel(new GridLayout(0, 2, 10, 10)); // 0 lignes et 2 colonnes
 
+        // Recherche par nom, prénom, email, téléphone, rôle ou poste, avec suggestions
+        inputPanel.add(new JLabel("Rechercher:"));
+        searchField = new JTextField();
+        inputPanel.add(searchField);
+
         inputPanel.add(new JLabel("Nom:"));
         nameField = new JTextField();
         inputPanel.add(nameField);
@@ -61,11 +67,21 @@ public class EmployeeView extends JFrame {
         buttonPanel.add(deleteButton);
         modifyButton = new JButton("Modifier");
         buttonPanel.add(modifyButton);
+        importButton = new JButton("Importer CSV");
+        buttonPanel.add(importButton);
+        exportButton = new JButton("Exporter CSV");
+        buttonPanel.add(exportButton);
 
         // Bouton pour changer de vue
         switchViewButton = new JButton("Gérer les Congés");
         buttonPanel.add(switchViewButton);
 
+        // Indicateur affiché pendant les accès à la base
+        progressBar = new JProgressBar();
+        progressBar.setIndeterminate(true);
+        progressBar.setVisible(false);
+        buttonPanel.add(progressBar);
+
         add(buttonPanel, BorderLayout.SOUTH);
     }
 }
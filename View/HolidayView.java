@@ -5,10 +5,17 @@ import java.awt.*;
 
 public class HolidayView extends JFrame {
     public JTable holidayTable;
-    public JButton addButton, deleteButton, modifyButton, switchViewButton;
+    public JProgressBar progressBar;
+    public JButton addButton, deleteButton, modifyButton, importButton, exportButton, switchViewButton;
     public JComboBox<String> employeeNameComboBox;
     public JTextField startDateField, endDateField;
     public JComboBox<String> typeCombo;
+    // Onglet des absences : carte par poste ou par rôle, un trimestre à la fois
+    public JTabbedPane tabs;
+    public AbsenceHeatmap heatmap;
+    public JComboBox<String> heatmapGroupingCombo;
+    public JButton previousPeriodButton, nextPeriodButton;
+    public JLabel periodLabel;
 
     public HolidayView() {
         setTitle("Gestion des Congés");
@@ -19,6 +26,7 @@ public class HolidayView extends JFrame {
         JPanel inputPanel = new JPanel(new GridLayout(0, 2, 10, 10));
         inputPanel.add(new JLabel("Employé Nom Complet:"));
         employeeNameComboBox = new JComboBox<>();
+        employeeNameComboBox.setEditable(true); // saisie avec suggestions
         inputPanel.add(employeeNameComboBox);
 
         inputPanel.add(new JLabel("Date Début:"));
@@ -36,7 +44,25 @@ public class HolidayView extends JFrame {
         add(inputPanel, BorderLayout.NORTH);
 
         holidayTable = new JTable();
-        add(new JScrollPane(holidayTable), BorderLayout.CENTER);
+        tabs = new JTabbedPane();
+        tabs.addTab("Congés", new JScrollPane(holidayTable));
+
+        JPanel heatmapPanel = new JPanel(new BorderLayout());
+        JPanel heatmapControls = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        heatmapControls.add(new JLabel("Regrouper par :"));
+        heatmapGroupingCombo = new JComboBox<>(new String[]{"Poste", "Rôle"});
+        heatmapControls.add(heatmapGroupingCombo);
+        previousPeriodButton = new JButton("<");
+        heatmapControls.add(previousPeriodButton);
+        periodLabel = new JLabel();
+        heatmapControls.add(periodLabel);
+        nextPeriodButton = new JButton(">");
+        heatmapControls.add(nextPeriodButton);
+        heatmapPanel.add(heatmapControls, BorderLayout.NORTH);
+        heatmap = new AbsenceHeatmap();
+        heatmapPanel.add(heatmap, BorderLayout.CENTER);
+        tabs.addTab("Absences", heatmapPanel);
+        add(tabs, BorderLayout.CENTER);
 
         JPanel buttonPanel = new JPanel();
         addButton = new JButton("Ajouter");
@@ -45,10 +71,20 @@ public class HolidayView extends JFrame {
         buttonPanel.add(deleteButton);
         modifyButton = new JButton("Modifier");
         buttonPanel.add(modifyButton);
+        importButton = new JButton("Importer CSV");
+        buttonPanel.add(importButton);
+        exportButton = new JButton("Exporter CSV");
+        buttonPanel.add(exportButton);
 
         switchViewButton = new JButton("Gérer les Employés");
         buttonPanel.add(switchViewButton);
 
+        // Indicateur affiché pendant les accès à la base
+        progressBar = new JProgressBar();
+        progressBar.setIndeterminate(true);
+        progressBar.setVisible(false);
+        buttonPanel.add(progressBar);
+
         add(buttonPanel, BorderLayout.SOUTH);
     }
 }
@@ -0,0 +1,272 @@
+package View;
+
+import javax.swing.table.AbstractTableModel;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.ToIntFunction;
+
+// Modèle de table virtualisé : seule la liste triée des IDs est en mémoire,
+// les lignes sont lues par fenêtres (pages) à la demande et gardées dans un cache LRU borné.
+// Les pages sont chargées de façon asynchrone : une ligne pas encore lue s'affiche vide,
+// puis est repeinte à l'arrivée de sa page (toujours traitée sur l'EDT). Une page illisible
+// est signalée (journal et setLoadErrorListener) et redemandée au prochain affichage.
+public class LazyTableModel<T> extends AbstractTableModel {
+    private static final long serialVersionUID = 1L;
+
+    // Lecture d'une page : au plus limit lignes d'ID > afterId, triées par ID
+    public interface PageLoader<T> {
+        CompletableFuture<List<T>> loadPage(int afterId, int limit);
+    }
+
+    // Valeur affichée dans une colonne pour une ligne
+    public interface ColumnValues<T> {
+        Object valueAt(T row, int column);
+    }
+
+    private final String[] columnNames;
+    private final PageLoader<T> loader;
+    private final ColumnValues<T> columns;
+    private final ToIntFunction<T> idOf;
+    private final int pageSize;
+    private final Map<Integer, Object[]> pages;
+    // Page en cours de lecture -> numéro de sa demande ; une réponse dont la demande
+    // n'est plus celle de sa page est ignorée
+    private final Map<Integer, Integer> loading = new HashMap<>();
+    private final Executor edt;
+    private int requests;
+    private Consumer<Throwable> loadErrorListener = error -> { };
+    // Une seule alerte tant qu'aucune page n'a été lue avec succès
+    private boolean loadErrorReported;
+
+    private int[] ids = new int[0];
+    private int rowCount;
+
+    public LazyTableModel(String[] columnNames, PageLoader<T> loader, ColumnValues<T> columns,
+                          ToIntFunction<T> idOf, int pageSize, int maxCachedPages, Executor edt) {
+        this.edt = edt;
+        this.columnNames = columnNames.clone();
+        this.loader = loader;
+        this.columns = columns;
+        this.idOf = idOf;
+        this.pageSize = pageSize;
+        this.pages = new LinkedHashMap<Integer, Object[]>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Object[]> eldest) {
+                return size() > maxCachedPages;
+            }
+        };
+    }
+
+    // Appelé sur l'EDT quand une page ne peut pas être lue
+    public void setLoadErrorListener(Consumer<Throwable> listener) {
+        this.loadErrorListener = listener;
+    }
+
+    // Remplace l'ensemble des lignes (IDs triés par ordre croissant)
+    public void setIds(int[] sortedIds) {
+        ids = sortedIds.clone();
+        rowCount = ids.length;
+        pages.clear();
+        loading.clear();
+        fireTableDataChanged();
+    }
+
+    public int getIdAt(int row) {
+        return ids[row];
+    }
+
+    // Ligne de l'ID, -1 s'il n'est pas dans la table
+    public int rowOf(int id) {
+        int pos = Arrays.binarySearch(ids, 0, rowCount, id);
+        return pos >= 0 ? pos : -1;
+    }
+
+    // Ligne si sa page est déjà chargée, sinon null (et la page est demandée)
+    @SuppressWarnings("unchecked")
+    public T getRow(int row) {
+        Object[] rows = page(row / pageSize);
+        return rows == null ? null : (T) rows[row % pageSize];
+    }
+
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columnNames.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return columnNames[column];
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        if (column == 0) {
+            return ids[row];
+        }
+        T value = getRow(row);
+        return value == null ? null : columns.valueAt(value, column);
+    }
+
+    // Nouvelle ligne : insérée à sa place dans l'ordre des IDs
+    public void rowInserted(int id) {
+        int pos = Arrays.binarySearch(ids, 0, rowCount, id);
+        if (pos >= 0) {
+            rowUpdated(id);
+            return;
+        }
+        pos = -pos - 1;
+        if (rowCount == ids.length) {
+            ids = Arrays.copyOf(ids, Math.max(16, rowCount * 2));
+        }
+        System.arraycopy(ids, pos, ids, pos + 1, rowCount - pos);
+        ids[pos] = id;
+        rowCount++;
+        invalidateFrom(pos / pageSize);
+        fireTableRowsInserted(pos, pos);
+    }
+
+    public void rowUpdated(int id) {
+        int pos = Arrays.binarySearch(ids, 0, rowCount, id);
+        if (pos >= 0) {
+            pages.remove(pos / pageSize);
+            loading.remove(pos / pageSize);
+            fireTableRowsUpdated(pos, pos);
+        }
+    }
+
+    // Ligne modifiée dont la nouvelle valeur est connue : remplacée dans sa page sans relecture
+    public void rowUpdated(int id, T value) {
+        int pos = Arrays.binarySearch(ids, 0, rowCount, id);
+        if (pos < 0) {
+            return;
+        }
+        int page = pos / pageSize;
+        Object[] rows = pages.get(page);
+        if (rows != null) {
+            rows[pos % pageSize] = value;
+        } else {
+            // La page en cours de lecture peut précéder la modification : elle sera redemandée
+            loading.remove(page);
+        }
+        fireTableRowsUpdated(pos, pos);
+    }
+
+    // Repeint la ligne (valeur calculée ailleurs, ex. solde) sans toucher à sa page
+    public void refreshRow(int id) {
+        int pos = Arrays.binarySearch(ids, 0, rowCount, id);
+        if (pos >= 0) {
+            fireTableRowsUpdated(pos, pos);
+        }
+    }
+
+    public void rowDeleted(int id) {
+        int pos = Arrays.binarySearch(ids, 0, rowCount, id);
+        if (pos < 0) {
+            return;
+        }
+        System.arraycopy(ids, pos + 1, ids, pos, rowCount - pos - 1);
+        rowCount--;
+        invalidateFrom(pos / pageSize);
+        fireTableRowsDeleted(pos, pos);
+    }
+
+    // Oublie les pages chargées sans toucher à la liste des IDs : seules les lignes de ces pages
+    // sont repeintes, et relues si elles sont visibles
+    public void invalidatePages() {
+        TreeSet<Integer> forgotten = new TreeSet<>(pages.keySet());
+        forgotten.addAll(loading.keySet());
+        invalidateFrom(0);
+        for (int page : forgotten) {
+            firePageUpdated(page);
+        }
+    }
+
+    // Les pages suivant une insertion ou une suppression sont décalées d'une ligne
+    private void invalidateFrom(int firstPage) {
+        pages.keySet().removeIf(page -> page >= firstPage);
+        loading.keySet().removeIf(page -> page >= firstPage);
+    }
+
+    private void firePageUpdated(int page) {
+        int start = page * pageSize;
+        if (start < rowCount) {
+            fireTableRowsUpdated(start, Math.min(start + pageSize, rowCount) - 1);
+        }
+    }
+
+    private Object[] page(int page) {
+        Object[] rows = pages.get(page);
+        if (rows == null && !loading.containsKey(page)) {
+            load(page);
+        }
+        return rows;
+    }
+
+    // Demande la fenêtre [start, start + pageSize) à partir de l'ID qui la précède
+    private void load(int page) {
+        int start = page * pageSize;
+        int end = Math.min(start + pageSize, rowCount);
+        int[] window = Arrays.copyOfRange(ids, start, end);
+        int afterId = start == 0 ? Integer.MIN_VALUE : ids[start - 1];
+        int request = ++requests;
+        loading.put(page, request);
+        loader.loadPage(afterId, end - start).whenCompleteAsync((values, error) -> {
+            Integer current = loading.get(page);
+            if (current == null || current != request) {
+                // Réponse périmée : on repeint la page pour que ses lignes visibles la redemandent
+                firePageUpdated(page);
+                return;
+            }
+            loading.remove(page);
+            if (error != null) {
+                reportLoadError(page, error);
+                return;
+            }
+            loadErrorReported = false;
+            pages.put(page, toRows(window, values));
+            firePageUpdated(page);
+        }, edt);
+    }
+
+    private void reportLoadError(int page, Throwable error) {
+        System.err.println("Erreur lors de la lecture de la page " + page + " : " + error.getMessage());
+        error.printStackTrace();
+        if (!loadErrorReported) {
+            loadErrorReported = true;
+            loadErrorListener.accept(error);
+        }
+    }
+
+    // Place chaque ligne lue en face de son ID ; une ligne supprimée entre-temps reste vide
+    private Object[] toRows(int[] window, List<T> values) {
+        Object[] rows = new Object[pageSize];
+        int pos = 0;
+        int end = window.length;
+        for (T value : values) {
+            int id = idOf.applyAsInt(value);
+            while (pos < end && window[pos] < id) {
+                pos++;
+            }
+            if (pos == end) {
+                break;
+            }
+            if (window[pos] == id) {
+                rows[pos] = value;
+                pos++;
+            }
+        }
+        return rows;
+    }
+}
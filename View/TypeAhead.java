@@ -0,0 +1,142 @@
+package View;
+
+import javax.swing.DefaultListModel;
+import javax.swing.JList;
+import javax.swing.JPopupMenu;
+import javax.swing.JScrollPane;
+import javax.swing.SwingUtilities;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.text.JTextComponent;
+import java.awt.Dimension;
+import java.awt.event.FocusAdapter;
+import java.awt.event.FocusEvent;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+// Suggestions sous un champ de saisie, relancées à chaque frappe : Haut / Bas pour choisir,
+// Entrée ou clic pour valider, Échap pour fermer. Seule la réponse à la dernière frappe
+// est affichée ; les modifications du texte faites par programme sont ignorées.
+public class TypeAhead<T> {
+    private static final int VISIBLE_ROWS = 10;
+
+    private final JTextComponent field;
+    private final Function<String, CompletableFuture<List<T>>> search;
+    private final Consumer<T> onSelect;
+    private final JPopupMenu popup = new JPopupMenu();
+    private final DefaultListModel<T> suggestions = new DefaultListModel<>();
+    private final JList<T> list = new JList<>(suggestions);
+    private int generation;
+    private boolean choosing;
+
+    public TypeAhead(JTextComponent field, Function<String, CompletableFuture<List<T>>> search, Consumer<T> onSelect) {
+        this.field = field;
+        this.search = search;
+        this.onSelect = onSelect;
+        popup.setFocusable(false);
+        list.setFocusable(false);
+        popup.add(new JScrollPane(list));
+
+        field.getDocument().addDocumentListener(new DocumentListener() {
+            @Override public void insertUpdate(DocumentEvent e) { textChanged(); }
+            @Override public void removeUpdate(DocumentEvent e) { textChanged(); }
+            @Override public void changedUpdate(DocumentEvent e) { }
+        });
+        field.addKeyListener(new KeyAdapter() {
+            @Override
+            public void keyPressed(KeyEvent e) {
+                if (!popup.isVisible()) {
+                    return;
+                }
+                switch (e.getKeyCode()) {
+                    case KeyEvent.VK_DOWN: move(1); break;
+                    case KeyEvent.VK_UP: move(-1); break;
+                    case KeyEvent.VK_ENTER: choose(); break;
+                    case KeyEvent.VK_ESCAPE: hide(); break;
+                    default: return;
+                }
+                e.consume();
+            }
+        });
+        field.addFocusListener(new FocusAdapter() {
+            @Override
+            public void focusLost(FocusEvent e) {
+                hide();
+            }
+        });
+        list.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                list.setSelectedIndex(list.locationToIndex(e.getPoint()));
+                choose();
+            }
+        });
+    }
+
+    private void textChanged() {
+        // Texte changé par le programme (ex. choix dans la liste d'un JComboBox) : pas de suggestion
+        if (choosing || !field.isFocusOwner()) {
+            return;
+        }
+        int request = ++generation;
+        String text = field.getText().trim();
+        if (text.isEmpty()) {
+            hide();
+            return;
+        }
+        search.apply(text).whenComplete((results, error) -> SwingUtilities.invokeLater(() -> {
+            if (request == generation && error == null) {
+                show(results);
+            }
+        }));
+    }
+
+    private void show(List<T> results) {
+        if (results.isEmpty() || !field.isShowing()) {
+            hide();
+            return;
+        }
+        suggestions.clear();
+        results.forEach(suggestions::addElement);
+        list.setVisibleRowCount(Math.min(results.size(), VISIBLE_ROWS));
+        list.setSelectedIndex(0);
+        popup.setPreferredSize(null);
+        Dimension size = popup.getPreferredSize();
+        popup.setPreferredSize(new Dimension(Math.max(size.width, field.getWidth()), size.height));
+        if (popup.isVisible()) {
+            popup.pack();
+        } else {
+            popup.show(field, 0, field.getHeight());
+        }
+    }
+
+    private void move(int delta) {
+        int index = Math.max(0, Math.min(suggestions.size() - 1, list.getSelectedIndex() + delta));
+        list.setSelectedIndex(index);
+        list.ensureIndexIsVisible(index);
+    }
+
+    private void choose() {
+        T value = list.getSelectedValue();
+        hide();
+        if (value != null) {
+            generation++;
+            choosing = true;
+            try {
+                onSelect.accept(value);
+            } finally {
+                choosing = false;
+            }
+        }
+    }
+
+    private void hide() {
+        popup.setVisible(false);
+    }
+}
@@ -0,0 +1,165 @@
+package DAO;
+
+import Model.Employee;
+import Model.Holiday;
+import Model.Poste;
+import Model.Role;
+import Model.Type;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Journal du stockage en mémoire : l'état relu à la réouverture est celui qui a été écrit
+class MemoryStoreTest {
+    private static final LocalDate MONDAY = LocalDate.of(2024, 3, 4);
+
+    @TempDir
+    Path dir;
+
+    // Les soldes ne sont pas recalculés : ils sont rejoués d'après les enregistrements H, H- et A
+    @Test
+    void replayRestoresBalances() throws IOException {
+        Path journal = dir.resolve("conges.journal");
+        String written;
+        try (MemoryStore store = new MemoryStore(journal, false)) {
+            int employee = insertEmployee(store, 10);
+            int[] ids = insertHolidays(store, employee, MONDAY, MONDAY.plusWeeks(1), MONDAY.plusWeeks(2));
+            assertTrue(store.accrueMonth(YearMonth.of(2024, 3), 2.5));
+            store.deleteHolidays(new int[]{ids[1]}, new LeaveBalanceLedger.Deltas());
+            Holiday shorter = new Holiday(employee, MONDAY.plusWeeks(2), MONDAY.plusWeeks(2).plusDays(1), Type.CONGE_PAYE);
+            shorter.setVersion(store.findHoliday(ids[2]).getVersion());
+            assertArrayEquals(new boolean[]{true}, store.updateHolidays(List.of(shorter), new int[]{ids[2]}, false,
+                    new String[1], new LeaveBalanceLedger.Deltas()));
+
+            // 10 - 3 - 3 - 3 + 2,5 + 3 (supprimé) + 1 (raccourci à deux jours)
+            assertEquals(7.5, store.findEmployee(employee).getHolidayBalance());
+            written = state(store);
+        }
+
+        try (MemoryStore reopened = new MemoryStore(journal, false)) {
+            assertEquals(written, state(reopened));
+            assertFalse(reopened.accrueMonth(YearMonth.of(2024, 3), 2.5));
+        }
+        assertEquals(Set.of("E", "H", "H-", "A"), recordTypes(journal));
+    }
+
+    // Journal surtout fait de versions périmées : réécrit en état final (HS, AS, SEQ), sans que les
+    // soldes comptent deux fois les congés ni que les IDs déjà attribués soient réutilisés
+    @Test
+    void compactionKeepsStateAndSequences() throws IOException {
+        Path journal = dir.resolve("conges.journal");
+        String written;
+        int lastHoliday;
+        try (MemoryStore store = new MemoryStore(journal, false)) {
+            int employee = insertEmployee(store, 10);
+            int[] ids = insertHolidays(store, employee, MONDAY, MONDAY.plusWeeks(1), MONDAY.plusWeeks(2));
+            store.deleteHolidays(new int[]{ids[1], ids[2]}, new LeaveBalanceLedger.Deltas());
+            store.accrueMonth(YearMonth.of(2024, 3), 2.5);
+            for (int i = 0; i < 5; i++) {
+                Employee edited = store.findEmployee(employee);
+                edited.setPhone("010203040" + i);
+                store.updateEmployees(List.of(edited), new int[]{employee}, false);
+            }
+            lastHoliday = ids[2];
+            written = state(store);
+        }
+
+        try (MemoryStore compacted = new MemoryStore(journal, false)) {
+            assertEquals(written, state(compacted));
+            assertFalse(compacted.accrueMonth(YearMonth.of(2024, 3), 2.5));
+        }
+        assertEquals(Set.of("SEQ", "AS", "E", "HS"), recordTypes(journal));
+
+        try (MemoryStore reopened = new MemoryStore(journal, false)) {
+            assertEquals(written, state(reopened));
+            int employee = reopened.employeeIds()[0];
+            int next = insertHolidays(reopened, employee, MONDAY.plusWeeks(3))[0];
+            assertEquals(lastHoliday + 1, next);
+            assertEquals(2, insertEmployee(reopened, 0));
+        }
+    }
+
+    // Arrêt brutal pendant l'écriture : la ligne incomplète est retirée, la suite du journal reste lisible
+    @Test
+    void tornLastLineIsTruncated() throws IOException {
+        Path journal = dir.resolve("conges.journal");
+        String written;
+        try (MemoryStore store = new MemoryStore(journal, false)) {
+            int employee = insertEmployee(store, 10);
+            insertHolidays(store, employee, MONDAY);
+            written = state(store);
+        }
+        long complete = Files.size(journal);
+        Files.write(journal, "H\t2\t1\t19790".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+        String extended;
+        try (MemoryStore reopened = new MemoryStore(journal, false)) {
+            assertEquals(written, state(reopened));
+            assertEquals(complete, Files.size(journal));
+            insertHolidays(reopened, reopened.employeeIds()[0], MONDAY.plusWeeks(1));
+            extended = state(reopened);
+        }
+
+        try (MemoryStore reopened = new MemoryStore(journal, false)) {
+            assertEquals(extended, state(reopened));
+        }
+    }
+
+    private static int insertEmployee(MemoryStore store, double balance) {
+        Employee employee = new Employee("Dupont", "Marie", "marie@conges.test", "0102030405", 2500,
+                Role.EMPLOYE, Poste.TEAM_LEADER);
+        employee.setHolidayBalance(balance);
+        return store.insertEmployees(List.of(employee))[0];
+    }
+
+    // Congés payés de trois jours ouvrés (lundi à mercredi) à partir de chaque lundi donné
+    private static int[] insertHolidays(MemoryStore store, int employeeId, LocalDate... mondays) {
+        Holiday[] holidays = new Holiday[mondays.length];
+        for (int i = 0; i < mondays.length; i++) {
+            holidays[i] = new Holiday(employeeId, mondays[i], mondays[i].plusDays(2), Type.CONGE_PAYE);
+        }
+        String[] refusals = new String[mondays.length];
+        int[] ids = store.insertHolidays(List.of(holidays), refusals, new LeaveBalanceLedger.Deltas());
+        for (int i = 0; i < ids.length; i++) {
+            assertTrue(ids[i] > 0, refusals[i]);
+        }
+        return ids;
+    }
+
+    // Employés et congés, dans l'ordre des IDs
+    private static String state(MemoryStore store) {
+        StringBuilder state = new StringBuilder();
+        for (Employee e : store.employeePage(0, Integer.MAX_VALUE)) {
+            state.append(String.join("|", "E", String.valueOf(e.getId()), e.getNom(), e.getPhone(),
+                    String.valueOf(e.getHolidayBalance()), String.valueOf(e.getVersion()))).append('\n');
+        }
+        for (Holiday h : store.holidayPage(0, Integer.MAX_VALUE)) {
+            state.append(String.join("|", "H", String.valueOf(h.getId()), String.valueOf(h.getEmployeeId()),
+                    h.getStartDate().toString(), h.getEndDate().toString(), h.getType().name(),
+                    String.valueOf(h.getVersion()), String.valueOf(h.getDeductedDays()))).append('\n');
+        }
+        return state.toString();
+    }
+
+    private static Set<String> recordTypes(Path journal) throws IOException {
+        try (Stream<String> lines = Files.lines(journal, StandardCharsets.UTF_8)) {
+            return lines.map(line -> line.substring(0, line.indexOf('\t'))).collect(Collectors.toSet());
+        }
+    }
+}
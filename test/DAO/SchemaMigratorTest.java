@@ -0,0 +1,162 @@
+package DAO;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Migrations du schéma sur une base H2 embarquée en mode MySQL, une base vide par test
+class SchemaMigratorTest {
+    private static final AtomicInteger DATABASES = new AtomicInteger();
+
+    private Connection conn;
+
+    @BeforeEach
+    void openDatabase() throws SQLException {
+        conn = DriverManager.getConnection("jdbc:h2:mem:migrator" + DATABASES.incrementAndGet()
+                + ";MODE=MySQL;NON_KEYWORDS=MONTH", "sa", "");
+    }
+
+    @AfterEach
+    void closeDatabase() throws SQLException {
+        conn.close();
+    }
+
+    @Test
+    void emptyDatabaseGetsEveryMigration() throws SQLException {
+        SchemaMigrator migrator = new SchemaMigrator(conn);
+
+        assertEquals(SchemaMigrator.latestVersion(), migrator.run());
+
+        List<Integer> applied = migrator.appliedVersions();
+        assertEquals(SchemaMigrator.latestVersion(), applied.size());
+        assertEquals(SchemaMigrator.latestVersion(), (int) applied.get(applied.size() - 1));
+        assertTrue(hasColumn("EMPLOYE", "FULLNAME"));
+        assertTrue(hasColumn("EMPLOYE", "VERSION"));
+        assertTrue(hasColumn("HOLIDAY", "VERSION"));
+        assertTrue(hasIndex("HOLIDAY", "IDX_HOLIDAY_EMPLOYEE_PERIOD"));
+        assertTrue(hasIndex("EMPLOYE", "IDX_EMPLOYE_FULLNAME"));
+    }
+
+    @Test
+    void secondRunAppliesNothing() throws SQLException {
+        new SchemaMigrator(conn).run();
+
+        assertEquals(0, new SchemaMigrator(conn).run());
+    }
+
+    @Test
+    void legacySchemaIsUpgradedWithItsData() throws SQLException {
+        execute("CREATE TABLE Employe (id INT AUTO_INCREMENT PRIMARY KEY, nom VARCHAR(100) NOT NULL, "
+                + "prenom VARCHAR(100) NOT NULL, email VARCHAR(150) NOT NULL, phone VARCHAR(30), "
+                + "salaire DOUBLE NOT NULL, role VARCHAR(20) NOT NULL, poste VARCHAR(50) NOT NULL)");
+        execute("CREATE TABLE holiday (id INT AUTO_INCREMENT PRIMARY KEY, employeeId INT NOT NULL, "
+                + "startDate VARCHAR(10) NOT NULL, endDate VARCHAR(10) NOT NULL, type VARCHAR(20) NOT NULL)");
+        execute("INSERT INTO Employe (nom, prenom, email, salaire, role, poste) "
+                + "VALUES ('Dupont', 'Marie', 'marie@conges.test', 2500, 'ADMIN', 'TEAM_LEADER')");
+        execute("INSERT INTO holiday (employeeId, startDate, endDate, type) VALUES (1, '2024-03-04', '2024-03-08', 'CONGE_PAYE')");
+
+        new SchemaMigrator(conn).run();
+
+        assertEquals(Types.DATE, columnType("HOLIDAY", "STARTDATE"));
+        assertEquals(Types.DATE, columnType("HOLIDAY", "ENDDATE"));
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT e.fullName, e.holidayBalance, h.startDate, h.version, h.deductedDays "
+                     + "FROM holiday h JOIN Employe e ON h.employeeId = e.id")) {
+            assertTrue(rs.next());
+            assertEquals("Dupont Marie", rs.getString(1));
+            assertEquals(0, rs.getDouble(2));
+            assertEquals(java.sql.Date.valueOf("2024-03-04"), rs.getDate(3));
+            assertEquals(0, rs.getInt(4));
+            // Du lundi au vendredi : décompte rempli d'après le calendrier
+            assertEquals(5, rs.getInt(5));
+            assertFalse(rs.next());
+        }
+    }
+
+    // MySQL valide chaque DDL : une migration interrompue a pu ajouter une partie de ses colonnes
+    @Test
+    void interruptedMigrationIsResumed() throws SQLException {
+        new SchemaMigrator(conn).run();
+        execute("DELETE FROM schema_version WHERE version = 5");
+        execute("ALTER TABLE holiday DROP COLUMN version");
+
+        assertEquals(1, new SchemaMigrator(conn).run());
+
+        assertTrue(hasColumn("HOLIDAY", "VERSION"));
+        assertTrue(new SchemaMigrator(conn).appliedVersions().contains(5));
+    }
+
+    @Test
+    void deletingAnEmployeeDeletesItsHolidays() throws SQLException {
+        new SchemaMigrator(conn).run();
+        execute("INSERT INTO Employe (nom, prenom, email, salaire, role, poste) "
+                + "VALUES ('Martin', 'Luc', 'luc@conges.test', 2000, 'ADMIN', 'TEAM_LEADER')");
+        execute("INSERT INTO holiday (employeeId, startDate, endDate, type) VALUES (1, '2024-05-06', '2024-05-07', 'CONGE_PAYE')");
+
+        execute("DELETE FROM Employe WHERE id = 1");
+
+        assertEquals(0, count("holiday"));
+    }
+
+    @Test
+    void generatedIdsStartAtTheShardRange() throws SQLException {
+        SchemaMigrator migrator = new SchemaMigrator(conn);
+        migrator.run();
+
+        migrator.reserveIds(10_000_000);
+        execute("INSERT INTO Employe (nom, prenom, email, salaire, role, poste) "
+                + "VALUES ('Bernard', 'Paul', 'paul@conges.test', 2000, 'ADMIN', 'TEAM_LEADER')");
+
+        try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery("SELECT id FROM Employe")) {
+            assertTrue(rs.next());
+            assertEquals(10_000_000, rs.getInt(1));
+        }
+    }
+
+    private void execute(String sql) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute(sql);
+        }
+    }
+
+    private int count(String table) throws SQLException {
+        try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM " + table)) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    private boolean hasColumn(String table, String column) throws SQLException {
+        return columnType(table, column) != null;
+    }
+
+    private Integer columnType(String table, String column) throws SQLException {
+        try (ResultSet rs = conn.getMetaData().getColumns(null, null, table, column)) {
+            return rs.next() ? rs.getInt("DATA_TYPE") : null;
+        }
+    }
+
+    private boolean hasIndex(String table, String index) throws SQLException {
+        List<String> indexes = new ArrayList<>();
+        try (ResultSet rs = conn.getMetaData().getIndexInfo(null, null, table, false, true)) {
+            while (rs.next()) {
+                indexes.add(rs.getString("INDEX_NAME"));
+            }
+        }
+        return indexes.contains(index);
+    }
+}
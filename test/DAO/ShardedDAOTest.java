@@ -0,0 +1,181 @@
+package DAO;
+
+import Model.Employee;
+import Model.Holiday;
+import Model.Poste;
+import Model.Role;
+import Model.Type;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Deux bases H2 embarquées configurées dans le pom (surefire) : paris, base de l'instance, et lyon,
+// dont la plage ne compte que trois IDs à partir de 10 000 000
+class ShardedDAOTest {
+    private static final LocalDate MONDAY = LocalDate.of(2024, 3, 4);
+    private static final double BALANCE = 10;
+
+    private final GenericDAO<Employee> employees = new ShardedDAO<>(new EmployeeDAOImpl(), Employee::getId, employee -> 0);
+    private final HolidayDAO holidays = new ShardedDAO.Holidays(new HolidayDAOImpl());
+
+    @BeforeAll
+    static void migrate() throws SQLException {
+        assertEquals(2, DBConnection.shards().size());
+        SchemaMigrator.migrate();
+    }
+
+    // Bases vidées ; les IDs de lyon repartent du début de sa plage
+    @BeforeEach
+    void emptyDatabases() throws SQLException {
+        for (Shard shard : DBConnection.shards()) {
+            DBConnection.Route route = DBConnection.route(shard);
+            try (route; Connection conn = DBConnection.getConnection(); Statement stmt = conn.createStatement()) {
+                stmt.execute("DELETE FROM holiday");
+                stmt.execute("DELETE FROM Employe");
+                new SchemaMigrator(conn).reserveIds(shard.getFirstId());
+            }
+        }
+        LeaveBalanceLedger.shared().invalidate();
+        HolidayConflictEngine.shared().invalidate();
+    }
+
+    @Test
+    void readsGatherEveryDatabaseInIdOrder() throws SQLException {
+        Employee local = employee("Dupont", "Marie", Poste.TEAM_LEADER);
+        employees.add(local);
+        int remote = insertInLyon("Martin", "Luc");
+
+        assertTrue(paris().ownsId(local.getId()));
+        assertEquals(lyon().getFirstId(), remote);
+        assertArrayEquals(new int[]{local.getId(), remote}, employees.listIds());
+        assertEquals(2, employees.listAll().size());
+        assertEquals("Martin", employees.findById(remote).getNom());
+        List<Employee> page = employees.listPage(local.getId(), 10);
+        assertEquals(1, page.size());
+        assertEquals(remote, page.get(0).getId());
+    }
+
+    @Test
+    void holidayGoesToTheDatabaseOfItsEmployee() throws SQLException {
+        int remote = insertInLyon("Martin", "Luc");
+
+        Holiday holiday = new Holiday(remote, MONDAY, MONDAY.plusDays(4), Type.CONGE_PAYE);
+        holidays.add(holiday);
+
+        assertTrue(lyon().ownsId(holiday.getId()));
+        assertEquals(1, count(lyon(), "holiday"));
+        assertEquals(0, count(paris(), "holiday"));
+        assertEquals(remote, holidays.findById(holiday.getId()).getEmployeeId());
+    }
+
+    // Un ID hors de la plage de lyon y serait introuvable : l'insertion est annulée
+    @Test
+    void exhaustedRangeRollsTheInsertBack() throws SQLException {
+        int remote = insertInLyon("Martin", "Luc");
+        for (int week = 0; week < 3; week++) {
+            holidays.add(new Holiday(remote, MONDAY.plusWeeks(week), MONDAY.plusWeeks(week), Type.CONGE_PAYE));
+        }
+
+        Holiday overflow = new Holiday(remote, MONDAY.plusWeeks(3), MONDAY.plusWeeks(3), Type.CONGE_PAYE);
+        assertThrows(IllegalStateException.class, () -> holidays.add(overflow));
+
+        assertEquals(3, count(lyon(), "holiday"));
+        assertEquals(BALANCE - 3, balanceInLyon(remote));
+        BatchResult batch = holidays.addAll(List.of(
+                new Holiday(remote, MONDAY.plusWeeks(4), MONDAY.plusWeeks(4), Type.CONGE_PAYE)));
+        assertFalse(batch.isSuccess());
+        assertEquals(3, count(lyon(), "holiday"));
+        assertEquals(BALANCE - 3, balanceInLyon(remote));
+    }
+
+    // IDs de lyon au-delà de 10 000 000 : les index en mémoire n'en dépendent pas en taille
+    @Test
+    void indexesAnswerForEveryDatabase() throws SQLException {
+        Employee local = employee("Dupont", "Marie", Poste.TEAM_LEADER);
+        employees.add(local);
+        int remote = insertInLyon("Martin", "Luc");
+        holidays.add(new Holiday(local.getId(), MONDAY, MONDAY.plusDays(1), Type.CONGE_PAYE));
+        holidays.add(new Holiday(remote, MONDAY.plusDays(1), MONDAY.plusDays(2), Type.CONGE_MALADIE));
+
+        AbsenceIndex absences = new AbsenceIndex(employees::streamAll, holidays::streamAll);
+        assertArrayEquals(new int[]{1, 2, 1}, absences.absences(MONDAY, MONDAY.plusDays(2), null));
+        int[] byPoste = absences.absentEmployeesByPoste(MONDAY, MONDAY.plusDays(2));
+        assertEquals(1, byPoste[Poste.TEAM_LEADER.ordinal()]);
+        assertEquals(1, byPoste[Poste.INGENIEURE_ETUDE_ET_DEVELOPPEMENT.ordinal()]);
+
+        EmployeeSearchIndex search = new EmployeeSearchIndex(employees::streamAll);
+        List<EmployeeSearchIndex.Match> matches = search.search("mar", 10);
+        assertEquals(2, matches.size());
+        assertEquals(local.getId(), matches.get(0).getId());
+        assertEquals(remote, matches.get(1).getId());
+    }
+
+    private static Employee employee(String nom, String prenom, Poste poste) {
+        Employee employee = new Employee(nom, prenom, prenom.toLowerCase() + "@conges.test", "0102030405", 2500, Role.EMPLOYE, poste);
+        employee.setHolidayBalance(BALANCE);
+        return employee;
+    }
+
+    // Employé créé par l'instance de lyon
+    private static int insertInLyon(String nom, String prenom) throws SQLException {
+        DBConnection.Route route = DBConnection.route(lyon());
+        try (route; Connection conn = DBConnection.getConnection(); Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("INSERT INTO Employe (nom, prenom, email, salaire, role, poste, holidayBalance) VALUES ('"
+                    + nom + "', '" + prenom + "', '" + prenom.toLowerCase()
+                    + "@conges.test', 2000, 'EMPLOYE', 'INGENIEURE_ETUDE_ET_DEVELOPPEMENT', " + BALANCE + ")",
+                    Statement.RETURN_GENERATED_KEYS);
+            try (ResultSet keys = stmt.getGeneratedKeys()) {
+                assertTrue(keys.next());
+                return keys.getInt(1);
+            }
+        }
+    }
+
+    private static double balanceInLyon(int employeeId) throws SQLException {
+        DBConnection.Route route = DBConnection.route(lyon());
+        try (route; Connection conn = DBConnection.getConnection(); Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT holidayBalance FROM Employe WHERE id = " + employeeId)) {
+            assertTrue(rs.next());
+            return rs.getDouble(1);
+        }
+    }
+
+    private static int count(Shard shard, String table) throws SQLException {
+        DBConnection.Route route = DBConnection.route(shard);
+        try (route; Connection conn = DBConnection.getConnection(); Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM " + table)) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    private static Shard paris() {
+        return shard("paris");
+    }
+
+    private static Shard lyon() {
+        return shard("lyon");
+    }
+
+    private static Shard shard(String name) {
+        for (Shard shard : DBConnection.shards()) {
+            if (shard.getName().equals(name)) {
+                return shard;
+            }
+        }
+        throw new AssertionError("Base non configurée : " + name);
+    }
+}
@@ -0,0 +1,197 @@
+package DAO;
+
+import Model.Employee;
+import Model.Poste;
+import Model.Role;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Écriture différée vers la base H2 de l'instance (paris) : après un arrêt du flusher, le journal
+// rouvert écrit chaque ligne une seule fois
+class WriteBehindLogTest {
+    private static final String JOURNAL = "ecritures.journal";
+    private static final long TIMEOUT_MS = 10_000;
+
+    @TempDir
+    Path dir;
+
+    @BeforeAll
+    static void migrate() throws SQLException {
+        SchemaMigrator.migrate();
+    }
+
+    @BeforeEach
+    void emptyDatabase() throws SQLException {
+        try (Connection conn = DBConnection.getConnection(); Statement stmt = conn.createStatement()) {
+            stmt.execute("DELETE FROM holiday");
+            stmt.execute("DELETE FROM Employe");
+            stmt.execute("DELETE FROM write_behind");
+        }
+        EmployeeNameIndex.shared().invalidate();
+        HolidayConflictEngine.shared().invalidate();
+        LeaveBalanceLedger.shared().invalidate();
+    }
+
+    // Arrêt brutal pendant le deuxième groupe, lignes déjà écrites dans sa transaction : le premier
+    // groupe, validé, reste dans le journal mais n'est pas rejoué (numéros <= point de reprise)
+    @Test
+    void crashMidGroupReplaysEachRowOnce() throws Exception {
+        Path journal = dir.resolve(JOURNAL);
+        FaultyEmployees target = new FaultyEmployees();
+        target.crashOn = "Delta";
+        WriteBehindLog log = new WriteBehindLog(journal, false, 100, 2, 0);
+        WriteBehindLog.Channel<Employee> channel = log.channel("E", "l'employé", target, WriteBehindDAO.EMPLOYEE_CODEC);
+        log.start();
+        log.add(channel, employees("Alpha", "Bravo", "Charlie", "Delta", "Echo"));
+        assertTrue(target.failed.await(TIMEOUT_MS, TimeUnit.MILLISECONDS));
+        awaitFlusherStopped();
+
+        // Fichier tel que laissé par l'arrêt ; close() le compacterait
+        Path crashed = Files.createDirectory(dir.resolve("arret")).resolve(JOURNAL);
+        Files.copy(journal, crashed);
+        log.close();
+        assertEquals(5, operations(crashed));
+        assertEquals(2, checkpoint());
+        assertEquals(Map.of("Alpha", 1, "Bravo", 1), rowsByName());
+
+        reopen(crashed);
+        assertEquals(Map.of("Alpha", 1, "Bravo", 1, "Charlie", 1, "Delta", 1, "Echo", 1), rowsByName());
+        assertEquals(5, checkpoint());
+    }
+
+    // Groupe refusé puis isolé, base arrêtée en cours d'isolement : close() ne retire de la file que
+    // les modifications résolues, les autres restent dans le journal compacté
+    @Test
+    void partiallyResolvedGroupStaysQueued() throws Exception {
+        Path journal = dir.resolve(JOURNAL);
+        FaultyEmployees target = new FaultyEmployees();
+        target.refuseGroups = true;
+        target.unavailableOn = "Bravo";
+        WriteBehindLog log = new WriteBehindLog(journal, false, 100, 10, 50);
+        WriteBehindLog.Channel<Employee> channel = log.channel("E", "l'employé", target, WriteBehindDAO.EMPLOYEE_CODEC);
+        log.start();
+        log.add(channel, employees("Alpha", "Bravo", "Charlie", "Delta"));
+        assertTrue(target.failed.await(TIMEOUT_MS, TimeUnit.MILLISECONDS));
+        log.close();
+
+        assertEquals(3, operations(journal));
+        assertEquals(1, checkpoint());
+        assertEquals(Map.of("Alpha", 1), rowsByName());
+
+        reopen(journal);
+        assertEquals(Map.of("Alpha", 1, "Bravo", 1, "Charlie", 1, "Delta", 1), rowsByName());
+        assertEquals(4, checkpoint());
+    }
+
+    // Redémarrage : journal rejoué vers le DAO JDBC sans panne
+    private static void reopen(Path journal) throws IOException, InterruptedException {
+        try (WriteBehindLog log = new WriteBehindLog(journal, false, 100, 10, 0)) {
+            log.channel("E", "l'employé", new EmployeeDAOImpl(), WriteBehindDAO.EMPLOYEE_CODEC);
+            log.start();
+            assertTrue(log.awaitFlushed(TIMEOUT_MS));
+        }
+    }
+
+    // Le flusher meurt avec l'erreur simulée, après l'annulation de sa transaction
+    private static void awaitFlusherStopped() throws InterruptedException {
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().equals("conges-write-behind")) {
+                thread.join(TIMEOUT_MS);
+            }
+        }
+    }
+
+    private static List<Employee> employees(String... noms) {
+        List<Employee> employees = new ArrayList<>(noms.length);
+        for (String nom : noms) {
+            employees.add(new Employee(nom, "Test", nom.toLowerCase() + "@conges.test", "0102030405", 2500,
+                    Role.EMPLOYE, Poste.TEAM_LEADER));
+        }
+        return employees;
+    }
+
+    // Modifications en attente dans le journal (hors numéro de séquence du compactage)
+    private static long operations(Path journal) throws IOException {
+        try (Stream<String> lines = Files.lines(journal, StandardCharsets.UTF_8)) {
+            return lines.filter(line -> !line.startsWith("SEQ\t")).count();
+        }
+    }
+
+    private static long checkpoint() throws SQLException {
+        try (Connection conn = DBConnection.getConnection(); Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT seq FROM write_behind WHERE name = '" + JOURNAL + "'")) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    private static Map<String, Integer> rowsByName() throws SQLException {
+        Map<String, Integer> rows = new TreeMap<>();
+        try (Connection conn = DBConnection.getConnection(); Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT nom, COUNT(*) FROM Employe GROUP BY nom")) {
+            while (rs.next()) {
+                rows.put(rs.getString(1), rs.getInt(2));
+            }
+        }
+        return rows;
+    }
+
+    // Arrêt du processus simulé dans le thread du flusher
+    private static final class Crash extends Error {
+        private static final long serialVersionUID = 1L;
+
+        Crash() {
+            super("Arrêt brutal simulé");
+        }
+    }
+
+    // DAO JDBC des employés, avec les pannes demandées ; failed est levé à la première panne
+    private static final class FaultyEmployees extends EmployeeDAOImpl {
+        final CountDownLatch failed = new CountDownLatch(1);
+        volatile boolean refuseGroups; // un lot de plusieurs lignes est refusé par la base
+        volatile String unavailableOn; // base arrêtée à l'écriture de cet employé
+        volatile String crashOn; // arrêt brutal une fois cet employé écrit, avant la validation
+
+        @Override
+        public BatchResult addAll(List<Employee> employees) {
+            if (refuseGroups && employees.size() > 1) {
+                throw new IllegalStateException("Lot refusé.");
+            }
+            for (Employee employee : employees) {
+                if (employee.getNom().equals(unavailableOn)) {
+                    failed.countDown();
+                    return BatchResult.failed(employees.size(), new SQLTransientConnectionException("Base arrêtée."));
+                }
+            }
+            BatchResult result = super.addAll(employees);
+            for (Employee employee : employees) {
+                if (employee.getNom().equals(crashOn)) {
+                    failed.countDown();
+                    throw new Crash();
+                }
+            }
+            return result;
+        }
+    }
+}